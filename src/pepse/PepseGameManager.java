@@ -7,19 +7,61 @@ import danogl.gui.ImageReader;
 import danogl.gui.SoundReader;
 import danogl.gui.UserInputListener;
 import danogl.gui.WindowController;
+import danogl.gui.rendering.Renderable;
 import danogl.gui.rendering.Camera;
 import danogl.util.Vector2;
+import pepse.monitor.Monitoring;
+import pepse.net.NetClient;
+import pepse.net.NetSession;
+import pepse.net.RemoteAvatarView;
+import pepse.profile.FrameProfiler;
+import pepse.profile.LayerCensus;
+import pepse.profile.GenerationProbe;
+import pepse.profile.MemoryAccounting;
+import pepse.profile.Phase;
+import pepse.profile.ProfileCsvWriter;
+import pepse.quality.QualityGovernor;
+import pepse.quality.QualitySettings;
+import pepse.quality.QualityTier;
+import pepse.replay.InputRecorder;
+import pepse.replay.InputRecording;
+import pepse.save.SnapshotWriter;
+import pepse.save.WorldSnapshot;
+import pepse.util.FixedTimestep;
+import pepse.util.ParallelStage;
 import pepse.world.*;
-import pepse.world.daynight.Night;
+import pepse.world.crowd.Crowd;
+import pepse.world.crowd.CrowdView;
 import pepse.world.daynight.Sun;
 import pepse.world.daynight.SunHalo;
+import pepse.world.daynight.WorldClock;
+import pepse.world.events.WorldEvent;
+import pepse.world.events.WorldEventBus;
+import pepse.world.events.WorldEventType;
+import pepse.world.light.Lightmap;
+import pepse.world.light.Torch;
 import pepse.world.trees.Flora;
+import pepse.world.trees.Fruit;
+import pepse.world.trees.FruitRegrowth;
+import pepse.world.trees.LeafSway;
 
+import java.awt.Color;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 public class PepseGameManager extends GameManager {
     private static final int AVATAR_START_X = 100;
     private static final int AVATAR_START_Y = 450;
+    /**
+     * Seed of a new world, fixed for predictable results.
+     */
+    public static final int WORLD_SEED = 123458;
     private static final int INITIAL_VISIBLE_CHUNKS = 2;
     // Number of chunks initially visible in both directions
     private static final float DAY_NIGHT_CYCLE_DURATION = 30f;
@@ -32,17 +74,107 @@ public class PepseGameManager extends GameManager {
     // Density of trees in the flora
     private static final int TARGET_FRAMERATE = 60;
     // Target framerate for the game
+    private static final float RAIN_BURST_INTERVAL = 0.5f;
+    // Minimal time in seconds between two rain bursts of the same cloud
+    private static final float SIMULATION_STEP = 1f / 60;
+    // Duration in seconds of one fixed simulation step
+    private static final int MAX_SUBSTEPS = 5;
+    // Maximal number of simulation steps in one frame
+    private static final int CROWD_SIZE = 10000;
+    // Number of critters wandering in the world
+    private static final int CROWD_RANGE_CHUNKS = 10;
+    // Number of chunks on each side of the start over which critters are spread
+    private static final int CROWD_LAYER = Layer.STATIC_OBJECTS + 4;
+    // Layer of the crowd, in front of the trees
+    private static final int REMOTE_AVATAR_LAYER = CROWD_LAYER + 1;
+    // Layer of the avatars of the other players, in front of the crowd
+    private static final String TORCH_IMAGE = "assets/torch.png";
+    // Image of the torches standing on the terrain
+    private static final int SUN_LAYER = Layer.BACKGROUND - 20;
+    // Layer of the sun and its halo, setting behind the distant hills
+    private static final int PARALLAX_LAYER = Layer.BACKGROUND - 10;
+    // Layer of the farthest hills, the nearer ones are drawn in the layers above it
+    private static final float[] PARALLAX_SCROLL_RATES = {0.15f, 0.35f};
+    // Scroll rate of every hill layer, from the farthest to the nearest
+    private static final float[] PARALLAX_HORIZONS = {0.45f, 0.55f};
+    // Mean height of every hill layer, as a fraction of the window height
+    private static final float[] PARALLAX_AMPLITUDES = {120f, 90f};
+    // Height variation of every hill layer, in pixels
+    private static final Color[] PARALLAX_COLORS = {new Color(138, 167, 189), new Color(107, 143, 122)};
+    // Color of every hill layer, paler with the distance
+    private static final QualityTier MIN_QUALITY = QualityTier.LOW;
+    // Cheapest tier the quality governor may step down to
+    private static final QualityTier MAX_QUALITY = QualityTier.HIGH;
+    // Richest tier the quality governor may step up to
+    private static final float NANOS_PER_SECOND = 1e9f;
+    private static final float PROFILE_INTERVAL = 1f;
+    // Game time covered by every row of the frame profile, in seconds
+    private static final float SNAPSHOT_INTERVAL = 5f;
+    // Game time between two snapshots saved with --snapshot, in seconds
+    private static final long LAST_SNAPSHOT_TIMEOUT_MILLIS = 500;
+    // Longest wait of the exiting game for the game thread to take its last snapshot
+    private static final String[] PROFILED_LAYER_NAMES = {"clouds", "rain", "inert_trunks", "trunks",
+            "blocks", "leaves", "fruits", "inert_fruits", "crowd", "avatar", "light"};
+    // Names of the layers whose objects are counted for the frame profile and the JMX beans
+    private static final int[] PROFILED_LAYERS = {Layer.BACKGROUND, RainDrop.LAYER,
+            Layer.STATIC_OBJECTS - 2, Layer.STATIC_OBJECTS - 1, Layer.STATIC_OBJECTS,
+            Layer.STATIC_OBJECTS + 1, Layer.STATIC_OBJECTS + 2, Layer.STATIC_OBJECTS + 3, CROWD_LAYER,
+            Layer.DEFAULT, Layer.FOREGROUND};
+    // Layers whose objects are counted, in the order of their names
+    private static final LayerCensus LAYER_CENSUS =
+            new LayerCensus(PROFILED_LAYER_NAMES, PROFILED_LAYERS);
+    // Counts the objects of the profiled layers
 
     private int chunkSize;
 
     private Terrain terrain;
+    private Heightfield heightfield;
+    private WorldIndex worldIndex;
     private Flora flora;
     private Avatar avatar;
     private Random random;
     private int lastChunk = 0;
-    private Set<Integer> generatedChunks = new HashSet<>();
+    private Map<Integer, List<Block>> generatedChunks = new HashMap<>();
+    private Map<Integer, List<Torch>> chunkTorches = new HashMap<>();
     private Camera camera;
+    private ViewBounds view;
     private List<CloudGroup> activeClouds = new ArrayList<>();
+    private WorldEventBus eventBus;
+    private FruitRegrowth fruitRegrowth;
+    private final FixedTimestep timestep = new FixedTimestep(SIMULATION_STEP, MAX_SUBSTEPS);
+    private RenderInterpolator avatarInterpolator;
+    private ParallelStage simulationStage;
+    private WorldClock worldClock;
+    private Lightmap lightmap;
+    private Renderable torchImage;
+    private LeafSway leafSway;
+    private QualityGovernor qualityGovernor;
+    private QualitySettings qualitySettings;
+    private RainSystem rainSystem;
+    private Crowd crowd;
+    private PerformanceOverlay performanceOverlay;
+    private GenerationProbe generationProbe; // Instruments the loading and unloading of the chunks
+    private long simulationSteps = 0; // Number of fixed steps simulated
+    private long chunkLoads = 0; // Number of chunks generated, including reloaded ones
+    private long jumps = 0; // Number of jumps of the avatar
+    private long lastGenerationNanos = 0; // Time taken by the last step that entered a new chunk
+    private boolean isRecordingInput = false;
+    private InputRecorder inputRecorder; // Records the keys of every frame when recording input
+    private ProfileCsvWriter profileWriter; // Writes the frame profile when profiling
+    private Monitoring monitoring;
+    private float memoryLogInterval = 0; // Game time between two memory summaries, 0 to not log
+    private int worldSeed = WORLD_SEED;
+    private float startElapsedTime = 0; // World time the clock starts at
+    private UserInputListener inputListener; // Input the avatar is controlled with
+    private NetClient netClient; // Connection to the server of a multiplayer world, null alone
+    private NetSession netSession;
+    private WorldSnapshot resumedSnapshot; // Snapshot the world resumes from, null for a new world
+    private volatile SnapshotWriter snapshotWriter; // Writes the world snapshots when saving
+    private float snapshotInterval = 0; // Game time between two snapshots
+    private float snapshotTime = 0; // Game time since the last snapshot
+    private volatile boolean isLastSnapshotRequested = false; // Set by the thread stopping the snapshots
+    private final CountDownLatch lastSnapshotTaken = new CountDownLatch(1); // Counted down by the game
+    // thread once it handed the last snapshot over
 
     /**
      * Initializes the game with necessary resources.
@@ -60,84 +192,174 @@ public class PepseGameManager extends GameManager {
             WindowController windowController
     ) {
         super.initializeGame(imageReader, soundReader, inputListener, windowController);
+        UserInputListener keyboard = inputListener; // Every key, whether it is recorded or not
+        if (isRecordingInput) {
+            // The avatar reads the keys latched at the start of every frame, as they are recorded
+            inputRecorder = new InputRecorder(inputListener);
+            inputListener = inputRecorder.getListener();
+        }
+        this.inputListener = inputListener;
         Vector2 windowDimensions = windowController.getWindowDimensions();
 
         // Add the sky to the game
         GameObject sky = Sky.create(windowDimensions);
         gameObjects().addGameObject(sky, Integer.MIN_VALUE);
 
+        // Create the sun, moving in a circle centered on the screen
+        GameObject sun = Sun.create(windowDimensions, SUN_SIZE);
+        gameObjects().addGameObject(sun, SUN_LAYER);
+
+        // Create the sun's halo effect, hidden while the sun is off screen
+        GameObject sunHalo = SunHalo.create(sun);
+        gameObjects().addGameObject(sunHalo, SUN_LAYER);
+
+        // One clock drives the sun, its halo and the sky, and sets how dark the night is
+        worldClock = new WorldClock(DAY_NIGHT_CYCLE_DURATION, windowDimensions, sun, sunHalo, sky);
+        worldClock.setElapsedTime(startElapsedTime); // Resumed or shared day-night cycle
+
+        // World events are queued during the frame and dispatched once at its end
+        eventBus = new WorldEventBus();
+        eventBus.subscribe(WorldEventType.CHUNK_UNLOADED, this::removeChunkBlocks);
+        eventBus.subscribe(WorldEventType.JUMP, event -> jumps++);
+        fruitRegrowth = new FruitRegrowth(worldClock, key -> flora.getFruit(key)); // Keyed, outlives chunks
+        eventBus.subscribe(WorldEventType.FRUIT_EATEN, fruitRegrowth);
+
         // Initialize terrain and flora with a fixed seed for consistent generation
-        random = new Random(123458); // Fixed seed for predictable results
+        random = new Random(worldSeed);
         terrain = new Terrain(windowDimensions, random.nextInt());
+        heightfield = new Heightfield(terrain); // Ground contact of the dynamic bodies
         chunkSize = (int) windowDimensions.x();
-        flora = new Flora(terrain, gameObjects(), random, TREE_DENSITY, chunkSize);
+        generationProbe = new GenerationProbe(chunkSize); // Times the chunks and accounts for their memory
+        worldIndex = new WorldIndex(gameObjects()); // Static objects, collidable only near the avatar
 
-        // Generate terrain and objects for the initial visible range
-        List<Block> blocks = terrain.createInRange(-INITIAL_VISIBLE_CHUNKS * chunkSize,
-                INITIAL_VISIBLE_CHUNKS * chunkSize);
-        for (Block block : blocks) {
-            block.setTag("Block");
-            gameObjects().addGameObject(block, Layer.STATIC_OBJECTS);
+        // Create the player's avatar, where it was left when resuming
+        Vector2 avatarStart = resumedSnapshot == null ? new Vector2(AVATAR_START_X, AVATAR_START_Y)
+                : new Vector2(resumedSnapshot.getAvatarX(), resumedSnapshot.getAvatarY());
+        avatar = new Avatar(avatarStart, inputListener, imageReader, eventBus, heightfield);
+        if (resumedSnapshot != null) {
+            avatar.setVelocity(new Vector2(resumedSnapshot.getAvatarVelocityX(),
+                    resumedSnapshot.getAvatarVelocityY()));
+            avatar.setEnergy(resumedSnapshot.getAvatarEnergy());
         }
-        gameObjects().layers().shouldLayersCollide(Layer.DEFAULT, Layer.STATIC_OBJECTS, true);
-        flora.generateInRange(-INITIAL_VISIBLE_CHUNKS * chunkSize, INITIAL_VISIBLE_CHUNKS * chunkSize);
-
-        // Create the day-night cycle
-        GameObject night = Night.create(windowDimensions, DAY_NIGHT_CYCLE_DURATION);
-        gameObjects().addGameObject(night, Layer.FOREGROUND);
-
-        // Create the sun with a circular movement centered on the screen
-        GameObject sun = Sun.create(windowDimensions, DAY_NIGHT_CYCLE_DURATION, SUN_SIZE);
-        gameObjects().addGameObject(sun, Layer.BACKGROUND);
-
-        // Create the sun's halo effect
-        GameObject sunHalo = SunHalo.create(sun);
-        gameObjects().addGameObject(sunHalo, Layer.BACKGROUND);
+        gameObjects().addGameObject(avatar);
+        avatarInterpolator = new RenderInterpolator(avatar);
 
-        // Temporary camera creation
+        // Configure the camera to follow the avatar
         camera = new Camera(
-                null, // No target object yet
-                Vector2.ZERO,
+                avatar,
+                windowController.getWindowDimensions().mult(0.5f).subtract(new Vector2(AVATAR_START_X,
+                        AVATAR_START_Y)),
                 windowDimensions,
                 windowDimensions
         );
+        setCamera(camera);
+        view = new ViewBounds(camera, MAX_QUALITY.getViewMargin()); // Objects outside of it sleep
+
+        // Distant hills behind the loaded chunks, drawn from coarse noise instead of blocks
+        for (int i = 0; i < PARALLAX_SCROLL_RATES.length; i++) {
+            ParallaxLayer hills = new ParallaxLayer(windowDimensions, terrain.getSeed() + i + 1,
+                    PARALLAX_SCROLL_RATES[i], windowDimensions.y() * PARALLAX_HORIZONS[i],
+                    PARALLAX_AMPLITUDES[i], PARALLAX_COLORS[i]);
+            gameObjects().addGameObject(ParallaxLayer.create(hills, camera, windowDimensions),
+                    PARALLAX_LAYER + i);
+        }
+
+        // Darkness of the night, lit by the torches, the avatar and the fruits
+        lightmap = new Lightmap(gameObjects(), terrain, view, windowDimensions);
+        lightmap.addSource(avatar);
+        torchImage = imageReader.readImage(TORCH_IMAGE, true); // Shared by every torch
+
+        leafSway = new LeafSway();
+        qualitySettings = new QualitySettings(MAX_QUALITY); // This world's own, set by its tier below
+        flora = new Flora(terrain, worldIndex, random, TREE_DENSITY, chunkSize, leafSway, lightmap,
+                eventBus, generationProbe, fruitRegrowth, qualitySettings);
+        flora.subscribeToChunks();
+
+        // Trade detail for frame time when the machine cannot keep up with the target framerate. The
+        // tier is applied before the first trees grow, whatever a previous game left in the trees
+        qualityGovernor = new QualityGovernor(1f / TARGET_FRAMERATE, MIN_QUALITY, MAX_QUALITY, MAX_QUALITY);
+        qualityGovernor.addListener(this::applyQualityTier);
+        applyQualityTier(qualityGovernor.getTier());
+
+        // Generate terrain and objects for the initial visible range, around the avatar
+        lastChunk = chunkOf(avatarStart.x());
+        for (int chunk = lastChunk - INITIAL_VISIBLE_CHUNKS; chunk < lastChunk + INITIAL_VISIBLE_CHUNKS;
+             chunk++) {
+            loadChunk(chunk);
+        }
+        eventBus.dispatch(0); // Let the flora populate the initial chunks
+        if (resumedSnapshot != null) {
+            restoreEatenFruits(resumedSnapshot);
+        }
 
         // Initialize and manage clouds
+        CloudDrift cloudDrift = new CloudDrift();
+        rainSystem = new RainSystem(gameObjects(), heightfield, view);
         Cloud cloudManager = new Cloud(camera);
-        List<CloudGroup> clouds = cloudManager.create(windowDimensions, gameObjects());
+        List<CloudGroup> clouds = cloudManager.create(windowDimensions, gameObjects(), view, cloudDrift,
+                rainSystem, qualitySettings);
         activeClouds.addAll(clouds);
-
-        // Create the player's avatar
-        avatar = new Avatar(new Vector2(AVATAR_START_X, AVATAR_START_Y), inputListener, imageReader);
-        gameObjects().addGameObject(avatar);
         for (CloudGroup cloud : clouds) {
-            avatar.addJumpObserver(cloud); // Register each cloud as a jump observer
+            // Every cloud rains on the avatar's jumps, at most once per interval
+            eventBus.subscribe(WorldEventType.JUMP, event -> cloud.rain(), RAIN_BURST_INTERVAL);
         }
 
-        // Configure the camera to follow the avatar
-        camera = new Camera(
-                avatar,
-                windowController.getWindowDimensions().mult(0.5f).subtract(new Vector2(AVATAR_START_X,
-                        AVATAR_START_Y)),
-                windowDimensions,
-                windowDimensions
-        );
-        setCamera(camera);
+        // Populate the world with a crowd of critters, drawn by a single object
+        crowd = new Crowd(terrain, worldIndex, CROWD_SIZE, -CROWD_RANGE_CHUNKS * chunkSize,
+                CROWD_RANGE_CHUNKS * chunkSize, random.nextInt());
+        crowd.setActiveRange((lastChunk - INITIAL_VISIBLE_CHUNKS) * chunkSize,
+                (lastChunk + INITIAL_VISIBLE_CHUNKS) * chunkSize); // Critters of the loaded chunks
+        gameObjects().addGameObject(CrowdView.create(crowd, camera, imageReader), CROWD_LAYER);
+
+        // The other players of a multiplayer world, drawn by a single object
+        if (netClient != null) {
+            netSession = new NetSession(netClient, this, avatar, worldClock, eventBus);
+            gameObjects().addGameObject(RemoteAvatarView.create(netSession, camera, imageReader),
+                    REMOTE_AVATAR_LAYER);
+        }
+
+        // Systems owned by pepse run in parallel before the physics of every step
+        simulationStage = new ParallelStage();
+        simulationStage.add(leafSway);
+        simulationStage.add(rainSystem);
+        simulationStage.add(cloudDrift);
+        simulationStage.add(fruitRegrowth);
+        simulationStage.add(crowd);
+
+        // One object refreshes every element of the heads-up display, in the UI layer
+        Hud hud = Hud.create(gameObjects());
 
         // Create an energy display for the avatar
         EnergyDisplay energyDisplay = new EnergyDisplay(
                 ENERGY_DISPLAY_POSITION,
-                avatar::getEnergy,
-                camera
+                avatar::getEnergy
         );
-        gameObjects().addGameObject(energyDisplay, Integer.MAX_VALUE); // UI layer
+        hud.add(energyDisplay);
+
+        // Map of the terrain, trees and avatar, drawn from the terrain and the tree placement
+        Minimap minimap = new Minimap(terrain, flora, avatar, windowDimensions);
+        hud.add(minimap);
+
+        // Frame rate, frame times and world counters, shown with F3
+        // Toggled from the keyboard itself, since the recorder only answers the keys it records
+        performanceOverlay = new PerformanceOverlay(keyboard, this::getStats, () -> lastGenerationNanos);
+        hud.add(performanceOverlay);
+        // Only the fruits and trunks moved to their active layers by the world index collide
         gameObjects().layers().shouldLayersCollide(Layer.DEFAULT, Layer.STATIC_OBJECTS + 2,
                 true); // Avatar and fruits
         gameObjects().layers().shouldLayersCollide(Layer.DEFAULT, Layer.STATIC_OBJECTS - 1,
-                true);
+                true); // Avatar and trunks
 
-        // Set target framerate for smooth gameplay
+        // Set target framerate for smooth rendering, gameplay runs at a fixed step regardless
         windowController.setTargetFramerate(TARGET_FRAMERATE);
+
+        // Live counters and tuning knobs over JMX, fed by the game loop
+        monitoring = new Monitoring(this::getStats, flora, generationProbe.getMemoryAccounting(),
+                gameObjects(), LAYER_CENSUS, view, qualityGovernor, qualitySettings);
+        monitoring.publishMemorySummaryEvery(memoryLogInterval);
+        if (snapshotWriter != null || netClient != null) {
+            monitoring.lockTreeDensity(); // Resumes and other players grow the default density
+        }
     }
 
     /**
@@ -147,61 +369,542 @@ public class PepseGameManager extends GameManager {
      */
     @Override
     public void update(float deltaTime) {
+        long updateStart = System.nanoTime();
+        long profileStart = FrameProfiler.start();
+        if (inputRecorder != null) {
+            inputRecorder.beginFrame(deltaTime);
+        }
+        int steps = timestep.advance(deltaTime);
+        if (steps > 0) {
+            avatarInterpolator.restore(); // Simulate from the avatar's simulated position
+        }
+        for (int i = 0; i < steps; i++) {
+            simulateStep(timestep.getStep());
+            avatarInterpolator.capture();
+        }
+        // Render the avatar between its last two simulated positions
+        avatarInterpolator.present(timestep.alpha());
+
+        qualityGovernor.recordFrame(deltaTime, (System.nanoTime() - updateStart) / NANOS_PER_SECOND);
+        performanceOverlay.recordFrame(deltaTime); // The real frame time, not the fixed step
+        FrameProfiler.stop(Phase.FRAME, profileStart);
+        monitoring.onFrameEnd(deltaTime);
+        if (profileWriter != null) {
+            profileWriter.onFrameEnd(deltaTime, gameObjects());
+        }
+        if (netSession != null) {
+            netSession.update(deltaTime); // Shares the avatar and the eaten fruits with the server
+        }
+        if (snapshotWriter != null) {
+            snapshotTime += deltaTime;
+            if (isLastSnapshotRequested) {
+                snapshotWriter.submit(takeSnapshot()); // Between two frames, the world is consistent
+                snapshotWriter = null; // Closed by the thread that requested the last snapshot
+                lastSnapshotTaken.countDown();
+            } else if (snapshotTime >= snapshotInterval) {
+                snapshotWriter.submit(takeSnapshot()); // Written on the writer's thread
+                snapshotTime = 0;
+            }
+        }
+    }
+
+    /**
+     * Eats the fruits that were eaten in a snapshot, with their regrowth due at the saved times. The
+     * fruits of the chunks not loaded yet are hidden when their chunk is generated.
+     *
+     * @param snapshot The snapshot the world resumes from.
+     */
+    private void restoreEatenFruits(WorldSnapshot snapshot) {
+        for (int i = 0; i < snapshot.getEatenFruitCount(); i++) {
+            if (snapshot.getDueTime(i) > worldClock.getElapsedTime()) {
+                fruitRegrowth.restore(snapshot.getFruitKey(i), snapshot.getDueTime(i));
+            }
+        }
+    }
+
+    /**
+     * Eats a fruit of the loaded chunks without feeding the avatar, for instance when another player
+     * ate it. The fruit reappears at the given world time.
+     *
+     * @param key     The key of the fruit, see {@link pepse.world.trees.Tree#fruitKey}.
+     * @param dueTime The world time at which the fruit reappears, in seconds.
+     * @return True if the fruit was eaten, false if it is not loaded, already eaten, or already due.
+     */
+    public boolean eatFruit(long key, float dueTime) {
+        if (dueTime <= worldClock.getElapsedTime()) {
+            return false;
+        }
+        Fruit fruit = flora.getFruit(key);
+        if (fruit == null || fruit.isEaten()) {
+            return false;
+        }
+        fruitRegrowth.restore(key, dueTime);
+        return true;
+    }
+
+    /**
+     * Makes every cloud rain, as a jump of the avatar does, for instance when another player jumps.
+     */
+    public void burstRain() {
+        for (CloudGroup cloud : activeClouds) {
+            cloud.rain();
+        }
+    }
+
+    /**
+     * Reads the keys the avatar is controlled with.
+     *
+     * @return The bits of the keys held, as in {@link InputRecording}.
+     */
+    public int getKeyState() {
+        return InputRecorder.keyStateOf(inputListener);
+    }
+
+    /**
+     * Applies the knobs of a quality tier to the world.
+     *
+     * @param tier The tier to apply.
+     */
+    private void applyQualityTier(QualityTier tier) {
+        if (tier.getLeafCount() != qualitySettings.getLeafCount()) {
+            qualitySettings.setLeafCount(tier.getLeafCount());
+            flora.regrowTrees(); // The loaded trees take the new canopies too, not only the next ones
+        }
+        qualitySettings.setRainDropCount(tier.getRainDropCount());
+        view.setMargin(tier.getViewMargin());
+        leafSway.setAnimated(tier.isLeafAnimated());
+    }
+
+    /**
+     * Advances the world by one fixed simulation step, so gameplay does not depend on the frame rate.
+     *
+     * @param deltaTime The duration of the simulation step.
+     */
+    private void simulateStep(float deltaTime) {
+        simulationSteps++;
+        worldClock.update(deltaTime); // Time of day, sun, halo, night and sky
+        long phaseStart = FrameProfiler.start();
+        worldIndex.cullOutside(view); // Only what is in view gets updated and rendered
+        worldIndex.activateAround(avatar); // Enable collisions with what is near the avatar
+        FrameProfiler.stop(Phase.CULLING, phaseStart);
+
+        phaseStart = FrameProfiler.start();
+        simulationStage.run(deltaTime); // Leaves, rain, clouds and fruit regrowth
+        FrameProfiler.stop(Phase.SYSTEMS, phaseStart);
+
+        phaseStart = FrameProfiler.start();
         super.update(deltaTime);
+        FrameProfiler.stop(Phase.PHYSICS, phaseStart);
 
-        int currentChunk = (int) (avatar.getCenter().x() / chunkSize);
+        int currentChunk = chunkOf(avatar.getCenter().x());
+        boolean isEnteringChunk = currentChunk != lastChunk;
+        long generationStart = isEnteringChunk ? System.nanoTime() : 0;
 
         // Generate new chunks if the avatar moves into a new one
-        if (currentChunk != lastChunk) {
+        if (isEnteringChunk) {
             int minChunk = currentChunk - 1; // Chunks visible before the avatar
             int maxChunk = currentChunk + 1; // Chunks visible after the avatar
 
             for (int chunk = minChunk; chunk <= maxChunk; chunk++) {
-                if (!generatedChunks.contains(chunk)) {
-                    int minX = chunk * chunkSize;
-                    int maxX = (chunk + 1) * chunkSize;
-
-                    List<Block> blocks = terrain.createInRange(minX, maxX);
-                    for (Block block : blocks) {
-                        block.setTag("Block");
-                        gameObjects().addGameObject(block, Layer.STATIC_OBJECTS);
-                    }
-                    flora.generateInRange(minX, maxX);
-                    generatedChunks.add(chunk);
+                if (!generatedChunks.containsKey(chunk)) {
+                    loadChunk(chunk);
                 }
             }
             removeOutOfRangeChunks(minChunk, maxChunk);
+            crowd.setActiveRange(minChunk * chunkSize, (maxChunk + 1) * chunkSize);
             lastChunk = currentChunk;
         }
+
+        phaseStart = FrameProfiler.start();
+        lightmap.update(worldClock.getNightOpacity()); // Relight only around changed light sources
+        FrameProfiler.stop(Phase.LIGHTING, phaseStart);
+
+        // Deliver the events of this step once the world has been updated
+        phaseStart = FrameProfiler.start();
+        eventBus.dispatch(deltaTime);
+        FrameProfiler.stop(Phase.EVENTS, phaseStart);
+
+        if (isEnteringChunk) {
+            // Terrain, torches, relighting and the flora grown by the dispatched events
+            lastGenerationNanos = System.nanoTime() - generationStart;
+        }
+    }
+
+    /**
+     * Creates the terrain blocks and torches of a chunk and announces it, so its flora gets generated.
+     *
+     * @param chunk The index of the chunk to load.
+     */
+    private void loadChunk(int chunk) {
+        generationProbe.beginChunkLoad();
+        int minX = chunk * chunkSize;
+        int maxX = (chunk + 1) * chunkSize;
+
+        // Blocks are purely visual, ground contact is resolved through the heightfield
+        generationProbe.beginTerrain();
+        List<Block> blocks = terrain.createInRange(minX, maxX);
+        generationProbe.endTerrain(minX, maxX, blocks.size());
+        for (Block block : blocks) {
+            block.setTag("Block");
+            gameObjects().addGameObject(block, Layer.STATIC_OBJECTS);
+        }
+        generatedChunks.put(chunk, blocks);
+        chunkLoads++;
+
+        List<Torch> torches = Torch.createInRange(terrain, minX, maxX, torchImage);
+        for (Torch torch : torches) {
+            worldIndex.add(torch, Layer.STATIC_OBJECTS, Layer.STATIC_OBJECTS);
+            lightmap.addSource(torch);
+        }
+        chunkTorches.put(chunk, torches);
+        eventBus.post(WorldEventType.CHUNK_LOADED, chunk);
+        generationProbe.endChunkLoad(chunk, blocks.size(), torches.size());
     }
 
     /**
-     * Removes objects from chunks no longer visible.
+     * Unloads the chunks that are no longer visible.
      *
      * @param minChunk The first visible chunk.
      * @param maxChunk The last visible chunk.
      */
     private void removeOutOfRangeChunks(int minChunk, int maxChunk) {
-        List<GameObject> toRemove = new ArrayList<>();
-        for (GameObject obj : gameObjects()) {
-            float objX = obj.getCenter().x();
-            int objChunk = (int) (objX / chunkSize);
-
-            if ((obj.getTag() != null && obj.getTag().equals("Block")) &&
-                    (objChunk < minChunk || objChunk > maxChunk)) {
-                toRemove.add(obj);
+        long profileStart = FrameProfiler.start();
+        for (int chunk : generatedChunks.keySet()) {
+            if (chunk < minChunk || chunk > maxChunk) {
+                eventBus.post(WorldEventType.CHUNK_UNLOADED, chunk);
             }
         }
-        for (GameObject obj : toRemove) {
-            gameObjects().removeGameObject(obj);
+        FrameProfiler.stop(Phase.CHUNK_REMOVAL, profileStart);
+    }
+
+    /**
+     * Removes the terrain blocks and torches of an unloaded chunk and its cached heights.
+     *
+     * @param event The chunk unloaded event.
+     */
+    private void removeChunkBlocks(WorldEvent event) {
+        int chunk = (Integer) event.getSubject();
+        List<Block> blocks = generatedChunks.remove(chunk);
+        if (blocks == null) {
+            return;
+        }
+        generationProbe.beginChunkUnload();
+        heightfield.forgetRange(chunk * chunkSize, (chunk + 1) * chunkSize);
+        for (Block block : blocks) {
+            gameObjects().removeGameObject(block, Layer.STATIC_OBJECTS);
+        }
+        List<Torch> torches = chunkTorches.remove(chunk);
+        for (Torch torch : torches) {
+            worldIndex.remove(torch);
+            lightmap.removeSource(torch);
+        }
+        generationProbe.endChunkUnload(chunk, blocks.size(), torches.size());
+    }
+
+    /**
+     * Takes a snapshot of the world's counters.
+     *
+     * @return The current counters of the world.
+     */
+    public WorldStats getStats() {
+        long rainBursts = 0;
+        for (CloudGroup cloud : activeClouds) {
+            rainBursts += cloud.getRainBursts();
+        }
+        return new WorldStats(simulationSteps, chunkLoads, generatedChunks.size(), worldIndex.size(),
+                worldIndex.awakeCount(), worldIndex.activeCount(), jumps, rainBursts,
+                rainSystem.activeCount(), fruitRegrowth.pendingCount(), qualityGovernor.getTier());
+    }
+
+    /**
+     * Counts every object in the game, in all layers.
+     *
+     * @return The number of game objects.
+     */
+    public int countGameObjects() {
+        int count = 0;
+        for (GameObject ignored : gameObjects()) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Moves the avatar to an x-coordinate, standing on the terrain and at rest. The chunks around it
+     * are loaded and unloaded by the next simulation step.
+     *
+     * @param x The x-coordinate of the avatar's left edge.
+     */
+    public void placeAvatar(float x) {
+        Vector2 dimensions = avatar.getDimensions();
+        float surface = heightfield.surfaceUnder(x, x + dimensions.x());
+        avatar.setTopLeftCorner(new Vector2(x, surface - dimensions.y()));
+        avatar.setVelocity(Vector2.ZERO);
+        avatarInterpolator.reset();
+    }
+
+    /**
+     * Takes a snapshot of the world, from which it can be resumed exactly where it is. Every fruit
+     * waiting to reappear is saved, whether its chunk is loaded or not.
+     *
+     * @return The snapshot, owned by the caller.
+     */
+    public WorldSnapshot takeSnapshot() {
+        Vector2 topLeft = avatar.getTopLeftCorner();
+        Vector2 velocity = avatar.getVelocity();
+        WorldSnapshot snapshot = new WorldSnapshot(worldSeed, topLeft.x(), topLeft.y(), velocity.x(),
+                velocity.y(), avatar.getEnergy(), worldClock.getElapsedTime());
+        for (int i = 0; i < fruitRegrowth.pendingCount(); i++) {
+            snapshot.addEatenFruit(fruitRegrowth.getPendingKey(i), fruitRegrowth.getDueTime(i));
+        }
+        return snapshot;
+    }
+
+    /**
+     * Resumes the world from a snapshot instead of starting a new one: the world is generated from the
+     * saved seed around the saved avatar, and the saved state is applied to it. Must be called before
+     * the game is initialized.
+     *
+     * @param snapshot The snapshot to resume from.
+     */
+    public void resumeFrom(WorldSnapshot snapshot) {
+        resumedSnapshot = snapshot;
+        worldSeed = snapshot.getSeed();
+        startElapsedTime = snapshot.getElapsedTime();
+    }
+
+    /**
+     * Plays in the multiplayer world of a server: the world is generated from the server's seed,
+     * starts at its world time, and shares the avatar and the eaten fruits with the other players.
+     * Must be called before the game is initialized.
+     *
+     * @param client The connection to the server, already joined.
+     */
+    public void joinServer(NetClient client) {
+        netClient = client;
+        worldSeed = client.getSeed();
+        startElapsedTime = client.getWorldTime();
+    }
+
+    /**
+     * Gets the estimated memory retained by the loaded chunks of the world.
+     *
+     * @return The memory accounting of the world, null before the game is initialized.
+     */
+    public MemoryAccounting getMemoryAccounting() {
+        return generationProbe == null ? null : generationProbe.getMemoryAccounting();
+    }
+
+    /**
+     * Gets the multiplayer session of the game.
+     *
+     * @return The session, or null if the game is not played in a multiplayer world.
+     */
+    public NetSession getNetSession() {
+        return netSession;
+    }
+
+    /**
+     * Starts saving a snapshot of the world to a file at a regular interval of game time, written on
+     * a background thread, until {@link #saveLastSnapshot} or {@link #stopSnapshots} is called. The
+     * tree density can no longer be tuned from then on.
+     *
+     * @param path    The file to write.
+     * @param seconds The game time between two snapshots.
+     */
+    public void snapshotTo(Path path, float seconds) {
+        snapshotWriter = new SnapshotWriter(path);
+        snapshotInterval = seconds;
+        snapshotTime = 0;
+        if (monitoring != null) {
+            monitoring.lockTreeDensity(); // A resume grows the default density
         }
-        generatedChunks.removeIf(chunk -> chunk < minChunk || chunk > maxChunk);
     }
 
     /**
-     * Main method to run the game.
+     * Takes a last snapshot of the world, writes it before returning, and stops saving snapshots.
+     * Must be called from the game thread once the game loop has returned, so that the snapshot holds
+     * the very last frame.
+     *
+     * @throws IOException If the snapshot cannot be written.
      */
-    public static void main(String[] args) {
-        new PepseGameManager().run();
+    public void saveLastSnapshot() throws IOException {
+        SnapshotWriter writer = snapshotWriter;
+        if (writer == null) {
+            return;
+        }
+        snapshotWriter = null; // Leaves nothing for the shutdown hook to stop
+        try {
+            writer.close(); // A periodic write still running must not replace the last snapshot
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        takeSnapshot().write(writer.getPath());
+    }
+
+    /**
+     * Asks the game thread for a last snapshot of the world, waits for it to be written, and stops
+     * saving snapshots. Only a fallback for a game stopped while its loop still runs, such as by an
+     * interrupt signal, which never returns to {@link #saveLastSnapshot}. Must be called from another
+     * thread than the game's, typically a shutdown hook: the world is only read by the game thread,
+     * between two frames. If the game loop does not run another frame in time, the last periodic
+     * snapshot is the one written.
+     */
+    public void stopSnapshots() {
+        SnapshotWriter writer = snapshotWriter; // Read before the game thread lets go of it
+        if (writer == null) {
+            return;
+        }
+        isLastSnapshotRequested = true;
+        try {
+            lastSnapshotTaken.await(LAST_SNAPSHOT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            writer.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Gets the flora growing the trees of the loaded chunks.
+     *
+     * @return The flora of the world.
+     */
+    public Flora getFlora() {
+        return flora;
+    }
+
+    /**
+     * Gets the governor adapting the quality tier to the frame times.
+     *
+     * @return The quality governor.
+     */
+    public QualityGovernor getQualityGovernor() {
+        return qualityGovernor;
+    }
+
+    /**
+     * Records the keys and the duration of every frame from the start of the game. Must be called
+     * before the game is initialized.
+     */
+    public void recordInput() {
+        isRecordingInput = true;
+    }
+
+    /**
+     * Starts writing a profile of the phases of every frame to a CSV file, one row per second of
+     * game time, until {@link #stopProfiling} is called.
+     *
+     * @param csvPath The file to write.
+     * @throws IOException If the file cannot be created.
+     */
+    public void profileTo(Path csvPath) throws IOException {
+        profileWriter = new ProfileCsvWriter(csvPath, PROFILE_INTERVAL, LAYER_CENSUS);
+    }
+
+    /**
+     * Stops profiling the frames and closes the profile file.
+     */
+    public void stopProfiling() {
+        if (profileWriter == null) {
+            return;
+        }
+        try {
+            profileWriter.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        profileWriter = null;
+    }
+
+    /**
+     * Publishes the estimated memory of the loaded chunks per category at a regular interval of game
+     * time, as the ChunkMemorySummary attribute of the World bean.
+     *
+     * @param seconds The game time between two summaries, 0 to stop logging.
+     */
+    public void logMemoryEvery(float seconds) {
+        memoryLogInterval = seconds;
+        if (monitoring != null) {
+            monitoring.publishMemorySummaryEvery(seconds);
+        }
+    }
+
+    /**
+     * Gets the frames recorded so far.
+     *
+     * @return The recording, or null if the input is not being recorded.
+     */
+    public InputRecording getInputRecording() {
+        return inputRecorder == null ? null : inputRecorder.getRecording();
+    }
+
+    /**
+     * Computes the index of the chunk containing an x-coordinate.
+     *
+     * @param x The x-coordinate.
+     * @return The index of the chunk.
+     */
+    private int chunkOf(float x) {
+        return (int) Math.floor(x / chunkSize);
+    }
+
+    /**
+     * Main method to run the game. With {@code --record <file>}, the keys and frame durations of the
+     * session are written to the file when the game exits, to be replayed by
+     * {@link pepse.replay.ReplayRunner}. With {@code --profile <file>}, a profile of the phases of the
+     * frames is written to the CSV file while the game runs. With {@code --memory-log <seconds>}, the
+     * estimated memory of the loaded chunks per category is published by the World bean at that
+     * interval. With {@code --snapshot <file>}, the world resumes from the snapshot in the file if it
+     * exists, and a snapshot is saved to it every few seconds and when the game exits. With
+     * {@code --join <host:port>}, the game is played in the multiplayer world of a
+     * {@link pepse.net.NetServer}.
+     */
+    public static void main(String[] args) throws IOException {
+        PepseGameManager game = new PepseGameManager();
+        Path recordPath = null;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--record" -> {
+                    recordPath = Path.of(value);
+                    game.recordInput();
+                }
+                case "--profile" -> {
+                    game.profileTo(Path.of(value));
+                    Runtime.getRuntime().addShutdownHook(new Thread(game::stopProfiling));
+                }
+                case "--memory-log" -> game.logMemoryEvery(Float.parseFloat(value));
+                case "--snapshot" -> {
+                    Path path = Path.of(value);
+                    if (Files.exists(path)) {
+                        game.resumeFrom(WorldSnapshot.read(path));
+                    }
+                    game.snapshotTo(path, SNAPSHOT_INTERVAL);
+                    Runtime.getRuntime().addShutdownHook(new Thread(game::stopSnapshots)); // If killed
+                }
+                case "--join" -> {
+                    int colon = value.lastIndexOf(':');
+                    NetClient client = NetClient.connect(new InetSocketAddress(value.substring(0, colon),
+                            Integer.parseInt(value.substring(colon + 1))));
+                    game.joinServer(client);
+                    Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                        try {
+                            client.close();
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }));
+                }
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        try {
+            game.run();
+        } finally {
+            if (recordPath != null) {
+                game.getInputRecording().write(recordPath); // Read on the thread that recorded it
+            }
+        }
+        game.saveLastSnapshot(); // No frame runs anymore, so the world holds the very last one
     }
 }
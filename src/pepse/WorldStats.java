@@ -0,0 +1,23 @@
+package pepse;
+
+import pepse.quality.QualityTier;
+
+/**
+ * A snapshot of the counters of a running world, for reporting and monitoring.
+ *
+ * @param simulationSteps The number of fixed simulation steps run so far.
+ * @param chunkLoads      The number of chunks generated so far, including reloaded ones.
+ * @param loadedChunks    The number of chunks currently loaded.
+ * @param indexedObjects  The number of static objects in the world index.
+ * @param awakeObjects    The number of indexed objects inside the view, in the game.
+ * @param activeObjects   The number of indexed objects near the avatar, able to collide.
+ * @param jumps           The number of jumps of the avatar so far.
+ * @param rainBursts      The number of rain groups the clouds have generated so far.
+ * @param rainDrops       The number of raindrops falling.
+ * @param pendingFruits   The number of eaten fruits waiting to regrow.
+ * @param qualityTier     The quality tier the game runs at.
+ */
+public record WorldStats(long simulationSteps, long chunkLoads, int loadedChunks, int indexedObjects,
+                         int awakeObjects, int activeObjects, long jumps, long rainBursts, int rainDrops,
+                         int pendingFruits, QualityTier qualityTier) {
+}
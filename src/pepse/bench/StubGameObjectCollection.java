@@ -0,0 +1,44 @@
+package pepse.bench;
+
+import danogl.GameObject;
+import danogl.collisions.GameObjectCollection;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A game object collection that only remembers which objects it holds, so benchmarks measure the
+ * cost of pepse's own bookkeeping rather than danogl's layers and collision structures.
+ */
+public class StubGameObjectCollection extends GameObjectCollection {
+    private final Set<GameObject> objects = new HashSet<>();
+
+    @Override
+    public void addGameObject(GameObject gameObject) {
+        objects.add(gameObject);
+    }
+
+    @Override
+    public void addGameObject(GameObject gameObject, int layerId) {
+        objects.add(gameObject);
+    }
+
+    @Override
+    public boolean removeGameObject(GameObject gameObject) {
+        return objects.remove(gameObject);
+    }
+
+    @Override
+    public boolean removeGameObject(GameObject gameObject, int layerId) {
+        return objects.remove(gameObject);
+    }
+
+    /**
+     * Gets the number of objects in the collection.
+     *
+     * @return The number of objects held.
+     */
+    public int size() {
+        return objects.size();
+    }
+}
@@ -0,0 +1,356 @@
+package pepse.bench;
+
+import danogl.GameObject;
+import danogl.collisions.Layer;
+import danogl.util.Vector2;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pepse.profile.GenerationProbe;
+import pepse.quality.QualitySettings;
+import pepse.quality.QualityTier;
+import pepse.util.NoiseGenerator;
+import pepse.util.ParallelStage;
+import pepse.world.Block;
+import pepse.world.Heightfield;
+import pepse.world.Terrain;
+import pepse.world.WorldIndex;
+import pepse.world.crowd.Crowd;
+import pepse.world.events.WorldEventBus;
+import pepse.world.light.Lightmap;
+import pepse.world.trees.Flora;
+import pepse.world.trees.FruitRegrowth;
+import pepse.world.trees.LeafSway;
+import pepse.world.trees.Tree;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The JMH benchmarks of the world generation hot paths: noise sampling, terrain blocks, trees,
+ * flora chunks, and the chunk loading and unloading done as the avatar walks. Each benchmark reads
+ * the state it needs, whose parameters are the chunk size, the seed, the tree density and the number
+ * of live objects already in the world, so JMH runs it for every combination of these parameters
+ * only. Game objects are added to a {@link StubGameObjectCollection}. A last benchmark steps the
+ * crowd of the game, with its critters active in a few loaded chunks or over its whole range.
+ * <p>
+ * The states are built once per trial, and the operations cycle through chunks, so an operation
+ * never regenerates a chunk it has just generated.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(1)
+public class WorldGenerationBenchmarks {
+    private static final int WINDOW_HEIGHT = 800; // Height of the window the terrain is generated for
+    private static final int NOISE_SAMPLES = 1000; // Noise samples per noise operation
+    private static final float NOISE_FACTOR = 200f; // Amplitude of the sampled noise
+    private static final int CYCLED_CHUNKS = 64; // Distinct chunks an operation cycles through
+    private static final int VISIBLE_CHUNKS = 3; // Chunks loaded at once while walking
+    private static final float DEFAULT_TREE_DENSITY = 0.1f; // Tree density when not a parameter
+    private static final int DEFAULT_SEED = 123458; // Seed when not a parameter
+    private static final Vector2 TREE_PART_SIZE = new Vector2(20, 20); // Size of tree parts
+    private static final float TREE_TRUNK_HEIGHT = 5; // Trunk height of the benchmarked trees
+    private static final int CROWD_SIZE = 10_000; // Critters of the crowd, as in the game
+    private static final int CROWD_RANGE_CHUNKS = 10; // Chunks on each side of 0 the crowd spreads over
+    private static final int CROWD_CHUNK_SIZE = 1200; // Width of a chunk of the crowd, in pixels
+    private static final float CROWD_STEP = 1f / 60; // Duration of a crowd step
+
+    /**
+     * Samples the terrain noise over a range of x-coordinates.
+     *
+     * @param state The noise generator and the next x-coordinate.
+     * @return The sum of the samples.
+     */
+    @Benchmark
+    public double noise(NoiseState state) {
+        double sum = 0;
+        for (int i = 0; i < NOISE_SAMPLES; i++) {
+            sum += state.noiseGenerator.noise(state.x++, NOISE_FACTOR);
+        }
+        return sum;
+    }
+
+    /**
+     * Creates the terrain blocks of a chunk, cycling through chunks.
+     *
+     * @param state The terrain and the next chunk.
+     * @return The blocks of the chunk.
+     */
+    @Benchmark
+    public List<Block> terrainCreateInRange(TerrainState state) {
+        int minX = (state.chunk++ % CYCLED_CHUNKS) * state.chunkSize;
+        return state.terrain.createInRange(minX, minX + state.chunkSize);
+    }
+
+    /**
+     * Creates a tree, at a different position every time.
+     *
+     * @param state The sway system and the random positions of the trees.
+     * @return The trunk blocks and the leaves of the tree.
+     */
+    @Benchmark
+    public GameObject[][] treeCreate(TreeState state) {
+        Vector2 position = new Vector2(state.random.nextInt(1 << 16) * Block.SIZE, WINDOW_HEIGHT / 2f);
+        GameObject[][] tree = Tree.create(position, TREE_TRUNK_HEIGHT, TREE_PART_SIZE,
+                QualityTier.HIGH.getLeafCount(), state.leafSway, state.eventBus);
+        for (GameObject leaf : tree[1]) {
+            state.leafSway.remove(leaf); // Keep the sway system from growing
+        }
+        return tree;
+    }
+
+    /**
+     * Generates and removes the flora of a chunk, cycling through chunks.
+     *
+     * @param state The world and the next chunk.
+     * @return The world index the flora was added to.
+     */
+    @Benchmark
+    public WorldIndex floraGenerateInRange(FloraState state) {
+        int index = state.chunk++ % CYCLED_CHUNKS;
+        state.world.flora.generateInRange(index * state.chunkSize, (index + 1) * state.chunkSize);
+        state.world.flora.removeChunk(index);
+        return state.world.worldIndex;
+    }
+
+    /**
+     * Walks one chunk to the right: loads the chunk entering the visible range and unloads the one
+     * leaving it, as the game manager does when the avatar crosses a chunk border.
+     *
+     * @param state The world and its loaded chunks.
+     * @return The blocks of the loaded chunks.
+     */
+    @Benchmark
+    public Map<Integer, List<Block>> chunkScroll(ScrollState state) {
+        state.world.loadChunk(state.next, state.blocks);
+        state.loaded.addLast(state.next++);
+        state.world.unloadChunk(state.loaded.removeFirst(), state.blocks);
+        return state.blocks;
+    }
+
+    /**
+     * Steps the crowd once on the parallel stage, with its critters active in a number of chunks
+     * around the middle of its range.
+     *
+     * @param state The crowd and its stage.
+     * @return The stepped crowd.
+     */
+    @Benchmark
+    public Crowd crowdStep(CrowdState state) {
+        state.stage.run(CROWD_STEP);
+        return state.crowd;
+    }
+
+    /**
+     * The state of the noise benchmark.
+     */
+    @State(Scope.Thread)
+    public static class NoiseState {
+        @Param({"1", "123458"})
+        public int seed;
+
+        private NoiseGenerator noiseGenerator;
+        private double x = 0; // Next sampled x-coordinate
+
+        /**
+         * Creates the noise generator of the seed.
+         */
+        @Setup
+        public void setUp() {
+            noiseGenerator = new NoiseGenerator(seed, WINDOW_HEIGHT * 2 / 3);
+        }
+    }
+
+    /**
+     * The state of the terrain benchmark.
+     */
+    @State(Scope.Thread)
+    public static class TerrainState {
+        @Param({"600", "1200", "2400"})
+        public int chunkSize;
+
+        @Param({"1", "123458"})
+        public int seed;
+
+        private Terrain terrain;
+        private int chunk = 0; // Next chunk to create
+
+        /**
+         * Creates the terrain of the seed, for a window as wide as a chunk.
+         */
+        @Setup
+        public void setUp() {
+            terrain = new Terrain(new Vector2(chunkSize, WINDOW_HEIGHT), seed);
+        }
+    }
+
+    /**
+     * The state of the tree benchmark.
+     */
+    @State(Scope.Thread)
+    public static class TreeState {
+        @Param({"1", "123458"})
+        public int seed;
+
+        private LeafSway leafSway;
+        private WorldEventBus eventBus;
+        private Random random;
+
+        /**
+         * Creates the systems a tree is created with.
+         */
+        @Setup
+        public void setUp() {
+            leafSway = new LeafSway();
+            eventBus = new WorldEventBus(); // Never dispatched, no fruit is eaten
+            random = new Random(seed);
+        }
+    }
+
+    /**
+     * The state of the flora benchmark.
+     */
+    @State(Scope.Thread)
+    public static class FloraState {
+        @Param({"600", "1200", "2400"})
+        public int chunkSize;
+
+        @Param({"0.05", "0.1", "0.2"})
+        public float treeDensity;
+
+        @Param({"0", "10000", "100000"})
+        public int liveObjects;
+
+        private World world;
+        private int chunk = 0; // Next chunk to generate
+
+        /**
+         * Creates the world, filled with its live objects.
+         */
+        @Setup
+        public void setUp() {
+            world = new World(chunkSize, DEFAULT_SEED, treeDensity, liveObjects);
+        }
+    }
+
+    /**
+     * The state of the chunk scrolling benchmark.
+     */
+    @State(Scope.Thread)
+    public static class ScrollState {
+        @Param({"600", "1200", "2400"})
+        public int chunkSize;
+
+        @Param({"0", "10000", "100000"})
+        public int liveObjects;
+
+        private World world;
+        private final Deque<Integer> loaded = new ArrayDeque<>();
+        private final Map<Integer, List<Block>> blocks = new LinkedHashMap<>();
+        private int next = 0; // Next chunk to load
+
+        /**
+         * Creates the world, filled with its live objects, and loads the visible chunks.
+         */
+        @Setup
+        public void setUp() {
+            world = new World(chunkSize, DEFAULT_SEED, DEFAULT_TREE_DENSITY, liveObjects);
+            for (int i = 0; i < VISIBLE_CHUNKS; i++) {
+                world.loadChunk(next, blocks);
+                loaded.addLast(next++);
+            }
+        }
+    }
+
+    /**
+     * The state of the crowd benchmark.
+     */
+    @State(Scope.Thread)
+    public static class CrowdState {
+        @Param({"3", "20"})
+        public int activeChunks; // The loaded chunks, or the two sides of the range of the crowd
+
+        private Crowd crowd;
+        private ParallelStage stage;
+
+        /**
+         * Creates the crowd of the game, active around the middle of its range, on its stage.
+         */
+        @Setup
+        public void setUp() {
+            World world = new World(CROWD_CHUNK_SIZE, DEFAULT_SEED, DEFAULT_TREE_DENSITY, 0);
+            int range = CROWD_RANGE_CHUNKS * CROWD_CHUNK_SIZE;
+            crowd = new Crowd(world.terrain, world.worldIndex, CROWD_SIZE, -range, range, DEFAULT_SEED);
+            crowd.setActiveRange(-activeChunks / 2f * CROWD_CHUNK_SIZE, activeChunks / 2f * CROWD_CHUNK_SIZE);
+            stage = new ParallelStage();
+            stage.add(crowd);
+        }
+    }
+
+    /**
+     * The parts of the world involved in chunk generation, wired as in the game manager, with a
+     * number of live objects filling the world index beforehand.
+     */
+    private static class World {
+        private final int chunkSize;
+        private final StubGameObjectCollection gameObjects = new StubGameObjectCollection();
+        private final Terrain terrain;
+        private final Heightfield heightfield;
+        private final WorldIndex worldIndex;
+        private final Flora flora;
+
+        private World(int chunkSize, int seed, float treeDensity, int liveObjects) {
+            this.chunkSize = chunkSize;
+            Vector2 windowDimensions = new Vector2(chunkSize, WINDOW_HEIGHT);
+            Random random = new Random(seed);
+            terrain = new Terrain(windowDimensions, random.nextInt());
+            heightfield = new Heightfield(terrain);
+            worldIndex = new WorldIndex(gameObjects);
+            // The lightmap is never updated here, so it needs no view
+            Lightmap lightmap = new Lightmap(gameObjects, terrain, null, windowDimensions);
+            // No fruit is eaten here, so the regrowth needs no clock
+            flora = new Flora(terrain, worldIndex, random, treeDensity, chunkSize, new LeafSway(), lightmap,
+                    new WorldEventBus(), new GenerationProbe(chunkSize),
+                    new FruitRegrowth(null, key -> null), new QualitySettings(QualityTier.HIGH));
+
+            // Live objects spread to the left of the benchmarked chunks
+            for (int i = 0; i < liveObjects; i++) {
+                GameObject object = new GameObject(
+                        new Vector2(-(i + 1) * Block.SIZE, i % WINDOW_HEIGHT), Vector2.ONES, null);
+                worldIndex.add(object, Layer.STATIC_OBJECTS, Layer.STATIC_OBJECTS);
+            }
+        }
+
+        private void loadChunk(int chunk, Map<Integer, List<Block>> blocks) {
+            List<Block> chunkBlocks = terrain.createInRange(chunk * chunkSize, (chunk + 1) * chunkSize);
+            for (Block block : chunkBlocks) {
+                gameObjects.addGameObject(block, Layer.STATIC_OBJECTS);
+            }
+            blocks.put(chunk, chunkBlocks);
+            flora.generateInRange(chunk * chunkSize, (chunk + 1) * chunkSize);
+        }
+
+        private void unloadChunk(int chunk, Map<Integer, List<Block>> blocks) {
+            for (Block block : blocks.remove(chunk)) {
+                gameObjects.removeGameObject(block, Layer.STATIC_OBJECTS);
+            }
+            heightfield.forgetRange(chunk * chunkSize, (chunk + 1) * chunkSize);
+            flora.removeChunk(chunk);
+        }
+    }
+}
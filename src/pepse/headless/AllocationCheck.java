@@ -0,0 +1,147 @@
+package pepse.headless;
+
+import com.sun.management.ThreadMXBean;
+import pepse.WorldStats;
+
+import java.awt.event.KeyEvent;
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+
+/**
+ * Checks that the steady-state frame loop does not allocate. The avatar of a headless game is placed
+ * in the middle of a chunk and left until it has landed and the world has settled, then the bytes
+ * allocated by the game thread are measured over two windows. In the first, a number of frames is run
+ * without any input; in the second, the avatar walks back and forth within its chunk, as far as its
+ * energy lets it, so that its animations, its interpolated position, the camera and the HUD all change
+ * while no chunk is crossed.
+ * The check exits with status 1 if either window allocated more than a budget per frame, or if a chunk
+ * was loaded during the measure.
+ * <p>
+ * The crowd wanders and probes for fruits throughout, and the clouds rain at a regular interval while
+ * the avatar is idle, so falling drops are measured too. The frames in which a burst spawns its drops
+ * create new game objects; they are measured apart, and only the other frames are held to the budget.
+ * <p>
+ * The budget is near zero rather than zero: the engine's physics and camera still move objects with
+ * new immutable vectors, and the beans of the monitoring are published once per second.
+ * <p>
+ * Usage: {@code java pepse.headless.AllocationCheck [--frames n] [--walk-frames n]
+ * [--budget bytes per frame] [--rain-interval frames]}
+ */
+public final class AllocationCheck {
+    private static final int WARMUP_FRAMES = 3000; // Frames run before measuring, for the JIT to settle
+    private static final int DEFAULT_FRAMES = 6000; // Frames measured
+    private static final double DEFAULT_BUDGET = 512; // Bytes the game thread may allocate per frame
+    private static final float FRAME_TIME = 1f / 60; // Simulated duration of a frame
+    private static final int DEFAULT_RAIN_INTERVAL = 120; // Frames between two rain bursts, 0 for none
+    private static final int DEFAULT_WALK_FRAMES = 6000; // Frames measured while the avatar walks
+    private static final int STRIDE_FRAMES = 60; // Frames walked in one direction before turning back
+    private static final float AVATAR_X = HeadlessGame.WINDOW_DIMENSIONS.x() / 2; // Middle of the first
+    // chunk, whose size is the window width, so that a stride never leaves it
+
+    private AllocationCheck() {
+    }
+
+    /**
+     * Runs the check and exits with status 1 if the frame loop allocates more than its budget.
+     *
+     * @param args The options of the run, see the class documentation.
+     */
+    public static void main(String[] args) {
+        int frames = DEFAULT_FRAMES;
+        double budget = DEFAULT_BUDGET;
+        int rainInterval = DEFAULT_RAIN_INTERVAL;
+        int walkFrames = DEFAULT_WALK_FRAMES;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--frames" -> frames = Integer.parseInt(args[i + 1]);
+                case "--budget" -> budget = Double.parseDouble(args[i + 1]);
+                case "--rain-interval" -> rainInterval = Integer.parseInt(args[i + 1]);
+                case "--walk-frames" -> walkFrames = Integer.parseInt(args[i + 1]);
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            System.out.println("Allocation check skipped: the JVM does not measure thread allocations");
+            return;
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        int[] walkKey = {KeyEvent.VK_UNDEFINED}; // Arrow key held down, changed between frames
+        HeadlessGame game = new HeadlessGame(StandIns.userInput(key -> key == walkKey[0]));
+        game.getGameManager().placeAvatar(AVATAR_X);
+        for (int frame = 0; frame < WARMUP_FRAMES; frame++) {
+            walkKey[0] = strideKey(frame); // Warm the walking code up too
+            game.update(FRAME_TIME);
+        }
+        walkKey[0] = KeyEvent.VK_UNDEFINED;
+        for (int frame = 0; frame < STRIDE_FRAMES; frame++) {
+            game.update(FRAME_TIME); // Stop before measuring the idle frames
+        }
+
+        WorldStats before = game.getStats();
+        long allocated = 0; // Bytes allocated by the steady frames
+        long burstAllocated = 0; // Bytes allocated by the frames spawning rain
+        int bursts = 0;
+        long frameStart = threads.getCurrentThreadAllocatedBytes();
+        for (int frame = 0; frame < frames; frame++) {
+            boolean isBurst = rainInterval > 0 && frame % rainInterval == 0;
+            if (isBurst) {
+                game.getGameManager().burstRain();
+                bursts++;
+            }
+            game.update(FRAME_TIME);
+            long frameEnd = threads.getCurrentThreadAllocatedBytes();
+            if (isBurst) {
+                burstAllocated += frameEnd - frameStart;
+            } else {
+                allocated += frameEnd - frameStart;
+            }
+            frameStart = frameEnd;
+        }
+
+        // Walk back and forth, once the last drops have fallen
+        for (int frame = 0; frame < rainInterval; frame++) {
+            game.update(FRAME_TIME);
+        }
+        long walkAllocated = 0; // Bytes allocated by the walking frames
+        frameStart = threads.getCurrentThreadAllocatedBytes();
+        for (int frame = 0; frame < walkFrames; frame++) {
+            walkKey[0] = strideKey(frame);
+            game.update(FRAME_TIME);
+            long frameEnd = threads.getCurrentThreadAllocatedBytes();
+            walkAllocated += frameEnd - frameStart;
+            frameStart = frameEnd;
+        }
+        WorldStats after = game.getStats();
+
+        double bytesPerFrame = allocated / (double) (frames - bursts);
+        System.out.printf(Locale.ROOT, "%d idle frames allocated %d bytes: %.1f bytes per frame "
+                + "(budget %.1f)%n", frames - bursts, allocated, bytesPerFrame, budget);
+        if (bursts > 0) {
+            System.out.printf(Locale.ROOT, "%d rain bursts allocated %.1f bytes each%n", bursts,
+                    burstAllocated / (double) bursts);
+        }
+        double walkBytesPerFrame = walkFrames > 0 ? walkAllocated / (double) walkFrames : 0;
+        System.out.printf(Locale.ROOT, "%d walking frames allocated %d bytes: %.1f bytes per frame "
+                + "(budget %.1f)%n", walkFrames, walkAllocated, walkBytesPerFrame, budget);
+        if (after.chunkLoads() != before.chunkLoads()) {
+            System.out.println("Allocation check invalid: chunks were loaded while measuring");
+            System.exit(1);
+        }
+        if (bytesPerFrame > budget || walkBytesPerFrame > budget) {
+            System.out.println("Allocation check failed");
+            System.exit(1);
+        }
+        System.out.println("Allocation check passed");
+    }
+
+    /**
+     * Gets the arrow key held down in a frame of the walk: right for a stride, then left for as long,
+     * so the avatar never goes farther than a stride from where it started.
+     */
+    private static int strideKey(int frame) {
+        return (frame / STRIDE_FRAMES) % 2 == 0 ? KeyEvent.VK_RIGHT : KeyEvent.VK_LEFT;
+    }
+}
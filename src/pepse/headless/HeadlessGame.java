@@ -0,0 +1,85 @@
+package pepse.headless;
+
+import danogl.gui.SoundReader;
+import danogl.gui.UserInputListener;
+import danogl.gui.WindowController;
+import danogl.util.Vector2;
+import pepse.PepseGameManager;
+import pepse.WorldStats;
+
+import java.util.function.Consumer;
+
+/**
+ * A game running without a window: the game manager is initialized with stand-in window, images
+ * and sounds, and updated directly by the caller with whatever frame times it chooses.
+ */
+public class HeadlessGame {
+    /**
+     * The dimensions of the simulated window.
+     */
+    public static final Vector2 WINDOW_DIMENSIONS = new Vector2(1000, 700);
+
+    private final PepseGameManager game;
+    private long frames = 0;
+
+    /**
+     * Creates and initializes a headless game.
+     *
+     * @param input The input the avatar is controlled with.
+     */
+    public HeadlessGame(UserInputListener input) {
+        this(input, game -> {
+        });
+    }
+
+    /**
+     * Creates a headless game, lets the caller set it up, and initializes it.
+     *
+     * @param input The input the avatar is controlled with.
+     * @param setup Sets up the game manager before it is initialized, for instance to join a server.
+     */
+    public HeadlessGame(UserInputListener input, Consumer<PepseGameManager> setup) {
+        WindowController window = StandIns.windowController(WINDOW_DIMENSIONS);
+        game = new PepseGameManager();
+        setup.accept(game);
+        // The game plays no sounds, so the plain sound reader is never asked for any
+        game.initializeGame(new HeadlessImageReader(window), new SoundReader(window), input, window);
+    }
+
+    /**
+     * Updates the game by one frame.
+     *
+     * @param deltaTime The duration of the frame, in seconds.
+     */
+    public void update(float deltaTime) {
+        game.update(deltaTime);
+        frames++;
+    }
+
+    /**
+     * Gets the number of frames updated so far.
+     *
+     * @return The number of frames.
+     */
+    public long getFrames() {
+        return frames;
+    }
+
+    /**
+     * Takes a snapshot of the world's counters.
+     *
+     * @return The current counters of the world.
+     */
+    public WorldStats getStats() {
+        return game.getStats();
+    }
+
+    /**
+     * Gets the game manager being run.
+     *
+     * @return The game manager.
+     */
+    public PepseGameManager getGameManager() {
+        return game;
+    }
+}
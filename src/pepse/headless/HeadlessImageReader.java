@@ -0,0 +1,37 @@
+package pepse.headless;
+
+import danogl.gui.ImageReader;
+import danogl.gui.WindowController;
+import danogl.gui.rendering.ImageRenderable;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * An image reader that reads nothing from disk: every image is the same blank pixel. Without a
+ * display nothing is drawn, so the game only needs renderables to hand to its objects.
+ */
+public class HeadlessImageReader extends ImageReader {
+    private static final ImageRenderable BLANK_IMAGE =
+            new ImageRenderable(new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB));
+
+    /**
+     * Constructs a headless image reader.
+     *
+     * @param windowController The stand-in window controller.
+     */
+    public HeadlessImageReader(WindowController windowController) {
+        super(windowController);
+    }
+
+    /**
+     * Returns the blank image, whatever the path.
+     *
+     * @param imageFilePath             The path of the image, ignored.
+     * @param isTopLeftPixelTransparent Ignored.
+     * @return A blank image renderable.
+     */
+    @Override
+    public ImageRenderable readImage(String imageFilePath, boolean isTopLeftPixelTransparent) {
+        return BLANK_IMAGE;
+    }
+}
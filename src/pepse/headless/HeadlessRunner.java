@@ -0,0 +1,66 @@
+package pepse.headless;
+
+import pepse.WorldStats;
+
+import java.awt.event.KeyEvent;
+import java.util.Locale;
+
+/**
+ * Runs the game without a display for a number of simulated seconds, as fast as the machine allows,
+ * and reports the update throughput, the state of the world and the estimated memory of its chunks.
+ * The avatar runs right and jumps at a fixed interval, so that new chunks keep being generated and
+ * clouds keep raining.
+ * <p>
+ * Usage: {@code java pepse.headless.HeadlessRunner [simulated seconds]}
+ */
+public final class HeadlessRunner {
+    private static final float DEFAULT_SECONDS = 120f; // Simulated duration of a run
+    private static final float FRAME_TIME = 1f / 60; // Simulated duration of a frame
+    private static final int JUMP_INTERVAL_FRAMES = 120; // Frames between two jumps of the avatar
+    private static final int REPORT_INTERVAL_FRAMES = 600; // Frames between two progress reports
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    private HeadlessRunner() {
+    }
+
+    /**
+     * Runs the headless game and prints its throughput.
+     *
+     * @param args Optionally, the number of seconds to simulate.
+     */
+    public static void main(String[] args) {
+        float seconds = args.length > 0 ? Float.parseFloat(args[0]) : DEFAULT_SECONDS;
+        long frames = (long) Math.ceil(seconds / FRAME_TIME);
+        long[] frame = {0};
+
+        long initializationStart = System.nanoTime();
+        HeadlessGame game = new HeadlessGame(StandIns.userInput(key ->
+                key == KeyEvent.VK_RIGHT
+                        || (key == KeyEvent.VK_SPACE && frame[0] % JUMP_INTERVAL_FRAMES == 0)));
+        double initializationSeconds = (System.nanoTime() - initializationStart) / NANOS_PER_SECOND;
+        System.out.printf(Locale.ROOT, "Initialized in %.3f s%n", initializationSeconds);
+
+        long start = System.nanoTime();
+        for (frame[0] = 0; frame[0] < frames; frame[0]++) {
+            game.update(FRAME_TIME);
+            if ((frame[0] + 1) % REPORT_INTERVAL_FRAMES == 0) {
+                report("progress", game, frame[0] + 1, System.nanoTime() - start);
+            }
+        }
+        report("total", game, frames, System.nanoTime() - start);
+    }
+
+    private static void report(String label, HeadlessGame game, long frames, long nanos) {
+        WorldStats stats = game.getStats();
+        double wallSeconds = nanos / NANOS_PER_SECOND;
+        System.out.printf(Locale.ROOT,
+                "%-8s simulated %.1f s in %.3f s: %.0f frames/s, %.0f ticks/s | chunk loads %d, "
+                        + "loaded chunks %d | objects indexed %d, awake %d, active %d | jumps %d, "
+                        + "rain bursts %d, raindrops %d, regrowing fruits %d | quality %s%n",
+                label, frames * FRAME_TIME, wallSeconds, frames / wallSeconds,
+                stats.simulationSteps() / wallSeconds, stats.chunkLoads(), stats.loadedChunks(),
+                stats.indexedObjects(), stats.awakeObjects(), stats.activeObjects(), stats.jumps(),
+                stats.rainBursts(), stats.rainDrops(), stats.pendingFruits(), stats.qualityTier());
+        System.out.println("         " + game.getGameManager().getMemoryAccounting().summary());
+    }
+}
@@ -0,0 +1,133 @@
+package pepse.headless;
+
+import danogl.util.Vector2;
+import pepse.PepseGameManager;
+import pepse.quality.QualityTier;
+import pepse.save.WorldSnapshot;
+import pepse.world.Block;
+import pepse.world.trees.Flora;
+import pepse.world.trees.Fruit;
+import pepse.world.trees.Tree;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks that a world saved at one quality tier resumes at another with the same fruits eaten. A
+ * headless game is forced to the lowest tier and its avatar moved far from the start, so that the
+ * chunks around it grow sparse trees. Fruits of these chunks are eaten, and the world is saved to a
+ * file. A second headless game resumes from the file at the highest tier, where the same trees grow
+ * full canopies, and every saved fruit must be found eaten, at the position it had in the first game.
+ * The check exits with status 1 otherwise.
+ * <p>
+ * Usage: {@code java pepse.headless.SnapshotCheck [--fruits n] [--distance pixels]}
+ */
+public final class SnapshotCheck {
+    private static final int DEFAULT_FRUITS = 6; // Fruits eaten before saving
+    private static final float DEFAULT_DISTANCE = 20000; // Distance the avatar is moved from the start
+    private static final int SETTLE_FRAMES = 120; // Frames run for the chunks around the avatar to load
+    private static final float FRAME_TIME = 1f / 60; // Simulated duration of a frame
+    private static final float SCAN_DISTANCE = 1000; // Distance around the avatar searched for trees
+    private static final float REGROWTH_DELAY = 600; // Delay of the eaten fruits, longer than the check
+    private static final int FRUITS_PER_TREE = 3; // Fruits hanging from every tree
+    private static final float POSITION_TOLERANCE = 0.01f; // Distance within which positions are equal
+
+    private SnapshotCheck() {
+    }
+
+    /**
+     * Runs the check and exits with status 1 if a saved fruit is not eaten after resuming.
+     *
+     * @param args The options of the run, see the class documentation.
+     * @throws IOException If the snapshot cannot be written or read.
+     */
+    public static void main(String[] args) throws IOException {
+        int fruitCount = DEFAULT_FRUITS;
+        float distance = DEFAULT_DISTANCE;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--fruits" -> fruitCount = Integer.parseInt(args[i + 1]);
+                case "--distance" -> distance = Float.parseFloat(args[i + 1]);
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        // Grow sparse trees far from the start, and eat some of their fruits
+        HeadlessGame saved = new HeadlessGame(StandIns.userInput(key -> false));
+        PepseGameManager savedManager = saved.getGameManager();
+        savedManager.getQualityGovernor().setEnabled(false);
+        savedManager.getQualityGovernor().setTier(QualityTier.LOW);
+        savedManager.placeAvatar(distance);
+        for (int frame = 0; frame < SETTLE_FRAMES; frame++) {
+            saved.update(FRAME_TIME);
+        }
+        List<Long> keys = new ArrayList<>();
+        List<Vector2> positions = new ArrayList<>();
+        eatFruits(savedManager, fruitCount, keys, positions);
+        if (keys.isEmpty()) {
+            System.out.println("Snapshot check invalid: no fruit grows around the avatar");
+            System.exit(1);
+        }
+
+        Path path = Files.createTempFile("pepse-snapshot-check", ".bin");
+        try {
+            savedManager.takeSnapshot().write(path);
+            WorldSnapshot snapshot = WorldSnapshot.read(path);
+            System.out.printf("Saved %d eaten fruits at %s%n", snapshot.getEatenFruitCount(),
+                    QualityTier.LOW);
+
+            // Resume at full detail, which the game starts at
+            HeadlessGame resumed = new HeadlessGame(StandIns.userInput(key -> false),
+                    manager -> manager.resumeFrom(snapshot));
+            PepseGameManager resumedManager = resumed.getGameManager();
+            resumedManager.getQualityGovernor().setEnabled(false);
+            QualityTier tier = resumedManager.getQualityGovernor().getTier();
+            int failures = 0;
+            for (int i = 0; i < keys.size(); i++) {
+                Fruit fruit = resumedManager.getFlora().getFruit(keys.get(i));
+                if (fruit == null || !fruit.isEaten() || fruit.getTopLeftCorner().subtract(positions.get(i))
+                        .magnitude() > POSITION_TOLERANCE) {
+                    System.out.println("Fruit " + positions.get(i) + " was not resumed eaten at " + tier);
+                    failures++;
+                }
+            }
+            if (snapshot.getEatenFruitCount() != keys.size() || failures > 0 || tier != QualityTier.HIGH) {
+                System.out.println("Snapshot check failed");
+                System.exit(1);
+            }
+            System.out.printf("Resumed %d eaten fruits at %s%n", keys.size(), tier);
+        } finally {
+            Files.deleteIfExists(path);
+        }
+        System.out.println("Snapshot check passed");
+    }
+
+    /**
+     * Eats the fruits of the trees around the avatar, nearest columns first, up to a number.
+     */
+    private static void eatFruits(PepseGameManager manager, int fruitCount, List<Long> keys,
+                                  List<Vector2> positions) {
+        Flora flora = manager.getFlora();
+        WorldSnapshot state = manager.takeSnapshot();
+        float time = state.getElapsedTime();
+        int center = (int) Math.floor(state.getAvatarX() / Block.SIZE) * Block.SIZE; // Column of the avatar
+        for (int offset = 0; offset <= SCAN_DISTANCE && keys.size() < fruitCount; offset += Block.SIZE) {
+            for (int x : new int[]{center + offset, center - offset - Block.SIZE}) {
+                if (!flora.hasTreeAt(x)) {
+                    continue;
+                }
+                for (int i = 0; i < FRUITS_PER_TREE && keys.size() < fruitCount; i++) {
+                    long key = Tree.fruitKey(x, i);
+                    Fruit fruit = flora.getFruit(key);
+                    if (fruit != null && manager.eatFruit(key, time + REGROWTH_DELAY)) {
+                        keys.add(key);
+                        positions.add(fruit.getTopLeftCorner());
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package pepse.headless;
+
+import pepse.PepseGameManager;
+
+import java.awt.event.KeyEvent;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Walks the avatar of a headless game thousands of chunks to the right, then as many past the
+ * origin to the left, and checks that the game does not leak. At a fixed interval of chunks, it
+ * samples the heap used after a garbage collection, the number of live threads, the number of game
+ * objects and the number of loaded chunks. The samples taken after a warmup are fitted with a line,
+ * and the run fails if the slope of any of them, per thousand chunks, is above its limit.
+ * <p>
+ * The avatar is moved a fixed distance every frame instead of running, so that its energy and the
+ * slopes of the terrain cannot stall the walk; it keeps jumping so that clouds keep raining.
+ * <p>
+ * Usage: {@code java pepse.headless.SoakRunner [--chunks n] [--heap-slope bytes]
+ * [--thread-slope threads] [--object-slope objects] [--chunk-slope chunks]}
+ */
+public final class SoakRunner {
+    private static final int DEFAULT_CHUNKS = 2000; // Chunks walked in each direction
+    private static final float FRAME_TIME = 1f / 60; // Simulated duration of a frame
+    private static final int STEPS_PER_CHUNK = 10; // Frames the avatar takes to cross a chunk
+    private static final int JUMP_INTERVAL_FRAMES = 120; // Frames between two jumps of the avatar
+    private static final int SAMPLE_INTERVAL_CHUNKS = 50; // Chunks walked between two samples
+    private static final int WARMUP_CHUNKS = 200; // Chunks walked before the samples are fitted
+    private static final double CHUNKS_PER_SLOPE = 1000; // Chunks walked per unit of slope
+    private static final double DEFAULT_HEAP_SLOPE = 1 << 20; // Heap growth limit, in bytes
+    private static final double DEFAULT_THREAD_SLOPE = 0.5; // Thread growth limit
+    private static final double DEFAULT_OBJECT_SLOPE = 10; // Game object growth limit
+    private static final double DEFAULT_CHUNK_SLOPE = 0.1; // Loaded chunk growth limit
+    private static final double BYTES_PER_MEGABYTE = 1 << 20;
+
+    /**
+     * A measurement of the game's resources.
+     *
+     * @param chunksWalked The number of chunks walked when it was taken.
+     * @param heapBytes    The heap used after a garbage collection, in bytes.
+     * @param threads      The number of live threads.
+     * @param gameObjects  The number of game objects.
+     * @param loadedChunks The number of loaded chunks.
+     */
+    private record Sample(int chunksWalked, long heapBytes, int threads, int gameObjects,
+                          int loadedChunks) {
+    }
+
+    private SoakRunner() {
+    }
+
+    /**
+     * Runs the soak test and exits with status 1 if a resource grows faster than its limit.
+     *
+     * @param args The options of the run, see the class documentation.
+     */
+    public static void main(String[] args) {
+        int chunks = DEFAULT_CHUNKS;
+        double heapSlope = DEFAULT_HEAP_SLOPE;
+        double threadSlope = DEFAULT_THREAD_SLOPE;
+        double objectSlope = DEFAULT_OBJECT_SLOPE;
+        double chunkSlope = DEFAULT_CHUNK_SLOPE;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--chunks" -> chunks = Integer.parseInt(args[i + 1]);
+                case "--heap-slope" -> heapSlope = Double.parseDouble(args[i + 1]);
+                case "--thread-slope" -> threadSlope = Double.parseDouble(args[i + 1]);
+                case "--object-slope" -> objectSlope = Double.parseDouble(args[i + 1]);
+                case "--chunk-slope" -> chunkSlope = Double.parseDouble(args[i + 1]);
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        long[] frame = {0};
+        HeadlessGame game = new HeadlessGame(StandIns.userInput(key ->
+                key == KeyEvent.VK_SPACE && frame[0] % JUMP_INTERVAL_FRAMES == 0));
+        PepseGameManager manager = game.getGameManager();
+        float step = HeadlessGame.WINDOW_DIMENSIONS.x() / STEPS_PER_CHUNK;
+
+        List<Sample> samples = new ArrayList<>();
+        float x = 0;
+        int totalChunks = 3 * chunks; // Right to +chunks, then left to -chunks
+        for (int walked = 0; walked < totalChunks; walked++) {
+            float direction = walked < chunks ? 1 : -1;
+            for (int i = 0; i < STEPS_PER_CHUNK; i++, frame[0]++) {
+                x += direction * step;
+                manager.placeAvatar(x);
+                game.update(FRAME_TIME);
+            }
+            if ((walked + 1) % SAMPLE_INTERVAL_CHUNKS == 0) {
+                Sample sample = sample(walked + 1, manager);
+                samples.add(sample);
+                System.out.printf(Locale.ROOT,
+                        "chunks %6d | heap %8.2f MB | threads %3d | objects %6d | loaded chunks %3d%n",
+                        sample.chunksWalked(), sample.heapBytes() / BYTES_PER_MEGABYTE, sample.threads(),
+                        sample.gameObjects(), sample.loadedChunks());
+            }
+        }
+
+        List<Sample> fitted = samples.stream().filter(s -> s.chunksWalked() > WARMUP_CHUNKS).toList();
+        boolean isLeaking = check("heap (MB)", fitted, Sample::heapBytes, heapSlope, BYTES_PER_MEGABYTE)
+                | check("threads", fitted, Sample::threads, threadSlope, 1)
+                | check("game objects", fitted, Sample::gameObjects, objectSlope, 1)
+                | check("loaded chunks", fitted, Sample::loadedChunks, chunkSlope, 1);
+        if (isLeaking) {
+            System.out.println("Soak test failed");
+            System.exit(1);
+        }
+        System.out.println("Soak test passed");
+    }
+
+    /**
+     * Collects the garbage and measures the game's resources.
+     */
+    private static Sample sample(int chunksWalked, PepseGameManager manager) {
+        System.gc();
+        long heapBytes = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            MemoryUsage usage = pool.getCollectionUsage();
+            if (pool.getType() == MemoryType.HEAP && usage != null) {
+                heapBytes += usage.getUsed();
+            }
+        }
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        return new Sample(chunksWalked, heapBytes, threads.getThreadCount(), manager.countGameObjects(),
+                manager.getStats().loadedChunks());
+    }
+
+    /**
+     * Fits a resource with a line and prints its slope.
+     *
+     * @param name    The name of the resource.
+     * @param samples The samples to fit.
+     * @param metric  Reads the resource from a sample.
+     * @param limit   The highest slope allowed, per thousand chunks.
+     * @param unit    The value the printed slope is divided by.
+     * @return Whether the slope is above the limit.
+     */
+    private static boolean check(String name, List<Sample> samples, ToDoubleFunction<Sample> metric,
+                                 double limit, double unit) {
+        double slope = slope(samples, metric) * CHUNKS_PER_SLOPE;
+        boolean isLeaking = slope > limit;
+        System.out.printf(Locale.ROOT, "%-14s slope %10.3f per %.0f chunks (limit %.3f)%s%n", name,
+                slope / unit, CHUNKS_PER_SLOPE, limit / unit, isLeaking ? " LEAK" : "");
+        return isLeaking;
+    }
+
+    /**
+     * Computes the least-squares slope of a resource against the chunks walked.
+     *
+     * @return The slope, per chunk, or 0 with fewer than two samples.
+     */
+    private static double slope(List<Sample> samples, ToDoubleFunction<Sample> metric) {
+        int n = samples.size();
+        if (n < 2) {
+            return 0;
+        }
+        double meanX = 0;
+        double meanY = 0;
+        for (Sample sample : samples) {
+            meanX += sample.chunksWalked();
+            meanY += metric.applyAsDouble(sample);
+        }
+        meanX /= n;
+        meanY /= n;
+        double covariance = 0;
+        double variance = 0;
+        for (Sample sample : samples) {
+            double dx = sample.chunksWalked() - meanX;
+            covariance += dx * (metric.applyAsDouble(sample) - meanY);
+            variance += dx * dx;
+        }
+        return covariance / variance;
+    }
+}
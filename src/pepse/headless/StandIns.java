@@ -0,0 +1,95 @@
+package pepse.headless;
+
+import danogl.gui.UserInputListener;
+import danogl.gui.WindowController;
+import danogl.util.Vector2;
+
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntPredicate;
+
+/**
+ * Stand-ins for the window and the keyboard, so that the game can be initialized and updated
+ * without a display. The stand-ins are dynamic proxies: the few methods the game relies on are
+ * answered explicitly, and every other method returns a neutral value (false, zero, an empty
+ * collection, or null).
+ */
+public final class StandIns {
+    private StandIns() {
+    }
+
+    /**
+     * Creates a window controller reporting the given window dimensions, and ignoring every request
+     * made to the window.
+     *
+     * @param windowDimensions The dimensions of the simulated window.
+     * @return A window controller with no window behind it.
+     */
+    public static WindowController windowController(Vector2 windowDimensions) {
+        return (WindowController) Proxy.newProxyInstance(
+                WindowController.class.getClassLoader(),
+                new Class<?>[]{WindowController.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getWindowDimensions" -> windowDimensions;
+                    case "toString" -> "HeadlessWindowController";
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> neutralValue(method.getReturnType());
+                });
+    }
+
+    /**
+     * Creates an input listener whose keys are pressed according to a predicate.
+     *
+     * @param isKeyPressed Tells whether a key (a {@link java.awt.event.KeyEvent} code) is pressed.
+     * @return An input listener with no keyboard behind it.
+     */
+    public static UserInputListener userInput(IntPredicate isKeyPressed) {
+        return (UserInputListener) Proxy.newProxyInstance(
+                UserInputListener.class.getClassLoader(),
+                new Class<?>[]{UserInputListener.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "isKeyPressed" -> isKeyPressed.test((Integer) args[0]);
+                    case "toString" -> "HeadlessUserInputListener";
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> neutralValue(method.getReturnType());
+                });
+    }
+
+    /**
+     * Gets the value a stand-in returns from a method it does not support.
+     *
+     * @param type The return type of the method.
+     * @return A neutral value of the type.
+     */
+    private static Object neutralValue(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        if (type == float.class) {
+            return 0f;
+        }
+        if (type == double.class) {
+            return 0.0;
+        }
+        if (type == Vector2.class) {
+            return Vector2.ZERO;
+        }
+        if (type == Set.class) {
+            return Collections.emptySet();
+        }
+        if (type == List.class) {
+            return Collections.emptyList();
+        }
+        return null;
+    }
+}
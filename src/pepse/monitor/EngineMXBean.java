@@ -0,0 +1,51 @@
+package pepse.monitor;
+
+import java.util.Map;
+
+/**
+ * Live frame times and object counts of the engine, published by the game once per second. The
+ * frame times cover the last published second.
+ */
+public interface EngineMXBean {
+    /**
+     * Gets the number of frames per second.
+     *
+     * @return The number of frames per second.
+     */
+    double getFramesPerSecond();
+
+    /**
+     * Gets the median frame time, in milliseconds.
+     *
+     * @return The median frame time, in milliseconds.
+     */
+    double getFrameTimeP50Millis();
+
+    /**
+     * Gets the 99th percentile of the frame times, in milliseconds.
+     *
+     * @return The 99th percentile of the frame times, in milliseconds.
+     */
+    double getFrameTimeP99Millis();
+
+    /**
+     * Gets the longest frame time, in milliseconds.
+     *
+     * @return The longest frame time, in milliseconds.
+     */
+    double getFrameTimeMaxMillis();
+
+    /**
+     * Gets the quality tier the game runs at.
+     *
+     * @return The quality tier the game runs at.
+     */
+    String getQualityTier();
+
+    /**
+     * Gets the number of game objects in each of the main layers, by layer name.
+     *
+     * @return The number of game objects in each of the main layers, by layer name.
+     */
+    Map<String, Integer> getObjectsPerLayer();
+}
@@ -0,0 +1,89 @@
+package pepse.monitor;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The engine bean. The game thread publishes the frame times of the last second and the object
+ * counts, which the JMX threads read without touching the game.
+ */
+public class EngineMonitor implements EngineMXBean {
+    private volatile double framesPerSecond = 0;
+    private volatile double frameTimeP50Millis = 0;
+    private volatile double frameTimeP99Millis = 0;
+    private volatile double frameTimeMaxMillis = 0;
+    private volatile String qualityTier;
+    private volatile Map<String, Integer> objectsPerLayer = Collections.emptyMap();
+
+    /**
+     * Constructs the bean with no frame recorded.
+     *
+     * @param qualityTier The name of the quality tier the game starts at.
+     */
+    public EngineMonitor(String qualityTier) {
+        this.qualityTier = qualityTier;
+    }
+
+    /**
+     * Publishes the frame times of the last interval.
+     *
+     * @param framesPerSecond    The number of frames per second.
+     * @param frameTimeP50Millis The median frame time, in milliseconds.
+     * @param frameTimeP99Millis The 99th percentile of the frame times, in milliseconds.
+     * @param frameTimeMaxMillis The longest frame time, in milliseconds.
+     */
+    void publishFrameTimes(double framesPerSecond, double frameTimeP50Millis, double frameTimeP99Millis,
+                           double frameTimeMaxMillis) {
+        this.framesPerSecond = framesPerSecond;
+        this.frameTimeP50Millis = frameTimeP50Millis;
+        this.frameTimeP99Millis = frameTimeP99Millis;
+        this.frameTimeMaxMillis = frameTimeMaxMillis;
+    }
+
+    /**
+     * Publishes the quality tier and the object counts.
+     *
+     * @param qualityTier The name of the quality tier the game runs at.
+     * @param layerNames  The name of every counted layer.
+     * @param layerCounts The number of objects of every layer, in the order of the names.
+     */
+    void publishCounts(String qualityTier, String[] layerNames, int[] layerCounts) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (int i = 0; i < layerNames.length; i++) {
+            counts.put(layerNames[i], layerCounts[i]);
+        }
+        this.qualityTier = qualityTier;
+        this.objectsPerLayer = Collections.unmodifiableMap(counts);
+    }
+
+    @Override
+    public double getFramesPerSecond() {
+        return framesPerSecond;
+    }
+
+    @Override
+    public double getFrameTimeP50Millis() {
+        return frameTimeP50Millis;
+    }
+
+    @Override
+    public double getFrameTimeP99Millis() {
+        return frameTimeP99Millis;
+    }
+
+    @Override
+    public double getFrameTimeMaxMillis() {
+        return frameTimeMaxMillis;
+    }
+
+    @Override
+    public String getQualityTier() {
+        return qualityTier;
+    }
+
+    @Override
+    public Map<String, Integer> getObjectsPerLayer() {
+        return objectsPerLayer;
+    }
+}
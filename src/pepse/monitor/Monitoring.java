@@ -0,0 +1,147 @@
+package pepse.monitor;
+
+import danogl.collisions.GameObjectCollection;
+import pepse.WorldStats;
+import pepse.profile.LatencyHistogram;
+import pepse.profile.LayerCensus;
+import pepse.profile.MemoryAccounting;
+import pepse.quality.QualityGovernor;
+import pepse.quality.QualitySettings;
+import pepse.world.ViewBounds;
+import pepse.world.trees.Flora;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.function.Supplier;
+
+/**
+ * Exposes the world over JMX: the counters of the world ({@code pepse:type=World}), the frame times
+ * and object counts of the engine ({@code pepse:type=Engine}), and knobs to tune the world while it
+ * runs ({@code pepse:type=Tuning}). The beans are fed by the game thread once per second of game
+ * time, and the tuning changes are applied by the game thread between two frames. The description of
+ * the chunks' memory per category costs a string per publication, so it is only published when the
+ * game logs its memory, at the interval of the log.
+ * <p>
+ * A game registering its beans replaces the beans of any game registered before it.
+ */
+public class Monitoring {
+    private static final float PUBLISH_INTERVAL = 1f; // Game time between two publications, in seconds
+    private static final double P50 = 0.5;
+    private static final double P99 = 0.99;
+    private static final double NANOS_PER_MILLI = 1e6;
+    private static final float NANOS_PER_SECOND = 1e9f;
+
+    private final Supplier<WorldStats> stats;
+    private final Flora flora;
+    private final MemoryAccounting memoryAccounting;
+    private final GameObjectCollection gameObjects;
+    private final LayerCensus layerCensus;
+    private final QualityGovernor qualityGovernor;
+    private final WorldMonitor worldMonitor;
+    private final EngineMonitor engineMonitor;
+    private final WorldTuning tuning;
+    private final LatencyHistogram frameTimes = new LatencyHistogram();
+    private float intervalTime = 0; // Game time since the last publication
+    private float memorySummaryInterval = 0; // Game time between two memory summaries, 0 for none
+    private float memorySummaryTime = 0; // Game time since the last memory summary
+
+    /**
+     * Creates the beans of a world and registers them with the platform MBean server.
+     *
+     * @param stats           Takes a snapshot of the world's counters.
+     * @param flora           The flora growing the trees.
+     * @param memoryAccounting The estimated memory of the loaded chunks.
+     * @param gameObjects     The objects of the game.
+     * @param layerCensus     Counts the objects of the main layers.
+     * @param view            The region in which objects are kept awake.
+     * @param qualityGovernor The governor adapting the quality tier.
+     * @param quality         The quality settings of the world.
+     */
+    public Monitoring(Supplier<WorldStats> stats, Flora flora, MemoryAccounting memoryAccounting,
+                      GameObjectCollection gameObjects, LayerCensus layerCensus, ViewBounds view,
+                      QualityGovernor qualityGovernor, QualitySettings quality) {
+        this.stats = stats;
+        this.flora = flora;
+        this.memoryAccounting = memoryAccounting;
+        this.gameObjects = gameObjects;
+        this.layerCensus = layerCensus;
+        this.qualityGovernor = qualityGovernor;
+        this.worldMonitor = new WorldMonitor(stats.get());
+        this.engineMonitor = new EngineMonitor(qualityGovernor.getTier().name());
+        this.tuning = new WorldTuning(view, flora, qualityGovernor, quality);
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        register(server, worldMonitor, "pepse:type=World");
+        register(server, engineMonitor, "pepse:type=Engine");
+        register(server, tuning, "pepse:type=Tuning");
+    }
+
+    /**
+     * Records a frame, applies the pending tuning changes, and publishes the beans once an interval
+     * has passed.
+     *
+     * @param deltaTime The duration of the frame, in seconds.
+     */
+    public void onFrameEnd(float deltaTime) {
+        tuning.applyPendingChanges();
+        frameTimes.record((long) (deltaTime * NANOS_PER_SECOND));
+        if (memorySummaryInterval > 0) {
+            memorySummaryTime += deltaTime;
+            if (memorySummaryTime >= memorySummaryInterval) {
+                worldMonitor.publishMemorySummary(memoryAccounting.summary());
+                memorySummaryTime = 0;
+            }
+        }
+        intervalTime += deltaTime;
+        if (intervalTime < PUBLISH_INTERVAL) {
+            return;
+        }
+
+        worldMonitor.publish(stats.get(), flora.objectCount(), memoryAccounting.totalBytes(),
+                memoryAccounting.averageChunkBytes());
+        engineMonitor.publishFrameTimes(frameTimes.getCount() / intervalTime,
+                frameTimes.percentile(P50) / NANOS_PER_MILLI, frameTimes.percentile(P99) / NANOS_PER_MILLI,
+                frameTimes.getMax() / NANOS_PER_MILLI);
+        engineMonitor.publishCounts(qualityGovernor.getTier().name(), layerCensus.getNames(),
+                layerCensus.count(gameObjects));
+        tuning.refresh();
+        frameTimes.reset();
+        intervalTime = 0;
+    }
+
+    /**
+     * Publishes the estimated memory of the loaded chunks per category at a regular interval of game
+     * time, through the World bean.
+     *
+     * @param seconds The game time between two publications, 0 to stop publishing.
+     */
+    public void publishMemorySummaryEvery(float seconds) {
+        memorySummaryInterval = seconds;
+        memorySummaryTime = 0;
+        if (seconds <= 0) {
+            worldMonitor.publishMemorySummary("");
+        }
+    }
+
+    /**
+     * Forbids changing the tree density through the tuning bean, while the world is saved to
+     * snapshots or shared with other players.
+     */
+    public void lockTreeDensity() {
+        tuning.lockTreeDensity();
+    }
+
+    private static void register(MBeanServer server, Object bean, String name) {
+        try {
+            ObjectName objectName = new ObjectName(name);
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+            server.registerMBean(bean, objectName);
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot register the " + name + " bean", e);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package pepse.monitor;
+
+/**
+ * Knobs of the world that can be turned while the game runs. Changes are applied by the game
+ * thread at the end of the current frame. Setting a knob the quality tiers also set (the view
+ * margin or the rain cap) turns the quality adaptation off, so that the setting sticks.
+ */
+public interface TuningMXBean {
+    /**
+     * Gets the distance around the camera within which objects are kept awake, in pixels.
+     *
+     * @return The distance around the camera within which objects are kept awake, in pixels.
+     */
+    float getViewMargin();
+
+    /**
+     * Sets the distance around the camera within which objects are kept awake.
+     *
+     * @param viewMargin The distance around the camera, in pixels, between 0 and 1000.
+     * @throws IllegalArgumentException If the margin is out of range.
+     */
+    void setViewMargin(float viewMargin);
+
+    /**
+     * Gets the number of raindrops of a rain burst.
+     *
+     * @return The number of raindrops of a rain burst.
+     */
+    int getRainDropCount();
+
+    /**
+     * Sets the number of raindrops of a rain burst.
+     *
+     * @param rainDropCount The number of raindrops of a rain burst, between 0 and 100.
+     * @throws IllegalArgumentException If the count is out of range.
+     */
+    void setRainDropCount(int rainDropCount);
+
+    /**
+     * Gets the probability of a tree growing on a terrain column.
+     *
+     * @return The probability of a tree growing on a terrain column.
+     */
+    float getTreeDensity();
+
+    /**
+     * Sets the probability of a tree growing on a terrain column. The loaded chunks keep their trees.
+     * The density cannot change while the world is saved to snapshots or shared with other players,
+     * which regenerate its trees from the seed at the default density.
+     *
+     * @param treeDensity The probability of a tree growing on a terrain column of the chunks generated
+     *                    from now on, between 0 and 1.
+     * @throws IllegalArgumentException If the density is not between 0 and 1.
+     * @throws IllegalStateException    If the world is saved to snapshots or shared.
+     */
+    void setTreeDensity(float treeDensity);
+
+    /**
+     * Tells whether the quality tier adapts to the frame times.
+     *
+     * @return True if the quality tier adapts to the frame times.
+     */
+    boolean isQualityAdaptive();
+
+    /**
+     * Turns the adaptation of the quality tier on or off.
+     *
+     * @param qualityAdaptive True to adapt the quality tier to the frame times, false to keep it.
+     */
+    void setQualityAdaptive(boolean qualityAdaptive);
+}
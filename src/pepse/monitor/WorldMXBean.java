@@ -0,0 +1,105 @@
+package pepse.monitor;
+
+/**
+ * Live counters of the world, published by the game once per second.
+ */
+public interface WorldMXBean {
+    /**
+     * Gets the number of fixed simulation steps run so far.
+     *
+     * @return The number of fixed simulation steps run so far.
+     */
+    long getSimulationSteps();
+
+    /**
+     * Gets the number of chunks generated so far, including reloaded ones.
+     *
+     * @return The number of chunks generated so far, including reloaded ones.
+     */
+    long getChunkLoads();
+
+    /**
+     * Gets the number of chunks currently loaded.
+     *
+     * @return The number of chunks currently loaded.
+     */
+    int getLoadedChunks();
+
+    /**
+     * Gets the number of static objects in the world index.
+     *
+     * @return The number of static objects in the world index.
+     */
+    int getIndexedObjects();
+
+    /**
+     * Gets the number of indexed objects inside the view, in the game.
+     *
+     * @return The number of indexed objects inside the view, in the game.
+     */
+    int getAwakeObjects();
+
+    /**
+     * Gets the number of indexed objects near the avatar, able to collide.
+     *
+     * @return The number of indexed objects near the avatar, able to collide.
+     */
+    int getActiveObjects();
+
+    /**
+     * Gets the number of trunk blocks, leaves and fruits of the loaded chunks.
+     *
+     * @return The number of trunk blocks, leaves and fruits of the loaded chunks.
+     */
+    int getFloraObjects();
+
+    /**
+     * Gets the number of eaten fruits waiting to regrow.
+     *
+     * @return The number of eaten fruits waiting to regrow.
+     */
+    int getPendingFruits();
+
+    /**
+     * Gets the number of raindrops falling.
+     *
+     * @return The number of raindrops falling.
+     */
+    int getRainDrops();
+
+    /**
+     * Gets the number of jumps of the avatar so far.
+     *
+     * @return The number of jumps of the avatar so far.
+     */
+    long getJumps();
+
+    /**
+     * Gets the number of rain groups the clouds have generated so far.
+     *
+     * @return The number of rain groups the clouds have generated so far.
+     */
+    long getRainBursts();
+
+    /**
+     * Gets the estimated heap retained by the objects of the loaded chunks.
+     *
+     * @return The estimated heap retained by the objects of the loaded chunks, in bytes.
+     */
+    long getChunkMemoryBytes();
+
+    /**
+     * Gets the estimated heap retained by an average loaded chunk.
+     *
+     * @return The estimated heap retained by an average loaded chunk, in bytes.
+     */
+    long getAverageChunkMemoryBytes();
+
+    /**
+     * Gets the estimated memory of the loaded chunks per category, published at the interval of the
+     * game's memory log.
+     *
+     * @return The description of the estimated memory, or an empty string if the memory is not logged.
+     */
+    String getChunkMemorySummary();
+}
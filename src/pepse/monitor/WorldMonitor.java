@@ -0,0 +1,118 @@
+package pepse.monitor;
+
+import pepse.WorldStats;
+
+/**
+ * The world counters bean. The game thread publishes a snapshot of the counters, which the JMX
+ * threads read without touching the world.
+ */
+public class WorldMonitor implements WorldMXBean {
+    private volatile WorldStats stats;
+    private volatile int floraObjects = 0;
+    private volatile long chunkMemoryBytes = 0;
+    private volatile long averageChunkMemoryBytes = 0;
+    private volatile String chunkMemorySummary = "";
+
+    /**
+     * Constructs the bean with the counters of the world at its start.
+     *
+     * @param stats The counters of the world.
+     */
+    public WorldMonitor(WorldStats stats) {
+        this.stats = stats;
+    }
+
+    /**
+     * Publishes the current counters of the world.
+     *
+     * @param stats                   The counters of the world.
+     * @param floraObjects            The number of objects of the flora.
+     * @param chunkMemoryBytes        The estimated heap retained by the loaded chunks, in bytes.
+     * @param averageChunkMemoryBytes The estimated heap retained by an average chunk, in bytes.
+     */
+    void publish(WorldStats stats, int floraObjects, long chunkMemoryBytes, long averageChunkMemoryBytes) {
+        this.stats = stats;
+        this.floraObjects = floraObjects;
+        this.chunkMemoryBytes = chunkMemoryBytes;
+        this.averageChunkMemoryBytes = averageChunkMemoryBytes;
+    }
+
+    /**
+     * Publishes the estimated memory of the loaded chunks per category.
+     *
+     * @param chunkMemorySummary The description of the estimated memory.
+     */
+    void publishMemorySummary(String chunkMemorySummary) {
+        this.chunkMemorySummary = chunkMemorySummary;
+    }
+
+    @Override
+    public long getSimulationSteps() {
+        return stats.simulationSteps();
+    }
+
+    @Override
+    public long getChunkLoads() {
+        return stats.chunkLoads();
+    }
+
+    @Override
+    public int getLoadedChunks() {
+        return stats.loadedChunks();
+    }
+
+    @Override
+    public int getIndexedObjects() {
+        return stats.indexedObjects();
+    }
+
+    @Override
+    public int getAwakeObjects() {
+        return stats.awakeObjects();
+    }
+
+    @Override
+    public int getActiveObjects() {
+        return stats.activeObjects();
+    }
+
+    @Override
+    public int getFloraObjects() {
+        return floraObjects;
+    }
+
+    @Override
+    public int getPendingFruits() {
+        return stats.pendingFruits();
+    }
+
+    @Override
+    public int getRainDrops() {
+        return stats.rainDrops();
+    }
+
+    @Override
+    public long getJumps() {
+        return stats.jumps();
+    }
+
+    @Override
+    public long getRainBursts() {
+        return stats.rainBursts();
+    }
+
+    @Override
+    public long getChunkMemoryBytes() {
+        return chunkMemoryBytes;
+    }
+
+    @Override
+    public long getAverageChunkMemoryBytes() {
+        return averageChunkMemoryBytes;
+    }
+
+    @Override
+    public String getChunkMemorySummary() {
+        return chunkMemorySummary;
+    }
+}
@@ -0,0 +1,144 @@
+package pepse.monitor;
+
+import pepse.quality.QualityGovernor;
+import pepse.quality.QualitySettings;
+import pepse.world.ViewBounds;
+import pepse.world.trees.Flora;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * The tuning bean. The JMX threads only queue the changes, and the game thread applies them between
+ * two frames, so the world is never modified from outside the game loop.
+ */
+public class WorldTuning implements TuningMXBean {
+    private static final float MAX_VIEW_MARGIN = 1000; // Widest margin, past which all nearby chunks wake
+    private static final int MAX_RAIN_DROP_COUNT = 100; // Most raindrops a burst may spawn per cloud
+
+    private final ViewBounds view;
+    private final Flora flora;
+    private final QualityGovernor qualityGovernor;
+    private final QualitySettings quality;
+    private final Queue<Runnable> pendingChanges = new ConcurrentLinkedQueue<>();
+    private volatile float viewMargin;
+    private volatile int rainDropCount;
+    private volatile float treeDensity;
+    private volatile boolean isQualityAdaptive = true;
+    private volatile boolean isTreeDensityLocked = false; // Set while the world is saved or shared
+
+    /**
+     * Constructs the tuning bean of a world.
+     *
+     * @param view            The region in which objects are kept awake.
+     * @param flora           The flora growing the trees.
+     * @param qualityGovernor The governor adapting the quality tier.
+     * @param quality         The quality settings of the world, which set its rain.
+     */
+    public WorldTuning(ViewBounds view, Flora flora, QualityGovernor qualityGovernor,
+                       QualitySettings quality) {
+        this.view = view;
+        this.flora = flora;
+        this.qualityGovernor = qualityGovernor;
+        this.quality = quality;
+        refresh();
+    }
+
+    /**
+     * Applies the queued changes. Called by the game thread.
+     */
+    void applyPendingChanges() {
+        Runnable change;
+        while ((change = pendingChanges.poll()) != null) {
+            change.run();
+        }
+    }
+
+    /**
+     * Reads the current values of the knobs, which the quality governor may have changed. Called by
+     * the game thread.
+     */
+    void refresh() {
+        viewMargin = view.getMargin();
+        rainDropCount = quality.getRainDropCount();
+        treeDensity = flora.getTreeProbability();
+    }
+
+    @Override
+    public float getViewMargin() {
+        return viewMargin;
+    }
+
+    @Override
+    public void setViewMargin(float viewMargin) {
+        if (!(viewMargin >= 0 && viewMargin <= MAX_VIEW_MARGIN)) {
+            throw new IllegalArgumentException("View margin must be between 0 and " + MAX_VIEW_MARGIN
+                    + " pixels, got " + viewMargin);
+        }
+        pendingChanges.add(() -> {
+            stopAdapting();
+            view.setMargin(viewMargin);
+        });
+    }
+
+    @Override
+    public int getRainDropCount() {
+        return rainDropCount;
+    }
+
+    @Override
+    public void setRainDropCount(int rainDropCount) {
+        if (rainDropCount < 0 || rainDropCount > MAX_RAIN_DROP_COUNT) {
+            throw new IllegalArgumentException("Rain drop count must be between 0 and "
+                    + MAX_RAIN_DROP_COUNT + ", got " + rainDropCount);
+        }
+        pendingChanges.add(() -> {
+            stopAdapting();
+            quality.setRainDropCount(rainDropCount);
+        });
+    }
+
+    @Override
+    public float getTreeDensity() {
+        return treeDensity;
+    }
+
+    @Override
+    public void setTreeDensity(float treeDensity) {
+        if (!(treeDensity >= 0 && treeDensity <= 1)) {
+            throw new IllegalArgumentException("Tree density must be between 0 and 1, got " + treeDensity);
+        }
+        if (isTreeDensityLocked) {
+            throw new IllegalStateException("Tree density cannot change while the world is saved or shared");
+        }
+        pendingChanges.add(() -> flora.setTreeProbability(treeDensity));
+    }
+
+    /**
+     * Forbids changing the tree density from now on. Snapshots and the other players of a shared
+     * world grow the trees of the default density from the seed, so a tuned density would give them
+     * other trees, and other fruits, than the game.
+     */
+    void lockTreeDensity() {
+        isTreeDensityLocked = true;
+    }
+
+    @Override
+    public boolean isQualityAdaptive() {
+        return isQualityAdaptive;
+    }
+
+    @Override
+    public void setQualityAdaptive(boolean qualityAdaptive) {
+        isQualityAdaptive = qualityAdaptive;
+        pendingChanges.add(() -> qualityGovernor.setEnabled(qualityAdaptive));
+    }
+
+    /**
+     * Turns the quality adaptation off, so that it does not undo a tuned knob.
+     */
+    private void stopAdapting() {
+        isQualityAdaptive = false;
+        qualityGovernor.setEnabled(false);
+    }
+}
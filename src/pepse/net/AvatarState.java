@@ -0,0 +1,14 @@
+package pepse.net;
+
+/**
+ * The state of an avatar as it is sent over the network.
+ *
+ * @param id     The id of the client controlling the avatar.
+ * @param x      The quantised x-coordinate of the avatar's top-left corner.
+ * @param y      The quantised y-coordinate of the avatar's top-left corner.
+ * @param energy The energy of the avatar.
+ * @param keys   The keys held by the client, as the bits of {@link pepse.replay.InputRecording}.
+ * @param jumps  The number of jumps of the avatar so far, each of which makes the clouds rain.
+ */
+public record AvatarState(int id, int x, int y, int energy, int keys, int jumps) {
+}
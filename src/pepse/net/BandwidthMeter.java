@@ -0,0 +1,128 @@
+package pepse.net;
+
+import java.util.Locale;
+
+/**
+ * Counts the bytes sent to and received from a peer, per second of wall time, and the malformed
+ * packets received from it.
+ */
+public class BandwidthMeter {
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private long secondStart; // Start of the second being counted, in nanoseconds
+    private long sentThisSecond = 0;
+    private long receivedThisSecond = 0;
+    private long sentLastSecond = 0;
+    private long receivedLastSecond = 0;
+    private long totalSent = 0;
+    private long totalReceived = 0;
+    private long droppedPackets = 0; // Truncated or malformed packets received
+
+    /**
+     * Constructs a meter counting from now.
+     */
+    public BandwidthMeter() {
+        secondStart = System.nanoTime();
+    }
+
+    /**
+     * Counts a packet sent to the peer.
+     *
+     * @param bytes The size of the packet.
+     */
+    public void sent(int bytes) {
+        sentThisSecond += bytes;
+        totalSent += bytes;
+    }
+
+    /**
+     * Counts a packet received from the peer.
+     *
+     * @param bytes The size of the packet.
+     */
+    public void received(int bytes) {
+        receivedThisSecond += bytes;
+        totalReceived += bytes;
+    }
+
+    /**
+     * Counts a packet received from the peer that was dropped as truncated or malformed.
+     */
+    public void dropped() {
+        droppedPackets++;
+    }
+
+    /**
+     * Ends the second being counted if it is over.
+     *
+     * @return True if a second ended, and the counts of the last second changed.
+     */
+    public boolean roll() {
+        long now = System.nanoTime();
+        if (now - secondStart < NANOS_PER_SECOND) {
+            return false;
+        }
+        double seconds = (now - secondStart) / (double) NANOS_PER_SECOND;
+        sentLastSecond = Math.round(sentThisSecond / seconds);
+        receivedLastSecond = Math.round(receivedThisSecond / seconds);
+        sentThisSecond = 0;
+        receivedThisSecond = 0;
+        secondStart = now;
+        return true;
+    }
+
+    /**
+     * Gets the bytes sent during the last second.
+     *
+     * @return The bytes sent per second.
+     */
+    public long getSentPerSecond() {
+        return sentLastSecond;
+    }
+
+    /**
+     * Gets the bytes received during the last second.
+     *
+     * @return The bytes received per second.
+     */
+    public long getReceivedPerSecond() {
+        return receivedLastSecond;
+    }
+
+    /**
+     * Gets the bytes sent since the meter was created.
+     *
+     * @return The total bytes sent.
+     */
+    public long getTotalSent() {
+        return totalSent;
+    }
+
+    /**
+     * Gets the bytes received since the meter was created.
+     *
+     * @return The total bytes received.
+     */
+    public long getTotalReceived() {
+        return totalReceived;
+    }
+
+    /**
+     * Gets the packets dropped since the meter was created.
+     *
+     * @return The number of truncated or malformed packets received.
+     */
+    public long getDroppedPackets() {
+        return droppedPackets;
+    }
+
+    /**
+     * Describes the last second in a single line.
+     *
+     * @return The bytes sent and received during the last second, and the packets dropped so far.
+     */
+    public String summary() {
+        return String.format(Locale.ROOT, "out %5d B/s | in %5d B/s | dropped %d", sentLastSecond,
+                receivedLastSecond, droppedPackets);
+    }
+}
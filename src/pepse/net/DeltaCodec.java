@@ -0,0 +1,291 @@
+package pepse.net;
+
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.function.IntFunction;
+
+/**
+ * Encodes a world state as its difference from a baseline state that the receiver already has. The
+ * inputs of the clients are encoded the same way, as states holding the client's avatar and the
+ * fruits it ate, ticked by their sequence number.
+ * <p>
+ * An encoded state starts with its tick and the tick of its baseline, -1 for the empty state. It is
+ * followed by the ids of the avatars removed since the baseline, then by the avatars added or
+ * changed: the id, a byte of flags telling which fields changed, and the changed fields, the
+ * coordinates and the jumps as variable-length differences from the baseline. Last come the keys of
+ * the fruits that grew back since the baseline, and the keys and due times of the newly eaten ones.
+ * An avatar standing still and a world where no fruit is eaten therefore cost nothing but the
+ * header.
+ * <p>
+ * Packets come from the network, so the decoder trusts none of their counts: every count must fit in
+ * the bytes left in the packet, and a packet that does not is rejected before anything is allocated
+ * for it.
+ */
+public final class DeltaCodec {
+    private static final int X_CHANGED = 1; // Flag of a changed x-coordinate
+    private static final int Y_CHANGED = 1 << 1; // Flag of a changed y-coordinate
+    private static final int ENERGY_CHANGED = 1 << 2; // Flag of a changed energy
+    private static final int KEYS_CHANGED = 1 << 3; // Flag of changed keys
+    private static final int JUMPS_CHANGED = 1 << 4; // Flag of a changed number of jumps
+    private static final int VARINT_BITS = 7; // Bits of a value carried by every byte of a varint
+    private static final int VARINT_MORE = 0x80; // Flag of a varint byte followed by another
+    private static final int MAX_VARINT_SHIFT = 28; // Shift of the fifth and last byte of a varint
+    private static final int MIN_AVATAR_BYTES = 2; // Id and flags of an avatar with no changed field
+
+    private DeltaCodec() {
+    }
+
+    /**
+     * Writes a state as its difference from a baseline.
+     *
+     * @param out      The output to write to.
+     * @param state    The state to write.
+     * @param baseline The state the receiver already has, or {@link NetState#empty()}.
+     * @throws IOException If the output cannot be written.
+     */
+    public static void encode(DataOutput out, NetState state, NetState baseline) throws IOException {
+        out.writeInt(state.getTick());
+        out.writeInt(baseline.getTick());
+
+        NavigableMap<Integer, AvatarState> avatars = state.getAvatars();
+        NavigableMap<Integer, AvatarState> baseAvatars = baseline.getAvatars();
+        writeVarInt(out, countMissing(baseAvatars, avatars));
+        for (int id : baseAvatars.keySet()) {
+            if (!avatars.containsKey(id)) {
+                writeVarInt(out, id);
+            }
+        }
+        int changed = 0;
+        for (AvatarState avatar : avatars.values()) {
+            if (!avatar.equals(baseAvatars.get(avatar.id()))) {
+                changed++;
+            }
+        }
+        writeVarInt(out, changed);
+        for (AvatarState avatar : avatars.values()) {
+            AvatarState base = baseAvatars.get(avatar.id());
+            if (!avatar.equals(base)) {
+                writeAvatar(out, avatar, base == null ? blank(avatar.id()) : base);
+            }
+        }
+
+        NavigableMap<Long, Float> fruits = state.getEatenFruits();
+        NavigableMap<Long, Float> baseFruits = baseline.getEatenFruits();
+        writeVarInt(out, countMissing(baseFruits, fruits));
+        for (long key : baseFruits.keySet()) {
+            if (!fruits.containsKey(key)) {
+                out.writeLong(key);
+            }
+        }
+        int eaten = 0;
+        for (Map.Entry<Long, Float> fruit : fruits.entrySet()) {
+            if (!fruit.getValue().equals(baseFruits.get(fruit.getKey()))) {
+                eaten++;
+            }
+        }
+        writeVarInt(out, eaten);
+        for (Map.Entry<Long, Float> fruit : fruits.entrySet()) {
+            if (!fruit.getValue().equals(baseFruits.get(fruit.getKey()))) {
+                out.writeLong(fruit.getKey());
+                out.writeFloat(fruit.getValue());
+            }
+        }
+    }
+
+    /**
+     * Reads a state written by {@link #encode}.
+     *
+     * @param in        The packet to read from, over a byte array so that the bytes left are known.
+     * @param baselines Finds a state previously received by its tick, or returns null if it is gone.
+     * @return The state, or null if its baseline is no longer known.
+     * @throws IOException If the packet is truncated or malformed.
+     */
+    public static NetState decode(DataInputStream in, IntFunction<NetState> baselines) throws IOException {
+        int tick = in.readInt();
+        int baselineTick = in.readInt();
+        if (tick < 0) {
+            throw new IOException("Malformed packet: negative tick " + tick);
+        }
+        NetState baseline = baselineTick < 0 ? NetState.empty() : baselines.apply(baselineTick);
+        if (baseline == null) {
+            return null;
+        }
+
+        NetState state = new NetState(tick);
+        NavigableMap<Integer, AvatarState> baseAvatars = baseline.getAvatars();
+        int removed = readCount(in, 1);
+        int[] removedIds = new int[removed];
+        for (int i = 0; i < removed; i++) {
+            removedIds[i] = readVarInt(in);
+        }
+        for (AvatarState avatar : baseAvatars.values()) {
+            if (!contains(removedIds, avatar.id())) {
+                state.putAvatar(avatar);
+            }
+        }
+        int changed = readCount(in, MIN_AVATAR_BYTES);
+        for (int i = 0; i < changed; i++) {
+            int id = readVarInt(in);
+            AvatarState base = baseAvatars.get(id);
+            state.putAvatar(readAvatar(in, base == null ? blank(id) : base));
+        }
+
+        NavigableMap<Long, Float> baseFruits = baseline.getEatenFruits();
+        int regrown = readCount(in, Long.BYTES);
+        long[] regrownKeys = new long[regrown];
+        for (int i = 0; i < regrown; i++) {
+            regrownKeys[i] = in.readLong();
+        }
+        for (Map.Entry<Long, Float> fruit : baseFruits.entrySet()) {
+            if (!contains(regrownKeys, fruit.getKey())) {
+                state.putEatenFruit(fruit.getKey(), fruit.getValue());
+            }
+        }
+        int eaten = readCount(in, Long.BYTES + Float.BYTES);
+        for (int i = 0; i < eaten; i++) {
+            long key = in.readLong();
+            state.putEatenFruit(key, in.readFloat());
+        }
+        return state;
+    }
+
+    /**
+     * Reads the number of entries that follow, and checks that they fit in the bytes left in the
+     * packet.
+     *
+     * @param minimumBytes The fewest bytes an entry takes.
+     * @throws IOException If the count is negative or more entries than the packet can hold.
+     */
+    private static int readCount(DataInputStream in, int minimumBytes) throws IOException {
+        int count = readVarInt(in);
+        if (count < 0 || count > in.available() / minimumBytes) {
+            throw new IOException("Malformed packet: " + count + " entries in " + in.available() + " bytes");
+        }
+        return count;
+    }
+
+    /**
+     * Counts the keys of a baseline map missing from a newer one.
+     */
+    private static int countMissing(Map<?, ?> baseline, Map<?, ?> current) {
+        int missing = 0;
+        for (Object key : baseline.keySet()) {
+            if (!current.containsKey(key)) {
+                missing++;
+            }
+        }
+        return missing;
+    }
+
+    private static boolean contains(int[] values, int value) {
+        for (int candidate : values) {
+            if (candidate == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean contains(long[] values, long value) {
+        for (long candidate : values) {
+            if (candidate == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the baseline of an avatar that the receiver does not know yet.
+     */
+    private static AvatarState blank(int id) {
+        return new AvatarState(id, 0, 0, 0, 0, 0);
+    }
+
+    private static void writeAvatar(DataOutput out, AvatarState avatar, AvatarState base) throws IOException {
+        int flags = (avatar.x() != base.x() ? X_CHANGED : 0)
+                | (avatar.y() != base.y() ? Y_CHANGED : 0)
+                | (avatar.energy() != base.energy() ? ENERGY_CHANGED : 0)
+                | (avatar.keys() != base.keys() ? KEYS_CHANGED : 0)
+                | (avatar.jumps() != base.jumps() ? JUMPS_CHANGED : 0);
+        writeVarInt(out, avatar.id());
+        out.writeByte(flags);
+        if ((flags & X_CHANGED) != 0) {
+            writeSignedVarInt(out, avatar.x() - base.x());
+        }
+        if ((flags & Y_CHANGED) != 0) {
+            writeSignedVarInt(out, avatar.y() - base.y());
+        }
+        if ((flags & ENERGY_CHANGED) != 0) {
+            writeVarInt(out, avatar.energy());
+        }
+        if ((flags & KEYS_CHANGED) != 0) {
+            out.writeByte(avatar.keys());
+        }
+        if ((flags & JUMPS_CHANGED) != 0) {
+            writeSignedVarInt(out, avatar.jumps() - base.jumps());
+        }
+    }
+
+    private static AvatarState readAvatar(DataInput in, AvatarState base) throws IOException {
+        int flags = in.readUnsignedByte();
+        int x = (flags & X_CHANGED) != 0 ? base.x() + readSignedVarInt(in) : base.x();
+        int y = (flags & Y_CHANGED) != 0 ? base.y() + readSignedVarInt(in) : base.y();
+        int energy = (flags & ENERGY_CHANGED) != 0 ? readVarInt(in) : base.energy();
+        int keys = (flags & KEYS_CHANGED) != 0 ? in.readUnsignedByte() : base.keys();
+        int jumps = (flags & JUMPS_CHANGED) != 0 ? base.jumps() + readSignedVarInt(in) : base.jumps();
+        return new AvatarState(base.id(), x, y, energy, keys, jumps);
+    }
+
+    /**
+     * Writes a non-negative value in as few bytes as it needs, seven bits per byte.
+     *
+     * @param out   The output to write to.
+     * @param value The value, not negative.
+     * @throws IOException If the output cannot be written.
+     */
+    static void writeVarInt(DataOutput out, int value) throws IOException {
+        while ((value & ~(VARINT_MORE - 1)) != 0) {
+            out.writeByte((value & (VARINT_MORE - 1)) | VARINT_MORE);
+            value >>>= VARINT_BITS;
+        }
+        out.writeByte(value);
+    }
+
+    /**
+     * Reads a value written by {@link #writeVarInt}.
+     *
+     * @param in The input to read from.
+     * @return The value.
+     * @throws IOException If the input cannot be read, or the value takes more than five bytes.
+     */
+    static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; ; shift += VARINT_BITS) {
+            if (shift > MAX_VARINT_SHIFT) {
+                throw new IOException("Malformed packet: varint longer than an int");
+            }
+            int b = in.readUnsignedByte();
+            value |= (b & (VARINT_MORE - 1)) << shift;
+            if ((b & VARINT_MORE) == 0) {
+                return value;
+            }
+        }
+    }
+
+    /**
+     * Writes a signed value with zigzag encoding, so that small negative values are short too.
+     */
+    private static void writeSignedVarInt(DataOutput out, int value) throws IOException {
+        writeVarInt(out, (value << 1) ^ (value >> (Integer.SIZE - 1)));
+    }
+
+    private static int readSignedVarInt(DataInput in) throws IOException {
+        int zigzag = readVarInt(in);
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+}
@@ -0,0 +1,83 @@
+package pepse.net;
+
+import pepse.headless.HeadlessGame;
+import pepse.headless.StandIns;
+
+import java.awt.event.KeyEvent;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A headless player of a multiplayer world, to test the server with several clients on one machine.
+ * It joins the server, plays a headless game in real time for a number of seconds, walking back and
+ * forth and jumping now and then, and prints the bandwidth it uses every second. Clients with odd and
+ * even ids start walking in opposite directions, so that their avatars spread out.
+ * <p>
+ * The client exits with status 1 if it never saw as many other avatars as expected at once.
+ * <p>
+ * Usage: {@code java pepse.net.HeadlessClient [--server host:port] [--seconds s] [--expect avatars]}
+ */
+public final class HeadlessClient {
+    private static final float FRAME_TIME = 1f / 60; // Duration of a frame, played in real time
+    private static final long FRAME_NANOS = Math.round(FRAME_TIME * 1e9);
+    private static final int DEFAULT_SECONDS = 20; // Time played
+    private static final int WALK_FRAMES = 180; // Frames walked in a direction before turning back
+    private static final int JUMP_INTERVAL_FRAMES = 90; // Frames between two jumps
+
+    private HeadlessClient() {
+    }
+
+    /**
+     * Plays in the world of a server, and exits with status 1 if fewer other avatars than expected
+     * were seen.
+     *
+     * @param args The options of the client, see the class documentation.
+     * @throws IOException If the server cannot be joined.
+     */
+    public static void main(String[] args) throws IOException {
+        String server = "127.0.0.1:" + NetProtocol.DEFAULT_PORT;
+        int seconds = DEFAULT_SECONDS;
+        int expected = 0;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--server" -> server = args[i + 1];
+                case "--seconds" -> seconds = Integer.parseInt(args[i + 1]);
+                case "--expect" -> expected = Integer.parseInt(args[i + 1]);
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        int colon = server.lastIndexOf(':');
+        NetClient client = NetClient.connect(new InetSocketAddress(server.substring(0, colon),
+                Integer.parseInt(server.substring(colon + 1))));
+        int direction = client.getClientId() % 2 == 0 ? KeyEvent.VK_LEFT : KeyEvent.VK_RIGHT;
+        int otherDirection = direction == KeyEvent.VK_LEFT ? KeyEvent.VK_RIGHT : KeyEvent.VK_LEFT;
+        long[] frame = {0};
+        HeadlessGame game = new HeadlessGame(StandIns.userInput(key -> {
+            boolean isFirstLeg = frame[0] / WALK_FRAMES % 2 == 0;
+            return key == (isFirstLeg ? direction : otherDirection)
+                    || key == KeyEvent.VK_SPACE && frame[0] % JUMP_INTERVAL_FRAMES == 0;
+        }), manager -> manager.joinServer(client));
+        NetSession session = game.getGameManager().getNetSession();
+        session.setReporting(true);
+
+        long frames = Math.round(seconds / FRAME_TIME);
+        long nextFrame = System.nanoTime();
+        for (; frame[0] < frames; frame[0]++) {
+            game.update(FRAME_TIME);
+            nextFrame += FRAME_NANOS;
+            LockSupport.parkNanos(nextFrame - System.nanoTime());
+        }
+        client.close();
+
+        BandwidthMeter meter = client.getMeter();
+        System.out.printf("client %d: sent %d bytes, received %d bytes in %d s, saw %d other avatars%n",
+                client.getClientId(), meter.getTotalSent(), meter.getTotalReceived(), seconds,
+                session.getMostRemoteAvatars());
+        if (session.getMostRemoteAvatars() < expected) {
+            System.out.println("client " + client.getClientId() + " expected " + expected + " other avatars");
+            System.exit(1);
+        }
+    }
+}
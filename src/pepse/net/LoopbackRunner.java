@@ -0,0 +1,71 @@
+package pepse.net;
+
+import pepse.PepseGameManager;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests a multiplayer world on the local machine: a server is started on a free port, and a number
+ * of {@link HeadlessClient} processes join it and play for a number of seconds. The server prints the
+ * bandwidth of every client every second, and every client prints its own.
+ * <p>
+ * Every client runs in its own process, as a player would, since a game owns static state. The run
+ * exits with status 1 if a client failed, or did not see all the other avatars at once.
+ * <p>
+ * Usage: {@code java pepse.net.LoopbackRunner [--clients n] [--seconds s]}
+ */
+public final class LoopbackRunner {
+    private static final int DEFAULT_CLIENTS = 3; // Clients joining the server
+    private static final int DEFAULT_SECONDS = 20; // Time played by every client
+
+    private LoopbackRunner() {
+    }
+
+    /**
+     * Runs the server and the clients, and exits with status 1 if a client failed.
+     *
+     * @param args The options of the run, see the class documentation.
+     * @throws IOException          If the server or a client cannot be started.
+     * @throws InterruptedException If interrupted while waiting for the clients.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int clients = DEFAULT_CLIENTS;
+        int seconds = DEFAULT_SECONDS;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--clients" -> clients = Integer.parseInt(args[i + 1]);
+                case "--seconds" -> seconds = Integer.parseInt(args[i + 1]);
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        NetServer server = new NetServer(0, PepseGameManager.WORLD_SEED);
+        Thread serverThread = new Thread(server, "pepse-server");
+        serverThread.start();
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        List<Process> processes = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            processes.add(new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                    HeadlessClient.class.getName(), "--server", "127.0.0.1:" + server.getPort(),
+                    "--seconds", String.valueOf(seconds), "--expect", String.valueOf(clients - 1))
+                    .inheritIO().start());
+        }
+
+        int failures = 0;
+        for (Process process : processes) {
+            if (process.waitFor() != 0) {
+                failures++;
+            }
+        }
+        server.stop();
+        serverThread.join();
+        if (failures > 0) {
+            System.out.println("Loopback test failed: " + failures + " of " + clients + " clients");
+            System.exit(1);
+        }
+        System.out.println("Loopback test passed");
+    }
+}
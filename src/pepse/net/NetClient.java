@@ -0,0 +1,271 @@
+package pepse.net;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.Map;
+import java.util.NavigableMap;
+
+/**
+ * The connection of a client to a multiplayer world. It joins the server, sends the client's input
+ * and avatar, and receives the world states, which it decodes against the states it received before
+ * and acknowledges with its next input. Inputs are encoded the same way, against the last input the
+ * server acknowledged in its states.
+ * <p>
+ * The client is not thread safe: it is used by the game thread only, and never blocks once joined.
+ */
+public class NetClient implements Closeable {
+    private static final long HELLO_INTERVAL_MILLIS = 250; // Time between two attempts to join
+    private static final long JOIN_TIMEOUT_MILLIS = 5000; // Time after which joining fails
+    private static final long JOIN_POLL_MILLIS = 10; // Time between two checks for the welcome
+
+    private final DatagramChannel channel;
+    private final NetState[] history = new NetState[NetProtocol.HISTORY]; // Received states, by tick
+    private final NetState[] sentInputs = new NetState[NetProtocol.HISTORY]; // Sent inputs, by sequence
+    private final ByteBuffer receiveBuffer = ByteBuffer.allocate(NetProtocol.MAX_PACKET_SIZE);
+    private final BandwidthMeter meter = new BandwidthMeter();
+    private int clientId;
+    private int seed;
+    private float worldTime;
+    private NetState state = NetState.empty(); // Latest state received
+    private int inputSequence = 0; // Sequence number of the next input
+    private int ackedInput = -1; // Last input the server received, -1 if none yet
+
+    private NetClient(DatagramChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Joins the world of a server, waiting for its welcome.
+     *
+     * @param server The address of the server.
+     * @return The connection to the server.
+     * @throws IOException If the server cannot be reached or does not answer.
+     */
+    public static NetClient connect(InetSocketAddress server) throws IOException {
+        DatagramChannel channel = DatagramChannel.open();
+        channel.connect(server);
+        channel.configureBlocking(false);
+        NetClient client = new NetClient(channel);
+        try {
+            client.join();
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return client;
+    }
+
+    /**
+     * Sends hellos until the server welcomes the client.
+     */
+    private void join() throws IOException {
+        long start = System.currentTimeMillis();
+        long lastHello = 0;
+        while (System.currentTimeMillis() - start < JOIN_TIMEOUT_MILLIS) {
+            if (System.currentTimeMillis() - lastHello >= HELLO_INTERVAL_MILLIS) {
+                send(new byte[]{NetProtocol.HELLO});
+                lastHello = System.currentTimeMillis();
+            }
+            DataInputStream in = receivePacket();
+            if (in != null && in.readByte() == NetProtocol.WELCOME) {
+                clientId = in.readInt();
+                seed = in.readInt();
+                worldTime = in.readFloat();
+                return;
+            }
+            try {
+                Thread.sleep(JOIN_POLL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while joining " + channel.getRemoteAddress());
+            }
+        }
+        throw new IOException("No answer from " + channel.getRemoteAddress());
+    }
+
+    /**
+     * Sends the input and the avatar of the client, acknowledging the latest state received. The
+     * input is delta compressed against the last input the server acknowledged: only the changed
+     * fields of the avatar are sent, and the fruits eaten or grown back since. The fruits the server
+     * already has are kept, and at most {@link NetProtocol#MAX_INPUT_FRUITS} others are added; the
+     * rest are added by the next inputs.
+     *
+     * @param avatar      The client's avatar, with the client's id.
+     * @param eatenFruits The world time at which every fruit the client ate reappears, by fruit key.
+     * @throws IOException If the packet cannot be sent.
+     */
+    public void sendInput(AvatarState avatar, Map<Long, Float> eatenFruits) throws IOException {
+        NetState baseline = sentInput(ackedInput);
+        NavigableMap<Long, Float> baseFruits = baseline.getEatenFruits();
+        NetState input = new NetState(inputSequence);
+        input.putAvatar(avatar);
+        int added = 0;
+        for (Map.Entry<Long, Float> fruit : eatenFruits.entrySet()) {
+            if (fruit.getValue().equals(baseFruits.get(fruit.getKey()))) {
+                input.putEatenFruit(fruit.getKey(), fruit.getValue()); // Costs nothing to send
+            } else if (added < NetProtocol.MAX_INPUT_FRUITS) {
+                input.putEatenFruit(fruit.getKey(), fruit.getValue());
+                added++;
+            }
+        }
+        sentInputs[inputSequence % NetProtocol.HISTORY] = input;
+        inputSequence++;
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(NetProtocol.INPUT);
+        out.writeInt(state.getTick());
+        DeltaCodec.encode(out, input, baseline);
+        send(bytes.toByteArray());
+    }
+
+    /**
+     * Gets an input sent before by its sequence number, as the baseline of the next input.
+     *
+     * @return The input, or the empty state if none was acknowledged or it is too old.
+     */
+    private NetState sentInput(int sequence) {
+        if (sequence < 0 || inputSequence - sequence >= NetProtocol.HISTORY) {
+            return NetState.empty(); // The server may no longer know it
+        }
+        NetState sent = sentInputs[sequence % NetProtocol.HISTORY];
+        return sent != null && sent.getTick() == sequence ? sent : NetState.empty();
+    }
+
+    /**
+     * Receives the states the server sent since the last poll. A truncated or malformed packet is
+     * dropped like a lost one, and counted by the meter.
+     *
+     * @return True if a newer state was received, false otherwise.
+     * @throws IOException If the channel fails.
+     */
+    public boolean poll() throws IOException {
+        boolean isNewer = false;
+        for (DataInputStream in = receivePacket(); in != null; in = receivePacket()) {
+            try {
+                isNewer |= readPacket(in);
+            } catch (IOException e) {
+                meter.dropped();
+            }
+        }
+        return isNewer;
+    }
+
+    /**
+     * Reads a packet of the server, and keeps the state it carries.
+     *
+     * @return True if it carried a state newer than the latest one, false otherwise.
+     * @throws IOException If the packet is truncated or malformed.
+     */
+    private boolean readPacket(DataInputStream in) throws IOException {
+        if (in.readByte() != NetProtocol.STATE) {
+            return false; // A welcome repeated after a lost hello
+        }
+        int acked = in.readInt();
+        if (acked >= inputSequence) {
+            throw new IOException("Malformed packet: input " + acked + " was never sent");
+        }
+        NetState received = DeltaCodec.decode(in, this::receivedState);
+        ackedInput = Math.max(ackedInput, acked); // Only once the whole packet is known to be sound
+        if (received == null) {
+            return false; // Its baseline is too old, a later state will do
+        }
+        history[received.getTick() % NetProtocol.HISTORY] = received;
+        if (received.getTick() > state.getTick()) {
+            state = received;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Gets a state received before by its tick.
+     *
+     * @return The state, or null if it was not received or is too old.
+     */
+    private NetState receivedState(int tick) {
+        NetState received = history[tick % NetProtocol.HISTORY];
+        return received != null && received.getTick() == tick ? received : null;
+    }
+
+    private DataInputStream receivePacket() throws IOException {
+        receiveBuffer.clear();
+        if (channel.receive(receiveBuffer) == null) {
+            return null;
+        }
+        meter.received(receiveBuffer.position());
+        return new DataInputStream(new ByteArrayInputStream(receiveBuffer.array(), 0,
+                receiveBuffer.position()));
+    }
+
+    private void send(byte[] packet) throws IOException {
+        channel.write(ByteBuffer.wrap(packet));
+        meter.sent(packet.length);
+    }
+
+    /**
+     * Gets the id the server gave to the client.
+     *
+     * @return The client id.
+     */
+    public int getClientId() {
+        return clientId;
+    }
+
+    /**
+     * Gets the seed the world is generated from.
+     *
+     * @return The world seed.
+     */
+    public int getSeed() {
+        return seed;
+    }
+
+    /**
+     * Gets the world time of the server when the client joined.
+     *
+     * @return The world time, in seconds.
+     */
+    public float getWorldTime() {
+        return worldTime;
+    }
+
+    /**
+     * Gets the latest state received.
+     *
+     * @return The state, empty before the first one is received.
+     */
+    public NetState getState() {
+        return state;
+    }
+
+    /**
+     * Gets the meter of the bytes exchanged with the server.
+     *
+     * @return The bandwidth meter.
+     */
+    public BandwidthMeter getMeter() {
+        return meter;
+    }
+
+    /**
+     * Leaves the world and closes the connection.
+     *
+     * @throws IOException If the connection cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            send(new byte[]{NetProtocol.BYE});
+        } finally {
+            channel.close();
+        }
+    }
+}
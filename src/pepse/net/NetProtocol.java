@@ -0,0 +1,91 @@
+package pepse.net;
+
+/**
+ * Constants and conversions shared by the server and the clients of a multiplayer world.
+ * <p>
+ * Every packet is a single UDP datagram starting with its type:
+ * <ul>
+ *     <li>{@link #HELLO}, client to server: asks to join. Repeated until welcomed.</li>
+ *     <li>{@link #WELCOME}, server to client: the client's id, the world seed and the world time.</li>
+ *     <li>{@link #INPUT}, client to server, every tick: the last state tick received, then the
+ *     client's input as a state holding its avatar, with the keys held, and the fruits it ate. The
+ *     input is delta compressed against the last input the server acknowledged, and adds at most
+ *     {@link #MAX_INPUT_FRUITS} fruits to it, so it stays small however many fruits were eaten.</li>
+ *     <li>{@link #STATE}, server to client, every tick: the last input received from the client,
+ *     then the world state, delta compressed against the last state the client acknowledged, see
+ *     {@link DeltaCodec}.</li>
+ *     <li>{@link #BYE}, client to server: leaves the world.</li>
+ * </ul>
+ * Positions are quantised to a quarter of a pixel. A fruit is identified by its tree and its index
+ * in the tree, see {@link pepse.world.trees.Tree#fruitKey}, which are the same in every client since
+ * the flora grows from the world seed, whatever the quality tier of the client.
+ */
+public final class NetProtocol {
+    /**
+     * Port the server listens on by default.
+     */
+    public static final int DEFAULT_PORT = 24750;
+    /**
+     * Number of ticks per second at which states and inputs are exchanged.
+     */
+    public static final int TICK_RATE = 20;
+    /**
+     * Number of past states the server and the clients keep as baselines of the delta compression.
+     */
+    public static final int HISTORY = 64;
+    /**
+     * Largest datagram the server and the clients receive.
+     */
+    public static final int MAX_PACKET_SIZE = 65507;
+    /**
+     * Largest number of eaten fruits an input adds to the last input the server acknowledged. The
+     * other fruits follow in the next inputs.
+     */
+    public static final int MAX_INPUT_FRUITS = 32;
+
+    /**
+     * Type of a packet asking to join the world.
+     */
+    public static final byte HELLO = 1;
+    /**
+     * Type of a packet accepting a client into the world.
+     */
+    public static final byte WELCOME = 2;
+    /**
+     * Type of a packet carrying the input and the avatar of a client.
+     */
+    public static final byte INPUT = 3;
+    /**
+     * Type of a packet carrying the world state.
+     */
+    public static final byte STATE = 4;
+    /**
+     * Type of a packet leaving the world.
+     */
+    public static final byte BYE = 5;
+
+    private static final float POSITION_SCALE = 4; // Quantisation steps per pixel
+
+    private NetProtocol() {
+    }
+
+    /**
+     * Quantises a coordinate.
+     *
+     * @param coordinate The coordinate, in pixels.
+     * @return The quantised coordinate.
+     */
+    public static int quantise(float coordinate) {
+        return Math.round(coordinate * POSITION_SCALE);
+    }
+
+    /**
+     * Restores a quantised coordinate.
+     *
+     * @param quantised The quantised coordinate.
+     * @return The coordinate, in pixels.
+     */
+    public static float dequantise(int quantised) {
+        return quantised / POSITION_SCALE;
+    }
+}
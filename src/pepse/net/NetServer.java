@@ -0,0 +1,332 @@
+package pepse.net;
+
+import pepse.PepseGameManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The server of a multiplayer world. It owns no terrain, flora or game objects: every client grows
+ * them from the world seed the server hands out, and simulates its own avatar. At a fixed tick, the
+ * server gathers the avatars and the eaten fruits reported by the clients into a world state, and
+ * sends it to every client delta compressed against the last state that client acknowledged, or in
+ * full if the client acknowledged none of the recent ones. Every state acknowledges the last input of
+ * its client, against which the client compresses its next inputs.
+ * <p>
+ * The world time starts with the server, and clients joining later set their clocks to it, so that
+ * every client sees the same phase of the day and the same fruit regrowth times.
+ * <p>
+ * The server only listens on the loopback address unless another one is given, so that a world is
+ * not shared beyond the local machine by accident. {@code --bind 0.0.0.0} serves every interface.
+ * <p>
+ * Usage: {@code java pepse.net.NetServer [--port port] [--bind address] [--seed seed] [--quiet]}
+ */
+public class NetServer implements Runnable {
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final long TICK_NANOS = NANOS_PER_SECOND / NetProtocol.TICK_RATE; // Duration of a tick
+    private static final long CLIENT_TIMEOUT_NANOS = 5 * NANOS_PER_SECOND; // Silence before a client
+    // is dropped
+
+    /**
+     * A client of the server.
+     */
+    private static class Connection {
+        private final int id;
+        private final SocketAddress address;
+        private final BandwidthMeter meter = new BandwidthMeter();
+        private final NetState[] inputs = new NetState[NetProtocol.HISTORY]; // Received inputs, by sequence
+        private long lastHeardNanos;
+        private int ackedTick = -1; // Last state the client received, -1 if none yet
+        private NetState input = NetState.empty(); // Latest input, empty until the client sent one
+
+        private Connection(int id, SocketAddress address, long now) {
+            this.id = id;
+            this.address = address;
+            this.lastHeardNanos = now;
+        }
+    }
+
+    private final DatagramChannel channel;
+    private final int seed;
+    private final Map<SocketAddress, Connection> clients = new LinkedHashMap<>();
+    private final NetState[] history = new NetState[NetProtocol.HISTORY]; // Sent states, by tick
+    private final ByteBuffer receiveBuffer = ByteBuffer.allocate(NetProtocol.MAX_PACKET_SIZE);
+    private final long startNanos = System.nanoTime();
+    private volatile boolean isRunning = true;
+    private boolean isReporting = true;
+    private int tick = 0;
+    private int nextClientId = 1;
+
+    /**
+     * Opens a server on a port of the loopback address, reachable from the local machine only.
+     *
+     * @param port The port to listen on, 0 for any free port.
+     * @param seed The seed of the world.
+     * @throws IOException If the port cannot be bound.
+     */
+    public NetServer(int port, int seed) throws IOException {
+        this(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), seed);
+    }
+
+    /**
+     * Opens a server on a local address.
+     *
+     * @param address The address and port to listen on, the wildcard address for every interface.
+     * @param seed    The seed of the world.
+     * @throws IOException If the address cannot be bound.
+     */
+    public NetServer(InetSocketAddress address, int seed) throws IOException {
+        this.seed = seed;
+        channel = DatagramChannel.open();
+        channel.bind(address);
+        channel.configureBlocking(false);
+    }
+
+    /**
+     * Gets the port the server listens on.
+     *
+     * @return The local port.
+     * @throws IOException If the channel is closed.
+     */
+    public int getPort() throws IOException {
+        return ((InetSocketAddress) channel.getLocalAddress()).getPort();
+    }
+
+    /**
+     * Sets whether the bandwidth used by every client is printed once per second.
+     *
+     * @param isReporting True to print the bandwidth, false otherwise.
+     */
+    public void setReporting(boolean isReporting) {
+        this.isReporting = isReporting;
+    }
+
+    /**
+     * Runs the ticks of the server until {@link #stop} is called, then closes it.
+     */
+    @Override
+    public void run() {
+        long nextTick = System.nanoTime();
+        try {
+            while (isRunning) {
+                receive();
+                dropSilentClients();
+                broadcast(buildState());
+                report();
+                tick++;
+                nextTick += TICK_NANOS;
+                LockSupport.parkNanos(nextTick - System.nanoTime());
+            }
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Stops the server after its current tick.
+     */
+    public void stop() {
+        isRunning = false;
+    }
+
+    /**
+     * Handles every packet received since the last tick.
+     */
+    private void receive() throws IOException {
+        while (true) {
+            receiveBuffer.clear();
+            SocketAddress from = channel.receive(receiveBuffer);
+            if (from == null) {
+                return;
+            }
+            DataInputStream in = new DataInputStream(
+                    new ByteArrayInputStream(receiveBuffer.array(), 0, receiveBuffer.position()));
+            long now = System.nanoTime();
+            Connection client = clients.get(from);
+            if (client != null) {
+                client.meter.received(receiveBuffer.position());
+                client.lastHeardNanos = now;
+            }
+            try {
+                switch (in.readByte()) {
+                    case NetProtocol.HELLO -> welcome(from, client, now);
+                    case NetProtocol.INPUT -> {
+                        if (client != null) {
+                            readInput(in, client);
+                        }
+                    }
+                    case NetProtocol.BYE -> clients.remove(from);
+                    default -> {
+                        // Not a packet of the protocol, ignored
+                    }
+                }
+            } catch (IOException e) {
+                if (client != null) {
+                    client.meter.dropped(); // A truncated or malformed packet is dropped like a lost one
+                }
+            }
+        }
+    }
+
+    /**
+     * Accepts a client, or answers again a client whose welcome was lost.
+     */
+    private void welcome(SocketAddress from, Connection client, long now) throws IOException {
+        if (client == null) {
+            client = new Connection(nextClientId++, from, now);
+            clients.put(from, client);
+            if (isReporting) {
+                System.out.println("client " + client.id + " joined from " + from);
+            }
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(NetProtocol.WELCOME);
+        out.writeInt(client.id);
+        out.writeInt(seed);
+        out.writeFloat(worldTime());
+        send(client, bytes.toByteArray());
+    }
+
+    /**
+     * Reads the input, the avatar and the eaten fruits reported by a client, against the input of the
+     * client it is compressed against.
+     */
+    private void readInput(DataInputStream in, Connection client) throws IOException {
+        client.ackedTick = in.readInt();
+        NetState input = DeltaCodec.decode(in, sequence -> receivedInput(client, sequence));
+        if (input == null) {
+            return; // Its baseline is too old, a later input will do
+        }
+        client.inputs[input.getTick() % NetProtocol.HISTORY] = input;
+        if (input.getTick() > client.input.getTick()) {
+            client.input = input; // Inputs arriving out of order are only kept as baselines
+        }
+    }
+
+    /**
+     * Gets an input received before from a client by its sequence number.
+     *
+     * @return The input, or null if it was not received or is too old.
+     */
+    private static NetState receivedInput(Connection client, int sequence) {
+        NetState received = client.inputs[sequence % NetProtocol.HISTORY];
+        return received != null && received.getTick() == sequence ? received : null;
+    }
+
+    private void dropSilentClients() {
+        long now = System.nanoTime();
+        Iterator<Connection> iterator = clients.values().iterator();
+        while (iterator.hasNext()) {
+            Connection client = iterator.next();
+            if (now - client.lastHeardNanos > CLIENT_TIMEOUT_NANOS) {
+                iterator.remove();
+                if (isReporting) {
+                    System.out.println("client " + client.id + " timed out");
+                }
+            }
+        }
+    }
+
+    /**
+     * Gathers the avatars and the fruits eaten by any client into the state of this tick.
+     */
+    private NetState buildState() {
+        NetState state = new NetState(tick);
+        for (Connection client : clients.values()) {
+            AvatarState avatar = client.input.getAvatars().get(client.id); // Only its own avatar
+            if (avatar != null) {
+                state.putAvatar(avatar);
+            }
+            for (Map.Entry<Long, Float> fruit : client.input.getEatenFruits().entrySet()) {
+                Float dueTime = state.getEatenFruits().get(fruit.getKey());
+                state.putEatenFruit(fruit.getKey(),
+                        dueTime == null ? fruit.getValue() : Math.max(dueTime, fruit.getValue()));
+            }
+        }
+        history[tick % NetProtocol.HISTORY] = state;
+        return state;
+    }
+
+    /**
+     * Sends a state to every client, against the last state it acknowledged if it is still known.
+     */
+    private void broadcast(NetState state) throws IOException {
+        for (Connection client : clients.values()) {
+            NetState baseline = NetState.empty();
+            if (client.ackedTick >= 0 && tick - client.ackedTick < NetProtocol.HISTORY) {
+                NetState acked = history[client.ackedTick % NetProtocol.HISTORY];
+                if (acked != null && acked.getTick() == client.ackedTick) {
+                    baseline = acked;
+                }
+            }
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(NetProtocol.STATE);
+            out.writeInt(client.input.getTick()); // Baseline of the next input of the client
+            DeltaCodec.encode(out, state, baseline);
+            send(client, bytes.toByteArray());
+        }
+    }
+
+    private void send(Connection client, byte[] packet) throws IOException {
+        channel.send(ByteBuffer.wrap(packet), client.address);
+        client.meter.sent(packet.length);
+    }
+
+    /**
+     * Prints the bandwidth of every client whose second of counting is over.
+     */
+    private void report() {
+        for (Connection client : clients.values()) {
+            if (client.meter.roll() && isReporting) {
+                System.out.println("server -> client " + client.id + ": " + client.meter.summary());
+            }
+        }
+    }
+
+    private float worldTime() {
+        return (System.nanoTime() - startNanos) / (float) NANOS_PER_SECOND;
+    }
+
+    /**
+     * Runs a server until the process is stopped.
+     *
+     * @param args The options of the server, see the class documentation.
+     * @throws IOException If the port cannot be bound.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = NetProtocol.DEFAULT_PORT;
+        InetAddress address = InetAddress.getLoopbackAddress();
+        int seed = PepseGameManager.WORLD_SEED;
+        boolean isReporting = true;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--port" -> port = Integer.parseInt(args[++i]);
+                case "--bind" -> address = InetAddress.getByName(args[++i]);
+                case "--seed" -> seed = Integer.parseInt(args[++i]);
+                case "--quiet" -> isReporting = false;
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        NetServer server = new NetServer(new InetSocketAddress(address, port), seed);
+        server.setReporting(isReporting);
+        System.out.println("Serving world " + seed + " on " + address.getHostAddress() + " port "
+                + server.getPort());
+        server.run();
+    }
+}
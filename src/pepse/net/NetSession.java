@@ -0,0 +1,235 @@
+package pepse.net;
+
+import danogl.util.Vector2;
+import pepse.PepseGameManager;
+import pepse.world.Avatar;
+import pepse.world.daynight.WorldClock;
+import pepse.world.events.WorldEvent;
+import pepse.world.events.WorldEventBus;
+import pepse.world.events.WorldEventType;
+import pepse.world.trees.Fruit;
+import pepse.world.trees.FruitRegrowth;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Plays a game in a multiplayer world. Every frame, it receives the world states from the server;
+ * at every tick, it sends the keys held, the avatar and the fruits eaten in the game. The eaten
+ * fruits are kept up to date from the fruit eaten events of the game, with the regrowth time of
+ * {@link FruitRegrowth}, rather than read from the whole game at every tick.
+ * <p>
+ * The received states are applied to the game: the fruits eaten by other clients are eaten in the
+ * loaded chunks, with the same regrowth times, and the jumps of other avatars make the clouds rain.
+ * The other avatars are drawn by a {@link RemoteAvatarView}, between the positions of the last two
+ * states so that they move smoothly between ticks.
+ */
+public class NetSession {
+    private static final float TICK_DURATION = 1f / NetProtocol.TICK_RATE; // Time between two inputs
+    private static final int INITIAL_CAPACITY = 8; // Initial number of remote avatars the arrays hold
+
+    private final NetClient client;
+    private final PepseGameManager game;
+    private final Avatar avatar;
+    private final WorldClock worldClock;
+    private final NavigableMap<Long, Float> eatenFruits = new TreeMap<>(); // Due time of every fruit eaten
+    // in this game, by key
+    private final Map<Integer, Integer> seenJumps = new HashMap<>(); // Jumps of every remote avatar
+    private boolean isReporting = false;
+    private float tickTime = 0; // Time since the last input was sent
+    private float stateTime = 0; // Time since the last state was received
+    private long appliedChunkLoads = -1; // Chunk loads when the eaten fruits were last applied
+    private boolean isFruitChanged = false; // Whether the eaten fruits changed since they were applied
+    private int mostRemoteAvatars = 0; // Largest number of remote avatars seen at once
+    // Remote avatars of the latest state, with their positions in the previous one
+    private float[] fromX = new float[INITIAL_CAPACITY];
+    private float[] fromY = new float[INITIAL_CAPACITY];
+    private float[] toX = new float[INITIAL_CAPACITY];
+    private float[] toY = new float[INITIAL_CAPACITY];
+    private int[] keys = new int[INITIAL_CAPACITY];
+    private int remoteCount = 0;
+
+    /**
+     * Constructs a session of a game in the world of a client.
+     *
+     * @param client     The connection to the server, already joined.
+     * @param game       The game played, generated with the seed of the server.
+     * @param avatar     The avatar of the game.
+     * @param worldClock The clock of the game, which the regrowth times are measured with.
+     * @param eventBus   The world event bus of the game, on which the eaten fruits are announced.
+     */
+    public NetSession(NetClient client, PepseGameManager game, Avatar avatar, WorldClock worldClock,
+                      WorldEventBus eventBus) {
+        this.client = client;
+        this.game = game;
+        this.avatar = avatar;
+        this.worldClock = worldClock;
+        eventBus.subscribe(WorldEventType.FRUIT_EATEN, this::onFruitEaten);
+    }
+
+    /**
+     * Sets whether the bandwidth used by the client is printed once per second.
+     *
+     * @param isReporting True to print the bandwidth, false otherwise.
+     */
+    public void setReporting(boolean isReporting) {
+        this.isReporting = isReporting;
+    }
+
+    /**
+     * Receives the states sent by the server, applies them, and sends the input when a tick is due.
+     *
+     * @param deltaTime The duration of the frame.
+     */
+    public void update(float deltaTime) {
+        stateTime += deltaTime;
+        tickTime += deltaTime;
+        try {
+            NetState previous = client.getState();
+            if (client.poll()) {
+                onState(previous, client.getState());
+            }
+            if (tickTime >= TICK_DURATION) {
+                tickTime = Math.min(tickTime - TICK_DURATION, TICK_DURATION); // Do not catch up on stalls
+                sendInput();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        long chunkLoads = game.getStats().chunkLoads();
+        if (isFruitChanged || chunkLoads != appliedChunkLoads) {
+            // Fruits eaten elsewhere may belong to the chunks just loaded
+            for (Map.Entry<Long, Float> fruit : client.getState().getEatenFruits().entrySet()) {
+                game.eatFruit(fruit.getKey(), fruit.getValue());
+            }
+            appliedChunkLoads = chunkLoads;
+            isFruitChanged = false;
+        }
+
+        if (client.getMeter().roll() && isReporting) {
+            System.out.println("client " + client.getClientId() + " -> server: "
+                    + client.getMeter().summary() + " | remote avatars " + remoteCount
+                    + " | eaten fruits " + client.getState().getEatenFruits().size());
+        }
+    }
+
+    /**
+     * Takes in a newer state: rains for the new jumps of the other avatars, and moves them.
+     */
+    private void onState(NetState previous, NetState state) {
+        stateTime = 0;
+        isFruitChanged |= !state.getEatenFruits().equals(previous.getEatenFruits());
+
+        NavigableMap<Integer, AvatarState> previousAvatars = previous.getAvatars();
+        remoteCount = 0;
+        for (AvatarState avatar : state.getAvatars().values()) {
+            if (avatar.id() == client.getClientId()) {
+                continue;
+            }
+            Integer jumps = seenJumps.put(avatar.id(), avatar.jumps());
+            if (jumps != null && avatar.jumps() > jumps) {
+                game.burstRain();
+            }
+            if (remoteCount == toX.length) {
+                int capacity = remoteCount * 2;
+                fromX = Arrays.copyOf(fromX, capacity);
+                fromY = Arrays.copyOf(fromY, capacity);
+                toX = Arrays.copyOf(toX, capacity);
+                toY = Arrays.copyOf(toY, capacity);
+                keys = Arrays.copyOf(keys, capacity);
+            }
+            AvatarState from = previousAvatars.getOrDefault(avatar.id(), avatar);
+            fromX[remoteCount] = NetProtocol.dequantise(from.x());
+            fromY[remoteCount] = NetProtocol.dequantise(from.y());
+            toX[remoteCount] = NetProtocol.dequantise(avatar.x());
+            toY[remoteCount] = NetProtocol.dequantise(avatar.y());
+            keys[remoteCount] = avatar.keys();
+            remoteCount++;
+        }
+        seenJumps.keySet().retainAll(state.getAvatars().keySet());
+        mostRemoteAvatars = Math.max(mostRemoteAvatars, remoteCount);
+    }
+
+    /**
+     * Remembers a fruit eaten in the game, by the avatar or a critter, until it grows back.
+     */
+    private void onFruitEaten(WorldEvent event) {
+        if (event.getSubject() instanceof Fruit fruit) {
+            eatenFruits.put(fruit.getKey(), worldClock.getElapsedTime() + FruitRegrowth.REAPPEAR_TIME);
+        }
+    }
+
+    /**
+     * Sends the keys held, the avatar and the fruits eaten in the game that did not grow back yet.
+     */
+    private void sendInput() throws IOException {
+        float time = worldClock.getElapsedTime();
+        eatenFruits.values().removeIf(dueTime -> dueTime <= time);
+        Vector2 topLeft = avatar.getTopLeftCorner();
+        AvatarState state = new AvatarState(client.getClientId(), NetProtocol.quantise(topLeft.x()),
+                NetProtocol.quantise(topLeft.y()), avatar.getEnergy(), game.getKeyState(),
+                (int) game.getStats().jumps());
+        client.sendInput(state, eatenFruits);
+    }
+
+    /**
+     * Gets the number of other avatars in the world.
+     *
+     * @return The number of remote avatars.
+     */
+    public int remoteCount() {
+        return remoteCount;
+    }
+
+    /**
+     * Gets the largest number of other avatars seen at once since the session started.
+     *
+     * @return The largest number of remote avatars.
+     */
+    public int getMostRemoteAvatars() {
+        return mostRemoteAvatars;
+    }
+
+    /**
+     * Gets the x-coordinate of a remote avatar's top-left corner, between its last two states.
+     *
+     * @param index The index of the remote avatar.
+     * @return The x-coordinate to draw the avatar at.
+     */
+    public float getX(int index) {
+        return fromX[index] + (toX[index] - fromX[index]) * interpolation();
+    }
+
+    /**
+     * Gets the y-coordinate of a remote avatar's top-left corner, between its last two states.
+     *
+     * @param index The index of the remote avatar.
+     * @return The y-coordinate to draw the avatar at.
+     */
+    public float getY(int index) {
+        return fromY[index] + (toY[index] - fromY[index]) * interpolation();
+    }
+
+    /**
+     * Gets the keys held by the client of a remote avatar.
+     *
+     * @param index The index of the remote avatar.
+     * @return The bits of the keys, as in {@link pepse.replay.InputRecording}.
+     */
+    public int getKeys(int index) {
+        return keys[index];
+    }
+
+    /**
+     * Gets how far the time since the last state is into the next tick.
+     */
+    private float interpolation() {
+        return Math.min(stateTime / TICK_DURATION, 1);
+    }
+}
@@ -0,0 +1,84 @@
+package pepse.net;
+
+import java.util.Collections;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * The shared state of a multiplayer world at a tick: every avatar, and every eaten fruit with the
+ * world time at which it reappears. The terrain and the flora are not part of it, as every client
+ * grows them from the world seed.
+ * <p>
+ * A state is filled once, then only read, so that it can serve as the baseline of later states.
+ */
+public class NetState {
+    private static final NetState EMPTY = new NetState(-1);
+
+    private final int tick;
+    private final NavigableMap<Integer, AvatarState> avatars = new TreeMap<>(); // By client id
+    private final NavigableMap<Long, Float> eatenFruits = new TreeMap<>(); // Due time by fruit key
+
+    /**
+     * Constructs a state without avatars or eaten fruits.
+     *
+     * @param tick The tick of the state.
+     */
+    public NetState(int tick) {
+        this.tick = tick;
+    }
+
+    /**
+     * Gets the state without anything, against which full states are encoded.
+     *
+     * @return The empty state.
+     */
+    public static NetState empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Adds an avatar to the state, replacing the avatar of the same client.
+     *
+     * @param avatar The avatar.
+     */
+    public void putAvatar(AvatarState avatar) {
+        avatars.put(avatar.id(), avatar);
+    }
+
+    /**
+     * Adds an eaten fruit to the state.
+     *
+     * @param key     The key of the fruit, see {@link pepse.world.trees.Tree#fruitKey}.
+     * @param dueTime The world time at which the fruit reappears, in seconds.
+     */
+    public void putEatenFruit(long key, float dueTime) {
+        eatenFruits.put(key, dueTime);
+    }
+
+    /**
+     * Gets the tick of the state.
+     *
+     * @return The tick, -1 for the empty state.
+     */
+    public int getTick() {
+        return tick;
+    }
+
+    /**
+     * Gets the avatars of the state.
+     *
+     * @return The avatars by client id, in increasing order of id.
+     */
+    public NavigableMap<Integer, AvatarState> getAvatars() {
+        return Collections.unmodifiableNavigableMap(avatars);
+    }
+
+    /**
+     * Gets the eaten fruits of the state.
+     *
+     * @return The world time at which every eaten fruit reappears, by fruit key.
+     */
+    public NavigableMap<Long, Float> getEatenFruits() {
+        return Collections.unmodifiableNavigableMap(eatenFruits);
+    }
+}
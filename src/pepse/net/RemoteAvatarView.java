@@ -0,0 +1,102 @@
+package pepse.net;
+
+import danogl.GameObject;
+import danogl.gui.ImageReader;
+import danogl.gui.rendering.Camera;
+import danogl.gui.rendering.Renderable;
+import danogl.util.Vector2;
+import pepse.replay.InputRecording;
+
+import java.awt.*;
+
+/**
+ * Creates the game object through which the avatars of the other clients are drawn: a single object
+ * following the camera, like the view of the crowd. A remote avatar runs while its client holds a
+ * single arrow key, and stands still otherwise.
+ */
+public class RemoteAvatarView {
+    private static final String REMOTE_AVATARS_TAG = "remoteAvatars"; // Tag to identify the view
+    private static final Vector2 AVATAR_DIMENSIONS = Vector2.ONES.mult(50); // Size of an avatar
+    private static final float FRAME_DURATION = 0.2f; // Duration of a frame of the animations
+    private static final String[] IDLE_IMAGES = {"assets/idle_0.png", "assets/idle_1.png",
+            "assets/idle_2.png", "assets/idle_3.png"};
+    private static final String[] RUN_IMAGES = {"assets/run_0.png", "assets/run_1.png", "assets/run_2.png",
+            "assets/run_3.png", "assets/run_4.png", "assets/run_5.png"};
+
+    /**
+     * Creates a GameObject drawing every other avatar of a multiplayer session.
+     *
+     * @param session     The session whose remote avatars are drawn.
+     * @param camera      The camera the view follows.
+     * @param imageReader The reader for loading the avatars' frames.
+     * @return A GameObject covering the camera and drawing the remote avatars.
+     */
+    public static GameObject create(NetSession session, Camera camera, ImageReader imageReader) {
+        GameObject view = new GameObject(camera.getTopLeftCorner(), camera.getDimensions(), null);
+        view.setTag(REMOTE_AVATARS_TAG);
+        RemoteAvatarRenderable renderable = new RemoteAvatarRenderable(session, view,
+                readFrames(IDLE_IMAGES, imageReader), readFrames(RUN_IMAGES, imageReader));
+        view.renderer().setRenderable(renderable);
+
+        // Keep the view on the camera, so it covers every visible avatar
+        view.addComponent(deltaTime -> {
+            view.setTopLeftCorner(camera.getTopLeftCorner());
+            renderable.animationTime += deltaTime;
+        });
+        return view;
+    }
+
+    private static Renderable[] readFrames(String[] imagePaths, ImageReader imageReader) {
+        Renderable[] frames = new Renderable[imagePaths.length];
+        for (int i = 0; i < imagePaths.length; i++) {
+            frames[i] = imageReader.readImage(imagePaths[i], true); // Shared by every avatar
+        }
+        return frames;
+    }
+
+    /**
+     * Draws the visible remote avatars at their interpolated positions.
+     */
+    private static class RemoteAvatarRenderable implements Renderable {
+        private final NetSession session;
+        private final GameObject view;
+        private final Renderable[] idleFrames;
+        private final Renderable[] runFrames;
+        private float animationTime = 0;
+
+        private RemoteAvatarRenderable(NetSession session, GameObject view, Renderable[] idleFrames,
+                                       Renderable[] runFrames) {
+            this.session = session;
+            this.view = view;
+            this.idleFrames = idleFrames;
+            this.runFrames = runFrames;
+        }
+
+        @Override
+        public void render(Graphics2D g, Vector2 topLeftCorner, Vector2 dimensions,
+                           double degreesCounterClockwise, boolean isFlippedHorizontally,
+                           boolean isFlippedVertically, double opaqueness) {
+            Vector2 viewTopLeft = view.getTopLeftCorner();
+            float minX = viewTopLeft.x() - AVATAR_DIMENSIONS.x();
+            float minY = viewTopLeft.y() - AVATAR_DIMENSIONS.y();
+            float maxX = viewTopLeft.x() + dimensions.x();
+            float maxY = viewTopLeft.y() + dimensions.y();
+            int frame = (int) (animationTime / FRAME_DURATION);
+
+            for (int i = 0; i < session.remoteCount(); i++) {
+                float x = session.getX(i);
+                float y = session.getY(i);
+                if (x < minX || x > maxX || y < minY || y > maxY) {
+                    continue;
+                }
+                int arrows = session.getKeys(i) & (InputRecording.LEFT | InputRecording.RIGHT);
+                boolean isRunning = arrows == InputRecording.LEFT || arrows == InputRecording.RIGHT;
+                Renderable[] frames = isRunning ? runFrames : idleFrames;
+                Vector2 position = new Vector2(topLeftCorner.x() + x - viewTopLeft.x(),
+                        topLeftCorner.y() + y - viewTopLeft.y());
+                frames[frame % frames.length].render(g, position, AVATAR_DIMENSIONS, 0,
+                        arrows == InputRecording.LEFT, false, opaqueness);
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package pepse.profile;
+
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import pepse.profile.jfr.FramePhaseEvent;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Times the phases of the frames into one latency histogram per phase. The instrumented code
+ * brackets a phase between {@link #start()} and {@link #stop}; while the profiler is off, both
+ * return after reading two flags, without reading the clock.
+ * <p>
+ * While a Java Flight Recorder recording runs, every timed phase is also committed as a
+ * {@link FramePhaseEvent}, so that the recording shows the phases next to the world events.
+ * <p>
+ * Phases are only timed on the thread running the game loop.
+ */
+public final class FrameProfiler {
+    private static final Map<Phase, LatencyHistogram> HISTOGRAMS = new EnumMap<>(Phase.class);
+    private static boolean isEnabled = false;
+    private static volatile boolean isRecording = false; // Whether a flight recording is running
+
+    static {
+        for (Phase phase : Phase.values()) {
+            HISTOGRAMS.put(phase, new LatencyHistogram());
+        }
+        FlightRecorder.addListener(new FlightRecorderListener() {
+            @Override
+            public void recordingStateChanged(Recording recording) {
+                updateRecording();
+            }
+        });
+        if (FlightRecorder.isInitialized()) {
+            updateRecording(); // A recording may have been started with the JVM
+        }
+    }
+
+    private FrameProfiler() {
+    }
+
+    /**
+     * Turns the profiler on or off. The recorded durations are kept.
+     *
+     * @param enabled True to time the phases, false to stop.
+     */
+    public static void setEnabled(boolean enabled) {
+        FrameProfiler.isEnabled = enabled;
+    }
+
+    /**
+     * Tells whether the phases are being timed.
+     *
+     * @return True if the profiler is on.
+     */
+    public static boolean isEnabled() {
+        return isEnabled;
+    }
+
+    /**
+     * Marks the start of a phase.
+     *
+     * @return The start time to pass to {@link #stop}, or 0 while the profiler is off and no flight
+     * recording runs.
+     */
+    public static long start() {
+        return isEnabled || isRecording ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Marks the end of a phase and records its duration.
+     *
+     * @param phase The phase that ended.
+     * @param start The start time returned by {@link #start()} at the beginning of the phase.
+     */
+    public static void stop(Phase phase, long start) {
+        if (start == 0) {
+            return;
+        }
+        long duration = System.nanoTime() - start;
+        if (isEnabled) {
+            HISTOGRAMS.get(phase).record(duration);
+        }
+        if (isRecording) {
+            FramePhaseEvent event = new FramePhaseEvent();
+            if (event.isEnabled()) {
+                event.phase = phase.name();
+                event.phaseDuration = duration;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Gets the histogram of a phase.
+     *
+     * @param phase The phase.
+     * @return The durations recorded for the phase since the last reset.
+     */
+    public static LatencyHistogram histogramOf(Phase phase) {
+        return HISTOGRAMS.get(phase);
+    }
+
+    /**
+     * Forgets the durations recorded for every phase.
+     */
+    public static void reset() {
+        for (LatencyHistogram histogram : HISTOGRAMS.values()) {
+            histogram.reset();
+        }
+    }
+
+    /**
+     * Checks whether a flight recording is running.
+     */
+    private static void updateRecording() {
+        isRecording = FlightRecorder.getFlightRecorder().getRecordings().stream()
+                .anyMatch(recording -> recording.getState() == RecordingState.RUNNING);
+    }
+}
@@ -0,0 +1,204 @@
+package pepse.profile;
+
+import pepse.profile.jfr.ChunkLoadEvent;
+import pepse.profile.jfr.ChunkUnloadEvent;
+import pepse.profile.jfr.FloraGenerationEvent;
+import pepse.profile.jfr.TerrainGenerationEvent;
+import pepse.profile.jfr.TreeCreationEvent;
+
+/**
+ * The single hook through which the world generation sites are instrumented. A site calls the
+ * begin and end methods of its kind around its work, and the probe times it in the
+ * {@link FrameProfiler}, commits its flight recorder event, and charges or releases its objects in
+ * the {@link MemoryAccounting} of the game. The generators themselves (terrain, torches, trees)
+ * stay free of instrumentation: the code loading and unloading the chunks brackets them.
+ * <p>
+ * Every kind of site has its own pending event, so a tree may be created while its flora chunk is
+ * being generated. A site is not reentrant, and the probe is only used on the game thread.
+ */
+public class GenerationProbe {
+    private final MemoryAccounting memoryAccounting;
+    private final int chunkSize;
+    private ChunkLoadEvent loadEvent; // Event of the chunk being loaded
+    private long unloadStart;
+    private ChunkUnloadEvent unloadEvent; // Event of the chunk being unloaded
+    private long terrainStart;
+    private TerrainGenerationEvent terrainEvent; // Event of the terrain being created
+    private TreeCreationEvent treeEvent; // Event of the tree being created
+    private long floraStart;
+    private FloraGenerationEvent floraEvent; // Event of the flora chunk being generated
+    private long removalStart;
+
+    /**
+     * Constructs the probe of a world, with an empty memory accounting.
+     *
+     * @param chunkSize The width of a chunk, in pixels.
+     */
+    public GenerationProbe(int chunkSize) {
+        this.memoryAccounting = new MemoryAccounting(chunkSize);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Marks the start of the loading of a chunk, the creation of its terrain blocks and torches.
+     */
+    public void beginChunkLoad() {
+        loadEvent = new ChunkLoadEvent();
+        loadEvent.begin();
+    }
+
+    /**
+     * Marks the end of the loading of a chunk.
+     *
+     * @param chunk   The index of the chunk.
+     * @param blocks  The number of terrain blocks created.
+     * @param torches The number of torches created.
+     */
+    public void endChunkLoad(int chunk, int blocks, int torches) {
+        memoryAccounting.charge(MemoryCategory.BLOCKS, (float) chunk * chunkSize, blocks);
+        memoryAccounting.charge(MemoryCategory.TORCHES, (float) chunk * chunkSize, torches);
+        loadEvent.chunk = chunk;
+        loadEvent.blockCount = blocks;
+        loadEvent.torchCount = torches;
+        loadEvent.commit();
+        loadEvent = null;
+    }
+
+    /**
+     * Marks the start of the unloading of a chunk's terrain blocks and torches.
+     */
+    public void beginChunkUnload() {
+        unloadStart = FrameProfiler.start();
+        unloadEvent = new ChunkUnloadEvent();
+        unloadEvent.begin();
+    }
+
+    /**
+     * Marks the end of the unloading of a chunk's terrain blocks and torches, releasing them.
+     *
+     * @param chunk   The index of the chunk.
+     * @param blocks  The number of terrain blocks removed.
+     * @param torches The number of torches removed.
+     */
+    public void endChunkUnload(int chunk, int blocks, int torches) {
+        memoryAccounting.release(MemoryCategory.BLOCKS, chunk);
+        memoryAccounting.release(MemoryCategory.TORCHES, chunk);
+        unloadEvent.chunk = chunk;
+        unloadEvent.blockCount = blocks;
+        unloadEvent.torchCount = torches;
+        unloadEvent.commit();
+        unloadEvent = null;
+        FrameProfiler.stop(Phase.CHUNK_REMOVAL, unloadStart);
+    }
+
+    /**
+     * Marks the start of the creation of the terrain blocks of a range, within a chunk load.
+     */
+    public void beginTerrain() {
+        terrainStart = FrameProfiler.start();
+        terrainEvent = new TerrainGenerationEvent();
+        terrainEvent.begin();
+    }
+
+    /**
+     * Marks the end of the creation of the terrain blocks of a range. The blocks are charged with
+     * their chunk load.
+     *
+     * @param minX   The minimum x-coordinate of the range.
+     * @param maxX   The maximum x-coordinate of the range.
+     * @param blocks The number of blocks created.
+     */
+    public void endTerrain(int minX, int maxX, int blocks) {
+        terrainEvent.minX = minX;
+        terrainEvent.maxX = maxX;
+        terrainEvent.blockCount = blocks;
+        terrainEvent.commit();
+        terrainEvent = null;
+        FrameProfiler.stop(Phase.TERRAIN, terrainStart);
+    }
+
+    /**
+     * Marks the start of the creation of a tree.
+     */
+    public void beginTree() {
+        treeEvent = new TreeCreationEvent();
+        treeEvent.begin();
+    }
+
+    /**
+     * Marks the end of the creation of a tree.
+     *
+     * @param x      The x-coordinate of the base of the trunk.
+     * @param y      The y-coordinate of the base of the trunk.
+     * @param trunks The number of trunk blocks created.
+     * @param leaves The number of leaves created.
+     * @param fruits The number of fruits created.
+     */
+    public void endTree(float x, float y, int trunks, int leaves, int fruits) {
+        memoryAccounting.charge(MemoryCategory.TRUNKS, x, trunks);
+        memoryAccounting.charge(MemoryCategory.LEAVES, x, leaves);
+        memoryAccounting.charge(MemoryCategory.FRUITS, x, fruits);
+        treeEvent.x = x;
+        treeEvent.y = y;
+        treeEvent.trunkHeight = trunks;
+        treeEvent.leafCount = leaves;
+        treeEvent.fruitCount = fruits;
+        treeEvent.commit();
+        treeEvent = null;
+    }
+
+    /**
+     * Marks the start of the generation of the flora of a chunk.
+     */
+    public void beginFlora() {
+        floraStart = FrameProfiler.start();
+        floraEvent = new FloraGenerationEvent();
+        floraEvent.begin();
+    }
+
+    /**
+     * Marks the end of the generation of the flora of a chunk.
+     *
+     * @param chunk   The index of the chunk.
+     * @param trees   The number of trees grown.
+     * @param objects The number of tree parts created, each with its entry in the world index.
+     */
+    public void endFlora(int chunk, int trees, int objects) {
+        memoryAccounting.charge(MemoryCategory.INDEX, (float) chunk * chunkSize, objects);
+        floraEvent.chunk = chunk;
+        floraEvent.treeCount = trees;
+        floraEvent.objectCount = objects;
+        floraEvent.commit();
+        floraEvent = null;
+        FrameProfiler.stop(Phase.FLORA, floraStart);
+    }
+
+    /**
+     * Marks the start of the removal of the flora of a chunk.
+     */
+    public void beginFloraRemoval() {
+        removalStart = FrameProfiler.start();
+    }
+
+    /**
+     * Marks the end of the removal of the flora of a chunk, releasing its objects.
+     *
+     * @param chunk The index of the chunk.
+     */
+    public void endFloraRemoval(int chunk) {
+        memoryAccounting.release(MemoryCategory.TRUNKS, chunk);
+        memoryAccounting.release(MemoryCategory.LEAVES, chunk);
+        memoryAccounting.release(MemoryCategory.FRUITS, chunk);
+        memoryAccounting.release(MemoryCategory.INDEX, chunk);
+        FrameProfiler.stop(Phase.CHUNK_REMOVAL, removalStart);
+    }
+
+    /**
+     * Gets the memory accounting fed by the probe.
+     *
+     * @return The memory accounting of the world.
+     */
+    public MemoryAccounting getMemoryAccounting() {
+        return memoryAccounting;
+    }
+}
@@ -0,0 +1,101 @@
+package pepse.profile;
+
+import java.util.Arrays;
+
+/**
+ * A histogram of durations in nanoseconds with a fixed set of log-linear buckets: every power of two
+ * is split into sixteen buckets, so a percentile is known within about 6%, and recording a value
+ * is a few bit operations and an array increment, with no allocation.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4; // Buckets per power of two, as a power of two
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = SUB_BUCKETS + (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKETS];
+    private long count = 0;
+    private long max = 0;
+
+    /**
+     * Records a duration.
+     *
+     * @param nanos The duration, in nanoseconds.
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts[bucketOf(value)]++;
+        count++;
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Gets the number of recorded durations.
+     *
+     * @return The number of durations.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the longest recorded duration, exactly.
+     *
+     * @return The longest duration in nanoseconds, or 0 if none was recorded.
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Estimates a percentile of the recorded durations, by the upper bound of its bucket.
+     *
+     * @param fraction The percentile, between 0 and 1.
+     * @return The percentile in nanoseconds, or 0 if no duration was recorded.
+     */
+    public long percentile(double fraction) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(fraction * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(max, upperBoundOf(i));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Forgets every recorded duration.
+     */
+    public void reset() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        max = 0;
+    }
+
+    /**
+     * Computes the bucket of a duration: small durations have a bucket each, larger ones share a
+     * bucket with the durations having the same highest five bits.
+     */
+    private static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKETS;
+        return SUB_BUCKETS + shift * SUB_BUCKETS + subBucket;
+    }
+
+    private static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = (bucket - SUB_BUCKETS) / SUB_BUCKETS;
+        long mantissa = SUB_BUCKETS + (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+        long bound = ((mantissa + 1) << shift) - 1;
+        return bound < 0 ? Long.MAX_VALUE : bound; // The last buckets overflow
+    }
+}
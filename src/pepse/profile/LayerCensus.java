@@ -0,0 +1,48 @@
+package pepse.profile;
+
+import danogl.GameObject;
+import danogl.collisions.GameObjectCollection;
+
+/**
+ * Counts the objects of a fixed set of named layers.
+ */
+public class LayerCensus {
+    private final String[] names;
+    private final int[] layers;
+
+    /**
+     * Constructs a census of the given layers.
+     *
+     * @param names  The name of every counted layer.
+     * @param layers The counted layers, in the order of their names.
+     */
+    public LayerCensus(String[] names, int[] layers) {
+        this.names = names;
+        this.layers = layers;
+    }
+
+    /**
+     * Gets the names of the counted layers.
+     *
+     * @return The name of every layer, in the order of the counts.
+     */
+    public String[] getNames() {
+        return names;
+    }
+
+    /**
+     * Counts the objects of every layer.
+     *
+     * @param gameObjects The objects of the game.
+     * @return The number of objects in every layer, in the order of the names.
+     */
+    public int[] count(GameObjectCollection gameObjects) {
+        int[] counts = new int[layers.length];
+        for (int i = 0; i < layers.length; i++) {
+            for (GameObject ignored : gameObjects.objectsInLayer(layers[i])) {
+                counts[i]++;
+            }
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,156 @@
+package pepse.profile;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Estimates the heap retained by every loaded chunk, per category of objects. The objects of a
+ * category are charged to the chunk of their position when they are created, at the estimated size
+ * of their category (see {@link MemoryCategory}), and released when the chunk is unloaded. The
+ * accounting therefore follows the objects the chunks keep, whatever the generation allocates and
+ * drops on the way, and is fit to compare categories and to budget the view distance against the
+ * heap size.
+ * <p>
+ * A game owns one accounting, fed by its {@link GenerationProbe}. Objects are only accounted for on
+ * the thread running the game loop.
+ */
+public class MemoryAccounting {
+    private static final int CATEGORIES = MemoryCategory.values().length;
+    private static final double BYTES_PER_KILOBYTE = 1 << 10;
+
+    private final int chunkSize;
+    private final Map<Integer, int[]> chunkObjects = new HashMap<>(); // Objects of every chunk, per category
+    private final int[] objects = new int[CATEGORIES]; // Total of the loaded chunks, per category
+
+    /**
+     * Constructs an accounting with no object charged.
+     *
+     * @param chunkSize The width of a chunk, with which the objects are charged to the chunk of their
+     *                  position, in pixels.
+     */
+    public MemoryAccounting(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Charges created objects to the chunk of a position.
+     *
+     * @param category The category of the objects.
+     * @param x        An x-coordinate inside the chunk of the objects.
+     * @param count    The number of objects created.
+     */
+    public void charge(MemoryCategory category, float x, int count) {
+        int chunk = Math.floorDiv((int) Math.floor(x), chunkSize);
+        chunkObjects.computeIfAbsent(chunk, c -> new int[CATEGORIES])[category.ordinal()] += count;
+        objects[category.ordinal()] += count;
+    }
+
+    /**
+     * Releases the objects of a category charged to a chunk, once they are removed.
+     *
+     * @param category The category of the removed objects.
+     * @param chunk    The index of the chunk.
+     */
+    public void release(MemoryCategory category, int chunk) {
+        int[] counts = chunkObjects.get(chunk);
+        if (counts == null) {
+            return;
+        }
+        int index = category.ordinal();
+        objects[index] -= counts[index];
+        counts[index] = 0;
+        for (int count : counts) {
+            if (count != 0) {
+                return;
+            }
+        }
+        chunkObjects.remove(chunk); // Nothing of the chunk is left
+    }
+
+    /**
+     * Gets the estimated bytes retained by a category, over all loaded chunks.
+     *
+     * @param category The category.
+     * @return The estimated bytes.
+     */
+    public long bytesOf(MemoryCategory category) {
+        return (long) objectsOf(category) * category.getBytesPerObject();
+    }
+
+    /**
+     * Gets the number of objects of a category, over all loaded chunks.
+     *
+     * @param category The category.
+     * @return The number of objects.
+     */
+    public int objectsOf(MemoryCategory category) {
+        return objects[category.ordinal()];
+    }
+
+    /**
+     * Gets the estimated bytes retained by a chunk.
+     *
+     * @param chunk The index of the chunk.
+     * @return The estimated bytes, 0 if nothing is charged to the chunk.
+     */
+    public long bytesOfChunk(int chunk) {
+        int[] counts = chunkObjects.get(chunk);
+        long total = 0;
+        if (counts != null) {
+            for (MemoryCategory category : MemoryCategory.values()) {
+                total += (long) counts[category.ordinal()] * category.getBytesPerObject();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Gets the estimated bytes retained by all loaded chunks.
+     *
+     * @return The estimated bytes.
+     */
+    public long totalBytes() {
+        long total = 0;
+        for (MemoryCategory category : MemoryCategory.values()) {
+            total += bytesOf(category);
+        }
+        return total;
+    }
+
+    /**
+     * Gets the number of chunks that objects are charged to.
+     *
+     * @return The number of chunks.
+     */
+    public int chunkCount() {
+        return chunkObjects.size();
+    }
+
+    /**
+     * Gets the average estimated bytes retained by a chunk, to budget the view distance.
+     *
+     * @return The estimated bytes of an average chunk, 0 without any chunk.
+     */
+    public long averageChunkBytes() {
+        return chunkObjects.isEmpty() ? 0 : totalBytes() / chunkObjects.size();
+    }
+
+    /**
+     * Describes the accounted memory in a single line: the total, the average chunk, and every
+     * category with its objects.
+     *
+     * @return The description.
+     */
+    public String summary() {
+        StringBuilder line = new StringBuilder(String.format(Locale.ROOT,
+                "memory %.0f KB in %d chunks (%.0f KB per chunk)", totalBytes() / BYTES_PER_KILOBYTE,
+                chunkCount(), averageChunkBytes() / BYTES_PER_KILOBYTE));
+        for (MemoryCategory category : MemoryCategory.values()) {
+            line.append(String.format(Locale.ROOT, " | %s %.0f KB / %d",
+                    category.name().toLowerCase(Locale.ROOT), bytesOf(category) / BYTES_PER_KILOBYTE,
+                    objectsOf(category)));
+        }
+        return line.toString();
+    }
+}
@@ -0,0 +1,53 @@
+package pepse.profile;
+
+/**
+ * The categories of objects whose memory is accounted for by {@link MemoryAccounting}, per chunk.
+ * Renderables and colors are shared through palettes by all the objects of a category, so they are
+ * not part of any chunk's cost.
+ * <p>
+ * Every category estimates the bytes an object of it retains: the game object with its transform,
+ * vectors, renderer, physics and component list, on a 64-bit JVM with compressed references. The
+ * estimates are rough, but they are charged when an object is created and released when it is
+ * removed, so they follow what the loaded chunks actually keep.
+ */
+public enum MemoryCategory {
+    /**
+     * The terrain blocks.
+     */
+    BLOCKS(400),
+    /**
+     * The torches standing on the terrain.
+     */
+    TORCHES(400),
+    /**
+     * The trunk blocks of the trees.
+     */
+    TRUNKS(400),
+    /**
+     * The leaves of the trees, with their slots in the leaf sway.
+     */
+    LEAVES(480),
+    /**
+     * The fruits of the trees.
+     */
+    FRUITS(420),
+    /**
+     * The entries of the tree parts in the world index and the lightmap.
+     */
+    INDEX(128);
+
+    private final int bytesPerObject;
+
+    MemoryCategory(int bytesPerObject) {
+        this.bytesPerObject = bytesPerObject;
+    }
+
+    /**
+     * Gets the estimated bytes retained by an object of the category.
+     *
+     * @return The estimated size of an object, in bytes.
+     */
+    public int getBytesPerObject() {
+        return bytesPerObject;
+    }
+}
@@ -0,0 +1,48 @@
+package pepse.profile;
+
+/**
+ * The phases of a frame timed by the {@link FrameProfiler}. Phases may contain others: the flora
+ * of a new chunk, for instance, is generated while the world events are dispatched.
+ */
+public enum Phase {
+    /**
+     * A whole frame, from the start to the end of the game manager's update.
+     */
+    FRAME,
+    /**
+     * Putting the objects out of view to sleep and activating the collisions around the avatar.
+     */
+    CULLING,
+    /**
+     * The parallel systems of a step: leaves, rain, clouds, fruit regrowth and the crowd.
+     */
+    SYSTEMS,
+    /**
+     * The danogl update of the game objects, with their physics and collisions.
+     */
+    PHYSICS,
+    /**
+     * Spawning the raindrops of a burst and committing the falling ones.
+     */
+    RAIN,
+    /**
+     * Creating the terrain blocks of a chunk.
+     */
+    TERRAIN,
+    /**
+     * Growing the trees of a chunk.
+     */
+    FLORA,
+    /**
+     * Unloading the chunks out of range: their blocks, torches and flora.
+     */
+    CHUNK_REMOVAL,
+    /**
+     * Relighting the regions of the lightmap around changed light sources.
+     */
+    LIGHTING,
+    /**
+     * Dispatching the world events of a step to their listeners.
+     */
+    EVENTS
+}
@@ -0,0 +1,120 @@
+package pepse.profile;
+
+import danogl.collisions.GameObjectCollection;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Writes periodic snapshots of the {@link FrameProfiler} to a CSV file. Every row covers one
+ * interval of game time: for every phase, the number of times it ran and its p50, p99 and maximal
+ * durations in microseconds, then the number of objects in every profiled layer at the end of the
+ * interval. The histograms are reset after every row.
+ */
+public class ProfileCsvWriter implements Closeable {
+    private static final double P50 = 0.5;
+    private static final double P99 = 0.99;
+    private static final double NANOS_PER_MICRO = 1e3;
+
+    private final BufferedWriter out;
+    private final float interval;
+    private final LayerCensus layerCensus;
+    private float elapsedTime = 0; // Game time since the start of the profile
+    private float intervalTime = 0; // Game time since the last row
+    private long frames = 0; // Frames since the last row
+
+    /**
+     * Creates the CSV file, writes its header and turns the profiler on.
+     *
+     * @param path        The file to write, replaced if it exists.
+     * @param interval    The game time covered by every row, in seconds.
+     * @param layerCensus The layers whose objects are counted, named after their columns.
+     * @throws IOException If the file cannot be created.
+     */
+    public ProfileCsvWriter(Path path, float interval, LayerCensus layerCensus) throws IOException {
+        this.out = Files.newBufferedWriter(path);
+        this.interval = interval;
+        this.layerCensus = layerCensus;
+        writeHeader();
+        FrameProfiler.reset();
+        FrameProfiler.setEnabled(true);
+    }
+
+    /**
+     * Counts a frame, and writes a row once an interval has passed.
+     *
+     * @param deltaTime   The duration of the frame, in seconds.
+     * @param gameObjects The objects of the game, counted by layer.
+     */
+    public void onFrameEnd(float deltaTime, GameObjectCollection gameObjects) {
+        elapsedTime += deltaTime;
+        intervalTime += deltaTime;
+        frames++;
+        if (intervalTime < interval) {
+            return;
+        }
+        try {
+            writeRow(gameObjects);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        FrameProfiler.reset();
+        intervalTime = 0;
+        frames = 0;
+    }
+
+    /**
+     * Turns the profiler off and closes the file.
+     *
+     * @throws IOException If the file cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        FrameProfiler.setEnabled(false);
+        out.close();
+    }
+
+    private void writeHeader() throws IOException {
+        StringBuilder header = new StringBuilder("time_s,frames");
+        for (Phase phase : Phase.values()) {
+            String name = phase.name().toLowerCase(Locale.ROOT);
+            header.append(',').append(name).append("_count")
+                    .append(',').append(name).append("_p50_us")
+                    .append(',').append(name).append("_p99_us")
+                    .append(',').append(name).append("_max_us");
+        }
+        for (String layerName : layerCensus.getNames()) {
+            header.append(',').append(layerName).append("_objects");
+        }
+        out.write(header.toString());
+        out.newLine();
+        out.flush();
+    }
+
+    private void writeRow(GameObjectCollection gameObjects) throws IOException {
+        StringBuilder row = new StringBuilder();
+        row.append(String.format(Locale.ROOT, "%.3f", elapsedTime)).append(',').append(frames);
+        for (Phase phase : Phase.values()) {
+            LatencyHistogram histogram = FrameProfiler.histogramOf(phase);
+            row.append(',').append(histogram.getCount())
+                    .append(',').append(micros(histogram.percentile(P50)))
+                    .append(',').append(micros(histogram.percentile(P99)))
+                    .append(',').append(micros(histogram.getMax()));
+        }
+        for (int count : layerCensus.count(gameObjects)) {
+            row.append(',').append(count);
+        }
+        out.write(row.toString());
+        out.newLine();
+        out.flush(); // Keep the rows written so far if the game is killed
+    }
+
+    private static String micros(long nanos) {
+        return String.format(Locale.ROOT, "%.1f", nanos / NANOS_PER_MICRO);
+    }
+}
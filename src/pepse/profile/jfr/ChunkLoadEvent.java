@@ -0,0 +1,38 @@
+package pepse.profile.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A chunk of the world was loaded: its terrain blocks and torches were created. The event lasts as
+ * long as the loading, and the flora of the chunk is reported separately, as it grows when the
+ * world events are dispatched.
+ */
+@Name("pepse.ChunkLoad")
+@Label("Chunk Load")
+@Category({"Pepse", "World"})
+@Description("A chunk of terrain and torches was created")
+@StackTrace(false)
+public class ChunkLoadEvent extends Event {
+    /**
+     * The index of the chunk.
+     */
+    @Label("Chunk")
+    public int chunk;
+
+    /**
+     * The number of terrain blocks created.
+     */
+    @Label("Blocks")
+    public int blockCount;
+
+    /**
+     * The number of torches created.
+     */
+    @Label("Torches")
+    public int torchCount;
+}
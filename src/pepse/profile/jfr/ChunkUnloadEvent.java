@@ -0,0 +1,36 @@
+package pepse.profile.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A chunk of the world was unloaded: its terrain blocks and torches were removed.
+ */
+@Name("pepse.ChunkUnload")
+@Label("Chunk Unload")
+@Category({"Pepse", "World"})
+@Description("A chunk of terrain and torches was removed")
+@StackTrace(false)
+public class ChunkUnloadEvent extends Event {
+    /**
+     * The index of the chunk.
+     */
+    @Label("Chunk")
+    public int chunk;
+
+    /**
+     * The number of terrain blocks created.
+     */
+    @Label("Blocks")
+    public int blockCount;
+
+    /**
+     * The number of torches created.
+     */
+    @Label("Torches")
+    public int torchCount;
+}
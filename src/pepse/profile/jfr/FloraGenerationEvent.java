@@ -0,0 +1,36 @@
+package pepse.profile.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The trees of a chunk were grown.
+ */
+@Name("pepse.FloraGeneration")
+@Label("Flora Generation")
+@Category({"Pepse", "World"})
+@Description("The trees of a chunk were grown")
+@StackTrace(false)
+public class FloraGenerationEvent extends Event {
+    /**
+     * The index of the chunk.
+     */
+    @Label("Chunk")
+    public int chunk;
+
+    /**
+     * The number of trees grown.
+     */
+    @Label("Trees")
+    public int treeCount;
+
+    /**
+     * The number of trunk blocks, leaves and fruits created.
+     */
+    @Label("Objects")
+    public int objectCount;
+}
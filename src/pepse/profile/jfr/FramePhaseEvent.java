@@ -0,0 +1,33 @@
+package pepse.profile.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * A phase of a frame ended. The event is committed at the end of the phase and carries its
+ * duration, as timed by the {@link pepse.profile.FrameProfiler}.
+ */
+@Name("pepse.FramePhase")
+@Label("Frame Phase")
+@Category({"Pepse", "Frame"})
+@Description("A phase of a frame ended")
+@StackTrace(false)
+public class FramePhaseEvent extends Event {
+    /**
+     * The name of the phase.
+     */
+    @Label("Phase")
+    public String phase;
+
+    /**
+     * The duration of the phase.
+     */
+    @Label("Phase Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    public long phaseDuration;
+}
@@ -0,0 +1,30 @@
+package pepse.profile.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A fruit was eaten, by the avatar or a critter.
+ */
+@Name("pepse.FruitConsumed")
+@Label("Fruit Consumed")
+@Category({"Pepse", "World"})
+@Description("A fruit was eaten")
+@StackTrace(false)
+public class FruitConsumedEvent extends Event {
+    /**
+     * The x-coordinate of the fruit.
+     */
+    @Label("X")
+    public float x;
+
+    /**
+     * The y-coordinate of the fruit.
+     */
+    @Label("Y")
+    public float y;
+}
@@ -0,0 +1,30 @@
+package pepse.profile.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * An eaten fruit grew back.
+ */
+@Name("pepse.FruitRegrown")
+@Label("Fruit Regrown")
+@Category({"Pepse", "World"})
+@Description("An eaten fruit grew back")
+@StackTrace(false)
+public class FruitRegrownEvent extends Event {
+    /**
+     * The x-coordinate of the fruit.
+     */
+    @Label("X")
+    public float x;
+
+    /**
+     * The y-coordinate of the fruit.
+     */
+    @Label("Y")
+    public float y;
+}
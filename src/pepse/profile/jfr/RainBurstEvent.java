@@ -0,0 +1,36 @@
+package pepse.profile.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A cloud spawned a burst of raindrops.
+ */
+@Name("pepse.RainBurst")
+@Label("Rain Burst")
+@Category({"Pepse", "World"})
+@Description("A cloud spawned a burst of raindrops")
+@StackTrace(false)
+public class RainBurstEvent extends Event {
+    /**
+     * The x-coordinate of the cloud.
+     */
+    @Label("X")
+    public float x;
+
+    /**
+     * The y-coordinate of the cloud.
+     */
+    @Label("Y")
+    public float y;
+
+    /**
+     * The number of raindrops spawned.
+     */
+    @Label("Raindrops")
+    public int dropCount;
+}
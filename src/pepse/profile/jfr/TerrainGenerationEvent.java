@@ -0,0 +1,36 @@
+package pepse.profile.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Terrain blocks were created over a range of x-coordinates.
+ */
+@Name("pepse.TerrainGeneration")
+@Label("Terrain Generation")
+@Category({"Pepse", "World"})
+@Description("Terrain blocks were created over a range")
+@StackTrace(false)
+public class TerrainGenerationEvent extends Event {
+    /**
+     * The minimum x-coordinate of the range.
+     */
+    @Label("Min X")
+    public int minX;
+
+    /**
+     * The maximum x-coordinate of the range.
+     */
+    @Label("Max X")
+    public int maxX;
+
+    /**
+     * The number of terrain blocks created.
+     */
+    @Label("Blocks")
+    public int blockCount;
+}
@@ -0,0 +1,48 @@
+package pepse.profile.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A tree was created, with its trunk, leaves and fruits.
+ */
+@Name("pepse.TreeCreation")
+@Label("Tree Creation")
+@Category({"Pepse", "World"})
+@Description("A tree was created")
+@StackTrace(false)
+public class TreeCreationEvent extends Event {
+    /**
+     * The x-coordinate of the base of the trunk.
+     */
+    @Label("X")
+    public float x;
+
+    /**
+     * The y-coordinate of the base of the trunk.
+     */
+    @Label("Y")
+    public float y;
+
+    /**
+     * The number of trunk blocks.
+     */
+    @Label("Trunk Height")
+    public int trunkHeight;
+
+    /**
+     * The number of leaves.
+     */
+    @Label("Leaves")
+    public int leafCount;
+
+    /**
+     * The number of fruits.
+     */
+    @Label("Fruits")
+    public int fruitCount;
+}
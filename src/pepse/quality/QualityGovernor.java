@@ -0,0 +1,164 @@
+package pepse.quality;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Adapts the quality tier of the game to the frame times it measures.
+ * Frame times are collected over a window of frames; at the end of every window, the governor looks
+ * at a high percentile of them. It steps the tier down as soon as that percentile misses the frame
+ * budget, and steps it back up only after several windows in a row that fit the budget with room to
+ * spare, so it does not oscillate between two tiers. The window after a change is skipped, letting
+ * the game settle into the new tier before it is judged.
+ * <p>
+ * A game synchronised to the display spends its spare time waiting for the next refresh, so its
+ * frame times sit at the budget, jitter included, however light its work. Room to spare is therefore
+ * judged on the work time, and the frame times only need to stay within a small tolerance of the
+ * budget.
+ */
+public class QualityGovernor {
+    private static final int WINDOW_FRAMES = 120; // Number of frames over which the percentile is taken
+    private static final float PERCENTILE = 0.95f; // Fraction of the frames that must fit the budget
+    private static final float DOWNSHIFT_RATIO = 1.1f; // Percentile over budget stepping the tier down
+    private static final float UPSHIFT_RATIO = 1.05f; // Percentile within budget allowing a step up
+    private static final float UPSHIFT_WORK_RATIO = 0.5f; // Work share of the budget allowing a step up
+    private static final int UPSHIFT_WINDOWS = 3; // Windows in a row with headroom before a step up
+
+    private final float frameBudget;
+    private final QualityTier minTier;
+    private final QualityTier maxTier;
+    private final List<TierListener> listeners = new ArrayList<>();
+    private final float[] frameTimes = new float[WINDOW_FRAMES];
+    private final float[] workTimes = new float[WINDOW_FRAMES];
+    private final float[] sorted = new float[WINDOW_FRAMES]; // Scratch buffer of the percentile
+
+    private QualityTier tier;
+    private int frameCount = 0; // Number of frames of the current window
+    private int headroomWindows = 0; // Windows in a row that could afford a richer tier
+    private boolean isSettling = false; // Indicates if the current window follows a tier change
+    private boolean isEnabled = true;
+
+    /**
+     * Constructs a governor.
+     *
+     * @param frameBudget The longest acceptable frame time, in seconds.
+     * @param minTier     The cheapest tier the governor may step down to.
+     * @param maxTier     The richest tier the governor may step up to.
+     * @param initialTier The tier the game starts at.
+     */
+    public QualityGovernor(float frameBudget, QualityTier minTier, QualityTier maxTier,
+                           QualityTier initialTier) {
+        this.frameBudget = frameBudget;
+        this.minTier = minTier;
+        this.maxTier = maxTier;
+        this.tier = initialTier;
+    }
+
+    /**
+     * Registers a listener notified whenever the tier changes.
+     *
+     * @param listener The listener to notify.
+     */
+    public void addListener(TierListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Records the duration of a frame, and re-evaluates the tier at the end of a window.
+     *
+     * @param frameTime The time between the start of this frame and the start of the previous one.
+     * @param workTime  The time spent updating the game during this frame.
+     */
+    public void recordFrame(float frameTime, float workTime) {
+        if (!isEnabled) {
+            return;
+        }
+        frameTimes[frameCount] = frameTime;
+        workTimes[frameCount] = workTime;
+        frameCount++;
+        if (frameCount < WINDOW_FRAMES) {
+            return;
+        }
+        frameCount = 0;
+        if (isSettling) {
+            isSettling = false; // Judge the new tier on its own frames only
+            return;
+        }
+
+        float framePercentile = percentile(frameTimes);
+        float workPercentile = percentile(workTimes);
+        if (framePercentile > frameBudget * DOWNSHIFT_RATIO) {
+            headroomWindows = 0;
+            if (tier.ordinal() > minTier.ordinal()) {
+                setTier(QualityTier.values()[tier.ordinal() - 1]);
+            }
+        } else if (framePercentile <= frameBudget * UPSHIFT_RATIO
+                && workPercentile <= frameBudget * UPSHIFT_WORK_RATIO) {
+            headroomWindows++;
+            if (headroomWindows >= UPSHIFT_WINDOWS && tier.ordinal() < maxTier.ordinal()) {
+                headroomWindows = 0;
+                setTier(QualityTier.values()[tier.ordinal() + 1]);
+            }
+        } else {
+            headroomWindows = 0; // Fits the budget, without room for more
+        }
+    }
+
+    /**
+     * Gets the current tier.
+     *
+     * @return The quality tier the game runs at.
+     */
+    public QualityTier getTier() {
+        return tier;
+    }
+
+    /**
+     * Forces a tier, notifying the listeners if it changes.
+     *
+     * @param newTier The tier to run at.
+     */
+    public void setTier(QualityTier newTier) {
+        if (newTier == tier) {
+            return;
+        }
+        tier = newTier;
+        isSettling = true;
+        frameCount = 0;
+        for (TierListener listener : listeners) {
+            listener.onTierChanged(newTier);
+        }
+    }
+
+    /**
+     * Turns the automatic adaptation on or off. While off, the tier only changes through
+     * {@link #setTier}.
+     *
+     * @param enabled True to adapt the tier to the frame times, false to keep it.
+     */
+    public void setEnabled(boolean enabled) {
+        this.isEnabled = enabled;
+        frameCount = 0;
+        headroomWindows = 0;
+    }
+
+    private float percentile(float[] times) {
+        System.arraycopy(times, 0, sorted, 0, WINDOW_FRAMES);
+        Arrays.sort(sorted);
+        return sorted[(int) Math.ceil(PERCENTILE * WINDOW_FRAMES) - 1];
+    }
+
+    /**
+     * Functional interface for reacting to tier changes.
+     */
+    @FunctionalInterface
+    public interface TierListener {
+        /**
+         * Applies a new quality tier.
+         *
+         * @param tier The tier the game now runs at.
+         */
+        void onTierChanged(QualityTier tier);
+    }
+}
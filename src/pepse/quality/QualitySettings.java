@@ -0,0 +1,59 @@
+package pepse.quality;
+
+/**
+ * The detail knobs of a world that its generators read while it runs: the number of leaves of its
+ * trees and of raindrops of its rain bursts. Every world has its own settings, handed to its flora
+ * and clouds, so that two worlds of a process, such as a headless check resuming a saved world, never
+ * see each other's tier.
+ */
+public class QualitySettings {
+    private int leafCount;
+    private int rainDropCount;
+
+    /**
+     * Constructs the settings of a quality tier.
+     *
+     * @param tier The tier whose knobs the settings start with.
+     */
+    public QualitySettings(QualityTier tier) {
+        this.leafCount = tier.getLeafCount();
+        this.rainDropCount = tier.getRainDropCount();
+    }
+
+    /**
+     * Gets the number of leaves of a tree.
+     *
+     * @return The number of leaves per tree.
+     */
+    public int getLeafCount() {
+        return leafCount;
+    }
+
+    /**
+     * Sets the number of leaves of a tree. The trees already grown keep theirs until the flora
+     * regrows them.
+     *
+     * @param leafCount The number of leaves per tree.
+     */
+    public void setLeafCount(int leafCount) {
+        this.leafCount = leafCount;
+    }
+
+    /**
+     * Gets the number of raindrops of a rain burst.
+     *
+     * @return The number of raindrops every cloud spawns when it rains.
+     */
+    public int getRainDropCount() {
+        return rainDropCount;
+    }
+
+    /**
+     * Sets the number of raindrops of a rain burst, for the next bursts of every cloud.
+     *
+     * @param rainDropCount The number of raindrops every cloud spawns when it rains.
+     */
+    public void setRainDropCount(int rainDropCount) {
+        this.rainDropCount = rainDropCount;
+    }
+}
@@ -0,0 +1,71 @@
+package pepse.quality;
+
+import pepse.world.Block;
+
+/**
+ * The levels of detail the game can run at, from the cheapest to the richest.
+ * Every tier sets the detail of the tree canopies, the number of raindrops of a rain burst,
+ * the distance around the view within which objects are kept awake, and whether leaves sway.
+ */
+public enum QualityTier {
+    /**
+     * Sparse canopies, light rain, objects awake only inside the view, still leaves.
+     */
+    LOW(15, 2, 0, false),
+    /**
+     * Medium canopies and rain, a narrow band of awake objects around the view, swaying leaves.
+     */
+    MEDIUM(30, 4, Block.SIZE, true),
+    /**
+     * Full detail.
+     */
+    HIGH(50, 6, 2 * Block.SIZE, true);
+
+    private final int leafCount;
+    private final int rainDropCount;
+    private final float viewMargin;
+    private final boolean isLeafAnimated;
+
+    QualityTier(int leafCount, int rainDropCount, float viewMargin, boolean isLeafAnimated) {
+        this.leafCount = leafCount;
+        this.rainDropCount = rainDropCount;
+        this.viewMargin = viewMargin;
+        this.isLeafAnimated = isLeafAnimated;
+    }
+
+    /**
+     * Gets the number of leaves of a newly created tree.
+     *
+     * @return The number of leaves per tree.
+     */
+    public int getLeafCount() {
+        return leafCount;
+    }
+
+    /**
+     * Gets the number of raindrops of a rain burst.
+     *
+     * @return The number of raindrops per burst.
+     */
+    public int getRainDropCount() {
+        return rainDropCount;
+    }
+
+    /**
+     * Gets the distance around the camera within which objects are kept awake.
+     *
+     * @return The view margin, in pixels.
+     */
+    public float getViewMargin() {
+        return viewMargin;
+    }
+
+    /**
+     * Checks whether leaves sway.
+     *
+     * @return True if leaves are animated, false otherwise.
+     */
+    public boolean isLeafAnimated() {
+        return isLeafAnimated;
+    }
+}
@@ -0,0 +1,91 @@
+package pepse.replay;
+
+import danogl.gui.UserInputListener;
+import pepse.headless.StandIns;
+
+import java.awt.event.KeyEvent;
+
+/**
+ * Records the keys held and the duration of every frame of a session. The game reads the keyboard
+ * through the recorder's listener, which answers with the keys sampled at the start of the frame,
+ * so that the keys the game sees during a frame are exactly the ones recorded for it.
+ */
+public class InputRecorder {
+    private final UserInputListener keyboard;
+    private final InputRecording recording = new InputRecording();
+    private final UserInputListener listener;
+    private int keyState = 0; // Keys held during the current frame
+
+    /**
+     * Constructs a recorder of a keyboard.
+     *
+     * @param keyboard The input listener of the real keyboard.
+     */
+    public InputRecorder(UserInputListener keyboard) {
+        this.keyboard = keyboard;
+        this.listener = StandIns.userInput(key -> (keyState & bitOf(key)) != 0);
+    }
+
+    /**
+     * Gets the listener the game should read its input from.
+     *
+     * @return The listener answering with the keys of the current frame.
+     */
+    public UserInputListener getListener() {
+        return listener;
+    }
+
+    /**
+     * Samples the keyboard for a new frame and records it.
+     *
+     * @param deltaTime The duration of the frame, in seconds.
+     */
+    public void beginFrame(float deltaTime) {
+        keyState = keyStateOf(keyboard);
+        recording.add(deltaTime, keyState);
+    }
+
+    /**
+     * Reads the keys held on a keyboard.
+     *
+     * @param keyboard The input listener of the keyboard.
+     * @return The bits of the keys held, as in {@link InputRecording}.
+     */
+    public static int keyStateOf(UserInputListener keyboard) {
+        int keyState = 0;
+        if (keyboard.isKeyPressed(KeyEvent.VK_LEFT)) {
+            keyState |= InputRecording.LEFT;
+        }
+        if (keyboard.isKeyPressed(KeyEvent.VK_RIGHT)) {
+            keyState |= InputRecording.RIGHT;
+        }
+        if (keyboard.isKeyPressed(KeyEvent.VK_SPACE)) {
+            keyState |= InputRecording.JUMP;
+        }
+        return keyState;
+    }
+
+    /**
+     * Gets the frames recorded so far.
+     *
+     * @return The recording.
+     */
+    public InputRecording getRecording() {
+        return recording;
+    }
+
+    /**
+     * Gets the bit of a key in the key state of a frame.
+     *
+     * @param key The {@link KeyEvent} code of the key.
+     * @return The bit of the key, or 0 if the key is not recorded.
+     */
+    static int bitOf(int key) {
+        return switch (key) {
+            case KeyEvent.VK_LEFT -> InputRecording.LEFT;
+            case KeyEvent.VK_RIGHT -> InputRecording.RIGHT;
+            case KeyEvent.VK_SPACE -> InputRecording.JUMP;
+            default -> 0;
+        };
+    }
+}
@@ -0,0 +1,144 @@
+package pepse.replay;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * The keys held and the duration of every frame of a play session, in the order they were played.
+ * <p>
+ * A recording is stored in a compact binary format: a header made of the magic number, the format
+ * version and the number of frames, then five bytes per frame, the duration of the frame as a float
+ * followed by the bits of the keys held during it.
+ */
+public class InputRecording {
+    /**
+     * Bit of the left arrow key in the key state of a frame.
+     */
+    public static final int LEFT = 1;
+    /**
+     * Bit of the right arrow key in the key state of a frame.
+     */
+    public static final int RIGHT = 1 << 1;
+    /**
+     * Bit of the space key in the key state of a frame.
+     */
+    public static final int JUMP = 1 << 2;
+
+    private static final int MAGIC = 0x50455052; // "PEPR", marks a file as a pepse recording
+    private static final int VERSION = 1; // Version of the binary format
+    private static final int INITIAL_CAPACITY = 1024; // Initial number of frames the arrays can hold
+
+    private float[] deltaTimes = new float[INITIAL_CAPACITY];
+    private byte[] keys = new byte[INITIAL_CAPACITY];
+    private int size = 0;
+
+    /**
+     * Appends a frame to the recording.
+     *
+     * @param deltaTime The duration of the frame, in seconds.
+     * @param keyState  The bits of the keys held during the frame.
+     */
+    public void add(float deltaTime, int keyState) {
+        if (size == deltaTimes.length) {
+            deltaTimes = Arrays.copyOf(deltaTimes, size * 2);
+            keys = Arrays.copyOf(keys, size * 2);
+        }
+        deltaTimes[size] = deltaTime;
+        keys[size] = (byte) keyState;
+        size++;
+    }
+
+    /**
+     * Gets the number of recorded frames.
+     *
+     * @return The number of frames.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the duration of a recorded frame.
+     *
+     * @param frame The index of the frame.
+     * @return The duration of the frame, in seconds.
+     */
+    public float getDeltaTime(int frame) {
+        return deltaTimes[frame];
+    }
+
+    /**
+     * Gets the keys held during a recorded frame.
+     *
+     * @param frame The index of the frame.
+     * @return The bits of the keys held during the frame.
+     */
+    public int getKeyState(int frame) {
+        return keys[frame];
+    }
+
+    /**
+     * Gets the total duration of the recording.
+     *
+     * @return The sum of the durations of the frames, in seconds.
+     */
+    public double getDuration() {
+        double duration = 0;
+        for (int i = 0; i < size; i++) {
+            duration += deltaTimes[i];
+        }
+        return duration;
+    }
+
+    /**
+     * Writes the recording to a file, replacing it if it exists.
+     *
+     * @param path The file to write.
+     * @throws IOException If the file cannot be written.
+     */
+    public void write(Path path) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeInt(size);
+            for (int i = 0; i < size; i++) {
+                out.writeFloat(deltaTimes[i]);
+                out.writeByte(keys[i]);
+            }
+        }
+    }
+
+    /**
+     * Reads a recording from a file.
+     *
+     * @param path The file to read.
+     * @return The recording stored in the file.
+     * @throws IOException If the file cannot be read or is not a recording.
+     */
+    public static InputRecording read(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(path + " is not an input recording");
+            }
+            int version = in.readUnsignedByte();
+            if (version != VERSION) {
+                throw new IOException("Unsupported input recording version " + version);
+            }
+            int frames = in.readInt();
+            InputRecording recording = new InputRecording();
+            for (int i = 0; i < frames; i++) {
+                float deltaTime = in.readFloat();
+                recording.add(deltaTime, in.readUnsignedByte());
+            }
+            return recording;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package pepse.replay;
+
+import danogl.gui.UserInputListener;
+import pepse.headless.StandIns;
+
+/**
+ * Plays a recording back: its listener answers with the keys recorded for the current frame, and
+ * the caller updates the game with the recorded frame durations.
+ */
+public class InputReplay {
+    private final InputRecording recording;
+    private final UserInputListener listener;
+    private int frame = -1; // Index of the current frame, -1 before the first one
+    private int keyState = 0; // Keys held during the current frame
+
+    /**
+     * Constructs a replay of a recording, positioned before its first frame.
+     *
+     * @param recording The recording to play.
+     */
+    public InputReplay(InputRecording recording) {
+        this.recording = recording;
+        this.listener = StandIns.userInput(key -> (keyState & InputRecorder.bitOf(key)) != 0);
+    }
+
+    /**
+     * Gets the listener the game should read its input from.
+     *
+     * @return The listener answering with the keys of the current frame.
+     */
+    public UserInputListener getListener() {
+        return listener;
+    }
+
+    /**
+     * Tells whether frames remain to be played.
+     *
+     * @return True if there is a next frame.
+     */
+    public boolean hasNextFrame() {
+        return frame + 1 < recording.size();
+    }
+
+    /**
+     * Moves to the next frame, holding its keys.
+     *
+     * @return The duration of the frame to update the game with, in seconds.
+     */
+    public float nextFrame() {
+        frame++;
+        keyState = recording.getKeyState(frame);
+        return recording.getDeltaTime(frame);
+    }
+}
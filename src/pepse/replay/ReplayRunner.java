@@ -0,0 +1,159 @@
+package pepse.replay;
+
+import pepse.WorldStats;
+import pepse.headless.HeadlessGame;
+import pepse.headless.StandIns;
+import pepse.quality.QualityGovernor;
+import pepse.quality.QualityTier;
+
+import java.awt.event.KeyEvent;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Records and replays play sessions without a display, so that performance runs work on identical
+ * inputs. A replay runs at a pinned quality tier, as the tier would otherwise follow the frame times
+ * of the machine and change the workload.
+ * <p>
+ * Usage:
+ * <ul>
+ *     <li>{@code record <file> [simulated seconds]}: records the avatar running right and jumping at a
+ *     fixed interval.</li>
+ *     <li>{@code replay <file> [LOW|MEDIUM|HIGH] [profile.csv]}: replays a recording and reports its
+ *     throughput, optionally writing a frame profile of the replay to a CSV file.</li>
+ *     <li>{@code verify <file> [LOW|MEDIUM|HIGH]}: replays a recording twice and checks that both runs
+ *     end in the same world.</li>
+ * </ul>
+ */
+public final class ReplayRunner {
+    private static final float DEFAULT_SECONDS = 60f; // Simulated duration of a recorded run
+    private static final float FRAME_TIME = 1f / 60; // Simulated duration of a recorded frame
+    private static final int JUMP_INTERVAL_FRAMES = 120; // Frames between two jumps of the avatar
+    private static final QualityTier DEFAULT_TIER = QualityTier.HIGH; // Tier replays are pinned at
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    private ReplayRunner() {
+    }
+
+    /**
+     * Records, replays or verifies a recording.
+     *
+     * @param args The mode, the recording file, and the duration or the quality tier.
+     * @throws IOException If the recording cannot be read or written.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: ReplayRunner record|replay|verify <file> [seconds|tier] [profile.csv]");
+            System.exit(2);
+        }
+        Path path = Path.of(args[1]);
+        switch (args[0]) {
+            case "record" -> record(path, args.length > 2 ? Float.parseFloat(args[2]) : DEFAULT_SECONDS);
+            case "replay" -> {
+                Path profilePath = args.length > 3 ? Path.of(args[3]) : null;
+                replay(InputRecording.read(path), tierOf(args), profilePath);
+            }
+            case "verify" -> verify(InputRecording.read(path), tierOf(args));
+            default -> {
+                System.err.println("Unknown mode " + args[0]);
+                System.exit(2);
+            }
+        }
+    }
+
+    /**
+     * Records a scripted session and writes it to a file.
+     *
+     * @param path    The file to write.
+     * @param seconds The simulated duration of the session.
+     * @throws IOException If the file cannot be written.
+     */
+    private static void record(Path path, float seconds) throws IOException {
+        long frames = (long) Math.ceil(seconds / FRAME_TIME);
+        long[] frame = {0};
+        InputRecorder recorder = new InputRecorder(StandIns.userInput(key ->
+                key == KeyEvent.VK_RIGHT
+                        || (key == KeyEvent.VK_SPACE && frame[0] % JUMP_INTERVAL_FRAMES == 0)));
+        HeadlessGame game = new HeadlessGame(recorder.getListener());
+        pinTier(game, DEFAULT_TIER);
+        for (frame[0] = 0; frame[0] < frames; frame[0]++) {
+            recorder.beginFrame(FRAME_TIME);
+            game.update(FRAME_TIME);
+        }
+        recorder.getRecording().write(path);
+        System.out.printf(Locale.ROOT, "Recorded %d frames (%.1f s) to %s%n", frames,
+                recorder.getRecording().getDuration(), path);
+        report("recorded", game.getStats());
+    }
+
+    /**
+     * Replays a recording and reports its throughput.
+     *
+     * @param recording   The recording to play.
+     * @param tier        The quality tier to run at.
+     * @param profilePath The CSV file to write the frame profile to, or null not to profile.
+     * @return The counters of the world at the end of the replay.
+     * @throws IOException If the profile file cannot be created.
+     */
+    private static WorldStats replay(InputRecording recording, QualityTier tier, Path profilePath)
+            throws IOException {
+        InputReplay replay = new InputReplay(recording);
+        HeadlessGame game = new HeadlessGame(replay.getListener());
+        pinTier(game, tier);
+        if (profilePath != null) {
+            game.getGameManager().profileTo(profilePath);
+        }
+        long start = System.nanoTime();
+        while (replay.hasNextFrame()) {
+            game.update(replay.nextFrame());
+        }
+        game.getGameManager().stopProfiling();
+        double wallSeconds = (System.nanoTime() - start) / NANOS_PER_SECOND;
+        WorldStats stats = game.getStats();
+        System.out.printf(Locale.ROOT, "Replayed %d frames (%.1f s) in %.3f s: %.0f frames/s%n",
+                recording.size(), recording.getDuration(), wallSeconds, recording.size() / wallSeconds);
+        report("replayed", stats);
+        return stats;
+    }
+
+    /**
+     * Replays a recording twice and exits with an error if the two runs end differently.
+     *
+     * @param recording The recording to play.
+     * @param tier      The quality tier to run at.
+     * @throws IOException Never, as the replays are not profiled.
+     */
+    private static void verify(InputRecording recording, QualityTier tier) throws IOException {
+        WorldStats first = replay(recording, tier, null);
+        WorldStats second = replay(recording, tier, null);
+        if (!first.equals(second)) {
+            System.err.println("Replays diverged:\n  " + first + "\n  " + second);
+            System.exit(1);
+        }
+        System.out.println("Replays are identical");
+    }
+
+    /**
+     * Turns off the quality governor of a game and sets its tier.
+     *
+     * @param game The game to pin.
+     * @param tier The tier to run at.
+     */
+    private static void pinTier(HeadlessGame game, QualityTier tier) {
+        QualityGovernor governor = game.getGameManager().getQualityGovernor();
+        governor.setEnabled(false);
+        governor.setTier(tier);
+    }
+
+    private static QualityTier tierOf(String[] args) {
+        return args.length > 2 ? QualityTier.valueOf(args[2].toUpperCase(Locale.ROOT)) : DEFAULT_TIER;
+    }
+
+    private static void report(String label, WorldStats stats) {
+        System.out.printf(Locale.ROOT,
+                "%-8s steps %d | chunk loads %d | jumps %d | rain bursts %d | raindrops %d | quality %s%n",
+                label, stats.simulationSteps(), stats.chunkLoads(), stats.jumps(), stats.rainBursts(),
+                stats.rainDrops(), stats.qualityTier());
+    }
+}
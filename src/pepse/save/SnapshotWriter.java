@@ -0,0 +1,81 @@
+package pepse.save;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Writes world snapshots to a file on a background thread, so that saving never stalls the game
+ * loop. The game thread takes a snapshot and hands it over; only the latest snapshot handed over is
+ * written, so snapshots taken faster than the disk can write them replace each other instead of
+ * queueing up.
+ */
+public class SnapshotWriter {
+    private static final long CLOSE_TIMEOUT_SECONDS = 5; // Longest wait for the last write on close
+
+    private final Path path;
+    private final ExecutorService executor;
+    private final AtomicReference<WorldSnapshot> latest = new AtomicReference<>(); // Not written yet
+
+    /**
+     * Constructs a writer and starts its thread.
+     *
+     * @param path The file the snapshots are written to.
+     */
+    public SnapshotWriter(Path path) {
+        this.path = path;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "pepse-snapshot-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Gets the file the snapshots are written to.
+     *
+     * @return The path of the file.
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Hands a snapshot over to be written. Returns at once. A snapshot handed over once the writer is
+     * closed is dropped.
+     *
+     * @param snapshot The snapshot, which must not be modified afterwards.
+     */
+    public void submit(WorldSnapshot snapshot) {
+        if (latest.getAndSet(snapshot) == null) {
+            try {
+                executor.execute(this::writeLatest); // No write is pending yet
+            } catch (RejectedExecutionException e) {
+                latest.set(null); // Closed, nothing is written anymore
+            }
+        }
+    }
+
+    /**
+     * Writes the last snapshot handed over, then stops the thread.
+     *
+     * @throws InterruptedException If interrupted while waiting for the last write.
+     */
+    public void close() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private void writeLatest() {
+        WorldSnapshot snapshot = latest.getAndSet(null);
+        try {
+            snapshot.write(path);
+        } catch (IOException e) {
+            System.err.println("Cannot write the world snapshot to " + path + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package pepse.save;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+/**
+ * The state needed to resume a world exactly where it was left. Chunks are generated from the world
+ * seed alone, so a snapshot does not store them: it stores the seed, the avatar, the world time,
+ * which sets the phase of the day-night cycle, and the changes made to the loaded chunks, which are
+ * the eaten fruits waiting to reappear. A fruit is identified by its tree and its index in the tree,
+ * not by its position, so a snapshot saved at one quality tier resumes at any other.
+ * <p>
+ * A snapshot is stored in a compact binary format: a header made of the magic number and the format
+ * version, then the seed, the avatar's position, velocity and energy, the world time, and the number
+ * of eaten fruits followed by the key and the due time of each of them.
+ */
+public class WorldSnapshot {
+    private static final int MAGIC = 0x50455053; // "PEPS", marks a file as a pepse snapshot
+    private static final int VERSION = 2; // Version of the binary format
+    private static final int INITIAL_CAPACITY = 16; // Initial number of fruits the arrays can hold
+
+    private final int seed;
+    private final float avatarX;
+    private final float avatarY;
+    private final float avatarVelocityX;
+    private final float avatarVelocityY;
+    private final int avatarEnergy;
+    private final float elapsedTime;
+    private long[] fruitKeys = new long[INITIAL_CAPACITY]; // Keys of the eaten fruits
+    private float[] dueTimes = new float[INITIAL_CAPACITY]; // World time at which each fruit reappears
+    private int fruitCount = 0;
+
+    /**
+     * Constructs a snapshot without eaten fruits.
+     *
+     * @param seed            The seed the world is generated from.
+     * @param avatarX         The x-coordinate of the avatar's top-left corner.
+     * @param avatarY         The y-coordinate of the avatar's top-left corner.
+     * @param avatarVelocityX The horizontal velocity of the avatar.
+     * @param avatarVelocityY The vertical velocity of the avatar.
+     * @param avatarEnergy    The energy of the avatar.
+     * @param elapsedTime     The elapsed world time, in seconds.
+     */
+    public WorldSnapshot(int seed, float avatarX, float avatarY, float avatarVelocityX,
+                         float avatarVelocityY, int avatarEnergy, float elapsedTime) {
+        this.seed = seed;
+        this.avatarX = avatarX;
+        this.avatarY = avatarY;
+        this.avatarVelocityX = avatarVelocityX;
+        this.avatarVelocityY = avatarVelocityY;
+        this.avatarEnergy = avatarEnergy;
+        this.elapsedTime = elapsedTime;
+    }
+
+    /**
+     * Adds an eaten fruit of a loaded chunk to the snapshot.
+     *
+     * @param key     The key of the fruit, see {@link pepse.world.trees.Tree#fruitKey}.
+     * @param dueTime The world time at which the fruit reappears, in seconds.
+     */
+    public void addEatenFruit(long key, float dueTime) {
+        if (fruitCount == fruitKeys.length) {
+            int capacity = fruitCount * 2;
+            fruitKeys = Arrays.copyOf(fruitKeys, capacity);
+            dueTimes = Arrays.copyOf(dueTimes, capacity);
+        }
+        fruitKeys[fruitCount] = key;
+        dueTimes[fruitCount] = dueTime;
+        fruitCount++;
+    }
+
+    /**
+     * Gets the seed the world is generated from.
+     *
+     * @return The world seed.
+     */
+    public int getSeed() {
+        return seed;
+    }
+
+    /**
+     * Gets the x-coordinate of the avatar's top-left corner.
+     *
+     * @return The x-coordinate of the avatar.
+     */
+    public float getAvatarX() {
+        return avatarX;
+    }
+
+    /**
+     * Gets the y-coordinate of the avatar's top-left corner.
+     *
+     * @return The y-coordinate of the avatar.
+     */
+    public float getAvatarY() {
+        return avatarY;
+    }
+
+    /**
+     * Gets the horizontal velocity of the avatar.
+     *
+     * @return The horizontal velocity.
+     */
+    public float getAvatarVelocityX() {
+        return avatarVelocityX;
+    }
+
+    /**
+     * Gets the vertical velocity of the avatar.
+     *
+     * @return The vertical velocity.
+     */
+    public float getAvatarVelocityY() {
+        return avatarVelocityY;
+    }
+
+    /**
+     * Gets the energy of the avatar.
+     *
+     * @return The energy.
+     */
+    public int getAvatarEnergy() {
+        return avatarEnergy;
+    }
+
+    /**
+     * Gets the elapsed world time, which sets the phase of the day-night cycle.
+     *
+     * @return The elapsed world time, in seconds.
+     */
+    public float getElapsedTime() {
+        return elapsedTime;
+    }
+
+    /**
+     * Gets the number of eaten fruits in the snapshot.
+     *
+     * @return The number of eaten fruits.
+     */
+    public int getEatenFruitCount() {
+        return fruitCount;
+    }
+
+    /**
+     * Gets the key of an eaten fruit.
+     *
+     * @param index The index of the fruit.
+     * @return The key of the fruit, see {@link pepse.world.trees.Tree#fruitKey}.
+     */
+    public long getFruitKey(int index) {
+        return fruitKeys[index];
+    }
+
+    /**
+     * Gets the world time at which an eaten fruit reappears.
+     *
+     * @param index The index of the fruit.
+     * @return The due time of the fruit, in seconds.
+     */
+    public float getDueTime(int index) {
+        return dueTimes[index];
+    }
+
+    /**
+     * Writes the snapshot to a file, replacing it if it exists. The snapshot is written to a temporary
+     * file next to it first, then moved in place, so an interrupted write never leaves a truncated
+     * snapshot behind.
+     *
+     * @param path The file to write.
+     * @throws IOException If the file cannot be written.
+     */
+    public void write(Path path) throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeInt(seed);
+            out.writeFloat(avatarX);
+            out.writeFloat(avatarY);
+            out.writeFloat(avatarVelocityX);
+            out.writeFloat(avatarVelocityY);
+            out.writeInt(avatarEnergy);
+            out.writeFloat(elapsedTime);
+            out.writeInt(fruitCount);
+            for (int i = 0; i < fruitCount; i++) {
+                out.writeLong(fruitKeys[i]);
+                out.writeFloat(dueTimes[i]);
+            }
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads a snapshot from a file.
+     *
+     * @param path The file to read.
+     * @return The snapshot stored in the file.
+     * @throws IOException If the file cannot be read or is not a snapshot.
+     */
+    public static WorldSnapshot read(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(path + " is not a world snapshot");
+            }
+            int version = in.readUnsignedByte();
+            if (version != VERSION) {
+                throw new IOException("Unsupported world snapshot version " + version);
+            }
+            WorldSnapshot snapshot = new WorldSnapshot(in.readInt(), in.readFloat(), in.readFloat(),
+                    in.readFloat(), in.readFloat(), in.readInt(), in.readFloat());
+            int fruits = in.readInt();
+            for (int i = 0; i < fruits; i++) {
+                long key = in.readLong();
+                snapshot.addEatenFruit(key, in.readFloat());
+            }
+            return snapshot;
+        }
+    }
+}
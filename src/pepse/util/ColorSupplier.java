@@ -31,7 +31,7 @@ public final class ColorSupplier {
      * @return A color similar to baseColor.
      */
     public static Color approximateMonoColor(Color baseColor, int colorDelta){
-        int channel = randomChannelInRange(baseColor.getRed()-colorDelta, baseColor.getRed()+colorDelta);
+        int channel = randomChannelInRange(baseColor.getRed()-colorDelta, baseColor.getRed()+colorDelta, random);
         return new Color(channel, channel, channel);
     }
 
@@ -57,11 +57,24 @@ public final class ColorSupplier {
      * @return A color similar to baseColor.
      */
     public static Color approximateColor(Color baseColor, int colorDelta) {
+        return approximateColor(baseColor, colorDelta, random);
+    }
+
+    /**
+     * Returns a color similar to baseColor, with a difference of at most colorDelta, sampled from
+     * the given random generator so that the same sequence of colors can be reproduced.
+     *
+     * @param baseColor A color that we wish to approximate.
+     * @param colorDelta The maximal difference (per channel) between the sampled color and the base color.
+     * @param random The random generator the channels are sampled from.
+     * @return A color similar to baseColor.
+     */
+    public static Color approximateColor(Color baseColor, int colorDelta, Random random) {
 
         return new Color(
-                randomChannelInRange(baseColor.getRed()-colorDelta, baseColor.getRed()+colorDelta),
-                randomChannelInRange(baseColor.getGreen()-colorDelta, baseColor.getGreen()+colorDelta),
-                randomChannelInRange(baseColor.getBlue()-colorDelta, baseColor.getBlue()+colorDelta));
+                randomChannelInRange(baseColor.getRed()-colorDelta, baseColor.getRed()+colorDelta, random),
+                randomChannelInRange(baseColor.getGreen()-colorDelta, baseColor.getGreen()+colorDelta, random),
+                randomChannelInRange(baseColor.getBlue()-colorDelta, baseColor.getBlue()+colorDelta, random));
     }
 
     /**
@@ -69,9 +82,10 @@ public final class ColorSupplier {
      *
      * @param min The lower bound of the given range.
      * @param max The upper bound of the given range.
+     * @param random The random generator the value is sampled from.
      * @return A random number in the range [min, max], clipped to [0,255].
      */
-    private static int randomChannelInRange(int min, int max) {
+    private static int randomChannelInRange(int min, int max, Random random) {
         int channel = random.nextInt(max-min+1) + min;
         return Math.min(255, Math.max(channel, 0));
     }
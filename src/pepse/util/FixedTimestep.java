@@ -0,0 +1,59 @@
+package pepse.util;
+
+/**
+ * Splits variable frame times into a whole number of fixed simulation steps.
+ * The time left over after the last step is kept in an accumulator for the next frame, and is
+ * exposed as an interpolation factor so rendering can blend between the last two simulated states.
+ */
+public class FixedTimestep {
+    private final float step;
+    private final int maxSubsteps;
+    private float accumulator = 0;
+
+    /**
+     * Constructs a fixed timestep.
+     *
+     * @param step        The duration of one simulation step, in seconds.
+     * @param maxSubsteps The maximal number of steps simulated in one frame. Time beyond it is dropped,
+     *                    so a slow frame cannot make the following ones slower and slower.
+     */
+    public FixedTimestep(float step, int maxSubsteps) {
+        this.step = step;
+        this.maxSubsteps = maxSubsteps;
+    }
+
+    /**
+     * Adds the duration of a frame and computes how many steps should be simulated for it.
+     *
+     * @param deltaTime Time elapsed since the last frame.
+     * @return The number of steps to simulate, between 0 and the maximal number of substeps.
+     */
+    public int advance(float deltaTime) {
+        accumulator += deltaTime;
+        int steps = (int) (accumulator / step);
+        if (steps > maxSubsteps) {
+            accumulator = 0; // Drop the backlog instead of trying to catch up
+            return maxSubsteps;
+        }
+        accumulator -= steps * step;
+        return steps;
+    }
+
+    /**
+     * Gets the duration of one simulation step.
+     *
+     * @return The step, in seconds.
+     */
+    public float getStep() {
+        return step;
+    }
+
+    /**
+     * Gets how far the current frame is between the last simulated step and the next one.
+     *
+     * @return The interpolation factor, in [0, 1).
+     */
+    public float alpha() {
+        return accumulator / step;
+    }
+}
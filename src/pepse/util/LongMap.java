@@ -0,0 +1,125 @@
+package pepse.util;
+
+/**
+ * A hash map from primitive long keys to objects, with open addressing and linear probing.
+ * Unlike a {@code HashMap<Long, V>}, looking a key up does not box it, so lookups made every frame
+ * allocate nothing.
+ *
+ * @param <V> The type of the values. Values may not be null.
+ */
+public class LongMap<V> {
+    private static final int INITIAL_CAPACITY = 16; // Slots of an empty map, a power of two
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L; // Spreads close keys apart
+
+    private long[] keys;
+    private Object[] values; // Null for an empty slot
+    private int size = 0;
+    private int mask; // Capacity minus one
+
+    /**
+     * Constructs an empty map.
+     */
+    public LongMap() {
+        keys = new long[INITIAL_CAPACITY];
+        values = new Object[INITIAL_CAPACITY];
+        mask = INITIAL_CAPACITY - 1;
+    }
+
+    /**
+     * Gets the value of a key.
+     *
+     * @param key The key.
+     * @return The value of the key, or null if the map does not contain it.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        for (int slot = slotOf(key); values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return (V) values[slot];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Associates a value with a key, replacing its previous value.
+     *
+     * @param key   The key.
+     * @param value The value, not null.
+     */
+    public void put(long key, V value) {
+        int slot = slotOf(key);
+        for (; values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return;
+            }
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size * 2 > values.length) {
+            grow();
+        }
+    }
+
+    /**
+     * Removes a key and its value.
+     *
+     * @param key The key to remove.
+     * @return True if the map contained the key, false otherwise.
+     */
+    public boolean remove(long key) {
+        int slot = slotOf(key);
+        while (values[slot] != null && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        if (values[slot] == null) {
+            return false;
+        }
+
+        // Shift back the entries that probed past the freed slot, so no probe sequence is broken
+        int free = slot;
+        for (int next = (free + 1) & mask; values[next] != null; next = (next + 1) & mask) {
+            int home = slotOf(keys[next]);
+            if (((next - home) & mask) >= ((next - free) & mask)) {
+                keys[free] = keys[next];
+                values[free] = values[next];
+                free = next;
+            }
+        }
+        values[free] = null;
+        size--;
+        return true;
+    }
+
+    /**
+     * Gets the number of keys in the map.
+     *
+     * @return The number of keys.
+     */
+    public int size() {
+        return size;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new Object[oldValues.length * 2];
+        mask = values.length - 1;
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                int slot = slotOf(oldKeys[i]);
+                while (values[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private int slotOf(long key) {
+        return (int) ((key * HASH_MULTIPLIER) >>> 32) & mask;
+    }
+}
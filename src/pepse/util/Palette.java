@@ -0,0 +1,76 @@
+package pepse.util;
+
+import danogl.gui.rendering.RectangleRenderable;
+import danogl.gui.rendering.Renderable;
+import danogl.util.Vector2;
+
+import java.awt.*;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * A fixed set of colors approximating a base color, with a shared renderable for each of them.
+ * Objects pick their variant from their world position, so thousands of blocks share a handful of
+ * colors and renderables, and a regenerated block gets the same color it had before.
+ */
+public final class Palette {
+    private static final int VARIANT_COUNT = 16; // Number of colors of a palette, a power of two
+    private static final int DEFAULT_COLOR_DELTA = 10; // Maximal difference of a variant per channel
+    private static final Map<Color, Palette> PALETTES = new HashMap<>(); // Palettes by base color
+
+    private final Color[] colors;
+    private final Renderable[] renderables;
+
+    /**
+     * Constructs a palette around a base color.
+     *
+     * @param baseColor  The color approximated by the palette.
+     * @param colorDelta The maximal difference (per channel) between a variant and the base color.
+     */
+    private Palette(Color baseColor, int colorDelta) {
+        colors = new Color[VARIANT_COUNT];
+        renderables = new Renderable[VARIANT_COUNT];
+        Random random = new Random(baseColor.getRGB()); // The same variants on every run
+        for (int i = 0; i < VARIANT_COUNT; i++) {
+            colors[i] = ColorSupplier.approximateColor(baseColor, colorDelta, random);
+            renderables[i] = new RectangleRenderable(colors[i]);
+        }
+    }
+
+    /**
+     * Gets the palette of a base color, creating it on first use.
+     *
+     * @param baseColor The color approximated by the palette.
+     * @return The palette of the base color.
+     */
+    public static synchronized Palette of(Color baseColor) {
+        return PALETTES.computeIfAbsent(baseColor, color -> new Palette(color, DEFAULT_COLOR_DELTA));
+    }
+
+    /**
+     * Gets the variant color picked for a world position.
+     *
+     * @param position The world position.
+     * @return A color similar to the base color.
+     */
+    public Color colorAt(Vector2 position) {
+        return colors[variantAt(position)];
+    }
+
+    /**
+     * Gets the shared rectangle renderable of the variant picked for a world position.
+     *
+     * @param position The world position.
+     * @return A renderable filled with a color similar to the base color.
+     */
+    public Renderable renderableAt(Vector2 position) {
+        return renderables[variantAt(position)];
+    }
+
+    private static int variantAt(Vector2 position) {
+        int x = (int) Math.floor(position.x());
+        int y = (int) Math.floor(position.y());
+        return PositionHash.hash(x, y) & (VARIANT_COUNT - 1);
+    }
+}
@@ -0,0 +1,117 @@
+package pepse.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs a set of parallel systems as fork-join tasks over partitions of their data, then commits
+ * their results one system after the other on the calling thread.
+ * The task covering every system and the task running them all are reused from step to step, only
+ * the halves of systems too large for a single task are created anew.
+ */
+public class ParallelStage {
+    private static final int GRAIN_SIZE = 512; // Elements below which a range is computed directly
+
+    private final ForkJoinPool pool;
+    private final List<ParallelSystem> systems;
+    private final List<RangeTask> systemTasks = new ArrayList<>(); // Task of every system, reused
+    private final RecursiveAction stageTask = new RecursiveAction() {
+        @Override
+        protected void compute() {
+            ForkJoinTask.invokeAll(systemTasks);
+        }
+    };
+
+    /**
+     * Constructs an empty stage running on the common fork-join pool.
+     */
+    public ParallelStage() {
+        this.pool = ForkJoinPool.commonPool();
+        this.systems = new ArrayList<>();
+    }
+
+    /**
+     * Adds a system to the stage. Systems are committed in the order they were added.
+     *
+     * @param system The system to add.
+     */
+    public void add(ParallelSystem system) {
+        systems.add(system);
+        systemTasks.add(new RangeTask(system, 0, 0, 0));
+    }
+
+    /**
+     * Computes every system in parallel, then commits them serially.
+     *
+     * @param deltaTime The duration of the simulation step.
+     */
+    public void run(float deltaTime) {
+        int totalSize = 0;
+        for (int i = 0; i < systems.size(); i++) {
+            totalSize += systems.get(i).size();
+        }
+
+        if (totalSize <= GRAIN_SIZE) {
+            // Not worth forking, compute everything on this thread
+            for (int i = 0; i < systems.size(); i++) {
+                ParallelSystem system = systems.get(i);
+                system.compute(0, system.size(), deltaTime);
+            }
+        } else {
+            for (int i = 0; i < systems.size(); i++) {
+                systemTasks.get(i).reset(systems.get(i).size(), deltaTime);
+            }
+            stageTask.reinitialize();
+            pool.invoke(stageTask);
+        }
+
+        for (int i = 0; i < systems.size(); i++) {
+            systems.get(i).commit();
+        }
+    }
+
+    /**
+     * Computes a range of elements of a system, splitting it in halves while it is too large.
+     */
+    private static class RangeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L; // Tasks are never serialized
+
+        private final ParallelSystem system;
+        private final int from;
+        private int to;
+        private float deltaTime;
+
+        private RangeTask(ParallelSystem system, int from, int to, float deltaTime) {
+            this.system = system;
+            this.from = from;
+            this.to = to;
+            this.deltaTime = deltaTime;
+        }
+
+        /**
+         * Prepares the task to run again, over the first elements of its system.
+         *
+         * @param to        The number of elements to compute.
+         * @param deltaTime The duration of the simulation step.
+         */
+        private void reset(int to, float deltaTime) {
+            reinitialize();
+            this.to = to;
+            this.deltaTime = deltaTime;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= GRAIN_SIZE) {
+                system.compute(from, to, deltaTime);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new RangeTask(system, from, middle, deltaTime),
+                    new RangeTask(system, middle, to, deltaTime));
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package pepse.util;
+
+/**
+ * A simulation system whose work is independent for every element it owns, so it can be computed
+ * in parallel over disjoint ranges of elements.
+ * The compute phase may only read and write the system's own data; changes to game objects are
+ * applied afterwards, on the game thread, by the commit phase.
+ */
+public interface ParallelSystem {
+    /**
+     * Gets the number of elements owned by the system.
+     *
+     * @return The number of elements to compute.
+     */
+    int size();
+
+    /**
+     * Computes the new state of a range of elements. Called concurrently for disjoint ranges.
+     *
+     * @param from      The first element of the range (inclusive).
+     * @param to        The last element of the range (exclusive).
+     * @param deltaTime The duration of the simulation step.
+     */
+    void compute(int from, int to, float deltaTime);
+
+    /**
+     * Applies the computed state to the game objects. Called on the game thread once every range
+     * has been computed.
+     */
+    void commit();
+}
@@ -0,0 +1,44 @@
+package pepse.util;
+
+/**
+ * Hashes world positions into well mixed integers, so that anything picked from a position
+ * (a color variant, a random decision) is the same every time that position is generated.
+ */
+public final class PositionHash {
+    private static final int X_PRIME = 0x27D4EB2F; // Multiplier spreading the x-coordinate
+    private static final int Y_PRIME = 0x165667B1; // Multiplier spreading the y-coordinate
+    private static final int SALT_PRIME = 0x61C88647; // Multiplier spreading the salt
+
+    private PositionHash() {
+    }
+
+    /**
+     * Hashes a position.
+     *
+     * @param x The x-coordinate.
+     * @param y The y-coordinate.
+     * @return The hash of the position.
+     */
+    public static int hash(int x, int y) {
+        return hash(x, y, 0);
+    }
+
+    /**
+     * Hashes a position together with a salt, giving independent hashes for the same position.
+     *
+     * @param x    The x-coordinate.
+     * @param y    The y-coordinate.
+     * @param salt A value distinguishing the users of the hash.
+     * @return The hash of the position.
+     */
+    public static int hash(int x, int y, int salt) {
+        int h = x * X_PRIME + y * Y_PRIME + salt * SALT_PRIME;
+        // Finalizer of MurmurHash3, so that neighboring positions get unrelated hashes
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
@@ -0,0 +1,112 @@
+package pepse.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A uniform grid index of objects by position, supporting rectangular region queries.
+ * Every object is stored in the cell containing its anchor point, so a query only visits
+ * the cells overlapping the queried region. Cells are found by a primitive key, so queries allocate
+ * nothing.
+ *
+ * @param <T> The type of the indexed objects.
+ */
+public class SpatialHash<T> {
+    private final float cellSize;
+    private final LongMap<List<T>> cells;
+    private int size = 0;
+
+    /**
+     * Constructs an empty spatial hash.
+     *
+     * @param cellSize The side of a grid cell, in pixels.
+     */
+    public SpatialHash(float cellSize) {
+        this.cellSize = cellSize;
+        this.cells = new LongMap<>();
+    }
+
+    /**
+     * Adds an object to the cell containing the given point.
+     *
+     * @param object The object to add.
+     * @param x      The X coordinate of the object's anchor point.
+     * @param y      The Y coordinate of the object's anchor point.
+     */
+    public void insert(T object, float x, float y) {
+        long key = key(cellOf(x), cellOf(y));
+        List<T> cell = cells.get(key);
+        if (cell == null) {
+            cell = new ArrayList<>();
+            cells.put(key, cell);
+        }
+        cell.add(object);
+        size++;
+    }
+
+    /**
+     * Removes an object that was inserted at the given point.
+     *
+     * @param object The object to remove.
+     * @param x      The X coordinate the object was inserted at.
+     * @param y      The Y coordinate the object was inserted at.
+     * @return True if the object was found and removed, false otherwise.
+     */
+    public boolean remove(T object, float x, float y) {
+        long key = key(cellOf(x), cellOf(y));
+        List<T> cell = cells.get(key);
+        if (cell == null || !cell.remove(object)) {
+            return false;
+        }
+        if (cell.isEmpty()) {
+            cells.remove(key);
+        }
+        size--;
+        return true;
+    }
+
+    /**
+     * Visits every object whose cell overlaps the given region. Objects near the border of
+     * the region may lie slightly outside of it.
+     *
+     * @param minX    The left edge of the region.
+     * @param minY    The top edge of the region.
+     * @param maxX    The right edge of the region.
+     * @param maxY    The bottom edge of the region.
+     * @param visitor Called once for every object found.
+     */
+    public void query(float minX, float minY, float maxX, float maxY, Consumer<T> visitor) {
+        int minCellX = cellOf(minX);
+        int maxCellX = cellOf(maxX);
+        int minCellY = cellOf(minY);
+        int maxCellY = cellOf(maxY);
+        for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+            for (int cellY = minCellY; cellY <= maxCellY; cellY++) {
+                List<T> cell = cells.get(key(cellX, cellY));
+                if (cell != null) {
+                    for (int i = 0; i < cell.size(); i++) {
+                        visitor.accept(cell.get(i));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the number of indexed objects.
+     *
+     * @return The number of objects in the index.
+     */
+    public int size() {
+        return size;
+    }
+
+    private int cellOf(float coordinate) {
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    private static long key(int cellX, int cellY) {
+        return ((long) cellX << 32) | (cellY & 0xffffffffL);
+    }
+}
@@ -5,33 +5,45 @@ import danogl.collisions.GameObjectCollection;
 import danogl.gui.ImageReader;
 import danogl.gui.UserInputListener;
 import danogl.gui.rendering.AnimationRenderable;
+import danogl.gui.rendering.Renderable;
 import danogl.util.Vector2;
+import pepse.world.events.WorldEventBus;
+import pepse.world.events.WorldEventType;
+import pepse.world.light.LightSource;
 import pepse.world.trees.Fruit;
+
+import java.awt.*;
 import java.awt.event.KeyEvent;
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  * Represents the player's avatar with animations, energy management, and movement mechanics.
  * The avatar interacts with other objects and performs actions such as running and jumping.
+ * The avatar is updated once per fixed simulation step, so its energy changes and landing detection
+ * are the same at any frame rate. The avatar carries a light around at night.
+ * Its renderer is given a single renderable, which draws whichever animation is shown, so switching
+ * between running, standing and jumping, or turning around, never touches the renderer.
  */
-public class Avatar extends GameObject {
+public class Avatar extends GameObject implements LightSource {
     private static final float GRAVITY = 600f; // Gravity applied to the avatar
     private static final float VELOCITY_X = 200f; // Horizontal movement speed
     private static final float VELOCITY_Y = -450f; // Jump velocity
     private static final int MAX_ENERGY = 100; // Maximum energy of the avatar
-    private static final float ENERGY_GAIN_IDLE = 1f; // Energy gained when idle
-    private static final float ENERGY_LOSS_RUN = 0.5f; // Energy lost when running
+    private static final float ENERGY_GAIN_IDLE = 1f; // Energy gained per simulation step when idle
+    private static final float ENERGY_LOSS_RUN = 0.5f; // Energy lost per simulation step when running
     private static final int ENERGY_LOSS_JUMP = 10; // Energy lost when jumping
     private static final Vector2 AVATAR_SIZE = Vector2.ONES.mult(50); // Size of the avatar
     private static final float REGENERATION_DELAY = 0.5f; // Delay before energy regeneration starts
     private static final String FRUIT_TAG = "fruit"; // Tag for identifying fruit objects
+    private static final float MAX_STEP_HEIGHT = Block.SIZE; // Highest terrain step climbed without
+    // jumping
+    private static final int LIGHT_LEVEL = 9; // Light carried by the avatar
 
     private static GameObjectCollection gameObjectCollection;
     private boolean isWaitingForEnergyRegeneration = false; // Indicates if the avatar is waiting
     // to regenerate energy
     private float timeSinceLastAction = 0; // Time since the last action
     private boolean isInAir = false; // Indicates if the avatar is in the air
+    private boolean isGrounded = false; // Indicates if the avatar rests on the terrain
 
     private final UserInputListener inputListener;
     private int energy;
@@ -39,9 +51,13 @@ public class Avatar extends GameObject {
     private AnimationRenderable idleAnimation;
     private AnimationRenderable runAnimation;
     private AnimationRenderable jumpAnimation;
+    private AnimationRenderable shownAnimation; // Animation currently drawn
+    private boolean isShownFlipped = false; // Whether the shown animation is flipped horizontally
 
-    // List of observers for jump notifications
-    private final List<JumpObserver> jumpObservers;
+    // Bus on which jumps are announced
+    private final WorldEventBus eventBus;
+    // Terrain heights used to resolve ground contact
+    private final Heightfield heightfield;
 
     /**
      * Constructs the Avatar with animations and energy management.
@@ -49,8 +65,11 @@ public class Avatar extends GameObject {
      * @param topLeftCorner The initial position of the avatar.
      * @param inputListener The listener for user inputs.
      * @param imageReader   The reader for loading image resources.
+     * @param eventBus      The bus on which the avatar's jumps are posted.
+     * @param heightfield   The terrain heightfield the avatar walks on.
      */
-    public Avatar(Vector2 topLeftCorner, UserInputListener inputListener, ImageReader imageReader) {
+    public Avatar(Vector2 topLeftCorner, UserInputListener inputListener, ImageReader imageReader,
+                  WorldEventBus eventBus, Heightfield heightfield) {
         super(
                 topLeftCorner,
                 Vector2.ONES.mult(50), // avatar size
@@ -58,14 +77,16 @@ public class Avatar extends GameObject {
         );
         this.inputListener = inputListener;
         this.energy = MAX_ENERGY;
-        this.jumpObservers = new ArrayList<>();// Initialize the jump observers list
+        this.eventBus = eventBus;
+        this.heightfield = heightfield;
         // Apply gravity to the avatar
         transform().setAccelerationY(GRAVITY);
         // Prevent collisions from all directions
         physics().preventIntersectionsFromDirection(Vector2.ZERO);
         // Initialize animations
         setupAnimations(imageReader);
-        renderer().setRenderable(idleAnimation);
+        setIdleAnimation();
+        renderer().setRenderable(new AvatarRenderable());
     }
 
 
@@ -120,21 +141,27 @@ public class Avatar extends GameObject {
     /**
      * Updates the avatar's state, including movement, energy management, and animations.
      *
-     * @param deltaTime The time elapsed since the last frame.
+     * @param deltaTime The duration of the fixed simulation step.
      */
     @Override
     public void update(float deltaTime) {
+        float previousX = getTopLeftCorner().x();
+        float previousBottom = getTopLeftCorner().y() + getDimensions().y();
         super.update(deltaTime);
 
+        // Resolve contact with the terrain from its heightfield
+        blockTerrainWalls(previousX, previousBottom);
+        isGrounded = heightfield.resolveGroundContact(this);
+
         // Check if the avatar has landed on the ground
-        if (getVelocity().y() == 0 && isInAir) {
+        if (isGrounded && isInAir) {
             isInAir = false; // L'avatar a retouché le sol
         }
 
         // Handle energy depletion
         if (energy <= 0) {
             transform().setVelocityX(0); // Empêche les mouvements
-            renderer().setRenderable(idleAnimation); // Animation Idle par défaut
+            setIdleAnimation(); // Animation Idle par défaut
 
             // Incrémenter le temps d'inactivité
             timeSinceLastAction += deltaTime;
@@ -173,10 +200,28 @@ public class Avatar extends GameObject {
 
 
 
+    /**
+     * Moves the avatar back to its previous X coordinate if it walked into a terrain step
+     * too high to be climbed without jumping.
+     *
+     * @param previousX      The X coordinate of the avatar before this frame's movement.
+     * @param previousBottom The bottom of the avatar before this frame's movement.
+     */
+    private void blockTerrainWalls(float previousX, float previousBottom) {
+        Vector2 topLeft = getTopLeftCorner();
+        if (topLeft.x() == previousX) {
+            return;
+        }
+        float surface = heightfield.surfaceUnder(topLeft.x(), topLeft.x() + getDimensions().x());
+        if (surface < previousBottom - MAX_STEP_HEIGHT) {
+            setTopLeftCorner(new Vector2(previousX, topLeft.y()));
+        }
+    }
+
     private boolean handleLowEnergy() {
         if (energy <= 0.5f) {
             transform().setVelocityX(0); // Empêche les mouvements
-            renderer().setRenderable(idleAnimation); // Animation Idle par défaut
+            setIdleAnimation(); // Animation Idle par défaut
             regenerateEnergy(); // Permet de régénérer l'énergie
             return true; // Arrête le reste de la logique pour cette frame
         }
@@ -222,15 +267,24 @@ public class Avatar extends GameObject {
      * @param isFlippedHorizontally true if the animation should be flipped horizontally.
      */
     private void setRunAnimation(boolean isFlippedHorizontally) {
-        renderer().setRenderable(runAnimation);
-        renderer().setIsFlippedHorizontally(isFlippedHorizontally);
+        showAnimation(runAnimation);
+        isShownFlipped = isFlippedHorizontally;
     }
 
     /**
      * Define Idle animation.
      */
     private void setIdleAnimation() {
-        renderer().setRenderable(idleAnimation); // Animation Idle
+        showAnimation(idleAnimation); // Animation Idle
+    }
+
+    /**
+     * Shows an animation from the next frame on.
+     *
+     * @param animation The animation to show.
+     */
+    private void showAnimation(AnimationRenderable animation) {
+        shownAnimation = animation;
     }
 
     /**
@@ -239,13 +293,13 @@ public class Avatar extends GameObject {
      * @return True if the avatar jumps, false otherwise.
      */
     private boolean handleJump() {
-        if (inputListener.isKeyPressed(KeyEvent.VK_SPACE) && getVelocity().y() == 0 && energy >=
+        if (inputListener.isKeyPressed(KeyEvent.VK_SPACE) && isGrounded && energy >=
                 ENERGY_LOSS_JUMP) {
             transform().setVelocityY(VELOCITY_Y); // Applique une vélocité verticale
             energy = Math.max(0, energy - ENERGY_LOSS_JUMP); // Réduit l'énergie pour le saut
             isInAir = true; // L'avatar est maintenant en l'air
-            renderer().setRenderable(jumpAnimation); // Animation de saut
-            notifyJumpObservers(); // Notifie les observateurs de saut
+            showAnimation(jumpAnimation); // Animation de saut
+            eventBus.post(WorldEventType.JUMP, this); // Annonce le saut, diffusé en fin de frame
             return true;
         }
         return false;
@@ -293,29 +347,30 @@ public class Avatar extends GameObject {
     }
 
     /**
-     * Let other objects give some energy to avatar.
+     * Sets the avatar's energy, for instance to resume a saved world.
+     *
+     * @param energy The energy, clamped between 0 and the maximum energy.
      */
-    public void addEnergy(int amount) {
-        energy = Math.min(MAX_ENERGY, energy + amount);
-
+    public void setEnergy(int energy) {
+        this.energy = Math.max(0, Math.min(MAX_ENERGY, energy));
     }
 
     /**
-     * Notifies all jump observers when the avatar jumps.
+     * Gets the light carried by the avatar.
+     *
+     * @return The light level of the avatar.
      */
-    private void notifyJumpObservers() {
-        for (JumpObserver observer : jumpObservers) {
-            observer.onJump();
-        }
+    @Override
+    public int getLightLevel() {
+        return LIGHT_LEVEL;
     }
+
     /**
-     * Adds a jump observer to the list of observers.
-     *
-     * @param observer The observer to add.
+     * Let other objects give some energy to avatar.
      */
-    public void addJumpObserver(JumpObserver observer) {
+    public void addEnergy(int amount) {
+        energy = Math.min(MAX_ENERGY, energy + amount);
 
-        jumpObservers.add(observer);
     }
 
     /**
@@ -334,4 +389,22 @@ public class Avatar extends GameObject {
         }
     }
 
+    /**
+     * Draws the animation shown by the avatar, and advances only that one, as the renderer would if
+     * it were given the animation itself.
+     */
+    private class AvatarRenderable implements Renderable {
+        @Override
+        public void render(Graphics2D g, Vector2 topLeftCorner, Vector2 dimensions,
+                           double degreesCounterClockwise, boolean isFlippedHorizontally,
+                           boolean isFlippedVertically, double opaqueness) {
+            shownAnimation.render(g, topLeftCorner, dimensions, degreesCounterClockwise,
+                    isShownFlipped, isFlippedVertically, opaqueness);
+        }
+
+        @Override
+        public void update(float deltaTime) {
+            shownAnimation.update(deltaTime);
+        }
+    }
 }
@@ -4,6 +4,7 @@ import danogl.collisions.GameObjectCollection;
 import danogl.collisions.Layer;
 import danogl.gui.rendering.Camera;
 import danogl.util.Vector2;
+import pepse.quality.QualitySettings;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -36,20 +37,28 @@ public class Cloud {
      *
      * @param windowDimensions The dimensions of the window to determine cloud positions.
      * @param gameObjects The collection of game objects to which the clouds are added.
+     * @param view The region in which the clouds are awake.
+     * @param cloudDrift The system moving the clouds.
+     * @param rainSystem The system simulating the clouds' rain.
+     * @param quality The quality settings of the world, which set the rain of the clouds.
      * @return A list of CloudGroups representing the generated clouds.
      */
-    public static List<CloudGroup> create(Vector2 windowDimensions, GameObjectCollection gameObjects) {
+    public static List<CloudGroup> create(Vector2 windowDimensions, GameObjectCollection gameObjects,
+                                          ViewBounds view, CloudDrift cloudDrift, RainSystem rainSystem,
+                                          QualitySettings quality) {
         List<CloudGroup> cloudGroups = new ArrayList<>();
 
         // Position for the first cloud
         Vector2 position1 = new Vector2(FIRST_CLOUD_X, windowDimensions.y() * FIRST_CLOUD_Y_RATIO);
-        CloudGroup cloudGroup1 = new CloudGroup(position1, windowDimensions, gameObjects, camera);
+        CloudGroup cloudGroup1 = new CloudGroup(position1, windowDimensions, camera, view, cloudDrift,
+                rainSystem, quality);
         cloudGroups.add(cloudGroup1);
         gameObjects.addGameObject(cloudGroup1, Layer.BACKGROUND);
 
         // Position for the second cloud
         Vector2 position2 = new Vector2(SECOND_CLOUD_X, windowDimensions.y() * SECOND_CLOUD_Y_RATIO);
-        CloudGroup cloudGroup2 = new CloudGroup(position2, windowDimensions, gameObjects, camera);
+        CloudGroup cloudGroup2 = new CloudGroup(position2, windowDimensions, camera, view, cloudDrift,
+                rainSystem, quality);
         cloudGroups.add(cloudGroup2);
         gameObjects.addGameObject(cloudGroup2, Layer.BACKGROUND);
 
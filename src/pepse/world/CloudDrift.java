@@ -0,0 +1,70 @@
+package pepse.world;
+
+import pepse.util.ParallelSystem;
+
+import java.util.Arrays;
+
+/**
+ * Moves every cloud back and forth horizontally between two positions at a constant speed.
+ * Positions are computed in parallel and applied to the clouds during the commit phase.
+ */
+public class CloudDrift implements ParallelSystem {
+    private static final int INITIAL_CAPACITY = 4; // Initial number of clouds the arrays can hold
+
+    private CloudGroup[] clouds = new CloudGroup[INITIAL_CAPACITY];
+    private float[] leftX = new float[INITIAL_CAPACITY];
+    private float[] rightX = new float[INITIAL_CAPACITY];
+    private float[] travelTimes = new float[INITIAL_CAPACITY]; // Time to go from one side to the other
+    private float[] times = new float[INITIAL_CAPACITY]; // Time elapsed in the current back and forth
+    private float[] x = new float[INITIAL_CAPACITY];
+    private int size = 0;
+
+    /**
+     * Starts moving a cloud, from its left position towards its right one.
+     *
+     * @param cloud      The cloud to move.
+     * @param leftX      The leftmost X coordinate of the cloud.
+     * @param rightX     The rightmost X coordinate of the cloud.
+     * @param travelTime The time (in seconds) the cloud takes to go from one side to the other.
+     */
+    public void add(CloudGroup cloud, float leftX, float rightX, float travelTime) {
+        if (size == clouds.length) {
+            int capacity = size * 2;
+            clouds = Arrays.copyOf(clouds, capacity);
+            this.leftX = Arrays.copyOf(this.leftX, capacity);
+            this.rightX = Arrays.copyOf(this.rightX, capacity);
+            travelTimes = Arrays.copyOf(travelTimes, capacity);
+            times = Arrays.copyOf(times, capacity);
+            x = Arrays.copyOf(x, capacity);
+        }
+        clouds[size] = cloud;
+        this.leftX[size] = leftX;
+        this.rightX[size] = rightX;
+        travelTimes[size] = travelTime;
+        times[size] = 0;
+        x[size] = leftX;
+        size++;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void compute(int from, int to, float deltaTime) {
+        for (int i = from; i < to; i++) {
+            float time = (times[i] + deltaTime) % (2 * travelTimes[i]);
+            times[i] = time;
+            float progress = time < travelTimes[i] ? time / travelTimes[i] : 2 - time / travelTimes[i];
+            x[i] = leftX[i] + (rightX[i] - leftX[i]) * progress;
+        }
+    }
+
+    @Override
+    public void commit() {
+        for (int i = 0; i < size; i++) {
+            clouds[i].moveTo(x[i]);
+        }
+    }
+}
@@ -1,32 +1,37 @@
 package pepse.world;
 
 import danogl.GameObject;
-import danogl.collisions.GameObjectCollection;
-import danogl.collisions.Layer;
 import danogl.components.CoordinateSpace;
-import danogl.components.Transition;
 import danogl.gui.rendering.Camera;
-import danogl.gui.rendering.RectangleRenderable;
+import danogl.gui.rendering.Renderable;
 import danogl.util.Vector2;
-import pepse.util.ColorSupplier;
+import pepse.profile.FrameProfiler;
+import pepse.profile.Phase;
+import pepse.profile.jfr.RainBurstEvent;
+import pepse.quality.QualitySettings;
+import pepse.util.Palette;
+import pepse.util.PositionHash;
 
 import java.awt.*;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 
 /**
  * Represents a group of cloud blocks that collectively form a cloud structure.
  * The cloud moves in a horizontal looping pattern and can generate rain when triggered.
+ * The blocks are not game objects of their own: the cloud draws them all, so moving the cloud moves
+ * a single object. While the cloud is outside the view bounds it sleeps: it is neither drawn nor
+ * moved, and it does not rain.
  */
-public class CloudGroup extends GameObject implements JumpObserver {
+public class CloudGroup extends GameObject {
     private static final Color BASE_CLOUD_COLOR = new Color(255, 255, 255); // Default cloud color
     private static final int BLOCK_SIZE = 30; // Size of individual cloud blocks
     private static final float MIN_CLOUD_SPEED = 40f; // Minimum horizontal speed of clouds
     private static final float MAX_CLOUD_SPEED = 60f; // Maximum horizontal speed of clouds
-    private static final int NUM_RAIN_DROPS = 6; // Number of raindrops generated in a rain group
     private static final int RAIN_SPREAD_RADIUS_X = 100; // Horizontal spread radius for raindrops
     private static final int RAIN_SPREAD_RADIUS_Y = 60; // Vertical spread radius for raindrops
+    private static final Palette CLOUD_PALETTE = Palette.of(BASE_CLOUD_COLOR); // Shared colors of the
+    // cloud blocks
 
     private static final List<List<Integer>> CLOUD_SHAPE = List.of(
             List.of(0, 1, 1, 0, 0, 0),
@@ -35,36 +40,66 @@ public class CloudGroup extends GameObject implements JumpObserver {
             List.of(0, 0, 1, 1, 0, 0)
     );
 
-    private final GameObjectCollection gameObjects;
-    private final List<GameObject> cloudBlocks;
-    private Transition<Vector2> transition;
+    private final RainSystem rainSystem;
+    private final QualitySettings quality; // Number of raindrops of a rain group
+    private final ViewBounds view;
+    private final int[] blockOffsetsX; // Position of every block relative to the cloud
+    private final int[] blockOffsetsY;
+    private final Color[] blockColors;
+    private final Renderable cloudRenderable;
     private final Camera camera;
+    private final Random random; // Seeded by the position of the cloud, so its rain is reproducible
+    private boolean isAwake = true; // Indicates if the cloud is drawn
+    private long rainBursts = 0; // Number of rain groups generated
 
     /**
      * Constructs a CloudGroup object that manages a collection of cloud blocks and their movement.
      *
      * @param basePosition     The initial position of the cloud group.
      * @param windowDimensions The dimensions of the game window.
-     * @param gameObjects      The collection of game objects to add the cloud blocks.
-     * @param camera           The camera used for calculating transitions.
+     * @param camera           The camera used for calculating the cloud's course.
+     * @param view             The region in which the cloud is awake.
+     * @param cloudDrift       The system moving the cloud.
+     * @param rainSystem       The system simulating the cloud's rain.
+     * @param quality          The quality settings of the world, read at every rain group.
      */
-    public CloudGroup(Vector2 basePosition, Vector2 windowDimensions, GameObjectCollection gameObjects,
-                      Camera camera) {
+    public CloudGroup(Vector2 basePosition, Vector2 windowDimensions, Camera camera, ViewBounds view,
+                      CloudDrift cloudDrift, RainSystem rainSystem, QualitySettings quality) {
         super(basePosition, calculateSize(), null);
         this.setCoordinateSpace(CoordinateSpace.WORLD_COORDINATES);
-        this.gameObjects = gameObjects;
-        this.cloudBlocks = createCloudBlocks(gameObjects);
+        this.rainSystem = rainSystem;
+        this.quality = quality;
+        this.view = view;
+        int blockCount = countBlocks();
+        this.blockOffsetsX = new int[blockCount];
+        this.blockOffsetsY = new int[blockCount];
+        this.blockColors = new Color[blockCount];
+        createCloudBlocks(basePosition);
+        this.cloudRenderable = new CloudRenderable();
+        this.renderer().setRenderable(cloudRenderable);
         this.camera = camera;
-        addTransition(windowDimensions);
+        this.random = new Random(PositionHash.hash((int) basePosition.x(), (int) basePosition.y()));
+        addDrift(windowDimensions, cloudDrift);
     }
 
     /**
-     * Triggered when an avatar jumps, generating a group of raindrops below the cloud.
+     * Generates a group of raindrops below the cloud, as when an avatar jumps.
+     * A sleeping cloud does not rain.
      */
-    @Override
-    public void onJump() {
-        Vector2 cloudPosition = this.getTopLeftCorner();
-        createRainGroup(cloudPosition, gameObjects);
+    public void rain() {
+        if (!isAwake) {
+            return;
+        }
+        createRainGroup(this.getTopLeftCorner());
+    }
+
+    /**
+     * Gets the number of rain groups the cloud has generated.
+     *
+     * @return The number of rain bursts.
+     */
+    public long getRainBursts() {
+        return rainBursts;
     }
 
     /**
@@ -79,82 +114,75 @@ public class CloudGroup extends GameObject implements JumpObserver {
     }
 
     /**
-     * Creates the individual blocks of the cloud based on the predefined shape.
+     * Counts the blocks of the predefined shape.
      *
-     * @param gameObjects The collection of game objects to add the blocks.
-     * @return A list of GameObjects representing the cloud blocks.
+     * @return The number of blocks of a cloud.
      */
-    private List<GameObject> createCloudBlocks(GameObjectCollection gameObjects) {
-        List<GameObject> blocks = new ArrayList<>();
+    private static int countBlocks() {
+        int count = 0;
+        for (List<Integer> row : CLOUD_SHAPE) {
+            for (int cell : row) {
+                count += cell;
+            }
+        }
+        return count;
+    }
 
+    /**
+     * Lays out the individual blocks of the cloud based on the predefined shape.
+     *
+     * @param basePosition The initial position of the cloud, picking the colors of its blocks.
+     */
+    private void createCloudBlocks(Vector2 basePosition) {
+        int block = 0;
         for (int row = 0; row < CLOUD_SHAPE.size(); row++) {
             for (int col = 0; col < CLOUD_SHAPE.get(row).size(); col++) {
                 if (CLOUD_SHAPE.get(row).get(col) == 1) {
-                    Vector2 relativePosition = new Vector2(
-                            col * BLOCK_SIZE,
-                            row * BLOCK_SIZE
-                    );
-                    Vector2 blockPosition = this.getTopLeftCorner().add(relativePosition);
-
-                    // Use ColorSupplier to generate a color close to the base color
-                    Color blockColor = ColorSupplier.approximateColor(BASE_CLOUD_COLOR);
-
-                    GameObject block = new Block(blockPosition, new RectangleRenderable(blockColor));
-                    block.setTag("CloudBlock");
-                    blocks.add(block);
-                    gameObjects.addGameObject(block, Layer.BACKGROUND);
+                    blockOffsetsX[block] = col * BLOCK_SIZE;
+                    blockOffsetsY[block] = row * BLOCK_SIZE;
+
+                    // Pick a color close to the base color
+                    Vector2 blockPosition = basePosition.add(new Vector2(col * BLOCK_SIZE, row * BLOCK_SIZE));
+                    blockColors[block] = CLOUD_PALETTE.colorAt(blockPosition);
+                    block++;
                 }
             }
         }
-
-        return blocks;
     }
 
     /**
-     * Adds a transition to move the cloud horizontally in a looping pattern.
+     * Registers the cloud with the drift system, to move it horizontally in a looping pattern.
      *
      * @param windowDimensions The dimensions of the game window for calculating positions.
+     * @param cloudDrift       The system moving the cloud.
      */
-    private void addTransition(Vector2 windowDimensions) {
-        Random random = new Random();
+    private void addDrift(Vector2 windowDimensions, CloudDrift cloudDrift) {
         float speed = MIN_CLOUD_SPEED + random.nextFloat() * (MAX_CLOUD_SPEED - MIN_CLOUD_SPEED);
 
         float travelTime = (windowDimensions.x() + CLOUD_SHAPE.get(0).size() * BLOCK_SIZE) / speed;
 
-        Vector2 offScreenRight = new Vector2(
-                camera.getTopLeftCorner().x() + 2 * windowDimensions.x(),
-                this.getTopLeftCorner().y()
-        );
-
-        Vector2 offScreenLeft = new Vector2(
-                camera.getTopLeftCorner().x() - 2 * windowDimensions.x(),
-                this.getTopLeftCorner().y()
-        );
-
-        transition = new Transition<>(
-                this,
-                this::updatePosition,
-                offScreenLeft,
-                offScreenRight,
-                Transition.LINEAR_INTERPOLATOR_VECTOR,
-                travelTime,
-                Transition.TransitionType.TRANSITION_BACK_AND_FORTH,
-                null
-        );
+        float offScreenRight = camera.getTopLeftCorner().x() + 2 * windowDimensions.x();
+        float offScreenLeft = camera.getTopLeftCorner().x() - 2 * windowDimensions.x();
+
+        cloudDrift.add(this, offScreenLeft, offScreenRight, travelTime);
     }
 
     /**
-     * Updates the base position of the cloud and repositions all cloud blocks accordingly.
+     * Moves the cloud horizontally, along with all its blocks. The cloud is only moved while it is
+     * inside the view bounds, so a sleeping cloud wakes up where its course brought it.
      *
-     * @param newBasePosition The new base position of the cloud.
+     * @param x The new X coordinate of the cloud.
      */
-    private void updatePosition(Vector2 newBasePosition) {
-        Vector2 delta = newBasePosition.subtract(this.getTopLeftCorner());
-        super.setTopLeftCorner(newBasePosition);
-
-        for (GameObject block : cloudBlocks) {
-            Vector2 currentPos = block.getTopLeftCorner();
-            block.setTopLeftCorner(currentPos.add(delta));
+    void moveTo(float x) {
+        float y = getTopLeftCorner().y();
+        Vector2 dimensions = getDimensions();
+        boolean isVisible = view.overlaps(x, y, dimensions.x(), dimensions.y());
+        if (isVisible != isAwake) {
+            renderer().setRenderable(isVisible ? cloudRenderable : null);
+            isAwake = isVisible;
+        }
+        if (isAwake) {
+            super.setTopLeftCorner(new Vector2(x, y));
         }
     }
 
@@ -162,14 +190,17 @@ public class CloudGroup extends GameObject implements JumpObserver {
      * Generates a group of raindrops below the cloud with a random spread pattern.
      *
      * @param cloudPosition The position of the cloud.
-     * @param gameObjects   The collection of game objects to add the raindrops.
      */
-    public void createRainGroup(Vector2 cloudPosition, GameObjectCollection gameObjects) {
-        Random random = new Random();
+    public void createRainGroup(Vector2 cloudPosition) {
+        long profileStart = FrameProfiler.start();
+        RainBurstEvent event = new RainBurstEvent();
+        event.begin();
+        rainBursts++;
 
         float bottomOfCloud = cloudPosition.y() + BLOCK_SIZE * CLOUD_SHAPE.size();
+        int rainDropCount = quality.getRainDropCount();
 
-        for (int i = 0; i < NUM_RAIN_DROPS; i++) {
+        for (int i = 0; i < rainDropCount; i++) {
             float xOffset = random.nextFloat() * RAIN_SPREAD_RADIUS_X - RAIN_SPREAD_RADIUS_X / 2;
             float yOffset = random.nextFloat() * RAIN_SPREAD_RADIUS_Y;
 
@@ -178,8 +209,29 @@ public class CloudGroup extends GameObject implements JumpObserver {
                     bottomOfCloud + yOffset
             );
 
-            RainDrop rainDrop = new RainDrop(rainDropPosition, gameObjects);
-            gameObjects.addGameObject(rainDrop, Layer.BACKGROUND - 1);
+            rainSystem.spawn(rainDropPosition);
+        }
+        event.x = cloudPosition.x();
+        event.y = cloudPosition.y();
+        event.dropCount = rainDropCount;
+        event.commit();
+        FrameProfiler.stop(Phase.RAIN, profileStart);
+    }
+
+    /**
+     * Draws every block of the cloud with its color.
+     */
+    private class CloudRenderable implements Renderable {
+        @Override
+        public void render(Graphics2D g, Vector2 topLeftCorner, Vector2 dimensions,
+                           double degreesCounterClockwise, boolean isFlippedHorizontally,
+                           boolean isFlippedVertically, double opaqueness) {
+            int left = Math.round(topLeftCorner.x());
+            int top = Math.round(topLeftCorner.y());
+            for (int i = 0; i < blockColors.length; i++) {
+                g.setColor(blockColors[i]);
+                g.fillRect(left + blockOffsetsX[i], top + blockOffsetsY[i], BLOCK_SIZE, BLOCK_SIZE);
+            }
         }
     }
 }
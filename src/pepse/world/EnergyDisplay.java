@@ -1,7 +1,6 @@
 package pepse.world;
 
 import danogl.GameObject;
-import danogl.gui.rendering.Camera;
 import danogl.gui.rendering.TextRenderable;
 import danogl.util.Vector2;
 
@@ -9,29 +8,28 @@ import java.awt.*;
 
 /**
  * A class for displaying the current energy level of the player on the screen.
- * The display dynamically updates as the player's energy changes and follows the camera's position.
+ * The display stays at its place on the screen, and its text is only changed when the energy changes,
+ * to one of the texts made once for every energy level.
  */
-public class EnergyDisplay extends GameObject {
+public class EnergyDisplay extends GameObject implements HudElement {
     private static final Vector2 DISPLAY_SIZE = new Vector2(100, 50); // Size of the energy display
-    private static final Vector2 DISPLAY_OFFSET = new Vector2(10, 10); // Offset from the top-left
-    // corner of the camera
     private static final Color TEXT_COLOR = Color.BLACK; // Color of the energy text
+    private static final int MAX_ENERGY = 100; // Highest energy level, whose text is made in advance
+    private static final String[] ENERGY_TEXTS = energyTexts(); // Text of every energy level
 
     private final TextRenderable textRenderable;
     private final EnergyProvider energyProvider;
-    private final Camera camera;
+    private int shownEnergy = -1; // Energy shown by the text, -1 before the first refresh
 
     /**
      * Constructor for the EnergyDisplay.
      *
-     * @param topLeftCorner  The initial position of the display.
+     * @param topLeftCorner  The position of the display on the screen.
      * @param energyProvider A callback to retrieve the current energy level.
-     * @param camera         The camera to ensure the display follows the player's view.
      */
-    public EnergyDisplay(Vector2 topLeftCorner, EnergyProvider energyProvider, Camera camera) {
+    public EnergyDisplay(Vector2 topLeftCorner, EnergyProvider energyProvider) {
         super(topLeftCorner, DISPLAY_SIZE, null);
         this.energyProvider = energyProvider;
-        this.camera = camera;
 
         // Create a text renderable for displaying energy
         textRenderable = new TextRenderable("Energy: 100%");
@@ -40,21 +38,30 @@ public class EnergyDisplay extends GameObject {
     }
 
     /**
-     * Updates the energy display to reflect the current energy level and follows the camera's position.
+     * Updates the text when the energy level changed.
      *
      * @param deltaTime The time elapsed since the last frame.
      */
     @Override
-    public void update(float deltaTime) {
-        super.update(deltaTime);
-
-        // Adjust the position of the display to follow the camera
-        Vector2 cameraTopLeft = camera.getTopLeftCorner();
-        this.setTopLeftCorner(cameraTopLeft.add(DISPLAY_OFFSET));
-
-        // Update the text to reflect the current energy level
+    public void refresh(float deltaTime) {
+        // Update the text only when the energy level changed
         int currentEnergy = energyProvider.getCurrentEnergy();
-        textRenderable.setString(currentEnergy + "%");
+        if (currentEnergy != shownEnergy) {
+            textRenderable.setString(currentEnergy >= 0 && currentEnergy <= MAX_ENERGY
+                    ? ENERGY_TEXTS[currentEnergy] : currentEnergy + "%");
+            shownEnergy = currentEnergy;
+        }
+    }
+
+    /**
+     * Makes the text of every energy level, so that an energy change does not build a string.
+     */
+    private static String[] energyTexts() {
+        String[] texts = new String[MAX_ENERGY + 1];
+        for (int energy = 0; energy <= MAX_ENERGY; energy++) {
+            texts[energy] = energy + "%";
+        }
+        return texts;
     }
 
     /**
@@ -0,0 +1,95 @@
+package pepse.world;
+
+import danogl.GameObject;
+import danogl.util.Vector2;
+import pepse.util.LongMap;
+
+/**
+ * Resolves ground contact of dynamic bodies analytically, from the height of the terrain columns,
+ * instead of colliding them against every terrain block.
+ * Column heights are computed once from the terrain and cached, so a lookup costs O(1)
+ * regardless of how much terrain is loaded, and allocates nothing once the column is known.
+ */
+public class Heightfield {
+    private static final float EDGE_EPSILON = 0.01f; // Keeps a body touching a column edge out of it
+
+    private final Terrain terrain;
+    private final LongMap<Float> columnHeights; // Top of every known column, by column index
+
+    /**
+     * Constructs a heightfield over the given terrain.
+     *
+     * @param terrain The terrain providing the column heights.
+     */
+    public Heightfield(Terrain terrain) {
+        this.terrain = terrain;
+        this.columnHeights = new LongMap<>();
+    }
+
+    /**
+     * Returns the Y coordinate of the ground surface at a given X coordinate.
+     *
+     * @param x The X coordinate.
+     * @return The Y coordinate of the top of the terrain column containing x.
+     */
+    public float surfaceAt(float x) {
+        int column = (int) Math.floor(x / Block.SIZE);
+        Float height = columnHeights.get(column);
+        if (height == null) {
+            height = terrain.surfaceHeightAt(column * Block.SIZE);
+            columnHeights.put(column, height);
+        }
+        return height;
+    }
+
+    /**
+     * Returns the highest ground surface under a horizontal span.
+     *
+     * @param minX The left edge of the span.
+     * @param maxX The right edge of the span.
+     * @return The smallest Y coordinate of the terrain columns overlapping the span.
+     */
+    public float surfaceUnder(float minX, float maxX) {
+        float surface = Float.MAX_VALUE;
+        for (float x = minX; x < maxX; x += Block.SIZE) {
+            surface = Math.min(surface, surfaceAt(x));
+        }
+        return Math.min(surface, surfaceAt(maxX - EDGE_EPSILON));
+    }
+
+    /**
+     * Pushes a body back on top of the ground if it sank into it, and stops its fall.
+     *
+     * @param body The dynamic body to resolve.
+     * @return True if the body is resting on the ground, false if it is in the air.
+     */
+    public boolean resolveGroundContact(GameObject body) {
+        Vector2 topLeft = body.getTopLeftCorner();
+        Vector2 dimensions = body.getDimensions();
+        float surface = surfaceUnder(topLeft.x(), topLeft.x() + dimensions.x());
+        float bottom = topLeft.y() + dimensions.y();
+
+        if (bottom < surface || body.getVelocity().y() < 0) {
+            return false; // Above the ground, or moving up
+        }
+        if (bottom > surface) {
+            body.setTopLeftCorner(new Vector2(topLeft.x(), surface - dimensions.y()));
+        }
+        body.transform().setVelocityY(0);
+        return true;
+    }
+
+    /**
+     * Forgets the cached columns of a range, typically when its chunk is unloaded.
+     *
+     * @param minX The minimum X coordinate (inclusive).
+     * @param maxX The maximum X coordinate (exclusive).
+     */
+    public void forgetRange(int minX, int maxX) {
+        int minColumn = Math.floorDiv(minX, Block.SIZE);
+        int maxColumn = Math.floorDiv(maxX - 1, Block.SIZE);
+        for (int column = minColumn; column <= maxColumn; column++) {
+            columnHeights.remove(column);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package pepse.world;
+
+import danogl.GameObject;
+import danogl.collisions.GameObjectCollection;
+import danogl.components.CoordinateSpace;
+import danogl.util.Vector2;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The heads-up display: the single object updating the energy display, the minimap and the
+ * performance overlay. The elements are drawn in the UI layer as objects of their own, but do not
+ * update themselves; the HUD refreshes them all once per frame. They are drawn in camera
+ * coordinates, so they never move, and a moving camera costs them no new positions.
+ */
+public class Hud extends GameObject {
+    private static final int LAYER = Integer.MAX_VALUE; // UI layer, over everything else
+
+    private final GameObjectCollection gameObjects;
+    private final List<HudElement> elements = new ArrayList<>();
+
+    /**
+     * Constructs an empty HUD.
+     *
+     * @param gameObjects The collection in which the elements are drawn.
+     */
+    public Hud(GameObjectCollection gameObjects) {
+        super(Vector2.ZERO, Vector2.ZERO, null);
+        this.gameObjects = gameObjects;
+    }
+
+    /**
+     * Adds an element to the HUD and draws it in the UI layer, at its position on the screen.
+     *
+     * @param element The element to add.
+     * @param <T>     The type of the element, a game object.
+     */
+    public <T extends GameObject & HudElement> void add(T element) {
+        element.setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
+        elements.add(element);
+        gameObjects.addGameObject(element, LAYER);
+    }
+
+    /**
+     * Refreshes every element.
+     *
+     * @param deltaTime The time elapsed since the last frame.
+     */
+    @Override
+    public void update(float deltaTime) {
+        super.update(deltaTime);
+        for (int i = 0; i < elements.size(); i++) {
+            elements.get(i).refresh(deltaTime);
+        }
+    }
+
+    /**
+     * Creates a HUD and adds it to the game, in the UI layer.
+     *
+     * @param gameObjects The collection of the game.
+     * @return The HUD, to which elements can be added.
+     */
+    public static Hud create(GameObjectCollection gameObjects) {
+        Hud hud = new Hud(gameObjects);
+        gameObjects.addGameObject(hud, LAYER);
+        return hud;
+    }
+}
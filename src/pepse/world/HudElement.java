@@ -0,0 +1,15 @@
+package pepse.world;
+
+/**
+ * An element of the heads-up display, refreshed by the {@link Hud} once per frame instead of
+ * updating itself. Its position is a position on the screen: the HUD draws it in camera coordinates,
+ * so it stays in place without being moved with the camera.
+ */
+public interface HudElement {
+    /**
+     * Refreshes the element, redrawing whatever changed.
+     *
+     * @param deltaTime The time elapsed since the last frame.
+     */
+    void refresh(float deltaTime);
+}
@@ -0,0 +1,145 @@
+package pepse.world;
+
+import danogl.GameObject;
+import danogl.gui.rendering.Renderable;
+import danogl.util.Vector2;
+import pepse.world.trees.Flora;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * A map of the terrain profile, the trees and the avatar over a wide range around the avatar,
+ * shown in a corner of the screen.
+ * The map is a small image holding one pixel column per terrain column, used as a ring buffer:
+ * when the avatar moves, only the terrain columns scrolling into the map are sampled from the terrain
+ * height and the tree placement, without looking at any game object. Showing the map costs two
+ * image copies and the avatar's marker per frame. The map stays in the top-right corner of the
+ * screen without following the camera.
+ */
+public class Minimap extends GameObject implements HudElement {
+    private static final int MAP_COLUMNS = 160; // Number of terrain columns shown by the map
+    private static final int MAP_ROWS = 50; // Height of the map's image, in pixels
+    private static final int MAP_SCALE = 2; // Size (in screen pixels) of a pixel of the map
+    private static final Vector2 DISPLAY_OFFSET = new Vector2(10, 10); // Offset from the top-right
+    // corner of the screen
+    private static final float MAP_SPAN_RATIO = 1.25f; // Height of the world shown, relative to the window
+    private static final int TREE_HEIGHT = 3; // Height of a tree mark, in map pixels
+    private static final int AVATAR_MARK_SIZE = 3 * MAP_SCALE; // Size of the avatar mark, in pixels
+    private static final int SKY_COLOR = new Color(20, 30, 50, 140).getRGB(); // Background of the map
+    private static final int GROUND_COLOR = new Color(212, 123, 74).getRGB(); // Terrain of the map
+    private static final int TREE_COLOR = new Color(50, 200, 30).getRGB(); // Trees of the map
+    private static final Color AVATAR_COLOR = Color.RED; // Mark of the avatar
+    private static final String MINIMAP_TAG = "minimap"; // Tag to identify the minimap
+
+    private final Terrain terrain;
+    private final Flora flora;
+    private final GameObject avatar;
+    private final float worldSpan; // Height of the world shown by the map, in pixels
+    private final BufferedImage image;
+    private int firstColumn = 0; // First terrain column held by the image
+    private boolean isEmpty = true; // Indicates if no column has been drawn yet
+
+    /**
+     * Constructs a minimap.
+     *
+     * @param terrain          The terrain whose profile is shown.
+     * @param flora            The flora whose trees are shown.
+     * @param avatar           The avatar the map is centered on.
+     * @param windowDimensions The dimensions of the game window.
+     */
+    public Minimap(Terrain terrain, Flora flora, GameObject avatar, Vector2 windowDimensions) {
+        super(new Vector2(windowDimensions.x() - MAP_COLUMNS * MAP_SCALE - DISPLAY_OFFSET.x(),
+                DISPLAY_OFFSET.y()), new Vector2(MAP_COLUMNS * MAP_SCALE, MAP_ROWS * MAP_SCALE), null);
+        this.terrain = terrain;
+        this.flora = flora;
+        this.avatar = avatar;
+        this.worldSpan = windowDimensions.y() * MAP_SPAN_RATIO;
+        this.image = new BufferedImage(MAP_COLUMNS, MAP_ROWS, BufferedImage.TYPE_INT_ARGB);
+        setTag(MINIMAP_TAG);
+        renderer().setRenderable(new MapRenderable());
+    }
+
+    /**
+     * Scrolls the map with the avatar.
+     *
+     * @param deltaTime The time elapsed since the last frame.
+     */
+    @Override
+    public void refresh(float deltaTime) {
+        scrollTo(columnOf(avatar.getCenter().x()) - MAP_COLUMNS / 2);
+    }
+
+    /**
+     * Moves the map's window of columns, drawing only the columns that came into it.
+     *
+     * @param newFirstColumn The first terrain column to show.
+     */
+    private void scrollTo(int newFirstColumn) {
+        if (isEmpty || Math.abs(newFirstColumn - firstColumn) >= MAP_COLUMNS) {
+            drawColumns(newFirstColumn, newFirstColumn + MAP_COLUMNS); // Nothing to reuse
+        } else if (newFirstColumn > firstColumn) {
+            drawColumns(firstColumn + MAP_COLUMNS, newFirstColumn + MAP_COLUMNS);
+        } else if (newFirstColumn < firstColumn) {
+            drawColumns(newFirstColumn, firstColumn);
+        }
+        firstColumn = newFirstColumn;
+        isEmpty = false;
+    }
+
+    /**
+     * Draws a range of terrain columns into their slots of the ring buffer.
+     *
+     * @param fromColumn The first terrain column to draw (inclusive).
+     * @param toColumn   The last terrain column to draw (exclusive).
+     */
+    private void drawColumns(int fromColumn, int toColumn) {
+        for (int column = fromColumn; column < toColumn; column++) {
+            int x = Math.floorMod(column, MAP_COLUMNS);
+            int columnX = column * Block.SIZE;
+            int groundRow = rowOf(terrain.surfaceHeightAt(columnX));
+            int treeRow = flora.hasTreeAt(columnX) ? groundRow - TREE_HEIGHT : groundRow;
+            for (int y = 0; y < MAP_ROWS; y++) {
+                int color = y >= groundRow ? GROUND_COLOR : y >= treeRow ? TREE_COLOR : SKY_COLOR;
+                image.setRGB(x, y, color);
+            }
+        }
+    }
+
+    private int rowOf(float y) {
+        return (int) (y / worldSpan * MAP_ROWS);
+    }
+
+    private static int columnOf(float x) {
+        return (int) Math.floor(x / Block.SIZE);
+    }
+
+    /**
+     * Draws the ring buffer unrolled, and the avatar's mark over it.
+     */
+    private class MapRenderable implements Renderable {
+        @Override
+        public void render(Graphics2D g, Vector2 topLeftCorner, Vector2 dimensions,
+                           double degreesCounterClockwise, boolean isFlippedHorizontally,
+                           boolean isFlippedVertically, double opaqueness) {
+            int start = Math.floorMod(firstColumn, MAP_COLUMNS); // Image column of the first column
+            int left = Math.round(topLeftCorner.x());
+            int top = Math.round(topLeftCorner.y());
+            int bottom = top + MAP_ROWS * MAP_SCALE;
+            int split = left + (MAP_COLUMNS - start) * MAP_SCALE; // Where the ring buffer wraps
+            g.drawImage(image, left, top, split, bottom, start, 0, MAP_COLUMNS, MAP_ROWS, null);
+            if (start > 0) {
+                g.drawImage(image, split, top, left + MAP_COLUMNS * MAP_SCALE, bottom, 0, 0, start,
+                        MAP_ROWS, null);
+            }
+
+            // The avatar's mark, at its place in the map
+            Vector2 center = avatar.getCenter();
+            int markX = left + (columnOf(center.x()) - firstColumn) * MAP_SCALE;
+            int markY = top + Math.max(0, Math.min(rowOf(center.y()), MAP_ROWS - 1)) * MAP_SCALE;
+            g.setColor(AVATAR_COLOR);
+            g.fillRect(markX - AVATAR_MARK_SIZE / 2, markY - AVATAR_MARK_SIZE / 2, AVATAR_MARK_SIZE,
+                    AVATAR_MARK_SIZE);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package pepse.world;
+
+import danogl.GameObject;
+import danogl.components.CoordinateSpace;
+import danogl.gui.rendering.Camera;
+import danogl.gui.rendering.Renderable;
+import danogl.util.Vector2;
+import pepse.util.NoiseGenerator;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * A silhouette of distant hills behind the world, scrolling slower than the camera.
+ * The silhouette is drawn into a low resolution image used as a ring buffer: each image column holds
+ * one column of the layer, and only the columns scrolling into view are drawn, from coarse noise
+ * samples interpolated in between. Rendering the layer is two image copies per frame.
+ */
+public class ParallaxLayer implements Renderable {
+    private static final int PIXEL_SIZE = 4; // Size (in screen pixels) of a pixel of the layer's image
+    private static final int SAMPLE_SPACING = 8; // Number of image columns between two noise samples
+    private static final int TRANSPARENT = 0; // Color of the image above the silhouette
+    private static final String LAYER_TAG = "parallax"; // Tag to identify parallax layers
+
+    private final NoiseGenerator noiseGenerator;
+    private final float scrollRate;
+    private final float horizonY;
+    private final float amplitude;
+    private final int color;
+    private final BufferedImage image;
+    private final int imageWidth;
+    private final int imageHeight;
+    private int firstColumn = 0; // First layer column held by the image
+    private float scrollOffset = 0; // Part of the first column scrolled out of view, in screen pixels
+    private boolean isEmpty = true; // Indicates if no column has been drawn yet
+
+    /**
+     * Constructs a parallax layer.
+     *
+     * @param windowDimensions The dimensions of the game window.
+     * @param seed             The seed of the layer's silhouette.
+     * @param scrollRate       How fast the layer scrolls compared to the camera, from 0 to 1.
+     * @param horizonY         The mean height of the silhouette, in screen pixels.
+     * @param amplitude        The largest distance of the silhouette from its mean height, in pixels.
+     * @param color            The color of the silhouette.
+     */
+    public ParallaxLayer(Vector2 windowDimensions, int seed, float scrollRate, float horizonY,
+                         float amplitude, Color color) {
+        this.scrollRate = scrollRate;
+        this.horizonY = horizonY;
+        this.amplitude = amplitude;
+        this.color = color.getRGB();
+        this.noiseGenerator = new NoiseGenerator(seed, (int) horizonY);
+        this.imageWidth = (int) Math.ceil(windowDimensions.x() / PIXEL_SIZE) + 1; // One column to scroll
+        this.imageHeight = (int) Math.ceil(windowDimensions.y() / PIXEL_SIZE);
+        this.image = new BufferedImage(imageWidth, imageHeight, BufferedImage.TYPE_INT_ARGB);
+    }
+
+    /**
+     * Creates a GameObject covering the screen and drawing a parallax layer, kept in step with the
+     * camera.
+     *
+     * @param layer            The parallax layer to draw.
+     * @param camera           The camera the layer scrolls with.
+     * @param windowDimensions The dimensions of the game window.
+     * @return A GameObject drawing the layer.
+     */
+    public static GameObject create(ParallaxLayer layer, Camera camera, Vector2 windowDimensions) {
+        GameObject background = new GameObject(Vector2.ZERO, windowDimensions, layer);
+        background.setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
+        background.setTag(LAYER_TAG);
+
+        // Draw the columns scrolling into view before the layer is rendered
+        background.addComponent(deltaTime -> layer.scrollTo(camera.getTopLeftCorner().x()));
+        return background;
+    }
+
+    /**
+     * Scrolls the layer with the camera, drawing only the columns that came into view.
+     *
+     * @param cameraX The left edge of the camera, in world coordinates.
+     */
+    public void scrollTo(float cameraX) {
+        float layerX = cameraX * scrollRate;
+        int newFirstColumn = (int) Math.floor(layerX / PIXEL_SIZE);
+        if (isEmpty || Math.abs(newFirstColumn - firstColumn) >= imageWidth) {
+            drawColumns(newFirstColumn, newFirstColumn + imageWidth); // Nothing to reuse
+        } else if (newFirstColumn > firstColumn) {
+            drawColumns(firstColumn + imageWidth, newFirstColumn + imageWidth);
+        } else if (newFirstColumn < firstColumn) {
+            drawColumns(newFirstColumn, firstColumn);
+        }
+        firstColumn = newFirstColumn;
+        scrollOffset = layerX - newFirstColumn * PIXEL_SIZE;
+        isEmpty = false;
+    }
+
+    /**
+     * Draws the ring buffer onto the screen, offset by the part of a column scrolled so far.
+     */
+    @Override
+    public void render(Graphics2D g, Vector2 topLeftCorner, Vector2 dimensions,
+                       double degreesCounterClockwise, boolean isFlippedHorizontally,
+                       boolean isFlippedVertically, double opaqueness) {
+        int start = Math.floorMod(firstColumn, imageWidth); // Image column of the first layer column
+        int left = Math.round(topLeftCorner.x() - scrollOffset);
+        int top = Math.round(topLeftCorner.y());
+        int bottom = top + imageHeight * PIXEL_SIZE;
+        int split = left + (imageWidth - start) * PIXEL_SIZE; // Where the ring buffer wraps
+        int right = left + imageWidth * PIXEL_SIZE;
+        g.drawImage(image, left, top, split, bottom, start, 0, imageWidth, imageHeight, null);
+        if (start > 0) {
+            g.drawImage(image, split, top, right, bottom, 0, 0, start, imageHeight, null);
+        }
+    }
+
+    /**
+     * Draws a range of layer columns into their slots of the ring buffer.
+     *
+     * @param fromColumn The first layer column to draw (inclusive).
+     * @param toColumn   The last layer column to draw (exclusive).
+     */
+    private void drawColumns(int fromColumn, int toColumn) {
+        for (int column = fromColumn; column < toColumn; column++) {
+            int x = Math.floorMod(column, imageWidth);
+            int surfaceRow = (int) (heightAt(column) / PIXEL_SIZE);
+            for (int y = 0; y < imageHeight; y++) {
+                image.setRGB(x, y, y >= surfaceRow ? color : TRANSPARENT);
+            }
+        }
+    }
+
+    /**
+     * Computes the height of the silhouette at a layer column, interpolating between the two noise
+     * samples around it.
+     *
+     * @param column The layer column.
+     * @return The height of the silhouette, in screen pixels.
+     */
+    private float heightAt(int column) {
+        int sampleColumn = Math.floorDiv(column, SAMPLE_SPACING) * SAMPLE_SPACING;
+        float t = (column - sampleColumn) / (float) SAMPLE_SPACING;
+        float left = sampleAt(sampleColumn);
+        float right = sampleAt(sampleColumn + SAMPLE_SPACING);
+        return left + (right - left) * t;
+    }
+
+    private float sampleAt(int column) {
+        return horizonY + (float) noiseGenerator.noise(column * PIXEL_SIZE, amplitude);
+    }
+}
@@ -0,0 +1,184 @@
+package pepse.world;
+
+import danogl.GameObject;
+import danogl.gui.UserInputListener;
+import danogl.gui.rendering.Renderable;
+import danogl.util.Vector2;
+import pepse.WorldStats;
+
+import java.awt.*;
+import java.awt.event.KeyEvent;
+import java.awt.image.BufferedImage;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * An overlay showing the performance of the game under the energy display: frames per second, a
+ * sparkline of the last frame times, the number of objects, the loaded chunks and the time the
+ * last chunk took to generate. It is toggled with F3 and hidden at first.
+ * <p>
+ * The values are sampled a few times per second, and the text is drawn into an image that is only
+ * redrawn when a shown value changes. The sparkline is drawn every frame from a ring of frame times.
+ * The game hands the overlay the duration of every rendered frame through {@link #recordFrame}; the
+ * HUD refreshes it with the fixed simulation steps, which would hide the hitches it exists to show.
+ */
+public class PerformanceOverlay extends GameObject implements HudElement {
+    private static final int TOGGLE_KEY = KeyEvent.VK_F3; // Key showing and hiding the overlay
+    private static final Vector2 DISPLAY_POSITION = new Vector2(10, 40); // Position on the screen,
+    // under the energy display
+    private static final int WIDTH = 240; // Width of the overlay, in pixels
+    private static final int LINE_HEIGHT = 16; // Height of a line of text, in pixels
+    private static final int LINES = 4; // Number of lines of text
+    private static final int SPARKLINE_HEIGHT = 40; // Height of the sparkline, in pixels
+    private static final int SPARKLINE_FRAMES = WIDTH / 2; // Frames shown by the sparkline
+    private static final float SPARKLINE_MAX_TIME = 1f / 20; // Frame time at the top of the sparkline
+    private static final float SAMPLE_INTERVAL = 0.25f; // Time between two samples of the values
+    private static final Color BACKGROUND_COLOR = new Color(0, 0, 0, 150); // Behind the text
+    private static final Color TEXT_COLOR = Color.WHITE; // Color of the text
+    private static final Color SPARKLINE_COLOR = new Color(120, 220, 120); // Color of the sparkline
+    private static final Font FONT = new Font(Font.MONOSPACED, Font.PLAIN, 12); // Font of the text
+    private static final int TEXT_MARGIN = 4; // Space around the text, in pixels
+    private static final double NANOS_PER_TENTH_MILLI = 1e5;
+
+    private final UserInputListener inputListener;
+    private final Supplier<WorldStats> stats;
+    private final LongSupplier generationNanos;
+    private final BufferedImage textImage;
+    private final Renderable overlayRenderable;
+    private final float[] frameTimes = new float[SPARKLINE_FRAMES]; // Ring of the last frame times
+    private final int[] sparklineX = new int[SPARKLINE_FRAMES];
+    private final int[] sparklineY = new int[SPARKLINE_FRAMES];
+    private int nextFrame = 0; // Slot of the ring the next frame time goes into
+    private boolean isVisible = false;
+    private boolean wasTogglePressed = false;
+    private float sampleTime = 0; // Time since the last sample of the values
+    private int sampleFrames = 0; // Frames since the last sample of the values
+    // Values shown by the text, -1 before the first sample
+    private int shownFramesPerSecond = -1;
+    private int shownAwakeObjects = -1;
+    private int shownIndexedObjects = -1;
+    private int shownLoadedChunks = -1;
+    private long shownGenerationTenths = -1; // Generation time, in tenths of a millisecond
+
+    /**
+     * Constructs a hidden performance overlay.
+     *
+     * @param inputListener   The input the overlay is toggled with.
+     * @param stats           Takes a snapshot of the world's counters.
+     * @param generationNanos Gets the time the last chunk took to generate, in nanoseconds.
+     */
+    public PerformanceOverlay(UserInputListener inputListener, Supplier<WorldStats> stats,
+                              LongSupplier generationNanos) {
+        super(DISPLAY_POSITION, new Vector2(WIDTH, LINES * LINE_HEIGHT + SPARKLINE_HEIGHT), null);
+        this.inputListener = inputListener;
+        this.stats = stats;
+        this.generationNanos = generationNanos;
+        this.textImage = new BufferedImage(WIDTH, LINES * LINE_HEIGHT, BufferedImage.TYPE_INT_ARGB);
+        this.overlayRenderable = new OverlayRenderable();
+    }
+
+    /**
+     * Does nothing: the overlay follows the rendered frames, see {@link #recordFrame}.
+     *
+     * @param deltaTime The duration of the simulation step.
+     */
+    @Override
+    public void refresh(float deltaTime) {
+    }
+
+    /**
+     * Records the duration of a rendered frame, toggles the overlay on F3, and while it is shown,
+     * samples the values it shows. Called once per frame by the game, with the real frame time.
+     *
+     * @param deltaTime The time elapsed since the last frame.
+     */
+    public void recordFrame(float deltaTime) {
+        frameTimes[nextFrame] = deltaTime;
+        nextFrame = (nextFrame + 1) % SPARKLINE_FRAMES;
+
+        boolean isTogglePressed = inputListener.isKeyPressed(TOGGLE_KEY);
+        if (isTogglePressed && !wasTogglePressed) {
+            isVisible = !isVisible;
+            renderer().setRenderable(isVisible ? overlayRenderable : null);
+        }
+        wasTogglePressed = isTogglePressed;
+        if (!isVisible) {
+            return;
+        }
+
+        sampleTime += deltaTime;
+        sampleFrames++;
+        if (sampleTime >= SAMPLE_INTERVAL) {
+            sample();
+            sampleTime = 0;
+            sampleFrames = 0;
+        }
+    }
+
+    /**
+     * Samples the shown values, and redraws the text if any of them changed.
+     */
+    private void sample() {
+        WorldStats world = stats.get();
+        int framesPerSecond = Math.round(sampleFrames / sampleTime);
+        long generationTenths = Math.round(generationNanos.getAsLong() / NANOS_PER_TENTH_MILLI);
+        if (framesPerSecond == shownFramesPerSecond && world.awakeObjects() == shownAwakeObjects
+                && world.indexedObjects() == shownIndexedObjects && world.loadedChunks() == shownLoadedChunks
+                && generationTenths == shownGenerationTenths) {
+            return;
+        }
+        shownFramesPerSecond = framesPerSecond;
+        shownAwakeObjects = world.awakeObjects();
+        shownIndexedObjects = world.indexedObjects();
+        shownLoadedChunks = world.loadedChunks();
+        shownGenerationTenths = generationTenths;
+        drawText();
+    }
+
+    /**
+     * Draws the lines of text into the text image.
+     */
+    private void drawText() {
+        Graphics2D g = textImage.createGraphics();
+        g.setComposite(AlphaComposite.Src);
+        g.setColor(BACKGROUND_COLOR);
+        g.fillRect(0, 0, textImage.getWidth(), textImage.getHeight());
+        g.setFont(FONT);
+        g.setColor(TEXT_COLOR);
+        int baseline = LINE_HEIGHT - TEXT_MARGIN;
+        g.drawString("FPS: " + shownFramesPerSecond, TEXT_MARGIN, baseline);
+        g.drawString("Objects: " + shownAwakeObjects + " awake / " + shownIndexedObjects + " indexed",
+                TEXT_MARGIN, baseline + LINE_HEIGHT);
+        g.drawString("Loaded chunks: " + shownLoadedChunks, TEXT_MARGIN, baseline + 2 * LINE_HEIGHT);
+        g.drawString("Generation: " + shownGenerationTenths / 10 + "." + shownGenerationTenths % 10
+                + " ms", TEXT_MARGIN, baseline + 3 * LINE_HEIGHT);
+        g.dispose();
+    }
+
+    /**
+     * Draws the text image, and the sparkline of the frame times under it, oldest frame first.
+     */
+    private class OverlayRenderable implements Renderable {
+        @Override
+        public void render(Graphics2D g, Vector2 topLeftCorner, Vector2 dimensions,
+                           double degreesCounterClockwise, boolean isFlippedHorizontally,
+                           boolean isFlippedVertically, double opaqueness) {
+            int left = Math.round(topLeftCorner.x());
+            int top = Math.round(topLeftCorner.y());
+            g.drawImage(textImage, left, top, null);
+
+            int sparklineTop = top + textImage.getHeight();
+            g.setColor(BACKGROUND_COLOR);
+            g.fillRect(left, sparklineTop, WIDTH, SPARKLINE_HEIGHT);
+            int bottom = sparklineTop + SPARKLINE_HEIGHT;
+            for (int i = 0; i < SPARKLINE_FRAMES; i++) {
+                float frameTime = frameTimes[(nextFrame + i) % SPARKLINE_FRAMES];
+                float height = Math.min(frameTime / SPARKLINE_MAX_TIME, 1) * SPARKLINE_HEIGHT;
+                sparklineX[i] = left + i * WIDTH / SPARKLINE_FRAMES;
+                sparklineY[i] = bottom - Math.round(height);
+            }
+            g.setColor(SPARKLINE_COLOR);
+            g.drawPolyline(sparklineX, sparklineY, SPARKLINE_FRAMES);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package pepse.world;
+
+import danogl.collisions.GameObjectCollection;
+import danogl.util.Vector2;
+import pepse.profile.FrameProfiler;
+import pepse.profile.Phase;
+import pepse.util.ParallelSystem;
+
+import java.util.Arrays;
+
+/**
+ * Simulates every raindrop of the world: falling under gravity, fading out, and being removed when
+ * fully transparent, on the ground or out of view. Motion and fading are computed in parallel on
+ * the system's own arrays and written to the raindrops during the commit phase, where a falling drop
+ * costs one position vector per frame, the engine's positions being immutable.
+ */
+public class RainSystem implements ParallelSystem {
+    private static final float GRAVITY = 450f; // Acceleration due to gravity applied to the raindrops
+    private static final float FADE_SPEED = 0.6f; // Speed at which the raindrops become transparent
+    private static final int INITIAL_CAPACITY = 64; // Initial number of raindrops the arrays can hold
+
+    private final GameObjectCollection gameObjects;
+    private final Heightfield heightfield;
+    private final ViewBounds view;
+    private RainDrop[] drops = new RainDrop[INITIAL_CAPACITY];
+    private float[] y = new float[INITIAL_CAPACITY]; // Top edge of every drop
+    private float[] velocityY = new float[INITIAL_CAPACITY];
+    private float[] opacity = new float[INITIAL_CAPACITY];
+    private float[] groundY = new float[INITIAL_CAPACITY]; // Top edge at which a drop hits the ground
+    private boolean[] isDead = new boolean[INITIAL_CAPACITY];
+    private int size = 0;
+
+    /**
+     * Constructs a rain system with no raindrops.
+     *
+     * @param gameObjects The collection in which raindrops are added.
+     * @param heightfield The terrain heightfield the rain falls onto.
+     * @param view        The region outside of which raindrops are removed.
+     */
+    public RainSystem(GameObjectCollection gameObjects, Heightfield heightfield, ViewBounds view) {
+        this.gameObjects = gameObjects;
+        this.heightfield = heightfield;
+        this.view = view;
+    }
+
+    /**
+     * Creates a raindrop and adds it to the game.
+     *
+     * @param position The starting position of the raindrop.
+     */
+    public void spawn(Vector2 position) {
+        if (size == drops.length) {
+            grow();
+        }
+        RainDrop drop = new RainDrop(position);
+        drops[size] = drop;
+        y[size] = position.y();
+        velocityY[size] = 0;
+        opacity[size] = 1;
+        // Drops fall straight down, so the ground under them is known from the start
+        groundY[size] = heightfield.surfaceAt(position.x() + drop.getDimensions().x() / 2)
+                - drop.getDimensions().y();
+        isDead[size] = false;
+        size++;
+        gameObjects.addGameObject(drop, RainDrop.LAYER);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void compute(int from, int to, float deltaTime) {
+        for (int i = from; i < to; i++) {
+            velocityY[i] += GRAVITY * deltaTime;
+            y[i] += velocityY[i] * deltaTime;
+            opacity[i] = Math.max(0, opacity[i] - FADE_SPEED * deltaTime);
+            isDead[i] = opacity[i] <= 0 || y[i] >= groundY[i];
+        }
+    }
+
+    /**
+     * Moves and fades the raindrops, and removes the transparent, landed and culled ones.
+     */
+    @Override
+    public void commit() {
+        long profileStart = FrameProfiler.start();
+        for (int i = size - 1; i >= 0; i--) {
+            RainDrop drop = drops[i];
+            if (isDead[i] || !view.overlaps(drop.getTopLeftCorner(), drop.getDimensions())) {
+                gameObjects.removeGameObject(drop, RainDrop.LAYER);
+                removeAt(i);
+                continue;
+            }
+            drop.setTopLeftCorner(new Vector2(drop.getTopLeftCorner().x(), y[i])); // Straight down
+            drop.renderer().setOpaqueness(opacity[i]);
+        }
+        FrameProfiler.stop(Phase.RAIN, profileStart);
+    }
+
+    /**
+     * Gets the number of raindrops currently falling.
+     *
+     * @return The number of active raindrops.
+     */
+    public int activeCount() {
+        return size;
+    }
+
+    private void removeAt(int index) {
+        // Move the last drop into the freed slot to keep the arrays packed
+        size--;
+        drops[index] = drops[size];
+        y[index] = y[size];
+        velocityY[index] = velocityY[size];
+        opacity[index] = opacity[size];
+        groundY[index] = groundY[size];
+        isDead[index] = isDead[size];
+        drops[size] = null;
+    }
+
+    private void grow() {
+        int capacity = drops.length * 2;
+        drops = Arrays.copyOf(drops, capacity);
+        y = Arrays.copyOf(y, capacity);
+        velocityY = Arrays.copyOf(velocityY, capacity);
+        opacity = Arrays.copyOf(opacity, capacity);
+        groundY = Arrays.copyOf(groundY, capacity);
+        isDead = Arrays.copyOf(isDead, capacity);
+    }
+}
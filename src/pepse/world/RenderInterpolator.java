@@ -0,0 +1,76 @@
+package pepse.world;
+
+import danogl.GameObject;
+import danogl.util.Vector2;
+
+/**
+ * Renders a simulated object between its last two simulated positions.
+ * The object holds its interpolated position between frames, so its simulated position must be
+ * restored before simulating it again. An object at rest is left at its simulated position, and a
+ * frame falling on a simulated step shows the position recorded for it, both without allocating an
+ * interpolated one.
+ */
+public class RenderInterpolator {
+    private static final float SNAP_ALPHA = 1e-3f; // Distance to a step within which the frame shows it
+    private final GameObject object;
+    private Vector2 previousPosition; // Simulated position before the last step
+    private Vector2 currentPosition; // Simulated position after the last step
+
+    /**
+     * Constructs an interpolator for an object, starting from its current position.
+     *
+     * @param object The simulated object.
+     */
+    public RenderInterpolator(GameObject object) {
+        this.object = object;
+        this.previousPosition = object.getTopLeftCorner();
+        this.currentPosition = previousPosition;
+    }
+
+    /**
+     * Puts the object back at its last simulated position, before simulating new steps.
+     */
+    public void restore() {
+        object.setTopLeftCorner(currentPosition);
+    }
+
+    /**
+     * Forgets the simulated positions, taking the object's current position as both, after the
+     * object was moved outside of the simulation.
+     */
+    public void reset() {
+        previousPosition = object.getTopLeftCorner();
+        currentPosition = previousPosition;
+    }
+
+    /**
+     * Records the position reached by the object after a simulation step.
+     */
+    public void capture() {
+        previousPosition = currentPosition;
+        currentPosition = object.getTopLeftCorner();
+    }
+
+    /**
+     * Moves the object to its rendered position, between its last two simulated positions.
+     *
+     * @param alpha How far the frame is between the last simulated step and the next one.
+     */
+    public void present(float alpha) {
+        if (previousPosition.x() == currentPosition.x() && previousPosition.y() == currentPosition.y()) {
+            return; // At rest, the object is already at its simulated position
+        }
+        if (alpha <= SNAP_ALPHA) {
+            object.setTopLeftCorner(previousPosition);
+            return;
+        }
+        if (alpha >= 1 - SNAP_ALPHA) {
+            object.setTopLeftCorner(currentPosition);
+            return;
+        }
+        object.setTopLeftCorner(new Vector2(
+                previousPosition.x() + (currentPosition.x() - previousPosition.x()) * alpha,
+                previousPosition.y() + (currentPosition.y() - previousPosition.y()) * alpha
+        ));
+    }
+}
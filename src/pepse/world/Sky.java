@@ -8,11 +8,12 @@ import danogl.components.CoordinateSpace;
 import java.awt.Color;
 
 /**
- * Represents the sky in the game. The sky is a static background object that fills
- * the entire screen with a defined color.
+ * Represents the sky in the game. The sky is a background object that fills the entire screen with a
+ * color, going from the day color to the night color as the night darkens.
  */
 public class Sky {
     private static final Color BASIC_SKY_COLOR = Color.decode("#80C6E5"); // Light blue sky color
+    private static final Color NIGHT_SKY_COLOR = Color.decode("#0B1A33"); // Dark blue sky color
     private static final String SKY_TAG = "sky"; // Tag for identifying the sky object
 
     /**
@@ -37,4 +38,21 @@ public class Sky {
 
         return sky; // Return the sky object
     }
+
+    /**
+     * Computes the color of the sky for a given darkness.
+     *
+     * @param darkness How dark the sky is, from 0 (day) to 1 (midnight).
+     * @return The color of the sky.
+     */
+    public static Color colorAt(float darkness) {
+        return new Color(
+                Math.round(BASIC_SKY_COLOR.getRed() + (NIGHT_SKY_COLOR.getRed() - BASIC_SKY_COLOR.getRed())
+                        * darkness),
+                Math.round(BASIC_SKY_COLOR.getGreen() + (NIGHT_SKY_COLOR.getGreen()
+                        - BASIC_SKY_COLOR.getGreen()) * darkness),
+                Math.round(BASIC_SKY_COLOR.getBlue() + (NIGHT_SKY_COLOR.getBlue() - BASIC_SKY_COLOR.getBlue())
+                        * darkness)
+        );
+    }
 }
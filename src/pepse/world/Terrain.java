@@ -1,10 +1,9 @@
 package pepse.world;
 
-import danogl.gui.rendering.RectangleRenderable;
 import danogl.gui.rendering.Renderable;
 import danogl.util.Vector2;
-import pepse.util.ColorSupplier;
 import pepse.util.NoiseGenerator;
+import pepse.util.Palette;
 
 import java.awt.Color;
 import java.util.ArrayList;
@@ -21,6 +20,8 @@ public class Terrain {
     private static final double NOISE_FACTOR = 200.0; // Factor for adjusting noise variation
     private static final float GROUND_HEIGHT_RATIO = 0.66f; // Ground height as 2/3 of the window height
     private static final String GROUND_TAG = "ground"; // Tag to identify ground blocks
+    private static final Palette GROUND_PALETTE = Palette.of(BASE_GROUND_COLOR); // Shared colors of the
+    // ground blocks
 
     private final Vector2 windowDimensions;
     private final int seed;
@@ -52,6 +53,18 @@ public class Terrain {
         return groundHeightAtX0 + noise; // Combine the base height and the noise variation
     }
 
+    /**
+     * Returns the height of the top block of the terrain column containing a given X coordinate,
+     * aligned to the block grid exactly as the blocks created by {@link #createInRange}.
+     *
+     * @param x The X coordinate.
+     * @return The Y coordinate of the top of the terrain column.
+     */
+    public float surfaceHeightAt(float x) {
+        float columnX = (float) (Math.floor(x / Block.SIZE) * Block.SIZE); // Left edge of the column
+        return (float) Math.floor(groundHeightAt(columnX) / Block.SIZE) * Block.SIZE;
+    }
+
     /**
      * Creates a list of blocks representing the terrain within a specified X range.
      *
@@ -69,17 +82,15 @@ public class Terrain {
         // Iterate through aligned X coordinates
         for (int x = alignedMinX; x <= alignedMaxX; x += Block.SIZE) {
             // Calculate the aligned height of the terrain surface
-            float groundHeight = (float) Math.floor(groundHeightAt(x) / Block.SIZE) * Block.SIZE;
+            float groundHeight = surfaceHeightAt(x);
 
             // Generate blocks for the terrain depth
             for (int i = 0; i < TERRAIN_DEPTH; i++) {
                 float y = groundHeight + i * Block.SIZE;
                 Vector2 blockPosition = new Vector2(x, y);
 
-                // Create a renderable with an approximate color
-                Renderable blockRenderable = new RectangleRenderable(
-                        ColorSupplier.approximateColor(BASE_GROUND_COLOR)
-                );
+                // Pick a shared renderable with an approximate color, by position
+                Renderable blockRenderable = GROUND_PALETTE.renderableAt(blockPosition);
 
                 // Create the block and add it to the list
                 Block block = new Block(blockPosition, blockRenderable);
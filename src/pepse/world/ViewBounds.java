@@ -0,0 +1,102 @@
+package pepse.world;
+
+import danogl.gui.rendering.Camera;
+import danogl.util.Vector2;
+
+/**
+ * The region of the world around the camera in which objects are kept awake: the camera rectangle
+ * grown by a margin on every side. Objects outside of it may sleep, skipping update and rendering.
+ */
+public class ViewBounds {
+    private final Camera camera;
+    private float margin;
+
+    /**
+     * Constructs view bounds following a camera.
+     *
+     * @param camera The camera whose rectangle is used.
+     * @param margin The distance (in pixels) added around the camera rectangle.
+     */
+    public ViewBounds(Camera camera, float margin) {
+        this.camera = camera;
+        this.margin = margin;
+    }
+
+    /**
+     * Sets the distance around the camera rectangle within which objects are kept awake.
+     *
+     * @param margin The distance (in pixels) added around the camera rectangle.
+     */
+    public void setMargin(float margin) {
+        this.margin = margin;
+    }
+
+    /**
+     * Gets the distance around the camera rectangle within which objects are kept awake.
+     *
+     * @return The distance (in pixels) added around the camera rectangle.
+     */
+    public float getMargin() {
+        return margin;
+    }
+
+    /**
+     * Checks whether a rectangle overlaps the view bounds.
+     *
+     * @param topLeft    The top-left corner of the rectangle.
+     * @param dimensions The dimensions of the rectangle.
+     * @return True if the rectangle is at least partly inside the bounds, false otherwise.
+     */
+    public boolean overlaps(Vector2 topLeft, Vector2 dimensions) {
+        return overlaps(topLeft.x(), topLeft.y(), dimensions.x(), dimensions.y());
+    }
+
+    /**
+     * Checks whether a rectangle overlaps the view bounds.
+     *
+     * @param x      The left edge of the rectangle.
+     * @param y      The top edge of the rectangle.
+     * @param width  The width of the rectangle.
+     * @param height The height of the rectangle.
+     * @return True if the rectangle is at least partly inside the bounds, false otherwise.
+     */
+    public boolean overlaps(float x, float y, float width, float height) {
+        return x + width >= minX() && x <= maxX() && y + height >= minY() && y <= maxY();
+    }
+
+    /**
+     * Gets the left edge of the view bounds.
+     *
+     * @return The minimum X coordinate inside the bounds.
+     */
+    public float minX() {
+        return camera.getTopLeftCorner().x() - margin;
+    }
+
+    /**
+     * Gets the top edge of the view bounds.
+     *
+     * @return The minimum Y coordinate inside the bounds.
+     */
+    public float minY() {
+        return camera.getTopLeftCorner().y() - margin;
+    }
+
+    /**
+     * Gets the right edge of the view bounds.
+     *
+     * @return The maximum X coordinate inside the bounds.
+     */
+    public float maxX() {
+        return camera.getTopLeftCorner().x() + camera.getDimensions().x() + margin;
+    }
+
+    /**
+     * Gets the bottom edge of the view bounds.
+     *
+     * @return The maximum Y coordinate inside the bounds.
+     */
+    public float maxY() {
+        return camera.getTopLeftCorner().y() + camera.getDimensions().y() + margin;
+    }
+}
@@ -0,0 +1,304 @@
+package pepse.world;
+
+import danogl.GameObject;
+import danogl.collisions.GameObjectCollection;
+import danogl.util.Vector2;
+import pepse.util.SpatialHash;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Keeps the static objects of the world in a spatial index and decides in which layer each of them
+ * lives. Only the objects close to a dynamic body are placed in their collision-active layer, all the
+ * others are parked in an inert layer that collides with nothing, so collision cost depends on what is
+ * near the avatar rather than on the number of loaded chunks.
+ * Objects outside the view bounds are put to sleep: they are taken out of the game object collection,
+ * so they are neither updated nor rendered, and are put back when they enter the view again.
+ * Culling and activation run every step and reuse their lists and visitors, so they allocate nothing.
+ * Every entry remembers its slot in the awake and active lists, so removing an object takes constant
+ * time however many objects are awake.
+ */
+public class WorldIndex {
+    private static final float CELL_SIZE = 2 * Block.SIZE; // Side of a cell of the collider index
+    private static final float VISIBILITY_CELL_SIZE = 8 * Block.SIZE; // Side of a cell of the
+    // visibility index
+    private static final float ACTIVATION_RADIUS = 3 * Block.SIZE; // Distance from a dynamic body within
+    // which objects can collide
+
+    private final GameObjectCollection gameObjects;
+    private final Map<GameObject, Entry> entries;
+    private final SpatialHash<Entry> colliders; // Objects having a distinct collision-active layer
+    private final SpatialHash<Entry> visibility; // Every indexed object
+    private List<Entry> activeEntries;
+    private List<Entry> nextActiveEntries;
+    private List<Entry> awakeEntries;
+    private List<Entry> nextAwakeEntries;
+    private ViewBounds cullingView; // View of the cull in progress
+    private Consumer<GameObject> regionVisitor; // Visitor of the region query in progress
+    private final Consumer<Entry> markIfVisible = this::markIfVisible;
+    private final Consumer<Entry> markNear = this::markNear;
+    private final Consumer<Entry> visitInRegion = this::visitInRegion;
+
+    /**
+     * Constructs an empty world index.
+     *
+     * @param gameObjects The collection in which the indexed objects are added.
+     */
+    public WorldIndex(GameObjectCollection gameObjects) {
+        this.gameObjects = gameObjects;
+        this.entries = new HashMap<>();
+        this.colliders = new SpatialHash<>(CELL_SIZE);
+        this.visibility = new SpatialHash<>(VISIBILITY_CELL_SIZE);
+        this.activeEntries = new ArrayList<>();
+        this.nextActiveEntries = new ArrayList<>();
+        this.awakeEntries = new ArrayList<>();
+        this.nextAwakeEntries = new ArrayList<>();
+    }
+
+    /**
+     * Adds a static object to the index, in its inert layer. The object starts asleep and is added
+     * to the game world once it is inside the view bounds.
+     *
+     * @param object      The object to add.
+     * @param activeLayer The layer of the object while a dynamic body is near it.
+     * @param inertLayer  The layer of the object otherwise. May equal activeLayer for objects that
+     *                    never collide.
+     */
+    public void add(GameObject object, int activeLayer, int inertLayer) {
+        Entry entry = new Entry(object, activeLayer, inertLayer);
+        entries.put(object, entry);
+        visibility.insert(entry, entry.anchor.x(), entry.anchor.y());
+        if (activeLayer != inertLayer) {
+            colliders.insert(entry, entry.anchor.x(), entry.anchor.y());
+        }
+    }
+
+    /**
+     * Removes an object from the world and from the index.
+     *
+     * @param object The object to remove.
+     */
+    public void remove(GameObject object) {
+        Entry entry = entries.remove(object);
+        if (entry == null) {
+            return;
+        }
+        if (entry.isAwake) {
+            gameObjects.removeGameObject(object, entry.layer);
+            // Move the last awake entry into the freed slot
+            Entry last = awakeEntries.remove(awakeEntries.size() - 1);
+            if (last != entry) {
+                awakeEntries.set(entry.awakeSlot, last);
+                last.awakeSlot = entry.awakeSlot;
+            }
+        }
+        visibility.remove(entry, entry.anchor.x(), entry.anchor.y());
+        if (entry.activeLayer != entry.inertLayer) {
+            colliders.remove(entry, entry.anchor.x(), entry.anchor.y());
+        }
+        if (entry.isActive) {
+            Entry last = activeEntries.remove(activeEntries.size() - 1);
+            if (last != entry) {
+                activeEntries.set(entry.activeSlot, last);
+                last.activeSlot = entry.activeSlot;
+            }
+        }
+    }
+
+    /**
+     * Wakes the objects that entered the view bounds and puts to sleep the ones that left them.
+     *
+     * @param view The region in which objects must be awake.
+     */
+    public void cullOutside(ViewBounds view) {
+        cullingView = view;
+        visibility.query(view.minX(), view.minY(), view.maxX(), view.maxY(), markIfVisible);
+
+        // Put to sleep the objects that left the view
+        for (int i = 0; i < awakeEntries.size(); i++) {
+            Entry entry = awakeEntries.get(i);
+            if (!entry.isMarked) {
+                gameObjects.removeGameObject(entry.object, entry.layer);
+                entry.isAwake = false;
+            }
+        }
+
+        // Wake the objects that entered the view
+        for (int i = 0; i < nextAwakeEntries.size(); i++) {
+            Entry entry = nextAwakeEntries.get(i);
+            entry.isMarked = false;
+            if (!entry.isAwake) {
+                gameObjects.addGameObject(entry.object, entry.layer);
+                entry.isAwake = true;
+            }
+        }
+
+        List<Entry> swap = awakeEntries;
+        awakeEntries = nextAwakeEntries;
+        nextAwakeEntries = swap;
+        nextAwakeEntries.clear();
+    }
+
+    /**
+     * Moves the objects near the given dynamic body to their active layer, and parks the objects
+     * that are no longer near it in their inert layer.
+     *
+     * @param body The dynamic body around which collisions are enabled.
+     */
+    public void activateAround(GameObject body) {
+        Vector2 topLeft = body.getTopLeftCorner();
+        Vector2 dimensions = body.getDimensions();
+
+        // Mark the objects currently near the body
+        colliders.query(
+                topLeft.x() - ACTIVATION_RADIUS,
+                topLeft.y() - ACTIVATION_RADIUS,
+                topLeft.x() + dimensions.x() + ACTIVATION_RADIUS,
+                topLeft.y() + dimensions.y() + ACTIVATION_RADIUS,
+                markNear);
+
+        // Park the objects the body moved away from
+        for (int i = 0; i < activeEntries.size(); i++) {
+            Entry entry = activeEntries.get(i);
+            if (!entry.isNear) {
+                entry.moveTo(entry.inertLayer, gameObjects);
+                entry.isActive = false;
+            }
+        }
+
+        // Activate the objects the body moved close to
+        for (int i = 0; i < nextActiveEntries.size(); i++) {
+            Entry entry = nextActiveEntries.get(i);
+            entry.isNear = false;
+            if (!entry.isActive) {
+                entry.moveTo(entry.activeLayer, gameObjects);
+                entry.isActive = true;
+            }
+        }
+
+        List<Entry> swap = activeEntries;
+        activeEntries = nextActiveEntries;
+        nextActiveEntries = swap;
+        nextActiveEntries.clear();
+    }
+
+    /**
+     * Marks an entry found by the cull if it is inside the view.
+     *
+     * @param entry The entry found.
+     */
+    private void markIfVisible(Entry entry) {
+        if (!entry.isMarked && cullingView.overlaps(entry.object.getTopLeftCorner(),
+                entry.object.getDimensions())) {
+            entry.isMarked = true;
+            entry.awakeSlot = nextAwakeEntries.size();
+            nextAwakeEntries.add(entry);
+        }
+    }
+
+    /**
+     * Marks an entry found near the dynamic body.
+     *
+     * @param entry The entry found.
+     */
+    private void markNear(Entry entry) {
+        if (!entry.isNear) {
+            entry.isNear = true;
+            entry.activeSlot = nextActiveEntries.size();
+            nextActiveEntries.add(entry);
+        }
+    }
+
+    /**
+     * Visits the indexed objects lying in a region, whether they are awake or asleep.
+     * Objects near the border of the region may lie slightly outside of it. The visitor must not
+     * query the index again.
+     *
+     * @param minX    The left edge of the region.
+     * @param minY    The top edge of the region.
+     * @param maxX    The right edge of the region.
+     * @param maxY    The bottom edge of the region.
+     * @param visitor Called once for every object found.
+     */
+    public void forEachIn(float minX, float minY, float maxX, float maxY, Consumer<GameObject> visitor) {
+        regionVisitor = visitor;
+        visibility.query(minX, minY, maxX, maxY, visitInRegion);
+        regionVisitor = null;
+    }
+
+    /**
+     * Passes an entry found by a region query to the visitor of the query.
+     *
+     * @param entry The entry found.
+     */
+    private void visitInRegion(Entry entry) {
+        regionVisitor.accept(entry.object);
+    }
+
+    /**
+     * Gets the number of objects in the index.
+     *
+     * @return The number of indexed objects.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Gets the number of objects currently in their collision-active layer.
+     *
+     * @return The number of active objects.
+     */
+    public int activeCount() {
+        return activeEntries.size();
+    }
+
+    /**
+     * Gets the number of objects currently awake.
+     *
+     * @return The number of objects present in the game world.
+     */
+    public int awakeCount() {
+        return awakeEntries.size();
+    }
+
+    /**
+     * An indexed object along with its layers and state.
+     */
+    private static class Entry {
+        private final GameObject object;
+        private final int activeLayer;
+        private final int inertLayer;
+        private final Vector2 anchor; // Position at which the object is indexed
+        private int layer; // Layer the object lives in while awake
+        private boolean isActive = false;
+        private boolean isNear = false;
+        private boolean isAwake = false;
+        private boolean isMarked = false; // Found inside the view during the current cull
+        private int awakeSlot; // Index of the entry in the awake entries, while awake
+        private int activeSlot; // Index of the entry in the active entries, while active
+
+        private Entry(GameObject object, int activeLayer, int inertLayer) {
+            this.object = object;
+            this.activeLayer = activeLayer;
+            this.inertLayer = inertLayer;
+            this.anchor = object.getCenter();
+            this.layer = inertLayer;
+        }
+
+        private void moveTo(int newLayer, GameObjectCollection gameObjects) {
+            if (newLayer == layer) {
+                return;
+            }
+            if (isAwake) {
+                gameObjects.removeGameObject(object, layer);
+                gameObjects.addGameObject(object, newLayer);
+            }
+            layer = newLayer;
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package pepse.world.crowd;
+
+import danogl.GameObject;
+import danogl.util.Vector2;
+import pepse.util.ParallelSystem;
+import pepse.world.Terrain;
+import pepse.world.WorldIndex;
+import pepse.world.trees.Fruit;
+
+import java.util.function.Consumer;
+
+/**
+ * A crowd of simple critters wandering on the terrain, jumping and eating the fruits they reach.
+ * Critters are not game objects: their state is kept in parallel arrays (one entry per critter) and
+ * stepped in batch, and they are all drawn by a single {@link CrowdRenderable}.
+ * <p>
+ * Only the critters inside the active range, the loaded chunks, are stepped; the others are parked
+ * where they stand until the range reaches them again. The active critters are listed once per
+ * range change, so a step costs the same however large the crowd spread over the world is.
+ */
+public class Crowd implements ParallelSystem {
+    /**
+     * The size of a critter, in pixels.
+     */
+    public static final float CRITTER_SIZE = 24f;
+    private static final float GRAVITY = 600f; // Gravity applied to the critters
+    private static final float WALK_SPEED = 60f; // Horizontal speed of a walking critter
+    private static final float JUMP_VELOCITY = -350f; // Vertical speed at the start of a jump
+    private static final float JUMP_PROBABILITY = 0.3f; // Chance per second of a grounded critter jumping
+    private static final float MIN_WANDER_TIME = 1f; // Minimal time before a critter changes its mind
+    private static final float MAX_WANDER_TIME = 4f; // Maximal time before a critter changes its mind
+    private static final float MAX_STEP_HEIGHT = 30f; // Highest terrain step climbed without jumping
+    private static final int EAT_CHECK_PERIOD = 15; // Steps between two fruit checks of a critter
+
+    private final Terrain terrain;
+    private final WorldIndex worldIndex;
+    private final int size;
+    private final float[] x; // Left edge of every critter
+    private final float[] y; // Top edge of every critter
+    private final float[] velocityX;
+    private final float[] velocityY;
+    private final float[] wanderTimes; // Time left before every critter changes its mind
+    private final float[] animationTimes; // Time spent in the current animation
+    private final boolean[] isGrounded;
+    private final int[] randomStates; // Per-critter pseudo-random generators, usable in parallel
+    private final int[] activeCritters; // Indices of the critters stepped, the first activeCount ones
+    private int activeCount;
+    private float activeMinX = Float.NEGATIVE_INFINITY; // Left edge of the active range
+    private float activeMaxX = Float.POSITIVE_INFINITY; // Right edge of the active range
+    private int stepCount = 0;
+    private float probeX; // Left edge of the critter looking for fruits
+    private float probeY; // Top edge of the critter looking for fruits
+    private final Consumer<GameObject> eatIfTouching = this::eatIfTouching; // Reused by every probe
+
+    /**
+     * Creates a crowd of critters spread over a horizontal range.
+     *
+     * @param terrain    The terrain the critters walk on.
+     * @param worldIndex The index in which the critters look for fruits.
+     * @param size       The number of critters.
+     * @param minX       The left edge of the range the critters start in.
+     * @param maxX       The right edge of the range the critters start in.
+     * @param seed       The seed of the critters' pseudo-random behaviour.
+     */
+    public Crowd(Terrain terrain, WorldIndex worldIndex, int size, float minX, float maxX, int seed) {
+        this.terrain = terrain;
+        this.worldIndex = worldIndex;
+        this.size = size;
+        this.x = new float[size];
+        this.y = new float[size];
+        this.velocityX = new float[size];
+        this.velocityY = new float[size];
+        this.wanderTimes = new float[size];
+        this.animationTimes = new float[size];
+        this.isGrounded = new boolean[size];
+        this.randomStates = new int[size];
+        this.activeCritters = new int[size];
+
+        for (int i = 0; i < size; i++) {
+            randomStates[i] = seed ^ (i * 0x9E3779B9) | 1; // Never zero, as required by xorshift
+            x[i] = minX + nextFloat(i) * (maxX - minX);
+            y[i] = groundAt(x[i]);
+            wanderTimes[i] = 0;
+            animationTimes[i] = nextFloat(i);
+            activeCritters[i] = i; // Every critter is active until a range is set
+        }
+        this.activeCount = size;
+    }
+
+    /**
+     * Sets the horizontal range in which critters are stepped, and parks the critters outside of
+     * it. Critters leaving the range keep being stepped until the range changes.
+     *
+     * @param minX The left edge of the range, usually that of the first loaded chunk.
+     * @param maxX The right edge of the range, usually that of the last loaded chunk.
+     */
+    public void setActiveRange(float minX, float maxX) {
+        if (minX == activeMinX && maxX == activeMaxX) {
+            return;
+        }
+        activeMinX = minX;
+        activeMaxX = maxX;
+        activeCount = 0;
+        for (int i = 0; i < size; i++) {
+            if (x[i] + CRITTER_SIZE >= minX && x[i] <= maxX) {
+                activeCritters[activeCount++] = i;
+            }
+        }
+    }
+
+    /**
+     * Gets the number of critters stepped, those of the active range.
+     *
+     * @return The number of active critters.
+     */
+    @Override
+    public int size() {
+        return activeCount;
+    }
+
+    @Override
+    public void compute(int from, int to, float deltaTime) {
+        for (int k = from; k < to; k++) {
+            int i = activeCritters[k];
+            // Pick a new direction once in a while
+            wanderTimes[i] -= deltaTime;
+            if (wanderTimes[i] <= 0) {
+                wanderTimes[i] = MIN_WANDER_TIME + nextFloat(i) * (MAX_WANDER_TIME - MIN_WANDER_TIME);
+                velocityX[i] = (nextInt(i, 3) - 1) * WALK_SPEED; // Left, idle or right
+            }
+            if (isGrounded[i] && nextFloat(i) < JUMP_PROBABILITY * deltaTime) {
+                velocityY[i] = JUMP_VELOCITY;
+                isGrounded[i] = false;
+            }
+
+            // Walk, turning back in front of steps too high to climb
+            float newX = x[i] + velocityX[i] * deltaTime;
+            float newGround = groundAt(newX);
+            if (newGround < y[i] - MAX_STEP_HEIGHT) {
+                velocityX[i] = -velocityX[i];
+            } else {
+                x[i] = newX;
+            }
+
+            // Fall, and land on the terrain
+            velocityY[i] += GRAVITY * deltaTime;
+            y[i] += velocityY[i] * deltaTime;
+            float ground = groundAt(x[i]);
+            isGrounded[i] = y[i] >= ground && velocityY[i] >= 0;
+            if (isGrounded[i]) {
+                y[i] = ground;
+                velocityY[i] = 0;
+            }
+            animationTimes[i] += deltaTime;
+        }
+    }
+
+    /**
+     * Lets a share of the airborne critters eat the fruits they touch. Every critter is checked
+     * once every few steps, so the cost of a step does not depend much on the crowd size.
+     */
+    @Override
+    public void commit() {
+        stepCount++;
+        for (int k = stepCount % EAT_CHECK_PERIOD; k < activeCount; k += EAT_CHECK_PERIOD) {
+            int i = activeCritters[k];
+            if (isGrounded[i]) {
+                continue; // Fruits hang in the trees, out of reach from the ground
+            }
+            probeX = x[i];
+            probeY = y[i];
+            worldIndex.forEachIn(probeX, probeY, probeX + CRITTER_SIZE, probeY + CRITTER_SIZE,
+                    eatIfTouching);
+        }
+    }
+
+    /**
+     * Eats an object found near the probing critter if it is a fruit the critter touches.
+     *
+     * @param object The object found.
+     */
+    private void eatIfTouching(GameObject object) {
+        if (!(object instanceof Fruit fruit) || fruit.isEaten()) {
+            return;
+        }
+        Vector2 topLeft = fruit.getTopLeftCorner();
+        Vector2 dimensions = fruit.getDimensions();
+        if (topLeft.x() <= probeX + CRITTER_SIZE && topLeft.x() + dimensions.x() >= probeX
+                && topLeft.y() <= probeY + CRITTER_SIZE && topLeft.y() + dimensions.y() >= probeY) {
+            fruit.eat();
+        }
+    }
+
+    /**
+     * Gets an active critter, a critter stepped every step. Parked critters lie outside the active
+     * range, so they are never visible.
+     *
+     * @param activeIndex The index of the critter among the active ones, below {@link #size()}.
+     * @return The index of the critter.
+     */
+    public int getActiveCritter(int activeIndex) {
+        return activeCritters[activeIndex];
+    }
+
+    /**
+     * Gets the left edge of a critter.
+     *
+     * @param index The index of the critter.
+     * @return The X coordinate of the critter's top-left corner.
+     */
+    public float getX(int index) {
+        return x[index];
+    }
+
+    /**
+     * Gets the top edge of a critter.
+     *
+     * @param index The index of the critter.
+     * @return The Y coordinate of the critter's top-left corner.
+     */
+    public float getY(int index) {
+        return y[index];
+    }
+
+    /**
+     * Gets the horizontal speed of a critter.
+     *
+     * @param index The index of the critter.
+     * @return The horizontal velocity of the critter.
+     */
+    public float getVelocityX(int index) {
+        return velocityX[index];
+    }
+
+    /**
+     * Checks whether a critter is standing on the terrain.
+     *
+     * @param index The index of the critter.
+     * @return True if the critter is on the ground, false if it is in the air.
+     */
+    public boolean isGrounded(int index) {
+        return isGrounded[index];
+    }
+
+    /**
+     * Gets the time a critter has spent animating.
+     *
+     * @param index The index of the critter.
+     * @return The animation time of the critter, in seconds.
+     */
+    public float getAnimationTime(int index) {
+        return animationTimes[index];
+    }
+
+    /**
+     * Computes where a critter standing at a given X coordinate has its top edge. Pure, so it is
+     * safe to call from parallel tasks.
+     */
+    private float groundAt(float left) {
+        return terrain.surfaceHeightAt(left + CRITTER_SIZE / 2) - CRITTER_SIZE;
+    }
+
+    private float nextFloat(int index) {
+        return (nextRandom(index) >>> 8) / (float) (1 << 24);
+    }
+
+    private int nextInt(int index, int bound) {
+        return (int) (nextFloat(index) * bound);
+    }
+
+    private int nextRandom(int index) {
+        int state = randomStates[index];
+        state ^= state << 13;
+        state ^= state >>> 17;
+        state ^= state << 5;
+        randomStates[index] = state;
+        return state;
+    }
+}
@@ -0,0 +1,68 @@
+package pepse.world.crowd;
+
+import danogl.GameObject;
+import danogl.gui.rendering.Renderable;
+import danogl.util.Vector2;
+
+import java.awt.*;
+
+/**
+ * Draws every visible critter of a crowd with a set of animation frames shared by the whole crowd.
+ * The renderable belongs to a game object covering the view; critters outside of it are skipped.
+ */
+public class CrowdRenderable implements Renderable {
+    private static final Vector2 CRITTER_DIMENSIONS = Vector2.ONES.mult(Crowd.CRITTER_SIZE);
+
+    private final Crowd crowd;
+    private final GameObject view;
+    private final Renderable[] idleFrames;
+    private final Renderable[] runFrames;
+    private final Renderable[] jumpFrames;
+    private final float frameDuration;
+
+    /**
+     * Constructs a renderable drawing a crowd.
+     *
+     * @param crowd         The crowd to draw.
+     * @param view          The game object rendered with this renderable, covering the view.
+     * @param idleFrames    The frames of standing critters.
+     * @param runFrames     The frames of walking critters.
+     * @param jumpFrames    The frames of critters in the air.
+     * @param frameDuration The time (in seconds) every frame is shown.
+     */
+    public CrowdRenderable(Crowd crowd, GameObject view, Renderable[] idleFrames, Renderable[] runFrames,
+                           Renderable[] jumpFrames, float frameDuration) {
+        this.crowd = crowd;
+        this.view = view;
+        this.idleFrames = idleFrames;
+        this.runFrames = runFrames;
+        this.jumpFrames = jumpFrames;
+        this.frameDuration = frameDuration;
+    }
+
+    @Override
+    public void render(Graphics2D g, Vector2 topLeftCorner, Vector2 dimensions,
+                       double degreesCounterClockwise, boolean isFlippedHorizontally,
+                       boolean isFlippedVertically, double opaqueness) {
+        Vector2 viewTopLeft = view.getTopLeftCorner();
+        float minX = viewTopLeft.x() - Crowd.CRITTER_SIZE;
+        float minY = viewTopLeft.y() - Crowd.CRITTER_SIZE;
+        float maxX = viewTopLeft.x() + dimensions.x();
+        float maxY = viewTopLeft.y() + dimensions.y();
+
+        for (int k = 0; k < crowd.size(); k++) {
+            int i = crowd.getActiveCritter(k); // Parked critters lie outside the loaded chunks
+            float x = crowd.getX(i);
+            float y = crowd.getY(i);
+            if (x < minX || x > maxX || y < minY || y > maxY) {
+                continue;
+            }
+            Renderable[] frames = !crowd.isGrounded(i) ? jumpFrames
+                    : crowd.getVelocityX(i) != 0 ? runFrames : idleFrames;
+            Renderable frame = frames[(int) (crowd.getAnimationTime(i) / frameDuration) % frames.length];
+            frame.render(g,
+                    new Vector2(topLeftCorner.x() + x - viewTopLeft.x(), topLeftCorner.y() + y - viewTopLeft.y()),
+                    CRITTER_DIMENSIONS, 0, crowd.getVelocityX(i) < 0, false, opaqueness);
+        }
+    }
+}
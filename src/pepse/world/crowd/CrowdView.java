@@ -0,0 +1,54 @@
+package pepse.world.crowd;
+
+import danogl.GameObject;
+import danogl.gui.ImageReader;
+import danogl.gui.rendering.Camera;
+import danogl.gui.rendering.Renderable;
+
+/**
+ * Creates the game object through which a crowd is drawn: a single object following the camera,
+ * rendered with a {@link CrowdRenderable}.
+ */
+public class CrowdView {
+    private static final String CROWD_TAG = "crowd"; // Tag to identify the crowd view
+    private static final float FRAME_DURATION = 0.2f; // Duration of a frame of the critters' animations
+    private static final String[] IDLE_IMAGES = {"assets/idle_0.png", "assets/idle_1.png",
+            "assets/idle_2.png", "assets/idle_3.png"};
+    private static final String[] RUN_IMAGES = {"assets/run_0.png", "assets/run_1.png", "assets/run_2.png",
+            "assets/run_3.png", "assets/run_4.png", "assets/run_5.png"};
+    private static final String[] JUMP_IMAGES = {"assets/jump_0.png", "assets/jump_1.png",
+            "assets/jump_2.png", "assets/jump_3.png"};
+
+    /**
+     * Creates a GameObject drawing every visible critter of a crowd.
+     *
+     * @param crowd       The crowd to draw.
+     * @param camera      The camera the view follows.
+     * @param imageReader The reader for loading the critters' frames.
+     * @return A GameObject covering the camera and drawing the crowd.
+     */
+    public static GameObject create(Crowd crowd, Camera camera, ImageReader imageReader) {
+        GameObject view = new GameObject(camera.getTopLeftCorner(), camera.getDimensions(), null);
+        view.setTag(CROWD_TAG);
+        view.renderer().setRenderable(new CrowdRenderable(
+                crowd,
+                view,
+                readFrames(IDLE_IMAGES, imageReader),
+                readFrames(RUN_IMAGES, imageReader),
+                readFrames(JUMP_IMAGES, imageReader),
+                FRAME_DURATION
+        ));
+
+        // Keep the view on the camera, so it covers every visible critter
+        view.addComponent(deltaTime -> view.setTopLeftCorner(camera.getTopLeftCorner()));
+        return view;
+    }
+
+    private static Renderable[] readFrames(String[] imagePaths, ImageReader imageReader) {
+        Renderable[] frames = new Renderable[imagePaths.length];
+        for (int i = 0; i < imagePaths.length; i++) {
+            frames[i] = imageReader.readImage(imagePaths[i], true); // Shared by every critter
+        }
+        return frames;
+    }
+}
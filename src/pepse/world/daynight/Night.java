@@ -1,55 +1,32 @@
 package pepse.world.daynight;
 
-import danogl.GameObject;
-import danogl.components.CoordinateSpace;
-import danogl.components.Transition;
-import danogl.gui.rendering.RectangleRenderable;
-import danogl.util.Vector2;
-
-import java.awt.*;
-
 /**
- * Represents the nighttime effect in the game, transitioning between day and night.
- * This class handles creating a GameObject that overlays the screen to simulate darkness at night.
+ * Describes how dark the night gets over the day-night cycle. The darkness itself is drawn by the
+ * lightmap, which covers the unlit parts of the world with the opacity computed here.
  */
 public class Night {
     private static final float MIDNIGHT_OPACITY = 0.5f; // Maximum opacity during nighttime
-    private static final String NIGHT_TAG = "night"; // Tag to identify the night object
     private static final float START_OPACITY = 0f; // Starting opacity for daytime
 
     /**
-     * Creates a GameObject representing the nighttime effect, with a day-night cycle.
+     * Computes the opacity of the night darkness at a given time of day. The night darkens during the
+     * first half of the cycle and brightens back during the second half, with a smooth cubic curve.
      *
-     * @param windowDimensions The dimensions of the game window.
-     * @param cycleLength      The total duration of a full day-night cycle (in seconds).
-     * @return A GameObject that represents the nighttime overlay.
+     * @param timeOfDay The time of day, from 0 (start of the cycle) to 1 (end of the cycle).
+     * @return The opacity of the night darkness.
      */
-    public static GameObject create(Vector2 windowDimensions, float cycleLength) {
-        // Create a GameObject for the night overlay
-        GameObject night = new GameObject(
-                Vector2.ZERO,
-                windowDimensions,
-                new RectangleRenderable(Color.BLACK) // Black overlay to simulate night
-        );
-
-        // Set the night overlay to follow the camera's coordinate space
-        night.setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
-
-        // Tag the GameObject for easy identification
-        night.setTag(NIGHT_TAG);
-
-        // Add a transition to change the opacity of the night object over time
-        new Transition<>(
-                night,
-                night.renderer()::setOpaqueness, // Function to adjust the opacity
-                START_OPACITY, // Starting opacity (daytime)
-                MIDNIGHT_OPACITY, // Maximum opacity (nighttime)
-                Transition.CUBIC_INTERPOLATOR_FLOAT, // Smooth cubic interpolation
-                cycleLength / 2, // Half of the cycle for a complete transition to night
-                Transition.TransitionType.TRANSITION_BACK_AND_FORTH, // Back-and-forth for day-night cycling
-                null // No callback after the transition
-        );
+    public static float opacityAt(float timeOfDay) {
+        float progress = timeOfDay < 0.5f ? 2 * timeOfDay : 2 - 2 * timeOfDay; // Back and forth
+        float smooth = progress * progress * (3 - 2 * progress);
+        return START_OPACITY + (MIDNIGHT_OPACITY - START_OPACITY) * smooth;
+    }
 
-        return night;
+    /**
+     * Gets the opacity of the night darkness at midnight.
+     *
+     * @return The maximal opacity of the night darkness.
+     */
+    public static float getMidnightOpacity() {
+        return MIDNIGHT_OPACITY;
     }
 }
@@ -9,7 +9,8 @@ import java.awt.*;
 
 /**
  * A class for creating a halo effect around the sun in the game.
- * The halo enhances the visual representation of the sun and dynamically follows its position.
+ * The halo enhances the visual representation of the sun; the {@link WorldClock} places it on the sun
+ * and hides it while the sun is off screen.
  */
 public class SunHalo {
     private static final Color HALO_COLOR = new Color(255, 255, 0, 50); // Semi-transparent yellow
@@ -32,6 +33,7 @@ public class SunHalo {
                 sun.getDimensions().mult(HALO_SCALE), // Halo dimensions (scaled larger than the sun)
                 haloRenderable
         );
+        sunHalo.setCenter(sun.getCenter());
 
         // Set the halo to use camera coordinates
         sunHalo.setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
@@ -39,9 +41,6 @@ public class SunHalo {
         // Add a tag to identify this object as the sun's halo
         sunHalo.setTag("sunHalo");
 
-        // Add dynamic behavior to update the halo's position to follow the sun
-        sunHalo.addComponent(deltaTime -> sunHalo.setCenter(sun.getCenter()));
-
         return sunHalo;
     }
 }
@@ -0,0 +1,182 @@
+package pepse.world.daynight;
+
+import danogl.GameObject;
+import danogl.gui.rendering.RectangleRenderable;
+import danogl.gui.rendering.Renderable;
+import danogl.util.Vector2;
+import pepse.world.Sky;
+
+/**
+ * The single source of time of the world. The clock advances the time of day once per simulation
+ * step and derives the sun and halo positions, the night darkness and the sky color from lookup
+ * tables computed once, so the whole day-night cycle costs one table lookup per step and never drifts
+ * apart. Other systems (fruit regrowth, lighting) read the time and darkness from it.
+ * <p>
+ * The time is accumulated in double precision: a float gaining a 60th of a second every step would
+ * round the steps away after hours of play, and the cycle would stall.
+ */
+public class WorldClock {
+    private static final int TABLE_SIZE = 2048; // Number of entries in the lookup tables of a cycle
+    private static final int SKY_SHADES = 32; // Number of distinct sky colors
+
+    private final float cycleLength;
+    private final GameObject sun;
+    private final GameObject sunHalo;
+    private final GameObject sky;
+    private final Vector2[] sunPositions;
+    private final boolean[] isSunVisible;
+    private final float[] nightOpacities;
+    private final Renderable[] skyShades;
+    private final int[] skyShadeIndices;
+    private final Renderable haloRenderable;
+
+    private double elapsedTime = 0; // World time since the clock started, in seconds
+    private float timeScale = 1;
+    private boolean isPaused = false;
+    private int lastIndex = -1; // Table entry currently applied to the objects
+
+    /**
+     * Constructs a clock driving the day-night objects.
+     *
+     * @param cycleLength      The duration of a full day-night cycle, in seconds.
+     * @param windowDimensions The dimensions of the game window.
+     * @param sun              The sun.
+     * @param sunHalo          The halo around the sun.
+     * @param sky              The sky.
+     */
+    public WorldClock(float cycleLength, Vector2 windowDimensions, GameObject sun, GameObject sunHalo,
+                      GameObject sky) {
+        this.cycleLength = cycleLength;
+        this.sun = sun;
+        this.sunHalo = sunHalo;
+        this.sky = sky;
+        this.haloRenderable = sunHalo.renderer().getRenderable();
+
+        // Precompute the whole cycle
+        sunPositions = new Vector2[TABLE_SIZE];
+        isSunVisible = new boolean[TABLE_SIZE];
+        nightOpacities = new float[TABLE_SIZE];
+        skyShadeIndices = new int[TABLE_SIZE];
+        for (int i = 0; i < TABLE_SIZE; i++) {
+            float timeOfDay = i / (float) TABLE_SIZE;
+            sunPositions[i] = Sun.positionAt(windowDimensions, timeOfDay);
+            isSunVisible[i] = isOnScreen(sunPositions[i], sunHalo.getDimensions(), windowDimensions);
+            nightOpacities[i] = Night.opacityAt(timeOfDay);
+            float darkness = nightOpacities[i] / Night.getMidnightOpacity();
+            skyShadeIndices[i] = Math.round(darkness * (SKY_SHADES - 1));
+        }
+        skyShades = new Renderable[SKY_SHADES];
+        for (int i = 0; i < SKY_SHADES; i++) {
+            skyShades[i] = new RectangleRenderable(Sky.colorAt(i / (float) (SKY_SHADES - 1)));
+        }
+        apply(0);
+    }
+
+    /**
+     * Advances the time of day and updates the day-night objects.
+     *
+     * @param deltaTime The duration of the simulation step.
+     */
+    public void update(float deltaTime) {
+        if (!isPaused) {
+            elapsedTime += deltaTime * timeScale;
+        }
+        int index = (int) (getTimeOfDay() * TABLE_SIZE) % TABLE_SIZE;
+        if (index != lastIndex) {
+            apply(index);
+        }
+    }
+
+    /**
+     * Gets the world time elapsed since the clock started. Scaled by the time scale, and frozen
+     * while the clock is paused.
+     *
+     * @return The elapsed world time, in seconds.
+     */
+    public float getElapsedTime() {
+        return (float) elapsedTime;
+    }
+
+    /**
+     * Moves the clock to a given elapsed world time, for instance to resume a saved world. The time
+     * of day follows from it.
+     *
+     * @param elapsedTime The elapsed world time, in seconds.
+     */
+    public void setElapsedTime(float elapsedTime) {
+        this.elapsedTime = elapsedTime;
+    }
+
+    /**
+     * Gets the time of day.
+     *
+     * @return The position in the day-night cycle, from 0 (start) to 1 (end).
+     */
+    public float getTimeOfDay() {
+        return (float) ((elapsedTime % cycleLength) / cycleLength);
+    }
+
+    /**
+     * Moves the clock to a given time of day.
+     *
+     * @param timeOfDay The position in the day-night cycle, from 0 (start) to 1 (end).
+     */
+    public void setTimeOfDay(float timeOfDay) {
+        double cycleStart = elapsedTime - elapsedTime % cycleLength;
+        elapsedTime = cycleStart + (double) timeOfDay * cycleLength;
+    }
+
+    /**
+     * Gets the darkness of the night at the current time of day, as the opacity of the darkness
+     * covering unlit parts of the world.
+     *
+     * @return The night opacity.
+     */
+    public float getNightOpacity() {
+        return nightOpacities[Math.max(lastIndex, 0)];
+    }
+
+    /**
+     * Sets how fast world time passes compared to simulation time.
+     *
+     * @param timeScale The number of world seconds per simulated second.
+     */
+    public void setTimeScale(float timeScale) {
+        this.timeScale = timeScale;
+    }
+
+    /**
+     * Pauses or resumes the world time.
+     *
+     * @param paused True to pause the clock, false to resume it.
+     */
+    public void setPaused(boolean paused) {
+        this.isPaused = paused;
+    }
+
+    /**
+     * Applies a table entry to the sun, its halo and the sky.
+     *
+     * @param index The table entry.
+     */
+    private void apply(int index) {
+        sun.setCenter(sunPositions[index]);
+        if (isSunVisible[index]) {
+            sunHalo.renderer().setRenderable(haloRenderable);
+            sunHalo.setCenter(sunPositions[index]);
+        } else {
+            sunHalo.renderer().setRenderable(null); // The halo sleeps while the sun is off screen
+        }
+        if (lastIndex < 0 || skyShadeIndices[index] != skyShadeIndices[lastIndex]) {
+            sky.renderer().setRenderable(skyShades[skyShadeIndices[index]]);
+        }
+        lastIndex = index;
+    }
+
+    private static boolean isOnScreen(Vector2 center, Vector2 dimensions, Vector2 windowDimensions) {
+        float halfWidth = dimensions.x() / 2;
+        float halfHeight = dimensions.y() / 2;
+        return center.x() + halfWidth >= 0 && center.x() - halfWidth <= windowDimensions.x()
+                && center.y() + halfHeight >= 0 && center.y() - halfHeight <= windowDimensions.y();
+    }
+}
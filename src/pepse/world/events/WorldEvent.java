@@ -0,0 +1,58 @@
+package pepse.world.events;
+
+import java.util.Objects;
+
+/**
+ * An event that happened in the world during a frame.
+ * Two events are equal when they have the same type and the same subject, which is what
+ * allows the {@link WorldEventBus} to coalesce duplicates posted within a single frame.
+ */
+public final class WorldEvent {
+    private final WorldEventType type;
+    private final Object subject;
+
+    /**
+     * Constructs a new world event.
+     *
+     * @param type    The type of the event.
+     * @param subject The object the event is about (e.g. a fruit or a chunk index), may be null.
+     */
+    public WorldEvent(WorldEventType type, Object subject) {
+        this.type = type;
+        this.subject = subject;
+    }
+
+    /**
+     * Gets the type of the event.
+     *
+     * @return The event type.
+     */
+    public WorldEventType getType() {
+        return type;
+    }
+
+    /**
+     * Gets the object the event is about.
+     *
+     * @return The subject of the event, may be null.
+     */
+    public Object getSubject() {
+        return subject;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof WorldEvent event)) {
+            return false;
+        }
+        return type == event.type && Objects.equals(subject, event.subject);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, subject);
+    }
+}
@@ -0,0 +1,117 @@
+package pepse.world.events;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Queues world events posted during a frame and dispatches them all at once, at a single
+ * well-defined point of the frame (see {@link #dispatch(float)}).
+ * Identical events posted within the same frame are coalesced into one, and every listener
+ * may be given a minimal interval between two deliveries.
+ */
+public class WorldEventBus {
+    private static final float NO_RATE_LIMIT = 0f; // Listeners without a rate limit
+
+    private final Map<WorldEventType, List<Subscription>> subscriptions;
+    private Set<WorldEvent> pendingEvents;
+    private Set<WorldEvent> dispatchingEvents;
+    private float time = 0; // Time accumulated through dispatch calls
+
+    /**
+     * Constructs an empty event bus.
+     */
+    public WorldEventBus() {
+        this.subscriptions = new EnumMap<>(WorldEventType.class);
+        this.pendingEvents = new LinkedHashSet<>();
+        this.dispatchingEvents = new LinkedHashSet<>();
+    }
+
+    /**
+     * Subscribes a listener to every event of the given type.
+     *
+     * @param type     The type of events to listen to.
+     * @param listener The listener to notify.
+     */
+    public void subscribe(WorldEventType type, WorldEventListener listener) {
+        subscribe(type, listener, NO_RATE_LIMIT);
+    }
+
+    /**
+     * Subscribes a listener to events of the given type, delivering at most one event every
+     * minInterval seconds. Events arriving while the listener is cooling down are dropped for it.
+     *
+     * @param type        The type of events to listen to.
+     * @param listener    The listener to notify.
+     * @param minInterval The minimal time (in seconds) between two deliveries to this listener.
+     */
+    public void subscribe(WorldEventType type, WorldEventListener listener, float minInterval) {
+        subscriptions.computeIfAbsent(type, t -> new ArrayList<>())
+                .add(new Subscription(listener, minInterval));
+    }
+
+    /**
+     * Queues an event for the next dispatch. An identical event already queued this frame
+     * is not queued again.
+     *
+     * @param type    The type of the event.
+     * @param subject The object the event is about, may be null.
+     */
+    public void post(WorldEventType type, Object subject) {
+        pendingEvents.add(new WorldEvent(type, subject));
+    }
+
+    /**
+     * Delivers every event queued since the last dispatch. Events posted by listeners while
+     * dispatching are kept for the next dispatch.
+     *
+     * @param deltaTime Time elapsed since the last dispatch.
+     */
+    public void dispatch(float deltaTime) {
+        time += deltaTime;
+        if (pendingEvents.isEmpty()) {
+            return;
+        }
+
+        // Swap the queues so that listeners can post new events safely
+        Set<WorldEvent> events = pendingEvents;
+        pendingEvents = dispatchingEvents;
+        dispatchingEvents = events;
+
+        for (WorldEvent event : events) {
+            List<Subscription> listeners = subscriptions.get(event.getType());
+            if (listeners == null) {
+                continue;
+            }
+            for (Subscription subscription : listeners) {
+                subscription.deliver(event, time);
+            }
+        }
+        events.clear();
+    }
+
+    /**
+     * A listener together with its rate limit.
+     */
+    private static class Subscription {
+        private final WorldEventListener listener;
+        private final float minInterval;
+        private float lastDelivery = Float.NEGATIVE_INFINITY;
+
+        private Subscription(WorldEventListener listener, float minInterval) {
+            this.listener = listener;
+            this.minInterval = minInterval;
+        }
+
+        private void deliver(WorldEvent event, float time) {
+            if (time - lastDelivery < minInterval) {
+                return; // Still cooling down, drop the event for this listener
+            }
+            lastDelivery = time;
+            listener.onEvent(event);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package pepse.world.events;
+
+/**
+ * An interface for objects that react to world events dispatched by a {@link WorldEventBus}.
+ */
+@FunctionalInterface
+public interface WorldEventListener {
+    /**
+     * Called when an event the listener subscribed to is dispatched.
+     *
+     * @param event The dispatched event.
+     */
+    void onEvent(WorldEvent event);
+}
@@ -0,0 +1,23 @@
+package pepse.world.events;
+
+/**
+ * The kinds of world events that can be posted to a {@link WorldEventBus}.
+ */
+public enum WorldEventType {
+    /**
+     * The avatar performed a jump. The subject is the avatar.
+     */
+    JUMP,
+    /**
+     * A fruit was eaten. The subject is the eaten fruit.
+     */
+    FRUIT_EATEN,
+    /**
+     * A chunk of the world was loaded. The subject is the chunk index.
+     */
+    CHUNK_LOADED,
+    /**
+     * A chunk of the world was unloaded. The subject is the chunk index.
+     */
+    CHUNK_UNLOADED
+}
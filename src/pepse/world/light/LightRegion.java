@@ -0,0 +1,118 @@
+package pepse.world.light;
+
+import danogl.GameObject;
+import danogl.components.CoordinateSpace;
+import danogl.gui.rendering.Renderable;
+import danogl.util.Vector2;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * A vertical strip of the light grid: the light level of every cell in the strip, and the darkness
+ * texture drawn over it. The texture has one pixel per cell and is stretched over the strip when
+ * rendered, so it is only written when the light of a cell changes.
+ */
+public class LightRegion implements Renderable {
+    private static final int OPAQUE_ALPHA = 255; // Alpha of a cell receiving no light
+
+    private final int firstColumn;
+    private final int firstRow;
+    private final int columns;
+    private final int rows;
+    private final byte[] levels;
+    private final BufferedImage darkness;
+    private final GameObject overlay;
+
+    /**
+     * Constructs a fully dark region.
+     *
+     * @param firstColumn The world column of the region's left cell.
+     * @param firstRow    The world row of the region's top cell.
+     * @param columns     The number of columns of the region.
+     * @param rows        The number of rows of the region.
+     * @param cellSize    The size (in pixels) of a cell.
+     */
+    public LightRegion(int firstColumn, int firstRow, int columns, int rows, int cellSize) {
+        this.firstColumn = firstColumn;
+        this.firstRow = firstRow;
+        this.columns = columns;
+        this.rows = rows;
+        this.levels = new byte[columns * rows];
+        this.darkness = new BufferedImage(columns, rows, BufferedImage.TYPE_INT_ARGB);
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                darkness.setRGB(column, row, OPAQUE_ALPHA << 24);
+            }
+        }
+        this.overlay = new GameObject(
+                new Vector2(firstColumn * cellSize, firstRow * cellSize),
+                new Vector2(columns * cellSize, rows * cellSize),
+                this
+        );
+        overlay.setCoordinateSpace(CoordinateSpace.WORLD_COORDINATES);
+    }
+
+    /**
+     * Gets the object through which the darkness of the region is drawn.
+     *
+     * @return The overlay of the region.
+     */
+    public GameObject getOverlay() {
+        return overlay;
+    }
+
+    /**
+     * Gets the world column of the region's left cell.
+     *
+     * @return The first column of the region.
+     */
+    public int getFirstColumn() {
+        return firstColumn;
+    }
+
+    /**
+     * Gets the light level of a cell.
+     *
+     * @param column The world column of the cell.
+     * @param row    The world row of the cell.
+     * @return The light level of the cell.
+     */
+    public int getLevel(int column, int row) {
+        return levels[(row - firstRow) * columns + column - firstColumn];
+    }
+
+    /**
+     * Sets the light level of a cell and updates its pixel of the darkness texture.
+     *
+     * @param column The world column of the cell.
+     * @param row    The world row of the cell.
+     * @param level  The light level, from 0 to {@link Lightmap#MAX_LIGHT}.
+     */
+    public void setLevel(int column, int row, int level) {
+        int index = (row - firstRow) * columns + column - firstColumn;
+        if (levels[index] == level) {
+            return;
+        }
+        levels[index] = (byte) level;
+        int alpha = OPAQUE_ALPHA * (Lightmap.MAX_LIGHT - level) / Lightmap.MAX_LIGHT;
+        darkness.setRGB(column - firstColumn, row - firstRow, alpha << 24);
+    }
+
+    /**
+     * Draws the darkness texture over the region, faded by the darkness of the night.
+     */
+    @Override
+    public void render(Graphics2D g, Vector2 topLeftCorner, Vector2 dimensions,
+                       double degreesCounterClockwise, boolean isFlippedHorizontally,
+                       boolean isFlippedVertically, double opaqueness) {
+        if (opaqueness <= 0) {
+            return; // Daylight, nothing to darken
+        }
+        Composite composite = g.getComposite();
+        g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, (float) opaqueness));
+        g.drawImage(darkness, Math.round(topLeftCorner.x()), Math.round(topLeftCorner.y()),
+                Math.round(dimensions.x()), Math.round(dimensions.y()), null);
+        g.setComposite(composite);
+    }
+}
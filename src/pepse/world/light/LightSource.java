@@ -0,0 +1,23 @@
+package pepse.world.light;
+
+import danogl.util.Vector2;
+
+/**
+ * An object emitting light into the {@link Lightmap}. The lightmap reads the source's center and
+ * light level every step, and relights its surroundings only when one of them changes.
+ */
+public interface LightSource {
+    /**
+     * Gets the center of the light source in world coordinates.
+     *
+     * @return The center of the light source.
+     */
+    Vector2 getCenter();
+
+    /**
+     * Gets how strong the light emitted by the source is.
+     *
+     * @return The light level, from 0 (no light) to {@link Lightmap#MAX_LIGHT}.
+     */
+    int getLightLevel();
+}
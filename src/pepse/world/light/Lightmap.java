@@ -0,0 +1,369 @@
+package pepse.world.light;
+
+import danogl.collisions.GameObjectCollection;
+import danogl.collisions.Layer;
+import danogl.util.Vector2;
+import pepse.world.Block;
+import pepse.world.Terrain;
+import pepse.world.ViewBounds;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lights the world at night with a low resolution grid of light levels, one cell per block.
+ * Light spreads from every {@link LightSource} with a flood fill, losing a level per cell of air and
+ * more per cell of ground. The grid is split into vertical regions around the view, each drawing its
+ * darkness as a single texture faded by the darkness of the night.
+ * Light is recomputed incrementally: only the cells reached by a source that moved, changed level,
+ * appeared or disappeared are relit, and only their pixels of the textures are written, so lighting
+ * costs nothing while nothing changes, and allocates nothing while the view stays over the same
+ * regions.
+ */
+public class Lightmap {
+    /**
+     * The strongest light level.
+     */
+    public static final int MAX_LIGHT = 15;
+
+    private static final int CELL_SIZE = Block.SIZE; // Size (in pixels) of a cell of the grid
+    private static final int REGION_COLUMNS = 32; // Number of columns of a region
+    private static final int AIR_FALLOFF = 1; // Light lost when crossing a cell of air
+    private static final int GROUND_FALLOFF = 4; // Light lost when crossing a cell of ground
+    private static final int MAX_REACH = (MAX_LIGHT - 1) / AIR_FALLOFF; // Farthest cell a source lights
+    private static final int MAX_BOX_SIDE = 2 * MAX_REACH + 1; // Side of the box lit by a source
+    private static final int LAYER = Layer.FOREGROUND; // Layer of the darkness, over the world
+
+    private final GameObjectCollection gameObjects;
+    private final Terrain terrain;
+    private final ViewBounds view;
+    private final int firstRow; // Top row of the grid
+    private final int rows; // Number of rows of the grid
+    private final Map<Integer, LightRegion> regions = new HashMap<>(); // Regions by index
+    private final Map<LightSource, TrackedSource> sources = new HashMap<>();
+    private final List<TrackedSource> trackedSources = new ArrayList<>(); // The sources, in any order
+    private int firstLoadedRegion = 0; // Range of regions loaded around the view
+    private int lastLoadedRegion = -1;
+
+    // Cell rectangles to relight, as (min column, min row, max column, max row)
+    private int[] dirtyRectangles = new int[64];
+    private int dirtyCount = 0;
+
+    // Scratch buffers of the flood fill, reused by every relight
+    private final byte[] boxLevels = new byte[MAX_BOX_SIDE * MAX_BOX_SIDE];
+    private final boolean[] isQueued = new boolean[MAX_BOX_SIDE * MAX_BOX_SIDE];
+    private final int[] queue = new int[MAX_BOX_SIDE * MAX_BOX_SIDE];
+    private final int[] surfaceRows = new int[MAX_BOX_SIDE];
+    private byte[] rectangleLevels = new byte[MAX_BOX_SIDE * MAX_BOX_SIDE];
+
+    private float ambientDarkness = 0;
+
+    /**
+     * Constructs an empty lightmap.
+     *
+     * @param gameObjects      The collection to which the darkness of the regions is added.
+     * @param terrain          The terrain, through which light spreads poorly.
+     * @param view             The region around the camera that is kept lit.
+     * @param windowDimensions The dimensions of the game window, setting the height of the grid.
+     */
+    public Lightmap(GameObjectCollection gameObjects, Terrain terrain, ViewBounds view,
+                    Vector2 windowDimensions) {
+        this.gameObjects = gameObjects;
+        this.terrain = terrain;
+        this.view = view;
+        // The grid spans from a window above the top of the window to a window below its bottom
+        this.firstRow = (int) Math.floor(-windowDimensions.y() / CELL_SIZE);
+        this.rows = (int) Math.ceil(3 * windowDimensions.y() / CELL_SIZE);
+    }
+
+    /**
+     * Adds a light source. Its light appears on the next update.
+     *
+     * @param source The light source.
+     */
+    public void addSource(LightSource source) {
+        if (sources.containsKey(source)) {
+            return;
+        }
+        TrackedSource tracked = new TrackedSource(source, trackedSources.size());
+        sources.put(source, tracked);
+        trackedSources.add(tracked);
+    }
+
+    /**
+     * Removes a light source. Its light disappears on the next update.
+     *
+     * @param source The light source.
+     */
+    public void removeSource(LightSource source) {
+        TrackedSource tracked = sources.remove(source);
+        if (tracked != null) {
+            // Move the last source into the freed slot
+            TrackedSource last = trackedSources.remove(trackedSources.size() - 1);
+            if (last != tracked) {
+                trackedSources.set(tracked.slot, last);
+                last.slot = tracked.slot;
+            }
+            markDirty(tracked);
+        }
+    }
+
+    /**
+     * Keeps the regions around the view, relights the cells affected by changed sources and fades
+     * the darkness with the night.
+     *
+     * @param ambientDarkness The opacity of the darkness over unlit cells.
+     */
+    public void update(float ambientDarkness) {
+        updateRegions();
+        for (int i = 0; i < trackedSources.size(); i++) {
+            TrackedSource tracked = trackedSources.get(i);
+            Vector2 center = tracked.source.getCenter();
+            int column = columnOf(center.x());
+            int row = rowOf(center.y());
+            int level = Math.min(tracked.source.getLightLevel(), MAX_LIGHT);
+            if (level == tracked.level && (level == 0 || (column == tracked.column && row == tracked.row))) {
+                continue; // Unchanged, its light is already in the grid
+            }
+            markDirty(tracked); // Where its light was
+            tracked.column = column;
+            tracked.row = row;
+            tracked.level = level;
+            markDirty(tracked); // Where its light is now
+        }
+        for (int i = 0; i < dirtyCount; i += 4) {
+            relight(dirtyRectangles[i], dirtyRectangles[i + 1], dirtyRectangles[i + 2], dirtyRectangles[i + 3]);
+        }
+        dirtyCount = 0;
+        setAmbientDarkness(ambientDarkness);
+    }
+
+    /**
+     * Creates the regions entering the view and removes the regions leaving it.
+     */
+    private void updateRegions() {
+        int firstRegion = Math.floorDiv(columnOf(view.minX()), REGION_COLUMNS);
+        int lastRegion = Math.floorDiv(columnOf(view.maxX()), REGION_COLUMNS);
+        if (firstRegion == firstLoadedRegion && lastRegion == lastLoadedRegion) {
+            return; // The view is still over the same regions
+        }
+        firstLoadedRegion = firstRegion;
+        lastLoadedRegion = lastRegion;
+
+        regions.values().removeIf(region -> {
+            int index = Math.floorDiv(region.getFirstColumn(), REGION_COLUMNS);
+            if (index >= firstRegion && index <= lastRegion) {
+                return false;
+            }
+            gameObjects.removeGameObject(region.getOverlay(), LAYER);
+            return true;
+        });
+
+        for (int index = firstRegion; index <= lastRegion; index++) {
+            if (regions.containsKey(index)) {
+                continue;
+            }
+            int firstColumn = index * REGION_COLUMNS;
+            LightRegion region = new LightRegion(firstColumn, firstRow, REGION_COLUMNS, rows, CELL_SIZE);
+            region.getOverlay().renderer().setOpaqueness(ambientDarkness);
+            gameObjects.addGameObject(region.getOverlay(), LAYER);
+            regions.put(index, region);
+            addDirtyRectangle(firstColumn, firstRow, firstColumn + REGION_COLUMNS - 1, firstRow + rows - 1);
+        }
+    }
+
+    /**
+     * Marks the cells lit by a source as needing to be relit.
+     *
+     * @param tracked The source, at the position and level it was last lit with.
+     */
+    private void markDirty(TrackedSource tracked) {
+        if (tracked.level == 0) {
+            return;
+        }
+        int reach = reachOf(tracked.level);
+        addDirtyRectangle(tracked.column - reach, tracked.row - reach, tracked.column + reach,
+                tracked.row + reach);
+    }
+
+    private void addDirtyRectangle(int minColumn, int minRow, int maxColumn, int maxRow) {
+        if (dirtyCount + 4 > dirtyRectangles.length) {
+            dirtyRectangles = Arrays.copyOf(dirtyRectangles, dirtyRectangles.length * 2);
+        }
+        dirtyRectangles[dirtyCount++] = minColumn;
+        dirtyRectangles[dirtyCount++] = minRow;
+        dirtyRectangles[dirtyCount++] = maxColumn;
+        dirtyRectangles[dirtyCount++] = maxRow;
+    }
+
+    /**
+     * Recomputes the light of the loaded cells of a rectangle from every source reaching it.
+     *
+     * @param minColumn The left column of the rectangle.
+     * @param minRow    The top row of the rectangle.
+     * @param maxColumn The right column of the rectangle.
+     * @param maxRow    The bottom row of the rectangle.
+     */
+    private void relight(int minColumn, int minRow, int maxColumn, int maxRow) {
+        minRow = Math.max(minRow, firstRow);
+        maxRow = Math.min(maxRow, firstRow + rows - 1);
+        if (minRow > maxRow) {
+            return;
+        }
+        int width = maxColumn - minColumn + 1;
+        int height = maxRow - minRow + 1;
+        if (rectangleLevels.length < width * height) {
+            rectangleLevels = new byte[width * height];
+        }
+        Arrays.fill(rectangleLevels, 0, width * height, (byte) 0);
+
+        for (int i = 0; i < trackedSources.size(); i++) {
+            TrackedSource tracked = trackedSources.get(i);
+            if (tracked.level == 0) {
+                continue;
+            }
+            int reach = reachOf(tracked.level);
+            if (tracked.column + reach < minColumn || tracked.column - reach > maxColumn
+                    || tracked.row + reach < minRow || tracked.row - reach > maxRow) {
+                continue; // Its light does not reach the rectangle
+            }
+            flood(tracked, minColumn, minRow, maxColumn, maxRow);
+        }
+
+        // Write the new light into the loaded regions
+        int firstRegion = Math.floorDiv(minColumn, REGION_COLUMNS);
+        int lastRegion = Math.floorDiv(maxColumn, REGION_COLUMNS);
+        for (int index = firstRegion; index <= lastRegion; index++) {
+            LightRegion region = regions.get(index);
+            if (region == null) {
+                continue;
+            }
+            int fromColumn = Math.max(minColumn, region.getFirstColumn());
+            int toColumn = Math.min(maxColumn, region.getFirstColumn() + REGION_COLUMNS - 1);
+            for (int row = minRow; row <= maxRow; row++) {
+                for (int column = fromColumn; column <= toColumn; column++) {
+                    region.setLevel(column, row,
+                            rectangleLevels[(row - minRow) * width + column - minColumn]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Spreads the light of a source over the box it can reach, and keeps the brightest light of
+     * every cell of the rectangle being relit.
+     *
+     * @param tracked   The source.
+     * @param minColumn The left column of the rectangle being relit.
+     * @param minRow    The top row of the rectangle being relit.
+     * @param maxColumn The right column of the rectangle being relit.
+     * @param maxRow    The bottom row of the rectangle being relit.
+     */
+    private void flood(TrackedSource tracked, int minColumn, int minRow, int maxColumn, int maxRow) {
+        int reach = reachOf(tracked.level);
+        int side = 2 * reach + 1;
+        int boxColumn = tracked.column - reach;
+        int boxRow = tracked.row - reach;
+        for (int x = 0; x < side; x++) {
+            surfaceRows[x] = rowOf(terrain.surfaceHeightAt((boxColumn + x) * CELL_SIZE));
+        }
+        Arrays.fill(boxLevels, 0, side * side, (byte) 0);
+
+        // Breadth first spread; a cell is queued again only when it receives brighter light
+        int start = reach * side + reach;
+        boxLevels[start] = (byte) tracked.level;
+        queue[0] = start;
+        isQueued[start] = true;
+        int head = 0;
+        int count = 1;
+        while (count > 0) {
+            int cell = queue[head];
+            head = (head + 1) % queue.length;
+            count--;
+            isQueued[cell] = false;
+            int level = boxLevels[cell];
+            if (level <= AIR_FALLOFF) {
+                continue; // Too weak to light a neighbor
+            }
+            int x = cell % side;
+            int y = cell / side;
+            for (int direction = 0; direction < 4; direction++) {
+                int neighborX = x + (direction == 0 ? 1 : direction == 1 ? -1 : 0);
+                int neighborY = y + (direction == 2 ? 1 : direction == 3 ? -1 : 0);
+                if (neighborX < 0 || neighborX >= side || neighborY < 0 || neighborY >= side) {
+                    continue;
+                }
+                boolean isGround = boxRow + neighborY >= surfaceRows[neighborX];
+                int neighborLevel = level - (isGround ? GROUND_FALLOFF : AIR_FALLOFF);
+                int neighbor = neighborY * side + neighborX;
+                if (neighborLevel > boxLevels[neighbor]) {
+                    boxLevels[neighbor] = (byte) neighborLevel;
+                    if (!isQueued[neighbor]) {
+                        queue[(head + count) % queue.length] = neighbor;
+                        isQueued[neighbor] = true;
+                        count++;
+                    }
+                }
+            }
+        }
+
+        // Keep the brightest light of the cells inside the rectangle
+        int width = maxColumn - minColumn + 1;
+        int fromX = Math.max(0, minColumn - boxColumn);
+        int toX = Math.min(side - 1, maxColumn - boxColumn);
+        int fromY = Math.max(0, minRow - boxRow);
+        int toY = Math.min(side - 1, maxRow - boxRow);
+        for (int y = fromY; y <= toY; y++) {
+            for (int x = fromX; x <= toX; x++) {
+                int index = (boxRow + y - minRow) * width + boxColumn + x - minColumn;
+                rectangleLevels[index] = (byte) Math.max(rectangleLevels[index], boxLevels[y * side + x]);
+            }
+        }
+    }
+
+    /**
+     * Fades the darkness of every region.
+     *
+     * @param darkness The opacity of the darkness over unlit cells.
+     */
+    private void setAmbientDarkness(float darkness) {
+        if (darkness == ambientDarkness) {
+            return;
+        }
+        ambientDarkness = darkness;
+        for (LightRegion region : regions.values()) {
+            region.getOverlay().renderer().setOpaqueness(darkness);
+        }
+    }
+
+    private static int reachOf(int level) {
+        return (level - 1) / AIR_FALLOFF;
+    }
+
+    private static int columnOf(float x) {
+        return (int) Math.floor(x / CELL_SIZE);
+    }
+
+    private static int rowOf(float y) {
+        return (int) Math.floor(y / CELL_SIZE);
+    }
+
+    /**
+     * A light source with the position and level its light was last spread with.
+     */
+    private static class TrackedSource {
+        private final LightSource source;
+        private int slot; // Index of the source in the list of tracked sources
+        private int column;
+        private int row;
+        private int level = 0; // Not lit yet
+
+        private TrackedSource(LightSource source, int slot) {
+            this.source = source;
+            this.slot = slot;
+        }
+    }
+}
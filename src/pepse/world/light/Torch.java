@@ -0,0 +1,62 @@
+package pepse.world.light;
+
+import danogl.GameObject;
+import danogl.gui.rendering.Renderable;
+import danogl.util.Vector2;
+import pepse.world.Block;
+import pepse.world.Terrain;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A torch standing on the terrain and lighting its surroundings at night.
+ */
+public class Torch extends GameObject implements LightSource {
+    private static final Vector2 TORCH_SIZE = new Vector2(Block.SIZE, Block.SIZE * 0.92f); // Size of a
+    // torch, following the proportions of its image
+    private static final int TORCH_SPACING = 12 * Block.SIZE; // Horizontal distance between two torches
+    private static final int LIGHT_LEVEL = 14; // Light emitted by a torch
+    private static final String TORCH_TAG = "torch"; // Tag to identify torches
+
+    /**
+     * Constructs a torch.
+     *
+     * @param topLeftCorner The top-left corner of the torch.
+     * @param renderable    The image of the torch.
+     */
+    public Torch(Vector2 topLeftCorner, Renderable renderable) {
+        super(topLeftCorner, TORCH_SIZE, renderable);
+        setTag(TORCH_TAG);
+    }
+
+    /**
+     * Creates the torches standing on the terrain within a specified X range, one every few blocks
+     * at fixed world positions, so a range always gets the same torches.
+     *
+     * @param terrain    The terrain the torches stand on.
+     * @param minX       The minimum X coordinate (inclusive).
+     * @param maxX       The maximum X coordinate (exclusive).
+     * @param renderable The image shared by the torches.
+     * @return The torches created within the range.
+     */
+    public static List<Torch> createInRange(Terrain terrain, int minX, int maxX, Renderable renderable) {
+        List<Torch> torches = new ArrayList<>();
+        int firstX = Math.floorDiv(minX + TORCH_SPACING - 1, TORCH_SPACING) * TORCH_SPACING;
+        for (int x = firstX; x < maxX; x += TORCH_SPACING) {
+            Vector2 position = new Vector2(x, terrain.surfaceHeightAt(x) - TORCH_SIZE.y());
+            torches.add(new Torch(position, renderable));
+        }
+        return torches;
+    }
+
+    /**
+     * Gets the light emitted by the torch.
+     *
+     * @return The light level of the torch.
+     */
+    @Override
+    public int getLightLevel() {
+        return LIGHT_LEVEL;
+    }
+}
@@ -1,149 +1,304 @@
 package pepse.world.trees;
 
 import danogl.GameObject;
-import danogl.collisions.GameObjectCollection;
 import danogl.collisions.Layer;
 import danogl.util.Vector2;
+import pepse.profile.GenerationProbe;
+import pepse.quality.QualitySettings;
+import pepse.util.LongMap;
+import pepse.util.PositionHash;
 import pepse.world.Block;
 import pepse.world.Terrain;
+import pepse.world.WorldIndex;
+import pepse.world.events.WorldEvent;
+import pepse.world.events.WorldEventBus;
+import pepse.world.events.WorldEventType;
+import pepse.world.light.LightSource;
+import pepse.world.light.Lightmap;
 
 import java.util.*;
 
 /**
  * Responsible for managing the generation and removal of trees, flowers, and other flora
- * in the game world. Handles flora generation within a specified range and ensures objects
- * outside the visible range are removed to optimize performance.
+ * in the game world. Flora is generated and removed chunk by chunk, following the chunk
+ * loaded and unloaded events of the world. Where trees grow and how tall they are is decided by a
+ * hash of their position, so a chunk always regrows the same trees, and tree placement can be read
+ * anywhere without generating the trees.
+ * The generation and removal of every chunk, and the creation of every tree, are instrumented
+ * through the {@link GenerationProbe} of the world.
+ * A chunk loaded again regrows its fruits uneaten, so the fruits whose {@link FruitRegrowth} is still
+ * pending are hidden as the chunk is generated.
  */
 public class Flora {
     private static final int BASE_TRUNK_HEIGHT = 5; // Base height of a tree trunk
     private static final int TRUNK_HEIGHT_VARIATION = 2; // Maximum variation in tree trunk height
     private static final Vector2 TREE_PART_SIZE = new Vector2(20, 20); // Size of tree parts
     // (trunk, leaves)
-    private static final int LEFT_OFFSET = 100; // Left offset for the visible range
-    private static final int RIGHT_OFFSET = 100; // Right offset for the visible range
+    private static final int TRUNK_LAYER = Layer.STATIC_OBJECTS - 1; // Layer of the trunks near the avatar
+    private static final int INERT_TRUNK_LAYER = Layer.STATIC_OBJECTS - 2; // Layer of the other trunks
+    private static final int LEAF_LAYER = Layer.STATIC_OBJECTS + 1; // Layer of the leaves
+    private static final int FRUIT_LAYER = Layer.STATIC_OBJECTS + 2; // Layer of the fruits near the avatar
+    private static final int INERT_FRUIT_LAYER = Layer.STATIC_OBJECTS + 3; // Layer of the other fruits
 
     private final Terrain terrain;
-    private final Random random;
-    private final List<GameObject> managedObjects;
-    private final GameObjectCollection gameObjects;
-    private final float treeProbability;
+    private final int placementSeed; // Seed of the tree placement hash
+    private final WorldIndex worldIndex;
+    private final LeafSway leafSway;
+    private final Lightmap lightmap;
+    private final WorldEventBus eventBus; // Bus of the chunk events, on which fruits are announced
+    private final GenerationProbe probe;
+    private final FruitRegrowth fruitRegrowth; // Eaten fruits, hidden again when their chunk regrows
+    private final QualitySettings quality; // Number of leaves of the trees
+    private float treeProbability;
     private final int chunkSize;
-    private final Set<Integer> generatedChunks;
+    private final Map<Integer, List<GameObject>> managedObjects; // Objects of every generated chunk
+    private final LongMap<Fruit> fruits = new LongMap<>(); // Fruits of the loaded chunks, by key
 
     /**
      * Constructs a Flora instance to manage the generation and removal of trees and related objects.
      *
      * @param terrain The terrain object used to determine ground height for tree placement.
-     * @param gameObjects The collection of game objects to manage.
-     * @param random A random object for generating tree placement and properties.
+     * @param worldIndex The index through which tree parts are added to the game world.
+     * @param random A random object from which the seed of the tree placement is drawn.
      * @param treeProbability The probability of a tree being generated at any given x-coordinate.
      * @param chunkSize The size of each chunk for flora generation.
+     * @param leafSway The system animating the leaves of the generated trees.
+     * @param lightmap The lightmap in which the fruits glow.
+     * @param eventBus The world event bus, on which the fruits announce they were eaten.
+     * @param probe The probe instrumenting the generation of the world.
+     * @param fruitRegrowth The regrowth of the eaten fruits, which stay eaten in regenerated chunks.
+     * @param quality The quality settings of the world, which set the detail of the trees.
      */
-    public Flora(Terrain terrain, GameObjectCollection gameObjects, Random random, float treeProbability,
-                 int chunkSize) {
+    public Flora(Terrain terrain, WorldIndex worldIndex, Random random, float treeProbability,
+                 int chunkSize, LeafSway leafSway, Lightmap lightmap, WorldEventBus eventBus,
+                 GenerationProbe probe, FruitRegrowth fruitRegrowth, QualitySettings quality) {
         this.terrain = terrain;
-        this.random = random;
-        this.gameObjects = gameObjects;
+        this.placementSeed = random.nextInt();
+        this.worldIndex = worldIndex;
+        this.leafSway = leafSway;
+        this.lightmap = lightmap;
+        this.eventBus = eventBus;
+        this.probe = probe;
+        this.fruitRegrowth = fruitRegrowth;
+        this.quality = quality;
         this.treeProbability = treeProbability;
         this.chunkSize = chunkSize;
-        this.managedObjects = new ArrayList<>();
-        this.generatedChunks = new HashSet<>();
+        this.managedObjects = new HashMap<>();
     }
 
     /**
-     * Generates trees and flowers within the specified range.
+     * Subscribes the flora to the chunk events of the world, so that trees are generated with
+     * every loaded chunk and removed with every unloaded one.
+     */
+    public void subscribeToChunks() {
+        eventBus.subscribe(WorldEventType.CHUNK_LOADED, this::onChunkLoaded);
+        eventBus.subscribe(WorldEventType.CHUNK_UNLOADED, this::onChunkUnloaded);
+    }
+
+    /**
+     * Generates trees and flowers for every chunk overlapping the specified range.
      *
-     * @param minX The minimum visible x-coordinate.
-     * @param maxX The maximum visible x-coordinate.
+     * @param minX The minimum x-coordinate (inclusive).
+     * @param maxX The maximum x-coordinate (exclusive).
      */
     public void generateInRange(int minX, int maxX) {
-        int startChunk = minX / chunkSize;
-        int endChunk = maxX / chunkSize;
+        int startChunk = Math.floorDiv(minX, chunkSize);
+        int endChunk = Math.floorDiv(maxX - 1, chunkSize);
 
         for (int chunk = startChunk; chunk <= endChunk; chunk++) {
-            if (generatedChunks.contains(chunk)) {
-                continue;
+            if (!managedObjects.containsKey(chunk)) {
+                generateChunk(chunk);
             }
+        }
+    }
 
-            int chunkMinX = chunk * chunkSize;
-            int chunkMaxX = (chunk + 1) * chunkSize;
-            for (int x = chunkMinX; x < chunkMaxX; x += Block.SIZE) {
-                if (random.nextFloat() < treeProbability) {
-                    float groundHeight = terrain.groundHeightAt(x);
-                    Vector2 position = new Vector2(x, groundHeight - Block.SIZE);
-                    float trunkHeight = BASE_TRUNK_HEIGHT + random.nextInt(TRUNK_HEIGHT_VARIATION);
-                    // Random trunk height
-                    GameObject[][] treeParts = Tree.create(position, trunkHeight, TREE_PART_SIZE);
-
-                    // Add tree trunks to the game world
-                    for (GameObject trunk : treeParts[0]) {
-                        if (trunk != null) {
-                            gameObjects.addGameObject(trunk, Layer.STATIC_OBJECTS - 1);
-                            managedObjects.add(trunk);
-                        }
-                    }
-
-                    // Add tree leaves to the game world
-                    for (GameObject leaf : treeParts[1]) {
-                        if (leaf != null) {
-                            gameObjects.addGameObject(leaf, Layer.STATIC_OBJECTS + 1);
-                            managedObjects.add(leaf);
-                        }
-                    }
-
-                    // Add fruits to the game world
-                    for (GameObject fruit : treeParts[2]) {
-                        if (fruit != null) {
-                            gameObjects.addGameObject(fruit, Layer.STATIC_OBJECTS + 2);
-                            managedObjects.add(fruit);
-                        }
-                    }
+    /**
+     * Regrows the trees of every loaded chunk, so that they take the current leaf count of the quality
+     * settings. The trees grow back identical but for their leaves, and the eaten fruits stay eaten.
+     */
+    public void regrowTrees() {
+        List<Long> eatenFruits = new ArrayList<>(); // With those eaten this frame, not yet scheduled
+        for (int chunk : new ArrayList<>(managedObjects.keySet())) {
+            for (GameObject obj : managedObjects.get(chunk)) {
+                if (obj instanceof Fruit fruit && fruit.isEaten()) {
+                    eatenFruits.add(fruit.getKey());
                 }
             }
-            generatedChunks.add(chunk);
+            removeChunk(chunk);
+            generateChunk(chunk);
+        }
+        for (long key : eatenFruits) {
+            Fruit fruit = fruits.get(key);
+            if (fruit != null) {
+                fruit.hide();
+            }
         }
     }
 
     /**
-     * Removes objects that are outside the visible range.
+     * Checks whether a tree grows on the terrain column starting at a given x-coordinate. The answer
+     * is the same whether or not the column's chunk is loaded.
      *
-     * @param minX The minimum visible x-coordinate.
-     * @param maxX The maximum visible x-coordinate.
+     * @param x The x-coordinate of the left edge of a terrain column.
+     * @return True if a tree grows on the column, false otherwise.
      */
-    private void removeOutOfRangeChunks(int minX, int maxX) {
-        List<GameObject> toRemove = new ArrayList<>();
-        for (GameObject obj : managedObjects) {
-            float objX = obj.getCenter().x();
-
-            // Remove only if the object is outside the visible range
-            if (objX < minX || objX > maxX) {
-                toRemove.add(obj);
+    public boolean hasTreeAt(int x) {
+        int hash = PositionHash.hash(x, 0, placementSeed);
+        float roll = (hash >>> 8) / (float) (1 << 24); // Uniform in [0, 1)
+        return roll < treeProbability;
+    }
+
+    /**
+     * Gets the probability of a tree growing on a terrain column.
+     *
+     * @return The probability of a tree at any given x-coordinate.
+     */
+    public float getTreeProbability() {
+        return treeProbability;
+    }
+
+    /**
+     * Sets the probability of a tree growing on a terrain column. Chunks generated from now on grow
+     * their trees accordingly, the loaded ones keep theirs.
+     *
+     * @param treeProbability The probability of a tree at any given x-coordinate.
+     */
+    public void setTreeProbability(float treeProbability) {
+        this.treeProbability = treeProbability;
+    }
+
+    /**
+     * Counts the objects generated for the loaded chunks.
+     *
+     * @return The number of trunk blocks, leaves and fruits managed by the flora.
+     */
+    public int objectCount() {
+        int count = 0;
+        for (List<GameObject> chunkObjects : managedObjects.values()) {
+            count += chunkObjects.size();
+        }
+        return count;
+    }
+
+    /**
+     * Finds a fruit of the loaded chunks. Trees regrow the same fruits with their chunk, so a fruit
+     * is identified by its tree and its index in the tree, see {@link Tree#fruitKey}.
+     *
+     * @param key The key of the fruit.
+     * @return The fruit, or null if it does not grow in a loaded chunk.
+     */
+    public Fruit getFruit(long key) {
+        return fruits.get(key);
+    }
+
+    /**
+     * Removes every object generated for the given chunk.
+     *
+     * @param chunk The index of the chunk to remove.
+     */
+    public void removeChunk(int chunk) {
+        List<GameObject> chunkObjects = managedObjects.remove(chunk);
+        if (chunkObjects == null) {
+            return;
+        }
+        probe.beginFloraRemoval();
+        for (GameObject obj : chunkObjects) {
+            worldIndex.remove(obj);
+            leafSway.remove(obj);
+            if (obj instanceof LightSource source) {
+                lightmap.removeSource(source);
+            }
+            if (obj instanceof Fruit fruit) {
+                fruits.remove(fruit.getKey());
             }
         }
+        probe.endFloraRemoval(chunk);
+    }
+
+    /**
+     * Generates the trees of a single chunk.
+     *
+     * @param chunk The index of the chunk to generate.
+     */
+    private void generateChunk(int chunk) {
+        probe.beginFlora();
+        int treeCount = 0;
+        List<GameObject> chunkObjects = new ArrayList<>();
+        int chunkMinX = chunk * chunkSize;
+        int chunkMaxX = (chunk + 1) * chunkSize;
+        for (int x = chunkMinX; x < chunkMaxX; x += Block.SIZE) {
+            if (hasTreeAt(x)) {
+                float groundHeight = terrain.groundHeightAt(x);
+                Vector2 position = new Vector2(x, groundHeight - Block.SIZE);
+                float trunkHeight = BASE_TRUNK_HEIGHT + Math.floorMod(
+                        PositionHash.hash(x, 0, placementSeed + 1), TRUNK_HEIGHT_VARIATION);
+                // Trunk height picked by position
+                probe.beginTree();
+                GameObject[][] treeParts = Tree.create(position, trunkHeight, TREE_PART_SIZE,
+                        quality.getLeafCount(), leafSway, eventBus);
+                probe.endTree(position.x(), position.y(), treeParts[0].length, treeParts[1].length,
+                        treeParts[2].length);
 
-        for (GameObject obj : toRemove) {
-            gameObjects.removeGameObject(obj);
-            managedObjects.remove(obj);
+                addParts(treeParts[0], TRUNK_LAYER, INERT_TRUNK_LAYER, chunkObjects); // Tree trunks
+                addParts(treeParts[1], LEAF_LAYER, LEAF_LAYER, chunkObjects); // Tree leaves
+                addParts(treeParts[2], FRUIT_LAYER, INERT_FRUIT_LAYER, chunkObjects); // Fruits
+                for (GameObject part : treeParts[2]) {
+                    if (part instanceof Fruit fruit) {
+                        lightmap.addSource(fruit); // Fruits glow at night
+                        fruits.put(fruit.getKey(), fruit);
+                    }
+                }
+                treeCount++;
+            }
         }
+        hideEatenFruits(chunkMinX, chunkMaxX);
+        managedObjects.put(chunk, chunkObjects);
+        probe.endFlora(chunk, treeCount, chunkObjects.size());
+    }
 
-        // Clean up out-of-range chunks from the generated set
-        generatedChunks.removeIf(chunk -> {
-            int chunkMinX = chunk * chunkSize;
-            int chunkMaxX = (chunk + 1) * chunkSize;
-            return chunkMaxX < minX || chunkMinX > maxX;
-        });
+    /**
+     * Hides the fruits of a chunk just generated that were eaten before the chunk was unloaded, and
+     * are not due to reappear yet.
+     *
+     * @param chunkMinX The minimum x-coordinate of the chunk (inclusive).
+     * @param chunkMaxX The maximum x-coordinate of the chunk (exclusive).
+     */
+    private void hideEatenFruits(int chunkMinX, int chunkMaxX) {
+        for (int i = 0; i < fruitRegrowth.pendingCount(); i++) {
+            long key = fruitRegrowth.getPendingKey(i);
+            int treeX = Tree.treeXOf(key);
+            if (treeX >= chunkMinX && treeX < chunkMaxX) {
+                Fruit fruit = fruits.get(key);
+                if (fruit != null) { // The tree may no longer grow there after a density change
+                    fruit.hide();
+                }
+            }
+        }
     }
 
     /**
-     * Updates the visible objects based on the avatar's current position.
+     * Adds tree parts to the game world and remembers them as part of their chunk.
      *
-     * @param avatarX The current x-coordinate of the avatar.
-     * @param windowWidth The width of the visible window.
+     * @param parts The tree parts to add.
+     * @param activeLayer The layer of the parts while the avatar is near them.
+     * @param inertLayer The layer of the parts otherwise.
+     * @param chunkObjects The objects of the chunk being generated.
      */
-    public void update(float avatarX, float windowWidth) {
-        int minX = (int) (avatarX - LEFT_OFFSET); // Left boundary of the visible range
-        int maxX = (int) (avatarX + windowWidth - RIGHT_OFFSET); // Right boundary of the visible range
-        removeOutOfRangeChunks(minX, maxX);
-        generateInRange(minX, maxX);
+    private void addParts(GameObject[] parts, int activeLayer, int inertLayer, List<GameObject> chunkObjects) {
+        for (GameObject part : parts) {
+            if (part != null) {
+                worldIndex.add(part, activeLayer, inertLayer);
+                chunkObjects.add(part);
+            }
+        }
+    }
+
+    private void onChunkLoaded(WorldEvent event) {
+        int chunk = (Integer) event.getSubject();
+        generateInRange(chunk * chunkSize, (chunk + 1) * chunkSize);
+    }
+
+    private void onChunkUnloaded(WorldEvent event) {
+        removeChunk((Integer) event.getSubject());
     }
 }
@@ -2,36 +2,56 @@ package pepse.world.trees;
 
 import danogl.GameObject;
 import danogl.gui.rendering.OvalRenderable;
+import danogl.gui.rendering.Renderable;
 import danogl.util.Vector2;
+import pepse.profile.jfr.FruitConsumedEvent;
+import pepse.profile.jfr.FruitRegrownEvent;
 import pepse.world.Avatar;
+import pepse.world.events.WorldEventBus;
+import pepse.world.events.WorldEventType;
+import pepse.world.light.LightSource;
 
 import java.awt.*;
-import java.util.Timer;
-import java.util.TimerTask;
 
 /**
  * Represents a fruit in the game. Fruits can be consumed by the avatar to gain energy
- * and will reappear after a defined period.
+ * and will reappear after a defined period. Fruits glow faintly at night until they are eaten.
  */
-public class Fruit extends GameObject {
+public class Fruit extends GameObject implements LightSource {
     private static final int ENERGY_GAIN = 10; // Energy gained by the avatar when consuming the fruit
-    private static final float REAPPEAR_TIME = 30f; // Time (in seconds) before the fruit reappears after
-    // being eaten
     private static final Color FRUIT_COLOR = new Color(255, 0, 0); // Color of the fruit
     private static final Vector2 FRUIT_SIZE = new Vector2(15, 15); // Size of the fruit
+    private static final int GLOW_LEVEL = 4; // Light emitted by an uneaten fruit
+    private static final Renderable FRUIT_RENDERABLE = new OvalRenderable(FRUIT_COLOR); // Shared by
+    // every fruit, which is hidden through its own renderer
 
+    private final long key; // Identifies the fruit, see Tree.fruitKey
+    private final WorldEventBus eventBus; // Bus on which the fruit announces it was eaten
     private boolean isEaten = false; // Indicates if the fruit has been eaten
 
     /**
      * Constructs a new fruit object.
      *
      * @param topLeftCorner The top-left corner position of the fruit.
+     * @param key           The key identifying the fruit, see {@link Tree#fruitKey}.
+     * @param eventBus      The world event bus on which the fruit announces it was eaten.
      */
-    public Fruit(Vector2 topLeftCorner) {
-        super(topLeftCorner, FRUIT_SIZE, new OvalRenderable(FRUIT_COLOR));
+    public Fruit(Vector2 topLeftCorner, long key, WorldEventBus eventBus) {
+        super(topLeftCorner, FRUIT_SIZE, FRUIT_RENDERABLE);
+        this.key = key;
+        this.eventBus = eventBus;
         setTag("fruit"); // Tag to identify fruit objects
     }
 
+    /**
+     * Gets the key identifying the fruit, the same in every game of the world whatever its quality.
+     *
+     * @return The key of the fruit.
+     */
+    public long getKey() {
+        return key;
+    }
+
     /**
      * Gets the amount of energy the fruit provides when consumed.
      *
@@ -41,6 +61,16 @@ public class Fruit extends GameObject {
         return ENERGY_GAIN;
     }
 
+    /**
+     * Gets the glow of the fruit, which goes out while the fruit is eaten.
+     *
+     * @return The light level of the fruit.
+     */
+    @Override
+    public int getLightLevel() {
+        return isEaten ? 0 : GLOW_LEVEL;
+    }
+
     /**
      * Handles collisions with other game objects.
      * If the collision is with the avatar, the fruit will be consumed and provide energy.
@@ -64,7 +94,7 @@ public class Fruit extends GameObject {
 
     /**
      * Consumes the fruit, making it invisible and temporarily disabling its functionality.
-     * The fruit will reappear after a specified time.
+     * The fruit will reappear once its regrowth is over.
      */
     public void eat() {
         if (isEaten) {
@@ -81,23 +111,47 @@ public class Fruit extends GameObject {
         isEaten = false;
         renderer().setOpaqueness(1); // Make the fruit visible
         setTag("fruit"); // Restore the tag to allow collisions
+
+        FruitRegrownEvent event = new FruitRegrownEvent();
+        if (event.isEnabled()) {
+            event.x = getTopLeftCorner().x();
+            event.y = getTopLeftCorner().y();
+            event.commit();
+        }
+    }
+
+    /**
+     * Checks whether the fruit has been eaten and did not reappear yet.
+     *
+     * @return True if the fruit is eaten, false otherwise.
+     */
+    public boolean isEaten() {
+        return isEaten;
     }
 
     /**
      * Handles the consumption of the fruit by setting it as eaten,
-     * making it invisible, and scheduling its reappearance.
+     * making it invisible, and announcing it so that its regrowth is scheduled.
      */
     private void consume() {
+        hide();
+        eventBus.post(WorldEventType.FRUIT_EATEN, this); // Regrowth is handled by the listeners
+
+        FruitConsumedEvent event = new FruitConsumedEvent();
+        if (event.isEnabled()) {
+            event.x = getTopLeftCorner().x();
+            event.y = getTopLeftCorner().y();
+            event.commit();
+        }
+    }
+
+    /**
+     * Sets the fruit as eaten, making it invisible and unable to collide, without announcing it.
+     * Used to restore an eaten fruit whose regrowth is already scheduled.
+     */
+    void hide() {
         isEaten = true;
         renderer().setOpaqueness(0); // Make the fruit invisible
         setTag(null); // Remove the tag to prevent further collisions
-
-        // Schedule the fruit to reappear after a delay
-        new Timer().schedule(new TimerTask() {
-            @Override
-            public void run() {
-                reappear(); // Restore the fruit after the delay
-            }
-        }, (long) (REAPPEAR_TIME * 1000)); // Convert reappear time to milliseconds
     }
 }
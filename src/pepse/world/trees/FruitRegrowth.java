@@ -0,0 +1,159 @@
+package pepse.world.trees;
+
+import pepse.util.ParallelSystem;
+import pepse.world.daynight.WorldClock;
+import pepse.world.events.WorldEvent;
+import pepse.world.events.WorldEventListener;
+
+import java.util.Arrays;
+import java.util.function.LongFunction;
+
+/**
+ * Makes eaten fruits reappear after a fixed delay.
+ * Listens to fruit eaten events and checks the due times against the world clock as a parallel
+ * system of the simulation stage, instead of starting a timer thread for every eaten fruit. Regrowth
+ * therefore follows the world time, including its scaling and pauses.
+ * <p>
+ * Eaten fruits are tracked by key rather than as objects, so that a regrowth outlives the chunk of its
+ * fruit: a chunk unloaded and loaded again grows new fruit objects, which {@link Flora} hides while
+ * their regrowth is pending. A fruit whose regrowth ends while its chunk is unloaded simply grows
+ * back with the chunk.
+ */
+public class FruitRegrowth implements WorldEventListener, ParallelSystem {
+    /**
+     * Time (in seconds of world time) before a fruit reappears after being eaten.
+     */
+    public static final float REAPPEAR_TIME = 30f;
+
+    private static final int INITIAL_CAPACITY = 64; // Initial number of fruits the arrays can hold
+
+    private final WorldClock worldClock;
+    private final LongFunction<Fruit> loadedFruits; // Finds a fruit of the loaded chunks by key
+    private long[] keys = new long[INITIAL_CAPACITY]; // Keys of the eaten fruits, see Tree.fruitKey
+    private float[] dueTimes = new float[INITIAL_CAPACITY]; // World time at which each fruit reappears
+    private boolean[] isDue = new boolean[INITIAL_CAPACITY]; // Fruits whose regrowth is over
+    private int size = 0;
+
+    /**
+     * Constructs a regrowth scheduler with no pending fruits.
+     *
+     * @param worldClock   The clock the regrowth delays are measured with.
+     * @param loadedFruits Finds a fruit of the loaded chunks by key, or returns null if its chunk is
+     *                     not loaded.
+     */
+    public FruitRegrowth(WorldClock worldClock, LongFunction<Fruit> loadedFruits) {
+        this.worldClock = worldClock;
+        this.loadedFruits = loadedFruits;
+    }
+
+    /**
+     * Schedules the regrowth of the eaten fruit carried by the event.
+     *
+     * @param event A fruit eaten event.
+     */
+    @Override
+    public void onEvent(WorldEvent event) {
+        if (event.getSubject() instanceof Fruit fruit) {
+            schedule(fruit.getKey(), worldClock.getElapsedTime() + REAPPEAR_TIME);
+        }
+    }
+
+    /**
+     * Restores an eaten fruit with the regrowth it had when it was saved: the fruit is hidden at once
+     * if its chunk is loaded, or when its chunk is generated otherwise, and reappears at the given
+     * world time.
+     *
+     * @param key     The key of the fruit, not eaten yet, see {@link Tree#fruitKey}.
+     * @param dueTime The world time at which the fruit reappears, in seconds.
+     */
+    public void restore(long key, float dueTime) {
+        Fruit fruit = loadedFruits.apply(key);
+        if (fruit != null) {
+            fruit.hide();
+        }
+        schedule(key, dueTime);
+    }
+
+    /**
+     * Adds an eaten fruit to the pending regrowths.
+     *
+     * @param key     The key of the eaten fruit.
+     * @param dueTime The world time at which the fruit reappears, in seconds.
+     */
+    private void schedule(long key, float dueTime) {
+        if (size == keys.length) {
+            int capacity = size * 2;
+            keys = Arrays.copyOf(keys, capacity);
+            dueTimes = Arrays.copyOf(dueTimes, capacity);
+            isDue = Arrays.copyOf(isDue, capacity);
+        }
+        keys[size] = key;
+        dueTimes[size] = dueTime;
+        isDue[size] = false;
+        size++;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void compute(int from, int to, float deltaTime) {
+        float time = worldClock.getElapsedTime();
+        for (int i = from; i < to; i++) {
+            isDue[i] = dueTimes[i] <= time;
+        }
+    }
+
+    /**
+     * Restores the loaded fruits whose delay is over, and forgets every fruit whose delay is over.
+     */
+    @Override
+    public void commit() {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (isDue[i]) {
+                Fruit fruit = loadedFruits.apply(keys[i]);
+                if (fruit != null) {
+                    fruit.reappear();
+                }
+                continue;
+            }
+            keys[kept] = keys[i];
+            dueTimes[kept] = dueTimes[i];
+            isDue[kept] = false;
+            kept++;
+        }
+        size = kept;
+    }
+
+    /**
+     * Gets the number of fruits waiting to reappear.
+     *
+     * @return The number of pending regrowths.
+     */
+    public int pendingCount() {
+        return size;
+    }
+
+    /**
+     * Gets the key of a fruit waiting to reappear, whether its chunk is loaded or not.
+     *
+     * @param index The index of the pending regrowth, below {@link #pendingCount()}.
+     * @return The key of the eaten fruit, see {@link Tree#fruitKey}.
+     */
+    public long getPendingKey(int index) {
+        return keys[index];
+    }
+
+    /**
+     * Gets the world time at which a fruit waiting to reappear is due.
+     *
+     * @param index The index of the pending regrowth, below {@link #pendingCount()}.
+     * @return The world time at which the fruit reappears, in seconds.
+     */
+    public float getDueTime(int index) {
+        return dueTimes[index];
+    }
+}
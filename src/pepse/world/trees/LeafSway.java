@@ -0,0 +1,112 @@
+package pepse.world.trees;
+
+import danogl.GameObject;
+import pepse.util.ParallelSystem;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Sways the leaves of every tree back and forth between two angles.
+ * Sway angles are computed in parallel from the leaves' own timers, and written to the leaves
+ * during the commit phase. The animation can be turned off, leaving the leaves still.
+ */
+public class LeafSway implements ParallelSystem {
+    private static final float LEAF_MOVEMENT_ANGLE = 15f; // Maximum angle for leaf movement
+    private static final int INITIAL_CAPACITY = 1024; // Initial number of leaves the arrays can hold
+
+    private final Map<GameObject, Integer> indices; // Index of every leaf in the arrays
+    private GameObject[] leaves = new GameObject[INITIAL_CAPACITY];
+    private float[] durations = new float[INITIAL_CAPACITY]; // Duration of a swing from side to side
+    private float[] times = new float[INITIAL_CAPACITY]; // Time elapsed in the current back and forth
+    private float[] angles = new float[INITIAL_CAPACITY];
+    private int size = 0;
+    private boolean isAnimated = true; // Indicates if the leaves are swaying
+
+    /**
+     * Constructs a sway system with no leaves.
+     */
+    public LeafSway() {
+        this.indices = new HashMap<>();
+    }
+
+    /**
+     * Starts swaying a leaf.
+     *
+     * @param leaf     The leaf to sway.
+     * @param duration The time (in seconds) the leaf takes to swing from one side to the other.
+     */
+    public void add(GameObject leaf, float duration) {
+        if (size == leaves.length) {
+            int capacity = size * 2;
+            leaves = Arrays.copyOf(leaves, capacity);
+            durations = Arrays.copyOf(durations, capacity);
+            times = Arrays.copyOf(times, capacity);
+            angles = Arrays.copyOf(angles, capacity);
+        }
+        leaves[size] = leaf;
+        durations[size] = duration;
+        times[size] = 0;
+        angles[size] = -LEAF_MOVEMENT_ANGLE;
+        indices.put(leaf, size);
+        size++;
+    }
+
+    /**
+     * Stops swaying a leaf, typically when it is removed from the world.
+     *
+     * @param leaf The leaf to forget.
+     */
+    public void remove(GameObject leaf) {
+        Integer index = indices.remove(leaf);
+        if (index == null) {
+            return;
+        }
+        // Move the last leaf into the freed slot to keep the arrays packed
+        size--;
+        if (index != size) {
+            leaves[index] = leaves[size];
+            durations[index] = durations[size];
+            times[index] = times[size];
+            angles[index] = angles[size];
+            indices.put(leaves[index], index);
+        }
+        leaves[size] = null;
+    }
+
+    /**
+     * Turns the animation of the leaves on or off. Leaves stop at their current angle.
+     *
+     * @param animated True to sway the leaves, false to leave them still.
+     */
+    public void setAnimated(boolean animated) {
+        this.isAnimated = animated;
+    }
+
+    @Override
+    public int size() {
+        return isAnimated ? size : 0; // Nothing to compute while still
+    }
+
+    @Override
+    public void compute(int from, int to, float deltaTime) {
+        for (int i = from; i < to; i++) {
+            float period = 2 * durations[i]; // There and back again
+            float time = (times[i] + deltaTime) % period;
+            times[i] = time;
+            float progress = time < durations[i] ? time / durations[i] : 2 - time / durations[i];
+            angles[i] = -LEAF_MOVEMENT_ANGLE + 2 * LEAF_MOVEMENT_ANGLE * progress;
+        }
+    }
+
+    @Override
+    public void commit() {
+        if (!isAnimated) {
+            return;
+        }
+        for (int i = 0; i < size; i++) {
+            leaves[i].renderer().setRenderableAngle(angles[i]);
+        }
+    }
+}
@@ -2,11 +2,13 @@ package pepse.world.trees;
 
 import danogl.GameObject;
 import danogl.components.GameObjectPhysics;
-import danogl.components.Transition;
 import danogl.gui.rendering.RectangleRenderable;
+import danogl.gui.rendering.Renderable;
 import danogl.util.Vector2;
-import pepse.util.ColorSupplier;
+import pepse.util.Palette;
+import pepse.util.PositionHash;
 import pepse.world.Block;
+import pepse.world.events.WorldEventBus;
 
 import java.awt.*;
 import java.util.Random;
@@ -16,18 +18,43 @@ import java.util.Random;
  * The tree is generated with random leaves and fruits distributed around the trunk.
  */
 public class Tree {
-    private static final int LEAF_COUNT = 50; // Number of leaves per tree
     private static final int FRUIT_COUNT = 3; // Number of fruits per tree
     private static final Vector2 LEAF_SIZE = new Vector2(20, 20); // Size of leaves
     private static final Vector2 FRUIT_SIZE = new Vector2(15, 15); // Size of fruits
     private static final Color TRUNK_COLOR = new Color(100, 50, 20); // Color of the tree trunk
     private static final Color LEAF_COLOR = new Color(50, 200, 30); // Base color of leaves
+    private static final Renderable TRUNK_RENDERABLE = new RectangleRenderable(TRUNK_COLOR); // Shared by
+    // every trunk block
+    private static final Palette LEAF_PALETTE = Palette.of(LEAF_COLOR); // Shared colors of the leaves
     private static final Color FRUIT_COLOR = new Color(255, 0, 0); // Color of the fruits (red)
     private static final int MIN_TRUNK_HEIGHT = 2; // Minimum height of the trunk
     private static final int MAX_TRUNK_HEIGHT = 5; // Maximum height of the trunk
     private static final float TRUNK_BLOCK_WIDTH_RATIO = 0.5f; // Width ratio of the trunk block
-    private static final float LEAF_MOVEMENT_ANGLE = 15f; // Maximum angle for leaf movement
     private static final float LEAF_ANIMATION_DURATION_BASE = 1f; // Base duration for leaf animation
+    private static final int FRUIT_SALT = 1; // Salt of the hash seeding the placement of the fruits
+
+    /**
+     * Identifies a fruit by the tree it grows on and its index in the tree. Trees grow at fixed
+     * terrain columns, so the key is the same in every game of the world, whatever the quality tier
+     * the tree was created at.
+     *
+     * @param treeX The x-coordinate of the base of the tree's trunk.
+     * @param index The index of the fruit in the tree.
+     * @return The key of the fruit, the column and the index packed in a long.
+     */
+    public static long fruitKey(int treeX, int index) {
+        return ((long) treeX << Integer.SIZE) | index;
+    }
+
+    /**
+     * Gets the tree a fruit grows on from the key of the fruit.
+     *
+     * @param key The key of the fruit, see {@link #fruitKey}.
+     * @return The x-coordinate of the base of the tree's trunk.
+     */
+    public static int treeXOf(long key) {
+        return (int) (key >> Integer.SIZE);
+    }
 
     /**
      * Creates a tree consisting of a trunk, leaves randomly distributed around the trunk, and fruits.
@@ -35,17 +62,25 @@ public class Tree {
      * @param position    The base position of the trunk.
      * @param trunkHeight The height of the trunk.
      * @param leafSize    The size of the leaves (configurable but not directly used in this method).
+     * @param leafCount   The number of leaves of the tree, set by the quality of its world.
+     * @param leafSway    The system animating the leaves.
+     * @param eventBus    The world event bus on which the fruits announce they were eaten.
      * @return A 2D array of GameObjects representing the trunk, leaves, and fruits.
      */
-    public static GameObject[][] create(Vector2 position, float trunkHeight, Vector2 leafSize) {
+    public static GameObject[][] create(Vector2 position, float trunkHeight, Vector2 leafSize, int leafCount,
+                                        LeafSway leafSway, WorldEventBus eventBus) {
         // Limit trunkHeight between MIN_TRUNK_HEIGHT and MAX_TRUNK_HEIGHT
         trunkHeight = Math.max(MIN_TRUNK_HEIGHT, Math.min(trunkHeight, MAX_TRUNK_HEIGHT));
 
         GameObject[] trunkParts = new GameObject[(int) trunkHeight];
-        GameObject[] leafParts = new GameObject[LEAF_COUNT];
+        GameObject[] leafParts = new GameObject[leafCount];
         GameObject[] fruitParts = new GameObject[FRUIT_COUNT];
 
-        Random random = new Random();
+        // Seeded by the position, so the same tree grows back when its chunk is loaded again. The
+        // fruits draw from their own sequence, so they hang at the same places whatever the leaf count
+        Random random = new Random(PositionHash.hash((int) position.x(), (int) position.y()));
+        Random fruitRandom = new Random(PositionHash.hash((int) position.x(), (int) position.y(),
+                FRUIT_SALT));
 
         // Create the trunk
         for (int i = 0; i < trunkHeight; i++) {
@@ -53,7 +88,7 @@ public class Tree {
             GameObject trunkBlock = new GameObject(
                     trunkPosition,
                     new Vector2(Block.SIZE * TRUNK_BLOCK_WIDTH_RATIO, Block.SIZE),
-                    new RectangleRenderable(TRUNK_COLOR)
+                    TRUNK_RENDERABLE
             );
             trunkBlock.setTag("tree_trunk");
             trunkBlock.physics().preventIntersectionsFromDirection(Vector2.ZERO);
@@ -62,49 +97,46 @@ public class Tree {
         }
 
         // Create the leaves
-        for (int i = 0; i < LEAF_COUNT; i++) {
-            // Random position around the trunk
-            float xOffset = -Block.SIZE * 2 + random.nextFloat() * Block.SIZE * 4; // Horizontal spread
-            float yOffset = -Block.SIZE * (random.nextInt((int) trunkHeight) + 2); // Vertical spread
-
-            Vector2 leafPosition = position.add(new Vector2(xOffset, yOffset));
-
-            // Use ColorSupplier to generate slightly varied colors for leaves
-            Color leafColor = ColorSupplier.approximateColor(LEAF_COLOR);
+        for (int i = 0; i < leafCount; i++) {
+            Vector2 leafPosition = crownPosition(position, trunkHeight, random);
 
+            // Pick a slightly varied leaf color from the palette, by position
             GameObject leaf = new GameObject(
                     leafPosition,
                     LEAF_SIZE,
-                    new RectangleRenderable(leafColor)
+                    LEAF_PALETTE.renderableAt(leafPosition)
             );
             leaf.setTag("tree_leaf");
 
             // Add movement animation for leaves
-            new Transition<>(
-                    leaf,
-                    leaf.renderer()::setRenderableAngle,
-                    -LEAF_MOVEMENT_ANGLE,
-                    LEAF_MOVEMENT_ANGLE,
-                    Transition.LINEAR_INTERPOLATOR_FLOAT,
-                    LEAF_ANIMATION_DURATION_BASE + random.nextFloat(),
-                    Transition.TransitionType.TRANSITION_BACK_AND_FORTH,
-                    null
-            );
+            leafSway.add(leaf, LEAF_ANIMATION_DURATION_BASE + random.nextFloat());
 
             leafParts[i] = leaf;
         }
 
         // Create the fruits
         for (int i = 0; i < FRUIT_COUNT; i++) {
-            int leafIndex = random.nextInt(LEAF_COUNT);
-            Vector2 leafPosition = leafParts[leafIndex].getTopLeftCorner();
-
-            // Fruit position slightly offset from the leaf
-            Vector2 fruitPosition = leafPosition.add(new Vector2(0, -LEAF_SIZE.y() / 2));
-            Fruit fruit = new Fruit(fruitPosition); // Use the Fruit class
+            // Fruit position slightly offset from a place where a leaf may grow
+            Vector2 fruitPosition = crownPosition(position, trunkHeight, fruitRandom)
+                    .add(new Vector2(0, -LEAF_SIZE.y() / 2));
+            Fruit fruit = new Fruit(fruitPosition, fruitKey((int) position.x(), i), eventBus);
             fruitParts[i] = fruit;
         }
 
         return new GameObject[][]{trunkParts, leafParts, fruitParts};
     }
+
+    /**
+     * Picks a random position in the crown of a tree, around the top of its trunk.
+     *
+     * @param position    The base position of the trunk.
+     * @param trunkHeight The height of the trunk, in blocks.
+     * @param random      The sequence the position is drawn from.
+     * @return The top-left corner of a leaf at that position.
+     */
+    private static Vector2 crownPosition(Vector2 position, float trunkHeight, Random random) {
+        float xOffset = -Block.SIZE * 2 + random.nextFloat() * Block.SIZE * 4; // Horizontal spread
+        float yOffset = -Block.SIZE * (random.nextInt((int) trunkHeight) + 2); // Vertical spread
+        return position.add(new Vector2(xOffset, yOffset));
+    }
 }